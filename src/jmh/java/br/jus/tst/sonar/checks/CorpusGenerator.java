@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Random;
+
+/**
+ * Writes a corpus of synthetic JAX-RS source files.
+ *
+ * <p>Output is reproducible: the same number of files and mix always give
+ * the same corpus. Usage: <code>CorpusGenerator dir files</code>.</p>
+ * @since 1.1
+ */
+public final class CorpusGenerator {
+
+    /**
+     * Files per directory, so huge corpora stay browsable.
+     */
+    private static final int PER_PACKAGE = 1000;
+
+    /**
+     * Proportions of JAX-RS constructs.
+     */
+    private final Mix mix;
+
+    /**
+     * Main constructor.
+     * @param mix Proportions of JAX-RS constructs.
+     */
+    public CorpusGenerator(final Mix mix) {
+        this.mix = mix;
+    }
+
+    /**
+     * Entry point.
+     * @param args Output directory and number of files.
+     * @throws IOException If a file can't be written.
+     */
+    public static void main(final String... args) throws IOException {
+        new CorpusGenerator(Mix.TYPICAL)
+            .write(Paths.get(args[0]), Integer.parseInt(args[1]));
+    }
+
+    /**
+     * Writes the corpus.
+     * @param dir Output directory.
+     * @param files Number of files.
+     * @throws IOException If a file can't be written.
+     */
+    public void write(final Path dir, final int files) throws IOException {
+        final Random random = new Random(files);
+        for (int idx = 0; idx < files; ++idx) {
+            final Path pkg = dir.resolve(
+                String.format("p%03d", idx / CorpusGenerator.PER_PACKAGE)
+            );
+            Files.createDirectories(pkg);
+            final String name = String.format("Synthetic%06d", idx);
+            final SyntheticSource source = new SyntheticSource(
+                name, this.mix, 5 + random.nextInt(36), random.nextInt(11)
+            );
+            Files.write(
+                pkg.resolve(name + ".java"),
+                source.text(random).getBytes(StandardCharsets.UTF_8)
+            );
+        }
+    }
+
+}
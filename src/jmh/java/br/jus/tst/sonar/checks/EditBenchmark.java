@@ -0,0 +1,152 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.File;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * Time a rule takes over a file saved again in the editor, with the
+ * {@link MemberCache} comparing its lines with those of the last save and
+ * without it, checking every declaration again.
+ *
+ * <p>Each invocation scans the file with one statement added to, or
+ * removed from, the body of its middle method. Run with
+ * <code>mvn -Pjmh test-compile exec:exec
+ * -Djmh.args="EditBenchmark"</code>.</p>
+ * @since 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class EditBenchmark {
+
+    /**
+     * Number of methods of the file.
+     */
+    @Param({"100", "1000"})
+    private int methods;
+
+    /**
+     * The file as last saved, and as edited.
+     */
+    private FakeContext[] saves;
+
+    /**
+     * Rule under benchmark.
+     */
+    private final JavaFileScanner rule = new EndpointDocumentationRule();
+
+    /**
+     * Cache, while the incremental benchmark runs.
+     */
+    private MemberCache cache;
+
+    /**
+     * Number of saves so far.
+     */
+    private int saved;
+
+    /**
+     * Parses both versions of the file.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        final String text = new SyntheticSource(
+            "Edited", Mix.RESOURCES, this.methods, 10
+        ).text(new Random(0L));
+        final String body = String.format(
+            "        int total = %d;\n", this.methods / 2
+        );
+        final File file = new File("Edited.java");
+        this.saves = new FakeContext[] {
+            new FakeContext(text, file),
+            new FakeContext(
+                text.replace(
+                    body, String.format("%s        total += 1;\n", body)
+                ),
+                file
+            ),
+        };
+        this.cache = new MemberCache(1);
+    }
+
+    /**
+     * Stops using the cache.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.cache.deactivate();
+    }
+
+    /**
+     * Scan of the edited file, checking only the edited method.
+     * @return Number of issues.
+     */
+    @Benchmark
+    public int incremental() {
+        this.cache.activate();
+        return this.save();
+    }
+
+    /**
+     * Scan of the edited file, checking every declaration.
+     * @return Number of issues.
+     */
+    @Benchmark
+    public int recheck() {
+        this.cache.deactivate();
+        return this.save();
+    }
+
+    /**
+     * Scans the next version of the file.
+     * @return Number of issues.
+     */
+    private int save() {
+        final FakeContext context = this.saves[this.saved % 2];
+        ++this.saved;
+        this.rule.scanFile(context);
+        final int issues = context.issues().size();
+        context.issues().clear();
+        return issues;
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+/**
+ * Proportions of JAX-RS constructs in synthetic sources, in percent.
+ * @since 1.1
+ */
+final class Mix {
+
+    /**
+     * Typical service code: few resources, mostly documented.
+     */
+    public static final Mix TYPICAL = new Mix(20, 80, 60, 80);
+
+    /**
+     * Every class is a resource and every method an endpoint.
+     */
+    public static final Mix RESOURCES = new Mix(100, 90, 100, 90);
+
+    /**
+     * No JAX-RS annotation at all.
+     */
+    public static final Mix PLAIN = new Mix(0, 0, 0, 0);
+
+    /**
+     * Classes annotated with <code>@Path</code>.
+     */
+    private final int resources;
+
+    /**
+     * Resource classes also annotated with <code>@Api</code>.
+     */
+    private final int apis;
+
+    /**
+     * Methods of resource classes annotated with an HTTP method.
+     */
+    private final int endpoints;
+
+    /**
+     * Endpoint methods also annotated with <code>@ApiOperation</code>.
+     */
+    private final int operations;
+
+    /**
+     * Main constructor.
+     * @param resources Classes annotated with <code>@Path</code>.
+     * @param apis Resource classes annotated with <code>@Api</code>.
+     * @param endpoints Resource methods annotated with an HTTP method.
+     * @param operations Endpoints annotated with <code>@ApiOperation</code>.
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    Mix(final int resources, final int apis, final int endpoints,
+        final int operations) {
+        this.resources = resources;
+        this.apis = apis;
+        this.endpoints = endpoints;
+        this.operations = operations;
+    }
+
+    /**
+     * Percentage of classes annotated with <code>@Path</code>.
+     * @return Percentage.
+     */
+    public int resources() {
+        return this.resources;
+    }
+
+    /**
+     * Percentage of resource classes annotated with <code>@Api</code>.
+     * @return Percentage.
+     */
+    public int apis() {
+        return this.apis;
+    }
+
+    /**
+     * Percentage of resource methods annotated with an HTTP method.
+     * @return Percentage.
+     */
+    public int endpoints() {
+        return this.endpoints;
+    }
+
+    /**
+     * Percentage of endpoints annotated with <code>@ApiOperation</code>.
+     * @return Percentage.
+     */
+    public int operations() {
+        return this.operations;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%d%% resources, %d%% @Api, %d%% endpoints, %d%% @ApiOperation",
+            this.resources, this.apis, this.endpoints, this.operations
+        );
+    }
+
+}
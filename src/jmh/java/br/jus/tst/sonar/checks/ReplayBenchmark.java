@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * Time the rules take over snapshots of real analyses, without parsing.
+ *
+ * <p>Snapshots are read once per trial from the file given as the
+ * <code>snapshot</code> parameter, as written by the analyzer with
+ * <code>--snapshot=FILE</code> or by <code>sonar.tst.snapshot.path</code>;
+ * without it, snapshots of the inputs of {@link RulesBenchmark} are used.
+ * Each invocation runs every rule over every file. Run with
+ * <code>mvn -Pjmh test-compile exec:exec
+ * -Djmh.args="-p snapshot=files.bin.gz ReplayBenchmark"</code>.</p>
+ * @since 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class ReplayBenchmark {
+
+    /**
+     * Snapshot file, gzipped if its name ends with <code>.gz</code>; empty
+     * for synthetic inputs.
+     */
+    @Param("")
+    private String snapshot;
+
+    /**
+     * Files replayed.
+     */
+    private FakeContext[] contexts;
+
+    /**
+     * Rules under benchmark.
+     */
+    private final JavaFileScanner[] rules = {
+        new ApiDocumentationRule(),
+        new EndpointDocumentationRule(),
+    };
+
+    /**
+     * Reads the snapshots and silences the debug dump.
+     * @throws IOException If they can't be read.
+     */
+    @Setup
+    public void setUp() throws IOException {
+        InputStream stream;
+        if (this.snapshot.isEmpty()) {
+            stream = new ByteArrayInputStream(ReplayBenchmark.synthetic());
+        } else {
+            stream = Files.newInputStream(Paths.get(this.snapshot));
+            if (this.snapshot.endsWith(".gz")) {
+                stream = new GZIPInputStream(stream);
+            }
+        }
+        final List<FakeContext> read = new ArrayList<>(0);
+        try (SnapshotReader reader = new SnapshotReader(stream)) {
+            for (Snapshot next = reader.next(); next != null;
+                next = reader.next()) {
+                read.add(new FakeContext(next));
+            }
+        }
+        this.contexts = read.toArray(new FakeContext[read.size()]);
+        ((Logger) LoggerFactory.getLogger(ApiDocumentationRule.class))
+            .setLevel(Level.INFO);
+        ((Logger) LoggerFactory.getLogger(EndpointDocumentationRule.class))
+            .setLevel(Level.INFO);
+    }
+
+    /**
+     * All rules over all files.
+     * @return Number of issues.
+     */
+    @Benchmark
+    public int allRules() {
+        int issues = 0;
+        for (final FakeContext context : this.contexts) {
+            for (final JavaFileScanner rule : this.rules) {
+                rule.scanFile(context);
+            }
+            issues += context.issues().size();
+            context.issues().clear();
+        }
+        return issues;
+    }
+
+    /**
+     * Snapshots of the synthetic inputs.
+     * @return Snapshot stream.
+     * @throws IOException If it can't be written.
+     */
+    private static byte[] synthetic() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SnapshotWriter writer = new SnapshotWriter(bytes)) {
+            final SyntheticSource[] sources = {
+                new SyntheticSource("Resource", Mix.RESOURCES, 200, 40),
+                new SyntheticSource("Wide", Mix.RESOURCES, 5000, 0),
+                new SyntheticSource("Plain", Mix.PLAIN, 200, 40),
+            };
+            for (int idx = 0; idx < sources.length; ++idx) {
+                writer.write(
+                    String.format("Synthetic%d.java", idx),
+                    new FakeContext(sources[idx].text(new Random(idx)))
+                        .getTree()
+                );
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * Throughput and allocation rate of the rules.
+ *
+ * <p>Inputs are parsed once per trial. Two copies of each input are scanned
+ * alternately, so every invocation of a single rule pays for the walk of
+ * the compilation unit, while {@link #allRules()} shows what the other
+ * rules cost once the walk is shared. Run with
+ * <code>mvn -Pjmh test-compile exec:exec</code>; the GC profiler is enabled
+ * by default, see <code>jmh.args</code>.</p>
+ * @since 1.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class RulesBenchmark {
+
+    /**
+     * Input: <code>resource</code> is a large JAX-RS resource with long
+     * method bodies, <code>wide</code> a resource with thousands of short
+     * methods and <code>plain</code> a large class without annotations.
+     */
+    @Param({"resource", "wide", "plain"})
+    private String input;
+
+    /**
+     * Two parsed copies of the input.
+     */
+    private FakeContext[] contexts;
+
+    /**
+     * Copy scanned by the next invocation.
+     */
+    private int next;
+
+    /**
+     * Rule under benchmark.
+     */
+    private final JavaFileScanner api = new ApiDocumentationRule();
+
+    /**
+     * Rule under benchmark.
+     */
+    private final JavaFileScanner endpoint = new EndpointDocumentationRule();
+
+    /**
+     * Parses the inputs and silences the debug dump.
+     */
+    @Setup
+    public void setUp() {
+        final String source = RulesBenchmark.source(this.input);
+        this.contexts = new FakeContext[] {
+            new FakeContext(source),
+            new FakeContext(source),
+        };
+        ((Logger) LoggerFactory.getLogger(ApiDocumentationRule.class))
+            .setLevel(Level.INFO);
+        ((Logger) LoggerFactory.getLogger(EndpointDocumentationRule.class))
+            .setLevel(Level.INFO);
+    }
+
+    /**
+     * ApiDocumentationRule.scanFile.
+     * @return Number of issues.
+     */
+    @Benchmark
+    public int apiDocumentation() {
+        return this.scan(this.context(), this.api);
+    }
+
+    /**
+     * EndpointDocumentationRule.scanFile.
+     * @return Number of issues.
+     */
+    @Benchmark
+    public int endpointDocumentation() {
+        return this.scan(this.context(), this.endpoint);
+    }
+
+    /**
+     * All rules over the same file.
+     * @return Number of issues.
+     */
+    @Benchmark
+    public int allRules() {
+        final FakeContext context = this.context();
+        return this.scan(context, this.api)
+            + this.scan(context, this.endpoint);
+    }
+
+    /**
+     * Alternates between the copies of the input.
+     * @return Context to scan.
+     */
+    private FakeContext context() {
+        this.next = 1 - this.next;
+        return this.contexts[this.next];
+    }
+
+    /**
+     * Scans a file and forgets its issues.
+     * @param context Context.
+     * @param rule Rule.
+     * @return Number of issues.
+     */
+    private int scan(final FakeContext context, final JavaFileScanner rule) {
+        rule.scanFile(context);
+        final int issues = context.issues().size();
+        context.issues().clear();
+        return issues;
+    }
+
+    /**
+     * Generates an input.
+     * @param input Input name.
+     * @return Source code.
+     */
+    private static String source(final String input) {
+        final SyntheticSource source;
+        if ("resource".equals(input)) {
+            source = new SyntheticSource("Resource", Mix.RESOURCES, 200, 40);
+        } else if ("wide".equals(input)) {
+            source = new SyntheticSource("Wide", Mix.RESOURCES, 5000, 0);
+        } else {
+            source = new SyntheticSource("Plain", Mix.PLAIN, 200, 40);
+        }
+        return source.text(new Random(input.hashCode()));
+    }
+
+}
@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.slf4j.LoggerFactory;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * Runs the rules over synthetic corpora of growing size and checks that the
+ * cost per file stays flat.
+ *
+ * <p>Usage: <code>ScalingHarness [sizes...]</code>, by default 1000 and
+ * 10000 files. Corpora are generated under <code>target/corpus</code> and
+ * reused by later runs. The report lists files/s and issues/s, both end to
+ * end and for the rules alone, and the peak heap. The harness exits with
+ * status 1 when the rule time per file of the largest corpus exceeds
+ * {@link #TOLERANCE} times that of the smallest.</p>
+ * @since 1.1
+ */
+public final class ScalingHarness {
+
+    /**
+     * Accepted growth of the time per file between the smallest and the
+     * largest corpus.
+     */
+    private static final double TOLERANCE = 1.5;
+
+    /**
+     * Corpora root.
+     */
+    private static final Path ROOT = Paths.get("target", "corpus");
+
+    /**
+     * Rules under measurement, one instance each, as in an analysis.
+     */
+    private final List<JavaFileScanner> rules;
+
+    /**
+     * Main constructor.
+     * @param rules Rules under measurement.
+     */
+    public ScalingHarness(final List<JavaFileScanner> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Entry point.
+     * @param args Corpus sizes.
+     * @throws IOException If a corpus can't be written or read.
+     */
+    public static void main(final String... args) throws IOException {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME))
+            .setLevel(Level.INFO);
+        final List<Integer> sizes = new ArrayList<>(args.length);
+        for (final String arg : args) {
+            sizes.add(Integer.valueOf(arg));
+        }
+        if (sizes.isEmpty()) {
+            sizes.add(1000);
+            sizes.add(10_000);
+        }
+        sizes.sort(Integer::compare);
+        final List<JavaFileScanner> rules = new ArrayList<>(2);
+        rules.add(new ApiDocumentationRule());
+        rules.add(new EndpointDocumentationRule());
+        final ScalingHarness harness = new ScalingHarness(rules);
+        harness.run(ScalingHarness.corpus(sizes.get(0)));
+        final List<Run> runs = new ArrayList<>(sizes.size());
+        System.out.println(Run.HEADER);
+        for (final int size : sizes) {
+            final Run run = harness.run(ScalingHarness.corpus(size));
+            System.out.println(run);
+            runs.add(run);
+        }
+        final double growth = runs.get(runs.size() - 1).nanosPerFile()
+            / runs.get(0).nanosPerFile();
+        System.out.printf(
+            Locale.US, "rule time per file grew %.2fx (tolerance %.2fx)%n",
+            growth, ScalingHarness.TOLERANCE
+        );
+        if (growth > ScalingHarness.TOLERANCE) {
+            System.out.println("FAILED: scaling is not linear");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Analyzes every file of a corpus.
+     * @param files Source files.
+     * @return Measurements.
+     * @throws IOException If a file can't be read.
+     */
+    public Run run(final List<Path> files) throws IOException {
+        final List<MemoryPoolMXBean> pools = ScalingHarness.heapPools();
+        for (final MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+        }
+        long issues = 0L;
+        long checking = 0L;
+        final long start = System.nanoTime();
+        for (final Path file : files) {
+            final FakeContext context = new FakeContext(
+                new String(Files.readAllBytes(file), StandardCharsets.UTF_8)
+            );
+            final long before = System.nanoTime();
+            for (final JavaFileScanner rule : this.rules) {
+                rule.scanFile(context);
+            }
+            checking += System.nanoTime() - before;
+            issues += context.issues().size();
+        }
+        final long total = System.nanoTime() - start;
+        long peak = 0L;
+        for (final MemoryPoolMXBean pool : pools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        return new Run(files.size(), issues, total, checking, peak);
+    }
+
+    /**
+     * Files of a corpus, generating it if needed.
+     * @param size Number of files.
+     * @return Source files, sorted.
+     * @throws IOException If the corpus can't be written or listed.
+     */
+    private static List<Path> corpus(final int size) throws IOException {
+        final Path dir = ScalingHarness.ROOT.resolve(String.valueOf(size));
+        final Path done = dir.resolve("complete");
+        if (!Files.exists(done)) {
+            new CorpusGenerator(Mix.TYPICAL).write(dir, size);
+            Files.createFile(done);
+        }
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths
+                .filter(path -> path.toString().endsWith(".java"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Heap memory pools.
+     * @return Pools.
+     */
+    private static List<MemoryPoolMXBean> heapPools() {
+        return ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Measurements of one corpus.
+     */
+    public static final class Run {
+
+        /**
+         * Report header.
+         */
+        static final String HEADER = String.format(
+            "%10s %12s %12s %14s %14s %10s",
+            "files", "files/s", "issues/s", "rule files/s", "rule us/file",
+            "peak MB"
+        );
+
+        /**
+         * Files analyzed.
+         */
+        private final int files;
+
+        /**
+         * Issues found.
+         */
+        private final long issues;
+
+        /**
+         * Total time, parsing included, in nanoseconds.
+         */
+        private final long total;
+
+        /**
+         * Time spent in the rules, in nanoseconds.
+         */
+        private final long checking;
+
+        /**
+         * Peak heap usage, in bytes.
+         */
+        private final long peak;
+
+        /**
+         * Main constructor.
+         * @param files Files analyzed.
+         * @param issues Issues found.
+         * @param total Total time, in nanoseconds.
+         * @param checking Time spent in the rules, in nanoseconds.
+         * @param peak Peak heap usage, in bytes.
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        Run(final int files, final long issues, final long total,
+            final long checking, final long peak) {
+            this.files = files;
+            this.issues = issues;
+            this.total = total;
+            this.checking = checking;
+            this.peak = peak;
+        }
+
+        /**
+         * Time spent in the rules per file.
+         * @return Nanoseconds.
+         */
+        public double nanosPerFile() {
+            return (double) this.checking / this.files;
+        }
+
+        @Override
+        public String toString() {
+            final double seconds = (double) this.total
+                / TimeUnit.SECONDS.toNanos(1L);
+            return String.format(
+                Locale.US, "%10d %12.0f %12.0f %14.0f %14.2f %10d",
+                this.files,
+                this.files / seconds,
+                this.issues / seconds,
+                TimeUnit.SECONDS.toNanos(1L) / this.nanosPerFile(),
+                this.nanosPerFile() / TimeUnit.MICROSECONDS.toNanos(1L),
+                this.peak >> 20
+            );
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.util.Random;
+
+/**
+ * Generated JAX-RS-like source file.
+ * @since 1.1
+ */
+final class SyntheticSource {
+
+    /**
+     * HTTP method annotations used by endpoints.
+     */
+    private static final String[] VERBS = {
+        "GET", "POST", "PUT", "DELETE",
+    };
+
+    /**
+     * Percent base.
+     */
+    private static final int PERCENT = 100;
+
+    /**
+     * Simple name of the class.
+     */
+    private final String name;
+
+    /**
+     * Proportions of JAX-RS constructs.
+     */
+    private final Mix mix;
+
+    /**
+     * Number of methods.
+     */
+    private final int methods;
+
+    /**
+     * Number of statements in each method body.
+     */
+    private final int statements;
+
+    /**
+     * Main constructor.
+     * @param name Simple name of the class.
+     * @param mix Proportions of JAX-RS constructs.
+     * @param methods Number of methods.
+     * @param statements Number of statements in each method body.
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    SyntheticSource(final String name, final Mix mix, final int methods,
+        final int statements) {
+        this.name = name;
+        this.mix = mix;
+        this.methods = methods;
+        this.statements = statements;
+    }
+
+    /**
+     * Generates the source code.
+     * @param random Source of randomness, seeded for reproducible output.
+     * @return Source code.
+     */
+    public String text(final Random random) {
+        final StringBuilder src = new StringBuilder(
+            this.methods * (this.statements + 4) * 48 + 512
+        );
+        src.append("package synthetic;\n\n")
+            .append("import io.swagger.annotations.Api;\n")
+            .append("import io.swagger.annotations.ApiOperation;\n")
+            .append("import javax.ws.rs.DELETE;\n")
+            .append("import javax.ws.rs.GET;\n")
+            .append("import javax.ws.rs.POST;\n")
+            .append("import javax.ws.rs.PUT;\n")
+            .append("import javax.ws.rs.Path;\n")
+            .append("import javax.ws.rs.core.Response;\n\n");
+        final boolean resource = SyntheticSource.chance(
+            random, this.mix.resources()
+        );
+        if (resource) {
+            src.append("@Path(\"").append(this.name.toLowerCase())
+                .append("\")\n");
+            if (SyntheticSource.chance(random, this.mix.apis())) {
+                src.append("@Api(\"").append(this.name).append("\")\n");
+            }
+        }
+        src.append("public class ").append(this.name).append(" {\n");
+        for (int idx = 0; idx < this.methods; ++idx) {
+            if (resource && SyntheticSource.chance(
+                random, this.mix.endpoints()
+            )) {
+                this.endpoint(src, random, idx);
+            } else {
+                src.append("\n    public Response method").append(idx)
+                    .append("(final String arg) {\n");
+            }
+            this.body(src, idx);
+        }
+        return src.append("}\n").toString();
+    }
+
+    /**
+     * Appends the header of an endpoint method.
+     * @param src Source being generated.
+     * @param random Source of randomness.
+     * @param idx Method index.
+     */
+    private void endpoint(final StringBuilder src, final Random random,
+        final int idx) {
+        src.append("\n    @")
+            .append(
+                SyntheticSource.VERBS[
+                    random.nextInt(SyntheticSource.VERBS.length)
+                ]
+            )
+            .append("\n    @Path(\"/op").append(idx).append("\")\n");
+        if (SyntheticSource.chance(random, this.mix.operations())) {
+            src.append("    @ApiOperation(value = \"Operation ")
+                .append(idx).append("\", code = 200)\n");
+        }
+        src.append("    public Response operation").append(idx)
+            .append("(final String arg) {\n");
+    }
+
+    /**
+     * Appends a method body with statements, a lambda and a closing brace.
+     * @param src Source being generated.
+     * @param idx Method index.
+     */
+    private void body(final StringBuilder src, final int idx) {
+        src.append("        int total = ").append(idx).append(";\n");
+        for (int stmt = 0; stmt < this.statements; ++stmt) {
+            src.append("        if (arg.length() > ").append(stmt)
+                .append(") { total += arg.charAt(").append(stmt)
+                .append(") * ").append(stmt + 1).append("; }\n");
+        }
+        src.append("        final Runnable task = () -> System.out.println")
+            .append("(arg);\n")
+            .append("        task.run();\n")
+            .append("        return Response.ok(total).build();\n")
+            .append("    }\n");
+    }
+
+    /**
+     * Draws a boolean with a given probability.
+     * @param random Source of randomness.
+     * @param percent Probability, in percent.
+     * @return Boolean.
+     */
+    private static boolean chance(final Random random, final int percent) {
+        return random.nextInt(SyntheticSource.PERCENT) < percent;
+    }
+
+}
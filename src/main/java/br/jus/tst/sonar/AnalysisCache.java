@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.IssueCache;
+import java.io.IOException;
+import java.nio.file.Path;
+import org.sonar.api.Startable;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Loads the {@link IssueCache} before an analysis and saves it after.
+ *
+ * <p>The cache is off unless <code>sonar.tst.cache.size</code> sets the
+ * number of entries it holds, so analyses leave no file in the project by
+ * default. It must outlive the analysis working directory, which the
+ * scanner wipes before each analysis, so it is kept in
+ * <code>.tst-java/issues.cache</code> under the project base directory,
+ * unless <code>sonar.tst.cache.path</code> points elsewhere (relative paths
+ * are resolved against the base directory).</p>
+ * @since 1.1
+ */
+@ScannerSide
+public final class AnalysisCache implements Startable {
+
+    /**
+     * Property with the cache file.
+     */
+    public static final String PATH = "sonar.tst.cache.path";
+
+    /**
+     * Property with the maximum number of entries.
+     */
+    public static final String SIZE = "sonar.tst.cache.size";
+
+    /**
+     * Default cache file, under the project base directory.
+     */
+    private static final String DEFAULT_PATH = ".tst-java/issues.cache";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Loggers.get(AnalysisCache.class);
+
+    /**
+     * File system of the analysis.
+     */
+    private final FileSystem files;
+
+    /**
+     * Analysis settings.
+     */
+    private final Configuration settings;
+
+    /**
+     * Cache of the running analysis, null if disabled.
+     */
+    private IssueCache cache;
+
+    /**
+     * Main constructor.
+     * @param files File system of the analysis.
+     * @param settings Analysis settings.
+     */
+    public AnalysisCache(final FileSystem files,
+        final Configuration settings) {
+        this.files = files;
+        this.settings = settings;
+    }
+
+    @Override
+    public void start() {
+        final int size = this.settings.getInt(AnalysisCache.SIZE).orElse(0);
+        if (size > 0) {
+            final String version = IssueCache.version();
+            try {
+                this.cache = IssueCache.load(this.path(), version, size);
+            } catch (final IOException ex) {
+                AnalysisCache.LOG.warn(
+                    "tst-java issue cache can't be read, starting empty", ex
+                );
+                this.cache = new IssueCache(version, size);
+            }
+            this.cache.activate();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (this.cache != null) {
+            this.cache.deactivate();
+            AnalysisCache.LOG.info(
+                "tst-java issue cache: {} hits, {} misses, {} entries",
+                this.cache.hits(),
+                this.cache.misses(),
+                this.cache.size()
+            );
+            try {
+                this.cache.save(this.path());
+            } catch (final IOException ex) {
+                AnalysisCache.LOG.warn(
+                    "tst-java issue cache can't be saved", ex
+                );
+            }
+            this.cache = null;
+        }
+    }
+
+    /**
+     * Cache file.
+     * @return Path.
+     */
+    private Path path() {
+        return this.files.baseDir().toPath().resolve(
+            this.settings.get(AnalysisCache.PATH)
+                .orElse(AnalysisCache.DEFAULT_PATH)
+        );
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.DumpFile;
+import br.jus.tst.sonar.checks.TreeDumper;
+import java.io.IOException;
+import java.nio.file.Paths;
+import org.sonar.api.Startable;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Has the rules dump the declarations that raised issues to a rotating
+ * file during an analysis, if <code>sonar.tst.dump.path</code> is set.
+ *
+ * <p>Each dump goes down to <code>sonar.tst.dump.depth</code> levels and
+ * holds at most <code>sonar.tst.dump.nodes</code> nodes.</p>
+ * @since 1.1
+ */
+@ScannerSide
+public final class AnalysisDump implements Startable {
+
+    /**
+     * Property with the dump file.
+     */
+    public static final String PATH = "sonar.tst.dump.path";
+
+    /**
+     * Property with the maximum depth of each dump.
+     */
+    public static final String DEPTH = "sonar.tst.dump.depth";
+
+    /**
+     * Property with the maximum number of nodes of each dump.
+     */
+    public static final String NODES = "sonar.tst.dump.nodes";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Loggers.get(AnalysisDump.class);
+
+    /**
+     * Analysis settings.
+     */
+    private final Configuration settings;
+
+    /**
+     * Dump file of the running analysis, null if disabled.
+     */
+    private DumpFile dump;
+
+    /**
+     * Main constructor.
+     * @param settings Analysis settings.
+     */
+    public AnalysisDump(final Configuration settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public void start() {
+        this.settings.get(AnalysisDump.PATH).ifPresent(
+            path -> {
+                this.dump = new DumpFile(
+                    Paths.get(path),
+                    new TreeDumper(
+                        this.settings.getInt(AnalysisDump.DEPTH)
+                            .orElse(TreeDumper.DEPTH),
+                        this.settings.getInt(AnalysisDump.NODES)
+                            .orElse(TreeDumper.NODES)
+                    )
+                );
+                this.dump.activate();
+            }
+        );
+    }
+
+    @Override
+    public void stop() {
+        if (this.dump != null) {
+            try {
+                this.dump.deactivate();
+            } catch (final IOException ex) {
+                AnalysisDump.LOG.warn("tst-java dump can't be closed", ex);
+            }
+            this.dump = null;
+        }
+    }
+
+}
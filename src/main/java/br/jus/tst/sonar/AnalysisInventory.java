@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.EndpointInventory;
+import org.sonar.api.Startable;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.config.Configuration;
+
+/**
+ * Has the rules list endpoints during an analysis, if
+ * <code>sonar.tst.openapi.path</code> is set; {@link InventorySensor}
+ * writes them there.
+ * @since 1.1
+ */
+@ScannerSide
+public final class AnalysisInventory implements Startable {
+
+    /**
+     * Property with the directory OpenAPI documents are written to.
+     */
+    public static final String PATH = "sonar.tst.openapi.path";
+
+    /**
+     * Analysis settings.
+     */
+    private final Configuration settings;
+
+    /**
+     * Inventory of the running analysis, null if disabled.
+     */
+    private EndpointInventory inventory;
+
+    /**
+     * Main constructor.
+     * @param settings Analysis settings.
+     */
+    public AnalysisInventory(final Configuration settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public void start() {
+        if (this.settings.hasKey(AnalysisInventory.PATH)) {
+            this.inventory = new EndpointInventory();
+            this.inventory.activate();
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (this.inventory != null) {
+            this.inventory.deactivate();
+            this.inventory = null;
+        }
+    }
+
+}
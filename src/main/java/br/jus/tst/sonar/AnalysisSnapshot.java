@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.SnapshotWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+import org.sonar.api.Startable;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Has the rules write the declarations of the files they scan as snapshots
+ * during an analysis, if <code>sonar.tst.snapshot.path</code> is set, for
+ * the {@link Replay} runner.
+ *
+ * <p>The file is compressed if its name ends with <code>.gz</code>. Files
+ * whose issues are replayed from the {@link AnalysisCache} are not scanned,
+ * so they are left out.</p>
+ * @since 1.1
+ */
+@ScannerSide
+public final class AnalysisSnapshot implements Startable {
+
+    /**
+     * Property with the snapshot file.
+     */
+    public static final String PATH = "sonar.tst.snapshot.path";
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Loggers.get(AnalysisSnapshot.class);
+
+    /**
+     * Analysis settings.
+     */
+    private final Configuration settings;
+
+    /**
+     * Writer of the running analysis, null if disabled.
+     */
+    private SnapshotWriter writer;
+
+    /**
+     * Main constructor.
+     * @param settings Analysis settings.
+     */
+    public AnalysisSnapshot(final Configuration settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public void start() {
+        this.settings.get(AnalysisSnapshot.PATH).ifPresent(
+            path -> {
+                final Path file = Paths.get(path);
+                try {
+                    if (path.endsWith(".gz")) {
+                        this.writer = new SnapshotWriter(
+                            new GZIPOutputStream(Files.newOutputStream(file))
+                        );
+                    } else {
+                        this.writer = new SnapshotWriter(
+                            Files.newOutputStream(file)
+                        );
+                    }
+                    this.writer.activate();
+                } catch (final IOException ex) {
+                    AnalysisSnapshot.LOG.warn(
+                        "tst-java snapshots can't be written to {}", path, ex
+                    );
+                }
+            }
+        );
+    }
+
+    @Override
+    public void stop() {
+        if (this.writer != null) {
+            try {
+                this.writer.close();
+                AnalysisSnapshot.LOG.info(
+                    "tst-java snapshots: {} files", this.writer.files()
+                );
+            } catch (final IOException ex) {
+                AnalysisSnapshot.LOG.warn(
+                    "tst-java snapshots can't be closed", ex
+                );
+            }
+            this.writer = null;
+        }
+    }
+
+}
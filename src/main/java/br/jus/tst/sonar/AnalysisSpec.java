@@ -0,0 +1,113 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.EndpointDocumentationRule;
+import br.jus.tst.sonar.checks.PublishedSpec;
+import org.sonar.api.Startable;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.MessageException;
+import org.sonar.check.Rule;
+
+/**
+ * Loads the published API document of the endpoint rule before the files
+ * are scanned, once per analysis.
+ *
+ * <p>Relative paths are resolved against the project base directory. The
+ * document is kept by this component and active for the rule until the
+ * analysis ends, and a document that can't be read fails the analysis
+ * here, with its reason, instead of being reported on every file.</p>
+ * @since 1.1
+ */
+@ScannerSide
+public final class AnalysisSpec implements Startable {
+
+    /**
+     * Active rules of the analysis.
+     */
+    private final ActiveRules rules;
+
+    /**
+     * File system of the analysis.
+     */
+    private final FileSystem files;
+
+    /**
+     * Document loaded, or null.
+     */
+    private PublishedSpec spec;
+
+    /**
+     * Main constructor.
+     * @param rules Active rules of the analysis.
+     * @param files File system of the analysis.
+     */
+    public AnalysisSpec(final ActiveRules rules, final FileSystem files) {
+        this.rules = rules;
+        this.files = files;
+    }
+
+    @Override
+    public void start() {
+        final ActiveRule rule = this.rules.find(
+            RuleKey.of(
+                TstJavaRulesDefinition.REPOSITORY_KEY,
+                EndpointDocumentationRule.class.getAnnotation(Rule.class)
+                    .key()
+            )
+        );
+        if (rule != null) {
+            final String file = rule.param(
+                EndpointDocumentationRule.PUBLISHED
+            );
+            if (file != null && !file.trim().isEmpty()) {
+                try {
+                    this.spec = PublishedSpec.of(
+                        this.files.baseDir().toPath().resolve(file.trim())
+                    );
+                } catch (final IllegalStateException ex) {
+                    throw MessageException.of(
+                        String.format(
+                            "%s: %s", ex.getMessage(), ex.getCause()
+                        ),
+                        ex
+                    );
+                }
+                this.spec.activate();
+            }
+        }
+    }
+
+    @Override
+    public void stop() {
+        if (this.spec != null) {
+            this.spec.deactivate();
+            this.spec = null;
+        }
+    }
+
+}
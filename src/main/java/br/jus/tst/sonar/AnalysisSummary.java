@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.Declarations;
+import br.jus.tst.sonar.checks.Prefilter;
+import br.jus.tst.sonar.checks.ScanCost;
+import java.util.List;
+import org.sonar.api.Startable;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Logs what the rules did during an analysis, and the rules and files that
+ * took the longest, and releases the tree of the last file scanned.
+ * @since 1.1
+ */
+@ScannerSide
+public final class AnalysisSummary implements Startable {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Loggers.get(AnalysisSummary.class);
+
+    /**
+     * Number of rules and of scans listed as the slowest.
+     */
+    private static final int SLOWEST = 10;
+
+    /**
+     * Files visited before the analysis.
+     */
+    private long visited;
+
+    /**
+     * Files skipped before the analysis.
+     */
+    private long skipped;
+
+    @Override
+    public void start() {
+        this.visited = Prefilter.visited();
+        this.skipped = Prefilter.skipped();
+        ScanCost.reset();
+    }
+
+    @Override
+    public void stop() {
+        Declarations.release();
+        AnalysisSummary.LOG.info(
+            "tst-java prefilter: {} files visited, {} skipped",
+            Prefilter.visited() - this.visited,
+            Prefilter.skipped() - this.skipped
+        );
+        final List<String> rules = ScanCost.slowestRules(
+            AnalysisSummary.SLOWEST
+        );
+        if (!rules.isEmpty()) {
+            AnalysisSummary.LOG.info(
+                "tst-java slowest rules: {}", String.join(", ", rules)
+            );
+            AnalysisSummary.LOG.info(
+                "tst-java slowest files: {}",
+                String.join(", ", ScanCost.slowestScans())
+            );
+        }
+    }
+
+}
@@ -0,0 +1,610 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.Declarations;
+import br.jus.tst.sonar.checks.EndpointInventory;
+import br.jus.tst.sonar.checks.Prefilter;
+import br.jus.tst.sonar.checks.ResourceIndex;
+import br.jus.tst.sonar.checks.Snapshot;
+import br.jus.tst.sonar.checks.SnapshotReader;
+import br.jus.tst.sonar.checks.SnapshotWriter;
+import com.sonar.sslr.api.RecognitionException;
+import com.sonar.sslr.api.typed.ActionParser;
+import java.io.BufferedWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Runs the rules of this plugin over source directories, outside
+ * SonarQube.
+ *
+ * <p>Files are spread over a work-stealing pool, a chunk at a time. The
+ * rules are shared by all threads, their per-file state living in the
+ * <code>FileScan</code> of each scan. The issues of a chunk are written, in
+ * the order of the files, before the next one is analyzed, so memory does
+ * not grow with the number of issues. They are printed one per line as
+ * <code>file:line:column: [rule] message</code>, or written as SARIF or
+ * NDJSON to a file, compressed if its name ends with <code>.gz</code>. The
+ * exit code is 0 if there is no issue, 1 if there are issues and 2 if some
+ * file can't be read or parsed, or the arguments are wrong. Sources are
+ * read as UTF-8, unless another encoding is given. The endpoints found can
+ * be written too, as an OpenAPI skeleton (see {@link EndpointInventory}),
+ * and the declarations of the files as snapshots for the {@link Replay}
+ * runner.</p>
+ *
+ * <p>Every file is parsed once, up front: the trees of files holding
+ * JAX-RS, Spring or Swagger markers feed the {@link ResourceIndex}, and
+ * their declarations are kept as compact snapshots the rules run over
+ * afterwards, so no tree outlives its file's parse.</p>
+ * @since 1.1
+ */
+public final class Analyzer {
+
+    /**
+     * Exit code of an analysis without issues.
+     */
+    public static final int CLEAN = 0;
+
+    /**
+     * Exit code of an analysis with issues.
+     */
+    public static final int ISSUES = 1;
+
+    /**
+     * Exit code of a failed analysis.
+     */
+    public static final int FAILED = 2;
+
+    /**
+     * Option setting the number of threads.
+     */
+    private static final String THREADS = "--threads=";
+
+    /**
+     * Option setting the output format.
+     */
+    private static final String FORMAT = "--format=";
+
+    /**
+     * Option setting the output file.
+     */
+    private static final String OUTPUT = "--output=";
+
+    /**
+     * Option setting the file the endpoints are listed in.
+     */
+    private static final String OPENAPI = "--openapi=";
+
+    /**
+     * Option setting the file the snapshots of the files are written to.
+     */
+    private static final String SNAPSHOT = "--snapshot=";
+
+    /**
+     * Option setting the encoding of the source files.
+     */
+    private static final String ENCODING = "--encoding=";
+
+    /**
+     * Files analyzed between two writes of issues.
+     */
+    private static final int CHUNK = 256;
+
+    /**
+     * Size of output buffers.
+     */
+    private static final int BUFFER = 1 << 16;
+
+    /**
+     * Parser of each thread.
+     */
+    private static final ThreadLocal<ActionParser<Tree>> PARSER =
+        ThreadLocal.withInitial(JavaParser::createParser);
+
+    /**
+     * Number of threads.
+     */
+    private final int threads;
+
+    /**
+     * Encoding of the source files.
+     */
+    private final Charset encoding;
+
+    /**
+     * Rules, shared by all threads.
+     */
+    private final List<JavaFileScanner> checks;
+
+    /**
+     * Files that couldn't be parsed.
+     */
+    private final Queue<Path> failed;
+
+    /**
+     * Constructor for UTF-8 sources.
+     * @param threads Number of threads.
+     */
+    public Analyzer(final int threads) {
+        this(threads, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Main constructor.
+     * @param threads Number of threads.
+     * @param encoding Encoding of the source files.
+     */
+    public Analyzer(final int threads, final Charset encoding) {
+        this.threads = threads;
+        this.encoding = encoding;
+        this.checks = Analyzer.rules();
+        this.failed = new ConcurrentLinkedQueue<>();
+    }
+
+    /**
+     * Entry point.
+     * @param args Options and source directories.
+     */
+    public static void main(final String... args) {
+        System.exit(Analyzer.run(args, System.out, System.err));
+    }
+
+    /**
+     * Analyzes source directories and writes the issues found.
+     * @param args Options and source directories.
+     * @param out Where issues are printed, without an output file.
+     * @param err Where errors are printed.
+     * @return Exit code.
+     * @checkstyle CyclomaticComplexityCheck (70 lines)
+     */
+    public static int run(final String[] args, final PrintStream out,
+        final PrintStream err) {
+        int threads = Runtime.getRuntime().availableProcessors();
+        String format = "text";
+        String output = null;
+        String openapi = null;
+        String snapshot = null;
+        Charset encoding = StandardCharsets.UTF_8;
+        final List<Path> roots = new ArrayList<>(args.length);
+        int code = Analyzer.CLEAN;
+        for (final String arg : args) {
+            if (arg.startsWith(Analyzer.THREADS)) {
+                try {
+                    threads = Integer.parseInt(
+                        arg.substring(Analyzer.THREADS.length())
+                    );
+                } catch (final NumberFormatException ex) {
+                    threads = 0;
+                }
+            } else if (arg.startsWith(Analyzer.FORMAT)) {
+                format = arg.substring(Analyzer.FORMAT.length());
+            } else if (arg.startsWith(Analyzer.OUTPUT)) {
+                output = arg.substring(Analyzer.OUTPUT.length());
+            } else if (arg.startsWith(Analyzer.OPENAPI)) {
+                openapi = arg.substring(Analyzer.OPENAPI.length());
+            } else if (arg.startsWith(Analyzer.SNAPSHOT)) {
+                snapshot = arg.substring(Analyzer.SNAPSHOT.length());
+            } else if (arg.startsWith(Analyzer.ENCODING)) {
+                try {
+                    encoding = Charset.forName(
+                        arg.substring(Analyzer.ENCODING.length())
+                    );
+                } catch (final IllegalArgumentException ex) {
+                    encoding = null;
+                }
+            } else {
+                roots.add(Paths.get(arg));
+            }
+        }
+        if (roots.isEmpty() || threads < 1 || encoding == null
+            || !Arrays.asList("text", "sarif", "ndjson").contains(format)) {
+            err.println(
+                String.join(
+                    " ",
+                    "Usage: Analyzer [--threads=N]",
+                    "[--format=text|sarif|ndjson] [--output=FILE[.gz]]",
+                    "[--openapi=FILE] [--snapshot=FILE[.gz]]",
+                    "[--encoding=CHARSET] DIRECTORY_OR_FILE..."
+                )
+            );
+            code = Analyzer.FAILED;
+        } else {
+            final Analyzer analyzer = new Analyzer(threads, encoding);
+            final EndpointInventory inventory = new EndpointInventory();
+            if (openapi != null) {
+                inventory.activate();
+            }
+            try (IssueSink sink = Analyzer.sink(format, output, out)) {
+                final SnapshotWriter snapshots = Analyzer.snapshots(snapshot);
+                try {
+                    if (analyzer.analyze(roots, sink) > 0L) {
+                        code = Analyzer.ISSUES;
+                    }
+                    if (openapi != null) {
+                        Analyzer.list(inventory, Paths.get(openapi));
+                    }
+                } finally {
+                    if (snapshots != null) {
+                        snapshots.close();
+                    }
+                }
+            } catch (final IOException | UncheckedIOException ex) {
+                err.println(ex);
+                code = Analyzer.FAILED;
+            } finally {
+                inventory.deactivate();
+            }
+            for (final Path file : analyzer.failures()) {
+                err.printf("%s: can't be parsed%n", file);
+                code = Analyzer.FAILED;
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Analyzes the Java files of some directories.
+     * @param roots Directories or files.
+     * @param sink Where issues are written.
+     * @return Number of issues found.
+     * @throws IOException If a file can't be read or issues written.
+     */
+    public long analyze(final Collection<Path> roots, final IssueSink sink)
+        throws IOException {
+        final List<Path> files = Analyzer.sources(roots);
+        final byte[][] snapshots = new byte[files.size()][];
+        final ForkJoinPool pool = new ForkJoinPool(this.threads);
+        long count = 0L;
+        try {
+            final ResourceIndex index = pool.submit(
+                () -> ResourceIndex.build(
+                    IntStream.range(0, files.size()).parallel()
+                        .mapToObj(
+                            idx -> this.parse(files.get(idx), snapshots, idx)
+                        )
+                        .filter(Objects::nonNull)
+                )
+            ).get();
+            ResourceIndex.activate(() -> index);
+            for (int from = 0; from < files.size(); from += Analyzer.CHUNK) {
+                final int start = from;
+                final int end = Math.min(from + Analyzer.CHUNK, files.size());
+                for (final List<Finding> found : pool.submit(
+                    () -> IntStream.range(start, end).parallel()
+                        .mapToObj(
+                            idx -> this.analyze(files.get(idx), snapshots, idx)
+                        )
+                        .collect(Collectors.toList())
+                ).get()) {
+                    sink.accept(found);
+                    count += found.size();
+                }
+            }
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Analysis interrupted", ex);
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            ResourceIndex.deactivate();
+            pool.shutdown();
+        }
+        return count;
+    }
+
+    /**
+     * Files that couldn't be parsed by the last analysis.
+     * @return Files, sorted.
+     */
+    public List<Path> failures() {
+        final List<Path> files = new ArrayList<>(this.failed);
+        Collections.sort(files);
+        return files;
+    }
+
+    /**
+     * Parses a file, keeping a snapshot of its declarations if it holds
+     * JAX-RS, Spring or Swagger markers.
+     * @param file File.
+     * @param snapshots Snapshots of the files, by index.
+     * @param idx Index of the file.
+     * @return Compilation unit, null if it has no markers or can't be
+     *  parsed.
+     */
+    private CompilationUnitTree parse(final Path file,
+        final byte[][] snapshots, final int idx) {
+        final String source = this.read(file);
+        CompilationUnitTree unit = null;
+        try {
+            final CompilationUnitTree parsed =
+                (CompilationUnitTree) Analyzer.PARSER.get().parse(source);
+            if (Prefilter.documented().matches(source)) {
+                final ByteArrayOutputStream bytes =
+                    new ByteArrayOutputStream();
+                try (SnapshotWriter writer = new SnapshotWriter(bytes)) {
+                    writer.write(file.toString(), parsed);
+                }
+                snapshots[idx] = bytes.toByteArray();
+                unit = parsed;
+            }
+        } catch (final RecognitionException ex) {
+            this.failed.add(file);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return unit;
+    }
+
+    /**
+     * Runs every rule over the snapshot of a file, dropping it afterwards.
+     * @param file File.
+     * @param snapshots Snapshots of the files, by index.
+     * @param idx Index of the file.
+     * @return Issues found, sorted.
+     */
+    private List<Finding> analyze(final Path file, final byte[][] snapshots,
+        final int idx) {
+        final byte[] bytes = snapshots[idx];
+        snapshots[idx] = null;
+        List<Finding> found = Collections.emptyList();
+        if (bytes != null) {
+            try (SnapshotReader reader = new SnapshotReader(
+                new ByteArrayInputStream(bytes)
+            )) {
+                final Snapshot snapshot = reader.next();
+                final SourceContext context = new SourceContext(
+                    file, snapshot.content(), snapshot.unit()
+                );
+                for (final JavaFileScanner check : this.checks) {
+                    check.scanFile(context);
+                }
+                found = context.findings();
+                Collections.sort(found);
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            } finally {
+                Declarations.release();
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Writes the endpoints found as an OpenAPI document.
+     * @param inventory Endpoints found.
+     * @param file Output file.
+     * @throws IOException If it can't be written.
+     */
+    private static void list(final EndpointInventory inventory,
+        final Path file) throws IOException {
+        try (Writer writer = new BufferedWriter(
+            new OutputStreamWriter(
+                Analyzer.channel(file), StandardCharsets.UTF_8
+            ),
+            Analyzer.BUFFER
+        )) {
+            OpenApi.write("tst-java", inventory.drain(), writer);
+        }
+    }
+
+    /**
+     * Active writer of snapshots.
+     * @param file Snapshot file, null for none.
+     * @return Writer, null if there is no file.
+     * @throws IOException If the file can't be opened.
+     */
+    private static SnapshotWriter snapshots(final String file)
+        throws IOException {
+        SnapshotWriter writer = null;
+        if (file != null) {
+            writer = new SnapshotWriter(Analyzer.open(file, null));
+            writer.activate();
+        }
+        return writer;
+    }
+
+    /**
+     * Sink writing issues in a format.
+     * @param format Format.
+     * @param output Output file, null for the standard output.
+     * @param out Standard output.
+     * @return Sink.
+     * @throws IOException If the output file can't be opened.
+     */
+    private static IssueSink sink(final String format, final String output,
+        final PrintStream out) throws IOException {
+        final Writer writer = new BufferedWriter(
+            new OutputStreamWriter(
+                Analyzer.open(output, out), StandardCharsets.UTF_8
+            ),
+            Analyzer.BUFFER
+        );
+        final IssueSink sink;
+        if ("sarif".equals(format)) {
+            sink = new SarifSink(writer);
+        } else if ("ndjson".equals(format)) {
+            sink = new NdjsonSink(writer);
+        } else {
+            sink = new TextSink(writer);
+        }
+        return sink;
+    }
+
+    /**
+     * Opens the output.
+     * @param output Output file, null for the standard output.
+     * @param out Standard output.
+     * @return Stream, closing it leaves the standard output open.
+     * @throws IOException If the output file can't be opened.
+     */
+    private static OutputStream open(final String output,
+        final PrintStream out) throws IOException {
+        final OutputStream stream;
+        if (output == null) {
+            stream = new Analyzer.Unclosed(out);
+        } else if (output.endsWith(".gz")) {
+            stream = new GZIPOutputStream(
+                Analyzer.channel(Paths.get(output)), Analyzer.BUFFER
+            );
+        } else {
+            stream = Analyzer.channel(Paths.get(output));
+        }
+        return stream;
+    }
+
+    /**
+     * Stream over a new file channel.
+     * @param file File, replaced if it exists.
+     * @return Stream.
+     * @throws IOException If the file can't be opened.
+     */
+    private static OutputStream channel(final Path file) throws IOException {
+        return Channels.newOutputStream(
+            FileChannel.open(
+                file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING
+            )
+        );
+    }
+
+    /**
+     * Java files of some directories, in the order issues are written.
+     * @param roots Directories or files.
+     * @return Files.
+     * @throws IOException If a directory can't be walked.
+     */
+    private static List<Path> sources(final Collection<Path> roots)
+        throws IOException {
+        final List<Path> files = new ArrayList<>(0);
+        for (final Path root : roots) {
+            try (Stream<Path> walked = Files.walk(root)) {
+                walked.filter(Files::isRegularFile)
+                    .filter(file -> file.toString().endsWith(".java"))
+                    .forEach(files::add);
+            }
+        }
+        files.sort(Comparator.comparing(Path::toString));
+        return files;
+    }
+
+    /**
+     * Reads a source file.
+     * @param file File.
+     * @return Content.
+     */
+    private String read(final Path file) {
+        try {
+            return new String(Files.readAllBytes(file), this.encoding);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * New instances of the rules.
+     * @return Rules.
+     */
+    static List<JavaFileScanner> rules() {
+        final List<JavaFileScanner> rules = new ArrayList<>(
+            RulesList.getJavaChecks().size()
+        );
+        for (final Class<? extends JavaCheck> type
+            : RulesList.getJavaChecks()) {
+            try {
+                rules.add(
+                    (JavaFileScanner) type.getDeclaredConstructor()
+                        .newInstance()
+                );
+            } catch (final ReflectiveOperationException ex) {
+                throw new IllegalStateException(
+                    String.format("Failed to create rule: %s", type), ex
+                );
+            }
+        }
+        return rules;
+    }
+
+    /**
+     * Stream that is flushed rather than closed.
+     */
+    private static final class Unclosed extends FilterOutputStream {
+
+        /**
+         * Main constructor.
+         * @param origin Stream.
+         */
+        Unclosed(final OutputStream origin) {
+            super(origin);
+        }
+
+        @Override
+        public void write(final byte[] bytes, final int off, final int len)
+            throws IOException {
+            this.out.write(bytes, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            this.flush();
+        }
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import org.sonar.api.ce.measure.Measure;
+import org.sonar.api.ce.measure.MeasureComputer;
+import org.sonar.api.measures.Metric;
+
+/**
+ * Adds up the endpoint measures of modules into their parents.
+ *
+ * <p>{@link CoverageSensor} saves the counts of each module alone in the
+ * hidden module metrics, the input of this computer. Every component gets
+ * its own counts plus the totals of its children in the visible metrics,
+ * and the percentage of documented methods of those totals; components
+ * with neither, such as files, get none.</p>
+ * @since 1.1
+ */
+public final class CoverageComputer implements MeasureComputer {
+
+    @Override
+    public MeasureComputer.MeasureComputerDefinition define(
+        final MeasureComputer.MeasureComputerDefinitionContext context) {
+        return context.newDefinitionBuilder()
+            .setInputMetrics(
+                CoverageMetrics.MODULE_CLASSES.key(),
+                CoverageMetrics.MODULE_METHODS.key(),
+                CoverageMetrics.MODULE_DOCUMENTED.key()
+            )
+            .setOutputMetrics(
+                CoverageMetrics.ENDPOINT_CLASSES.key(),
+                CoverageMetrics.ENDPOINT_METHODS.key(),
+                CoverageMetrics.DOCUMENTED_METHODS.key(),
+                CoverageMetrics.DOCUMENTATION.key()
+            )
+            .build();
+    }
+
+    @Override
+    public void compute(
+        final MeasureComputer.MeasureComputerContext context) {
+        CoverageComputer.total(
+            context, CoverageMetrics.MODULE_CLASSES,
+            CoverageMetrics.ENDPOINT_CLASSES
+        );
+        final Integer methods = CoverageComputer.total(
+            context, CoverageMetrics.MODULE_METHODS,
+            CoverageMetrics.ENDPOINT_METHODS
+        );
+        final Integer documented = CoverageComputer.total(
+            context, CoverageMetrics.MODULE_DOCUMENTED,
+            CoverageMetrics.DOCUMENTED_METHODS
+        );
+        if (methods != null && methods > 0 && documented != null) {
+            context.addMeasure(
+                CoverageMetrics.DOCUMENTATION.key(),
+                CoverageMetrics.percentage(documented, methods)
+            );
+        }
+    }
+
+    /**
+     * Adds the count of a component to the totals of its children.
+     * @param context Computer context.
+     * @param own Metric of the count of the component alone.
+     * @param total Metric of the total.
+     * @return Total, or null if neither the component nor any child has
+     *  a count.
+     */
+    private static Integer total(
+        final MeasureComputer.MeasureComputerContext context,
+        final Metric<Integer> own, final Metric<Integer> total) {
+        Integer sum = null;
+        final Measure measure = context.getMeasure(own.key());
+        if (measure != null) {
+            sum = measure.getIntValue();
+        }
+        for (final Measure child : context.getChildrenMeasures(total.key())) {
+            if (sum == null) {
+                sum = 0;
+            }
+            sum += child.getIntValue();
+        }
+        if (sum != null) {
+            context.addMeasure(total.key(), sum);
+        }
+        return sum;
+    }
+
+}
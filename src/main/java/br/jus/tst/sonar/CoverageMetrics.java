@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import java.util.Arrays;
+import java.util.List;
+import org.sonar.api.measures.Metric;
+import org.sonar.api.measures.Metrics;
+
+/**
+ * Metrics of the documentation of REST endpoints.
+ * @since 1.1
+ */
+public final class CoverageMetrics implements Metrics {
+
+    /**
+     * Resource classes, annotated with a resource annotation of the rules.
+     */
+    public static final Metric<Integer> ENDPOINT_CLASSES =
+        new Metric.Builder(
+            "tst_endpoint_classes", "Resource classes", Metric.ValueType.INT
+        )
+            .setDescription("Resource classes exposing REST endpoints")
+            .setDirection(Metric.DIRECTION_NONE)
+            .setQualitative(false)
+            .setDomain(CoverageMetrics.DOMAIN)
+            .create();
+
+    /**
+     * Methods annotated with an endpoint annotation of the rules.
+     */
+    public static final Metric<Integer> ENDPOINT_METHODS =
+        new Metric.Builder(
+            "tst_endpoint_methods", "Endpoint methods", Metric.ValueType.INT
+        )
+            .setDescription("Methods exposed as REST endpoints")
+            .setDirection(Metric.DIRECTION_NONE)
+            .setQualitative(false)
+            .setDomain(CoverageMetrics.DOMAIN)
+            .create();
+
+    /**
+     * Endpoint methods annotated with a documentation annotation of the
+     * rules, directly or through a supertype.
+     */
+    public static final Metric<Integer> DOCUMENTED_METHODS =
+        new Metric.Builder(
+            "tst_documented_endpoint_methods", "Documented endpoints",
+            Metric.ValueType.INT
+        )
+            .setDescription("Endpoint methods with API documentation")
+            .setDirection(Metric.DIRECTION_BETTER)
+            .setQualitative(false)
+            .setDomain(CoverageMetrics.DOMAIN)
+            .create();
+
+    /**
+     * Percentage of the endpoint methods that are documented.
+     */
+    public static final Metric<Double> DOCUMENTATION =
+        new Metric.Builder(
+            "tst_endpoint_documentation", "Endpoint documentation",
+            Metric.ValueType.PERCENT
+        )
+            .setDescription("Percentage of endpoint methods documented")
+            .setDirection(Metric.DIRECTION_BETTER)
+            .setQualitative(true)
+            .setDomain(CoverageMetrics.DOMAIN)
+            .setBestValue(100.0)
+            .setWorstValue(0.0)
+            .create();
+
+    /**
+     * Resource classes of a module alone, as saved by the scanner.
+     */
+    public static final Metric<Integer> MODULE_CLASSES =
+        CoverageMetrics.hidden(
+            "tst_module_endpoint_classes", "Module resource classes"
+        );
+
+    /**
+     * Endpoint methods of a module alone, as saved by the scanner.
+     */
+    public static final Metric<Integer> MODULE_METHODS =
+        CoverageMetrics.hidden(
+            "tst_module_endpoint_methods", "Module endpoint methods"
+        );
+
+    /**
+     * Documented endpoint methods of a module alone, as saved by the
+     * scanner.
+     */
+    public static final Metric<Integer> MODULE_DOCUMENTED =
+        CoverageMetrics.hidden(
+            "tst_module_documented_endpoint_methods",
+            "Module documented endpoints"
+        );
+
+    /**
+     * Domain of the metrics.
+     */
+    private static final String DOMAIN = "Documentation";
+
+    @Override
+    @SuppressWarnings("rawtypes")
+    public List<Metric> getMetrics() {
+        return Arrays.asList(
+            CoverageMetrics.ENDPOINT_CLASSES,
+            CoverageMetrics.ENDPOINT_METHODS,
+            CoverageMetrics.DOCUMENTED_METHODS,
+            CoverageMetrics.DOCUMENTATION,
+            CoverageMetrics.MODULE_CLASSES,
+            CoverageMetrics.MODULE_METHODS,
+            CoverageMetrics.MODULE_DOCUMENTED
+        );
+    }
+
+    /**
+     * Percentage of documented methods.
+     * @param documented Documented methods.
+     * @param methods Endpoint methods, not zero.
+     * @return Percentage.
+     */
+    static double percentage(final long documented, final long methods) {
+        return 100.0 * documented / methods;
+    }
+
+    /**
+     * Count of a module alone, hidden from users, which the
+     * {@link CoverageComputer} adds up into the visible metrics.
+     * @param key Key.
+     * @param name Name.
+     * @return Metric.
+     */
+    private static Metric<Integer> hidden(final String key,
+        final String name) {
+        return new Metric.Builder(key, name, Metric.ValueType.INT)
+            .setDescription(String.format("%s, without submodules", name))
+            .setDirection(Metric.DIRECTION_NONE)
+            .setQualitative(false)
+            .setDomain(CoverageMetrics.DOMAIN)
+            .setHidden(true)
+            .create();
+    }
+
+}
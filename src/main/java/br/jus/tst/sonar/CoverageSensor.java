@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.ApiDocumentationRule;
+import br.jus.tst.sonar.checks.EndpointCoverage;
+import br.jus.tst.sonar.checks.EndpointDocumentationRule;
+import org.sonar.api.batch.Phase;
+import org.sonar.api.batch.sensor.Sensor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.measures.Metric;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.check.Rule;
+
+/**
+ * Saves the endpoints the rules counted in a module as its measures.
+ *
+ * <p>Runs after the Java sensor has run the rules over the module, in the
+ * post-processing phase, and drains the {@link EndpointCoverage} counters
+ * for the next module. The counts of the module alone are saved in the
+ * hidden module metrics, which {@link CoverageComputer} adds up. Resource
+ * classes are counted by {@link ApiDocumentationRule}, and endpoint
+ * methods by {@link EndpointDocumentationRule}; counts of a rule that is
+ * not active are not saved, rather than saved as zero.</p>
+ * @since 1.1
+ */
+@Phase(name = Phase.Name.POST)
+public final class CoverageSensor implements Sensor {
+
+    @Override
+    public void describe(final SensorDescriptor descriptor) {
+        descriptor.name("tst-java endpoint coverage").onlyOnLanguage("java");
+    }
+
+    @Override
+    public void execute(final SensorContext context) {
+        final long[] totals = EndpointCoverage.drain();
+        if (CoverageSensor.active(context, ApiDocumentationRule.class)) {
+            CoverageSensor.save(
+                context, CoverageMetrics.MODULE_CLASSES,
+                totals[EndpointCoverage.CLASSES]
+            );
+        }
+        if (CoverageSensor.active(
+            context, EndpointDocumentationRule.class
+        )) {
+            CoverageSensor.save(
+                context, CoverageMetrics.MODULE_METHODS,
+                totals[EndpointCoverage.METHODS]
+            );
+            CoverageSensor.save(
+                context, CoverageMetrics.MODULE_DOCUMENTED,
+                totals[EndpointCoverage.DOCUMENTED]
+            );
+        }
+    }
+
+    /**
+     * Tells whether a rule is active in the analysis.
+     * @param context Sensor context.
+     * @param rule Rule class.
+     * @return True if it is.
+     */
+    private static boolean active(final SensorContext context,
+        final Class<?> rule) {
+        return context.activeRules().find(
+            RuleKey.of(
+                TstJavaRulesDefinition.REPOSITORY_KEY,
+                rule.getAnnotation(Rule.class).key()
+            )
+        ) != null;
+    }
+
+    /**
+     * Saves a count on the module.
+     * @param context Sensor context.
+     * @param metric Metric.
+     * @param value Count.
+     */
+    private static void save(final SensorContext context,
+        final Metric<Integer> metric, final long value) {
+        context.<Integer>newMeasure()
+            .on(context.module())
+            .forMetric(metric)
+            .withValue((int) value)
+            .save();
+    }
+
+}
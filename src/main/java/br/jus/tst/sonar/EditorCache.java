@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.Declarations;
+import br.jus.tst.sonar.checks.MemberCache;
+import org.sonar.api.Startable;
+import org.sonarsource.api.sonarlint.SonarLintSide;
+
+/**
+ * Uses the {@link MemberCache} during editor analyses, so saving a file
+ * only checks the declarations that were edited.
+ *
+ * <p>A new instance is created for every analysis; the cache itself lives
+ * as long as the plugin is loaded and holds at most {@value #FILES} scans,
+ * the last one of each file by each rule. The tree of the last file is
+ * released after each analysis.</p>
+ * @since 1.1
+ */
+@SonarLintSide
+public final class EditorCache implements Startable {
+
+    /**
+     * Maximum number of scans kept.
+     */
+    private static final int FILES = 256;
+
+    /**
+     * Cache shared by the analyses.
+     */
+    private static final MemberCache CACHE = new MemberCache(EditorCache.FILES);
+
+    @Override
+    public void start() {
+        EditorCache.CACHE.activate();
+    }
+
+    @Override
+    public void stop() {
+        EditorCache.CACHE.deactivate();
+        Declarations.release();
+    }
+
+}
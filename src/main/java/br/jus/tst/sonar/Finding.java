@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+
+/**
+ * Issue found by the {@link Analyzer}.
+ * @since 1.1
+ */
+final class Finding implements Comparable<Finding> {
+
+    /**
+     * Order of findings: by file, then position, then rule.
+     */
+    private static final Comparator<Finding> ORDER =
+        Comparator.comparing((Finding finding) -> finding.file.toString())
+            .thenComparingInt(finding -> finding.line)
+            .thenComparingInt(finding -> finding.column)
+            .thenComparing(finding -> finding.rule)
+            .thenComparing(finding -> finding.message);
+
+    /**
+     * File the issue was found in.
+     */
+    private final Path file;
+
+    /**
+     * Key of the rule.
+     */
+    private final String rule;
+
+    /**
+     * First line, starting at 1.
+     */
+    private final int line;
+
+    /**
+     * First column, starting at 1.
+     */
+    private final int column;
+
+    /**
+     * Last line, starting at 1.
+     */
+    private final int end;
+
+    /**
+     * Column after the last character, starting at 1.
+     */
+    private final int after;
+
+    /**
+     * Issue message.
+     */
+    private final String message;
+
+    /**
+     * Ctor.
+     * @param file File the issue was found in.
+     * @param rule Key of the rule.
+     * @param first First token of the tree the issue was reported on.
+     * @param last Last token of the tree the issue was reported on.
+     * @param message Issue message.
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    Finding(final Path file, final String rule, final SyntaxToken first,
+        final SyntaxToken last, final String message) {
+        this(
+            file, rule,
+            new int[] {
+                first.line(), first.column() + 1,
+                last.line(), last.column() + last.text().length() + 1,
+            },
+            message
+        );
+    }
+
+    /**
+     * Main constructor.
+     * @param file File the issue was found in.
+     * @param rule Key of the rule.
+     * @param region First line and column, last line and column after the
+     *  last character, all starting at 1.
+     * @param message Issue message.
+     */
+    Finding(final Path file, final String rule, final int[] region,
+        final String message) {
+        this.file = file;
+        this.rule = rule;
+        this.line = region[0];
+        this.column = region[1];
+        this.end = region[2];
+        this.after = region[3];
+        this.message = message;
+    }
+
+    /**
+     * File the issue was found in.
+     * @return Path.
+     */
+    public Path file() {
+        return this.file;
+    }
+
+    /**
+     * Key of the rule.
+     * @return Key.
+     */
+    public String rule() {
+        return this.rule;
+    }
+
+    /**
+     * Region of the issue.
+     * @return First line and column, last line and column after the last
+     *  character, all starting at 1.
+     */
+    public int[] region() {
+        return new int[] {this.line, this.column, this.end, this.after};
+    }
+
+    /**
+     * Issue message.
+     * @return Message.
+     */
+    public String message() {
+        return this.message;
+    }
+
+    @Override
+    public int compareTo(final Finding other) {
+        return Finding.ORDER.compare(this, other);
+    }
+
+    @Override
+    public boolean equals(final Object other) {
+        return other instanceof Finding
+            && this.compareTo((Finding) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return this.toString().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s:%d:%d: [%s] %s",
+            this.file, this.line, this.column, this.rule, this.message
+        );
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.Endpoint;
+import br.jus.tst.sonar.checks.EndpointInventory;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.sonar.api.batch.Phase;
+import org.sonar.api.batch.sensor.Sensor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+import org.sonar.api.config.Configuration;
+import org.sonar.api.utils.log.Logger;
+import org.sonar.api.utils.log.Loggers;
+
+/**
+ * Writes the endpoints the rules listed in a module as an OpenAPI
+ * skeleton.
+ *
+ * <p>Runs after the Java sensor has run the rules over the module, in the
+ * post-processing phase, and drains the {@link EndpointInventory} for the
+ * next module; the endpoints of a module are kept in memory until then,
+ * as the document groups them by path. Each module gets a file named
+ * after its key in the directory set by {@link AnalysisInventory#PATH},
+ * resolved against the module base directory, or in the module working
+ * directory if the property is blank.</p>
+ * @since 1.1
+ */
+@Phase(name = Phase.Name.POST)
+public final class InventorySensor implements Sensor {
+
+    /**
+     * Logger.
+     */
+    private static final Logger LOG = Loggers.get(InventorySensor.class);
+
+    /**
+     * Analysis settings.
+     */
+    private final Configuration settings;
+
+    /**
+     * Main constructor.
+     * @param settings Analysis settings.
+     */
+    public InventorySensor(final Configuration settings) {
+        this.settings = settings;
+    }
+
+    @Override
+    public void describe(final SensorDescriptor descriptor) {
+        descriptor.name("tst-java endpoint inventory")
+            .onlyOnLanguage("java")
+            .onlyWhenConfiguration(
+                config -> config.hasKey(AnalysisInventory.PATH)
+            );
+    }
+
+    @Override
+    public void execute(final SensorContext context) {
+        final EndpointInventory inventory = EndpointInventory.active();
+        if (inventory != null) {
+            final String key = context.module().key();
+            final List<Endpoint> endpoints = inventory.drain();
+            final String dir = this.settings.get(AnalysisInventory.PATH)
+                .orElse("").trim();
+            final Path base;
+            if (dir.isEmpty()) {
+                base = context.fileSystem().workDir().toPath();
+            } else {
+                base = context.fileSystem().baseDir().toPath().resolve(dir);
+            }
+            final Path file = base.resolve(
+                String.format(
+                    "%s.openapi.json", key.replaceAll("[^\\w.-]", "_")
+                )
+            );
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                try (Writer writer = Files.newBufferedWriter(
+                    file, StandardCharsets.UTF_8
+                )) {
+                    OpenApi.write(key, endpoints, writer);
+                }
+                InventorySensor.LOG.info(
+                    "tst-java endpoint inventory: {} endpoints written to {}",
+                    endpoints.size(), file
+                );
+            } catch (final IOException ex) {
+                InventorySensor.LOG.warn(
+                    "tst-java endpoint inventory can't be written", ex
+                );
+            }
+        }
+    }
+
+}
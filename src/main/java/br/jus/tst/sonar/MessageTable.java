@@ -0,0 +1,148 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Messages of each rule, so sinks write every distinct message once and
+ * refer to it from issues.
+ *
+ * <p>The table is bounded: once full, sinks write further messages in
+ * full.</p>
+ * @since 1.1
+ */
+final class MessageTable {
+
+    /**
+     * Default maximum number of messages.
+     */
+    static final int CAPACITY = 4096;
+
+    /**
+     * Maximum number of messages.
+     */
+    private final int capacity;
+
+    /**
+     * Index of each rule, by key.
+     */
+    private final Map<String, Integer> rules;
+
+    /**
+     * Identifier of the messages of each rule, by text.
+     */
+    private final List<Map<String, String>> messages;
+
+    /**
+     * Number of messages.
+     */
+    private int count;
+
+    /**
+     * Ctor.
+     */
+    MessageTable() {
+        this(MessageTable.CAPACITY);
+    }
+
+    /**
+     * Main constructor.
+     * @param capacity Maximum number of messages.
+     */
+    MessageTable(final int capacity) {
+        this.capacity = capacity;
+        this.rules = new LinkedHashMap<>();
+        this.messages = new ArrayList<>(RulesList.size());
+        for (int idx = 0; idx < RulesList.size(); ++idx) {
+            this.rule(RulesList.key(idx));
+        }
+    }
+
+    /**
+     * Index of a rule, registering it if unknown.
+     * @param key Key of the rule.
+     * @return Index.
+     */
+    public int rule(final String key) {
+        Integer index = this.rules.get(key);
+        if (index == null) {
+            index = this.rules.size();
+            this.rules.put(key, index);
+            this.messages.add(new LinkedHashMap<>());
+        }
+        return index;
+    }
+
+    /**
+     * Identifier of a message already in the table.
+     * @param rule Key of the rule.
+     * @param text Message.
+     * @return Identifier, or null if not in the table.
+     */
+    public String known(final String rule, final String text) {
+        return this.messages.get(this.rule(rule)).get(text);
+    }
+
+    /**
+     * Adds a message to the table.
+     * @param rule Key of the rule.
+     * @param text Message.
+     * @return Identifier, or null if the table is full.
+     */
+    public String add(final String rule, final String text) {
+        String id = null;
+        if (this.count < this.capacity) {
+            id = String.format("m%d", this.count);
+            this.messages.get(this.rule(rule)).put(text, id);
+            ++this.count;
+        }
+        return id;
+    }
+
+    /**
+     * Keys of the rules, by index.
+     * @return Keys.
+     */
+    public List<String> rules() {
+        return new ArrayList<>(this.rules.keySet());
+    }
+
+    /**
+     * Messages of a rule.
+     * @param rule Index of the rule.
+     * @return Texts, by identifier.
+     */
+    public Map<String, String> messages(final int rule) {
+        final Map<String, String> texts = new LinkedHashMap<>();
+        for (final Map.Entry<String, String> entry
+            : this.messages.get(rule).entrySet()) {
+            texts.put(entry.getValue(), entry.getKey());
+        }
+        return Collections.unmodifiableMap(texts);
+    }
+
+}
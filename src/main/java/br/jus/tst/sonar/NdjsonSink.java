@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Issues written as newline-delimited JSON, one object per line.
+ *
+ * <p>Each distinct message is written once, as a line of type
+ * <code>message</code> with its identifier, before the first line of type
+ * <code>issue</code> referring to it by <code>messageId</code>. Once the
+ * {@link MessageTable} is full, issues carry their <code>message</code>
+ * instead.</p>
+ * @since 1.1
+ */
+final class NdjsonSink implements IssueSink {
+
+    /**
+     * Output.
+     */
+    private final Writer output;
+
+    /**
+     * JSON output.
+     */
+    private final JsonWriter json;
+
+    /**
+     * Messages written so far.
+     */
+    private final MessageTable table;
+
+    /**
+     * Main constructor.
+     * @param output Output.
+     */
+    NdjsonSink(final Writer output) {
+        this.output = output;
+        this.json = new JsonWriter(output);
+        this.json.setLenient(true);
+        this.table = new MessageTable();
+    }
+
+    @Override
+    public void accept(final List<Finding> findings) throws IOException {
+        for (final Finding finding : findings) {
+            final String id = this.message(finding);
+            final int[] region = finding.region();
+            this.json.beginObject()
+                .name("type").value("issue")
+                .name("rule").value(finding.rule())
+                .name("file").value(
+                    finding.file().toString().replace('\\', '/')
+                )
+                .name("line").value(region[0])
+                .name("column").value(region[1])
+                .name("endLine").value(region[2])
+                .name("endColumn").value(region[3]);
+            if (id == null) {
+                this.json.name("message").value(finding.message());
+            } else {
+                this.json.name("messageId").value(id);
+            }
+            this.json.endObject();
+            this.output.write('\n');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.output.close();
+    }
+
+    /**
+     * Identifier of the message of an issue, writing it if new.
+     * @param finding Issue.
+     * @return Identifier, or null if the table is full.
+     * @throws IOException If it can't be written.
+     */
+    private String message(final Finding finding) throws IOException {
+        String id = this.table.known(finding.rule(), finding.message());
+        if (id == null) {
+            id = this.table.add(finding.rule(), finding.message());
+            if (id != null) {
+                this.json.beginObject()
+                    .name("type").value("message")
+                    .name("id").value(id)
+                    .name("rule").value(finding.rule())
+                    .name("text").value(finding.message())
+                    .endObject();
+                this.output.write('\n');
+            }
+        }
+        return id;
+    }
+
+}
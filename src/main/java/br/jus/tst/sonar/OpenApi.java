@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.Endpoint;
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Endpoints written as the skeleton of an OpenAPI 3 document, streamed.
+ *
+ * <p>Each operation gets its summary, tag and parameters as declared in
+ * the sources, a default response, and an <code>x-source</code> extension
+ * with the file and line declaring it. Endpoints must be sorted by path
+ * and HTTP method; of those sharing both, only the first one is written.
+ * Endpoints answering any HTTP method are written under every method their
+ * path has no other endpoint for, their operation ids suffixed with the
+ * method.</p>
+ * @since 1.1
+ */
+final class OpenApi {
+
+    /**
+     * Version of the OpenAPI specification.
+     */
+    private static final String VERSION = "3.0.3";
+
+    /**
+     * HTTP methods of the operations of a path.
+     */
+    private static final String[] METHODS = {
+        "get", "put", "post", "delete", "options", "head", "patch", "trace",
+    };
+
+    /**
+     * Utility class.
+     */
+    private OpenApi() {
+    }
+
+    /**
+     * Writes a document.
+     * @param title Title of the API.
+     * @param endpoints Endpoints, sorted by path and HTTP method.
+     * @param output Output.
+     * @throws IOException If it can't be written.
+     */
+    public static void write(final String title,
+        final List<Endpoint> endpoints, final Writer output)
+        throws IOException {
+        final JsonWriter json = new JsonWriter(output);
+        json.setIndent("  ");
+        json.beginObject()
+            .name("openapi").value(OpenApi.VERSION)
+            .name("info").beginObject()
+            .name("title").value(title)
+            .name("version").value("")
+            .endObject()
+            .name("paths").beginObject();
+        final List<Endpoint> group = new ArrayList<>(0);
+        for (final Endpoint endpoint : endpoints) {
+            if (!group.isEmpty()
+                && !group.get(0).path().equals(endpoint.path())) {
+                OpenApi.path(json, group);
+                group.clear();
+            }
+            group.add(endpoint);
+        }
+        if (!group.isEmpty()) {
+            OpenApi.path(json, group);
+        }
+        json.endObject().endObject().flush();
+    }
+
+    /**
+     * Writes the operations of a path, those answering any HTTP method
+     * last.
+     * @param json Output.
+     * @param group Endpoints of the path, sorted by HTTP method.
+     * @throws IOException If it can't be written.
+     */
+    private static void path(final JsonWriter json,
+        final List<Endpoint> group) throws IOException {
+        json.name(group.get(0).path()).beginObject();
+        final Set<String> written = new HashSet<>(OpenApi.METHODS.length);
+        for (final Endpoint endpoint : group) {
+            if (!Endpoint.ANY.equals(endpoint.method())
+                && written.add(endpoint.method())) {
+                OpenApi.operation(
+                    json, endpoint, endpoint.method(), endpoint.operation()
+                );
+            }
+        }
+        for (final Endpoint endpoint : group) {
+            if (Endpoint.ANY.equals(endpoint.method())) {
+                for (final String method : OpenApi.METHODS) {
+                    if (written.add(method)) {
+                        OpenApi.operation(
+                            json, endpoint, method,
+                            String.format(
+                                "%s_%s", endpoint.operation(), method
+                            )
+                        );
+                    }
+                }
+            }
+        }
+        json.endObject();
+    }
+
+    /**
+     * Writes an operation.
+     * @param json Output.
+     * @param endpoint Endpoint.
+     * @param method HTTP method.
+     * @param id Operation id.
+     * @throws IOException If it can't be written.
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private static void operation(final JsonWriter json,
+        final Endpoint endpoint, final String method, final String id)
+        throws IOException {
+        json.name(method).beginObject()
+            .name("operationId").value(id);
+        if (!endpoint.summary().isEmpty()) {
+            json.name("summary").value(endpoint.summary());
+        }
+        if (!endpoint.tag().isEmpty()) {
+            json.name("tags").beginArray().value(endpoint.tag()).endArray();
+        }
+        if (!endpoint.parameters().isEmpty()) {
+            json.name("parameters").beginArray();
+            for (final Endpoint.Parameter param : endpoint.parameters()) {
+                json.beginObject()
+                    .name("name").value(param.name())
+                    .name("in").value(param.location());
+                if ("path".equals(param.location())) {
+                    json.name("required").value(true);
+                }
+                json.name("schema").beginObject()
+                    .name("type").value("string")
+                    .endObject()
+                    .endObject();
+            }
+            json.endArray();
+        }
+        json.name("responses").beginObject()
+            .name("default").beginObject()
+            .name("description").value("")
+            .endObject()
+            .endObject()
+            .name("x-source").beginObject()
+            .name("file").value(endpoint.file())
+            .name("line").value(endpoint.line())
+            .endObject()
+            .endObject();
+    }
+
+}
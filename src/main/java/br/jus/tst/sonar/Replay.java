@@ -0,0 +1,219 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.Declarations;
+import br.jus.tst.sonar.checks.ResourceIndex;
+import br.jus.tst.sonar.checks.Snapshot;
+import br.jus.tst.sonar.checks.SnapshotReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * Runs the rules of this plugin over snapshots written by the
+ * {@link Analyzer}, without parsing any source, to measure what the rules
+ * cost.
+ *
+ * <p>Snapshots are read once, then every rule scans all of them, in a
+ * single thread, as many rounds as asked for; the time each round took is
+ * printed. Types are resolved along hierarchies as the analyzer does, the
+ * {@link ResourceIndex} being built from the snapshots at each round. The
+ * exit code is the one of the {@link Analyzer}.</p>
+ * @since 1.1
+ */
+public final class Replay {
+
+    /**
+     * Option setting the number of rounds.
+     */
+    private static final String ROUNDS = "--rounds=";
+
+    /**
+     * Rules.
+     */
+    private final List<JavaFileScanner> checks;
+
+    /**
+     * Main constructor.
+     */
+    public Replay() {
+        this.checks = Analyzer.rules();
+    }
+
+    /**
+     * Entry point.
+     * @param args Options and snapshot files.
+     */
+    public static void main(final String... args) {
+        System.exit(Replay.run(args, System.out, System.err));
+    }
+
+    /**
+     * Replays snapshot files and prints how long each round took.
+     * @param args Options and snapshot files.
+     * @param out Where rounds are printed.
+     * @param err Where errors are printed.
+     * @return Exit code.
+     */
+    public static int run(final String[] args, final PrintStream out,
+        final PrintStream err) {
+        int rounds = 1;
+        final List<Path> files = new ArrayList<>(args.length);
+        int code = Analyzer.CLEAN;
+        for (final String arg : args) {
+            if (arg.startsWith(Replay.ROUNDS)) {
+                try {
+                    rounds = Integer.parseInt(
+                        arg.substring(Replay.ROUNDS.length())
+                    );
+                } catch (final NumberFormatException ex) {
+                    rounds = 0;
+                }
+            } else {
+                files.add(Paths.get(arg));
+            }
+        }
+        if (files.isEmpty() || rounds < 1) {
+            err.println("Usage: Replay [--rounds=N] SNAPSHOT_FILE[.gz]...");
+            code = Analyzer.FAILED;
+        } else {
+            try {
+                final List<Snapshot> snapshots = Replay.load(files);
+                final Replay replay = new Replay();
+                for (int round = 1; round <= rounds; ++round) {
+                    final long start = System.nanoTime();
+                    final long issues = replay.replay(
+                        snapshots, new Replay.Discarded()
+                    );
+                    out.printf(
+                        "Round %d: %d files, %d issues in %d ms%n",
+                        round, snapshots.size(), issues,
+                        TimeUnit.NANOSECONDS.toMillis(
+                            System.nanoTime() - start
+                        )
+                    );
+                    if (issues > 0L) {
+                        code = Analyzer.ISSUES;
+                    }
+                }
+            } catch (final IOException ex) {
+                err.println(ex);
+                code = Analyzer.FAILED;
+            }
+        }
+        return code;
+    }
+
+    /**
+     * Reads snapshot files, compressed if their names end with
+     * <code>.gz</code>.
+     * @param files Files.
+     * @return Snapshots, in the order they were written.
+     * @throws IOException If a file can't be read.
+     */
+    public static List<Snapshot> load(final Collection<Path> files)
+        throws IOException {
+        final List<Snapshot> snapshots = new ArrayList<>(0);
+        for (final Path file : files) {
+            InputStream stream = Files.newInputStream(file);
+            if (file.toString().endsWith(".gz")) {
+                stream = new GZIPInputStream(stream);
+            }
+            try (SnapshotReader reader = new SnapshotReader(stream)) {
+                for (Snapshot snapshot = reader.next(); snapshot != null;
+                    snapshot = reader.next()) {
+                    snapshots.add(snapshot);
+                }
+            }
+        }
+        return snapshots;
+    }
+
+    /**
+     * Runs every rule over snapshots.
+     * @param snapshots Snapshots.
+     * @param sink Where issues are written.
+     * @return Number of issues found.
+     * @throws IOException If issues can't be written.
+     */
+    long replay(final List<Snapshot> snapshots, final IssueSink sink)
+        throws IOException {
+        ResourceIndex.activate(() -> ResourceIndex.build(snapshots));
+        long count = 0L;
+        try {
+            for (final Snapshot snapshot : snapshots) {
+                final List<Finding> found = this.replay(snapshot);
+                sink.accept(found);
+                count += found.size();
+            }
+        } finally {
+            ResourceIndex.deactivate();
+            Declarations.release();
+        }
+        return count;
+    }
+
+    /**
+     * Runs every rule over a snapshot.
+     * @param snapshot Snapshot.
+     * @return Issues found, sorted.
+     */
+    private List<Finding> replay(final Snapshot snapshot) {
+        final SourceContext context = new SourceContext(
+            Paths.get(snapshot.file()), snapshot.content(), snapshot.unit()
+        );
+        for (final JavaFileScanner check : this.checks) {
+            check.scanFile(context);
+        }
+        final List<Finding> found = context.findings();
+        Collections.sort(found);
+        return found;
+    }
+
+    /**
+     * Sink forgetting issues.
+     */
+    private static final class Discarded implements IssueSink {
+
+        @Override
+        public void accept(final List<Finding> findings) {
+            // issues are only counted
+        }
+
+        @Override
+        public void close() {
+            // nothing to close
+        }
+    }
+
+}
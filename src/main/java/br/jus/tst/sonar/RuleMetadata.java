@@ -0,0 +1,438 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import org.sonar.api.rule.RuleStatus;
+import org.sonar.api.rule.Severity;
+import org.sonar.api.rules.RuleType;
+import org.sonar.api.server.debt.DebtRemediationFunction;
+import org.sonar.api.server.rule.RulesDefinition;
+
+/**
+ * Metadata of a rule, as declared by its <code>_java.json</code> and
+ * <code>_java.html</code> resources.
+ * @since 1.1
+ */
+final class RuleMetadata {
+
+    /**
+     * JSON parser.
+     */
+    private static final Gson GSON = new Gson();
+
+    /**
+     * Rule title.
+     */
+    private final String title;
+
+    /**
+     * Default severity, upper case.
+     */
+    private final String severity;
+
+    /**
+     * Status.
+     */
+    private final RuleStatus status;
+
+    /**
+     * Type.
+     */
+    private final RuleType type;
+
+    /**
+     * Tags.
+     */
+    private final String[] tags;
+
+    /**
+     * Remediation function name, null if there is no remediation.
+     */
+    private final String func;
+
+    /**
+     * Remediation cost per issue, or offset, null if unused.
+     */
+    private final String offset;
+
+    /**
+     * Remediation factor, null if unused.
+     */
+    private final String factor;
+
+    /**
+     * Gap description, may be null.
+     */
+    private final String gap;
+
+    /**
+     * HTML description, may be null.
+     */
+    private final String html;
+
+    /**
+     * Main constructor.
+     * @param title Rule title.
+     * @param severity Default severity, upper case.
+     * @param status Status.
+     * @param type Type.
+     * @param tags Tags.
+     * @param remediation Function, offset or constant cost, factor and gap
+     *  description, any of them may be null.
+     * @param html HTML description, may be null.
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private RuleMetadata(final String title, final String severity,
+        final RuleStatus status, final RuleType type, final String[] tags,
+        final String[] remediation, final String html) {
+        this.title = title;
+        this.severity = severity;
+        this.status = status;
+        this.type = type;
+        this.tags = tags.clone();
+        this.func = remediation[0];
+        this.offset = remediation[1];
+        this.factor = remediation[2];
+        this.gap = remediation[3];
+        this.html = html;
+    }
+
+    /**
+     * Parses and validates the metadata of a rule.
+     * @param key Rule key, for error messages.
+     * @param json Content of the <code>_java.json</code> resource.
+     * @param html Content of the <code>_java.html</code> resource, may be
+     *  null.
+     * @return Metadata.
+     * @throws IllegalArgumentException If the metadata are not valid.
+     */
+    public static RuleMetadata parse(final String key, final String json,
+        final String html) {
+        final RuleMetadata.Json parsed;
+        try {
+            parsed = RuleMetadata.GSON.fromJson(json, RuleMetadata.Json.class);
+        } catch (final JsonParseException ex) {
+            throw new IllegalArgumentException(
+                String.format("Invalid metadata of %s", key), ex
+            );
+        }
+        RuleMetadata.require(key, "title", parsed.title);
+        final String severity = RuleMetadata.require(
+            key, "defaultSeverity", parsed.defaultSeverity
+        ).toUpperCase(Locale.US);
+        if (!Severity.ALL.contains(severity)) {
+            throw new IllegalArgumentException(
+                String.format("Unknown severity of %s: %s", key, severity)
+            );
+        }
+        final RuleStatus status;
+        final RuleType type;
+        try {
+            status = RuleStatus.valueOf(
+                RuleMetadata.require(key, "status", parsed.status)
+                    .toUpperCase(Locale.US)
+            );
+            type = RuleType.valueOf(
+                RuleMetadata.require(key, "type", parsed.type)
+            );
+        } catch (final IllegalArgumentException ex) {
+            throw new IllegalArgumentException(
+                String.format("Unknown status or type of %s", key), ex
+            );
+        }
+        final String[] tags;
+        if (parsed.tags == null) {
+            tags = new String[0];
+        } else {
+            tags = parsed.tags;
+        }
+        return new RuleMetadata(
+            parsed.title, severity, status, type, tags,
+            RuleMetadata.remediation(key, parsed.remediation), html
+        );
+    }
+
+    /**
+     * Reads metadata written by {@link #write(DataOutput)}.
+     * @param input Input.
+     * @return Metadata.
+     * @throws IOException If it can't be read.
+     */
+    public static RuleMetadata read(final DataInput input) throws IOException {
+        final String title = RuleMetadata.text(input);
+        final String severity = RuleMetadata.text(input);
+        final RuleStatus status = RuleStatus.valueOf(RuleMetadata.text(input));
+        final RuleType type = RuleType.valueOf(RuleMetadata.text(input));
+        final String[] tags = new String[input.readInt()];
+        for (int idx = 0; idx < tags.length; ++idx) {
+            tags[idx] = RuleMetadata.text(input);
+        }
+        final String[] remediation = new String[4];
+        for (int idx = 0; idx < remediation.length; ++idx) {
+            remediation[idx] = RuleMetadata.text(input);
+        }
+        return new RuleMetadata(
+            title, severity, status, type, tags, remediation,
+            RuleMetadata.text(input)
+        );
+    }
+
+    /**
+     * Writes the metadata.
+     * @param output Output.
+     * @throws IOException If it can't be written.
+     */
+    public void write(final DataOutput output) throws IOException {
+        RuleMetadata.text(output, this.title);
+        RuleMetadata.text(output, this.severity);
+        RuleMetadata.text(output, this.status.name());
+        RuleMetadata.text(output, this.type.name());
+        output.writeInt(this.tags.length);
+        for (final String tag : this.tags) {
+            RuleMetadata.text(output, tag);
+        }
+        RuleMetadata.text(output, this.func);
+        RuleMetadata.text(output, this.offset);
+        RuleMetadata.text(output, this.factor);
+        RuleMetadata.text(output, this.gap);
+        RuleMetadata.text(output, this.html);
+    }
+
+    /**
+     * Sets the metadata of a rule.
+     * @param rule Rule.
+     */
+    public void apply(final RulesDefinition.NewRule rule) {
+        if (this.html != null) {
+            rule.setHtmlDescription(this.html);
+        }
+        rule.setSeverity(this.severity);
+        rule.setName(this.title);
+        rule.addTags(this.tags);
+        rule.setType(this.type);
+        rule.setStatus(this.status);
+        if (this.func != null) {
+            rule.setDebtRemediationFunction(
+                this.function(rule.debtRemediationFunctions())
+            );
+            rule.setGapDescription(this.gap);
+        }
+    }
+
+    /**
+     * Remediation function.
+     * @param functions Function factory.
+     * @return Function.
+     */
+    private DebtRemediationFunction function(
+        final RulesDefinition.DebtRemediationFunctions functions) {
+        final DebtRemediationFunction function;
+        if (this.func.startsWith("Constant")) {
+            function = functions.constantPerIssue(this.offset);
+        } else if ("Linear".equals(this.func)) {
+            function = functions.linear(this.factor);
+        } else {
+            function = functions.linearWithOffset(this.factor, this.offset);
+        }
+        return function;
+    }
+
+    /**
+     * Validates the remediation of a rule.
+     * @param key Rule key, for error messages.
+     * @param json Remediation, may be null.
+     * @return Function, offset or constant cost, factor and gap
+     *  description.
+     */
+    private static String[] remediation(final String key,
+        final RuleMetadata.Remediation json) {
+        final String[] remediation = new String[4];
+        if (json != null) {
+            final String func = RuleMetadata.require(
+                key, "remediation.func", json.func
+            );
+            remediation[0] = func;
+            if (func.startsWith("Constant")) {
+                remediation[1] = RuleMetadata.duration(
+                    key, "remediation.constantCost", json.constantCost
+                );
+            } else if ("Linear".equals(func)) {
+                remediation[2] = RuleMetadata.duration(
+                    key, "remediation.linearFactor", json.linearFactor
+                );
+            } else {
+                remediation[1] = RuleMetadata.duration(
+                    key, "remediation.linearOffset", json.linearOffset
+                );
+                remediation[2] = RuleMetadata.duration(
+                    key, "remediation.linearFactor", json.linearFactor
+                );
+            }
+            remediation[3] = json.linearDesc;
+        }
+        return remediation;
+    }
+
+    /**
+     * Validates a duration, in the format of the rules API.
+     * @param key Rule key, for error messages.
+     * @param name Property name.
+     * @param value Value, may be null.
+     * @return Duration.
+     */
+    private static String duration(final String key, final String name,
+        final String value) {
+        return RuleMetadata.require(key, name, value).replace("mn", "min");
+    }
+
+    /**
+     * Fails if a property is missing.
+     * @param key Rule key, for error messages.
+     * @param name Property name.
+     * @param value Value, may be null.
+     * @return Value.
+     */
+    private static String require(final String key, final String name,
+        final String value) {
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(
+                String.format("Missing %s in metadata of %s", name, key)
+            );
+        }
+        return value;
+    }
+
+    /**
+     * Writes a string of any length, or null.
+     * @param output Output.
+     * @param text String, may be null.
+     * @throws IOException If it can't be written.
+     */
+    private static void text(final DataOutput output, final String text)
+        throws IOException {
+        if (text == null) {
+            output.writeInt(-1);
+        } else {
+            final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #text(DataOutput, String)}.
+     * @param input Input.
+     * @return String, may be null.
+     * @throws IOException If it can't be read.
+     */
+    private static String text(final DataInput input) throws IOException {
+        final int length = input.readInt();
+        final String text;
+        if (length < 0) {
+            text = null;
+        } else {
+            final byte[] bytes = new byte[length];
+            input.readFully(bytes);
+            text = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return text;
+    }
+
+    /**
+     * Content of a <code>_java.json</code> resource.
+     * @checkstyle VisibilityModifierCheck (20 lines)
+     * @checkstyle MemberNameCheck (20 lines)
+     */
+    private static final class Json {
+
+        /**
+         * Title.
+         */
+        String title;
+
+        /**
+         * Status.
+         */
+        String status;
+
+        /**
+         * Remediation, may be null.
+         */
+        RuleMetadata.Remediation remediation;
+
+        /**
+         * Type.
+         */
+        String type;
+
+        /**
+         * Tags.
+         */
+        String[] tags;
+
+        /**
+         * Default severity.
+         */
+        String defaultSeverity;
+    }
+
+    /**
+     * Remediation in a <code>_java.json</code> resource.
+     * @checkstyle VisibilityModifierCheck (25 lines)
+     * @checkstyle MemberNameCheck (25 lines)
+     */
+    private static final class Remediation {
+
+        /**
+         * Function name.
+         */
+        String func;
+
+        /**
+         * Cost per issue.
+         */
+        String constantCost;
+
+        /**
+         * Gap description.
+         */
+        String linearDesc;
+
+        /**
+         * Offset.
+         */
+        String linearOffset;
+
+        /**
+         * Factor.
+         */
+        String linearFactor;
+    }
+
+}
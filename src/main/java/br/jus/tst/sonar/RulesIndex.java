@@ -0,0 +1,246 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Metadata of every rule, compiled at build time into a single resource.
+ *
+ * <p>The build runs {@link #main(String...)} on the class directory once
+ * resources are copied: the <code>_java.json</code> and
+ * <code>_java.html</code> resources of each rule are validated and written
+ * to {@link #RESOURCE}, so rules definitions read one resource at startup
+ * instead of parsing two per rule.</p>
+ * @since 1.1
+ */
+public final class RulesIndex {
+
+    /**
+     * Directory of rule metadata resources.
+     */
+    static final String DIRECTORY = "org/sonar/l10n/java/rules/squid";
+
+    /**
+     * Index resource.
+     */
+    static final String RESOURCE = String.format(
+        "%s/tst-java-rules.idx", RulesIndex.DIRECTORY
+    );
+
+    /**
+     * Suffix of metadata resources.
+     */
+    private static final String JSON = "_java.json";
+
+    /**
+     * Suffix of description resources.
+     */
+    private static final String HTML = "_java.html";
+
+    /**
+     * First bytes of an index.
+     */
+    private static final int MAGIC = 0x54535452;
+
+    /**
+     * Format of the index.
+     */
+    private static final int FORMAT = 1;
+
+    /**
+     * Metadata by rule key.
+     */
+    private final Map<String, RuleMetadata> rules;
+
+    /**
+     * Main constructor.
+     * @param rules Metadata by rule key.
+     */
+    private RulesIndex(final Map<String, RuleMetadata> rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Compiles the index into a class directory.
+     * @param args Class directory.
+     * @throws IOException If resources can't be read or written.
+     */
+    public static void main(final String... args) throws IOException {
+        final Path classes = Paths.get(args[0]);
+        RulesIndex.compile(classes).write(classes.resolve(RulesIndex.RESOURCE));
+    }
+
+    /**
+     * Loads the index compiled into the classpath.
+     * @return Index.
+     */
+    public static RulesIndex load() {
+        final String resource = String.format("/%s", RulesIndex.RESOURCE);
+        try (InputStream stream = RulesIndex.class.getResourceAsStream(
+            resource
+        )) {
+            if (stream == null) {
+                throw new IllegalStateException(
+                    String.format("Resource not found: %s", resource)
+                );
+            }
+            return RulesIndex.read(
+                new DataInputStream(new BufferedInputStream(stream))
+            );
+        } catch (final IOException ex) {
+            throw new IllegalStateException(
+                String.format("Failed to read: %s", resource), ex
+            );
+        }
+    }
+
+    /**
+     * Compiles the metadata resources of a directory, checking every rule
+     * of {@link RulesList} has them.
+     * @param root Directory holding {@link #DIRECTORY}.
+     * @return Index.
+     * @throws IOException If resources can't be read.
+     * @throws IllegalArgumentException If metadata are invalid or missing.
+     */
+    public static RulesIndex compile(final Path root) throws IOException {
+        final Path dir = root.resolve(RulesIndex.DIRECTORY);
+        final List<Path> files;
+        try (Stream<Path> listed = Files.list(dir)) {
+            files = listed
+                .filter(file -> file.toString().endsWith(RulesIndex.JSON))
+                .collect(Collectors.toList());
+        }
+        final Map<String, RuleMetadata> rules = new TreeMap<>();
+        for (final Path file : files) {
+            final String name = file.getFileName().toString();
+            final String key = name.substring(
+                0, name.length() - RulesIndex.JSON.length()
+            );
+            final Path html = dir.resolve(
+                String.format("%s%s", key, RulesIndex.HTML)
+            );
+            String description = null;
+            if (Files.isRegularFile(html)) {
+                description = RulesIndex.content(html);
+            }
+            rules.put(
+                key,
+                RuleMetadata.parse(key, RulesIndex.content(file), description)
+            );
+        }
+        for (int idx = 0; idx < RulesList.size(); ++idx) {
+            if (!rules.containsKey(RulesList.key(idx))) {
+                throw new IllegalArgumentException(
+                    String.format(
+                        "No metadata found for %s", RulesList.key(idx)
+                    )
+                );
+            }
+        }
+        return new RulesIndex(rules);
+    }
+
+    /**
+     * Metadata of a rule.
+     * @param key Rule key.
+     * @return Metadata, or null if the rule has none.
+     */
+    RuleMetadata rule(final String key) {
+        return this.rules.get(key);
+    }
+
+    /**
+     * Number of rules in the index.
+     * @return Count.
+     */
+    public int size() {
+        return this.rules.size();
+    }
+
+    /**
+     * Writes the index.
+     * @param file Index file.
+     * @throws IOException If it can't be written.
+     */
+    public void write(final Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (DataOutputStream output = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(file))
+        )) {
+            output.writeInt(RulesIndex.MAGIC);
+            output.writeInt(RulesIndex.FORMAT);
+            output.writeInt(this.rules.size());
+            for (final Map.Entry<String, RuleMetadata> rule
+                : this.rules.entrySet()) {
+                output.writeUTF(rule.getKey());
+                rule.getValue().write(output);
+            }
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #write(Path)}.
+     * @param input Input.
+     * @return Index.
+     * @throws IOException If it can't be read.
+     */
+    private static RulesIndex read(final DataInputStream input)
+        throws IOException {
+        if (input.readInt() != RulesIndex.MAGIC
+            || input.readInt() != RulesIndex.FORMAT) {
+            throw new IOException("Not a rules index of this version");
+        }
+        final int size = input.readInt();
+        final Map<String, RuleMetadata> rules = new HashMap<>(size * 2);
+        for (int idx = 0; idx < size; ++idx) {
+            rules.put(input.readUTF(), RuleMetadata.read(input));
+        }
+        return new RulesIndex(rules);
+    }
+
+    /**
+     * Content of a resource file.
+     * @param file File.
+     * @return Content.
+     * @throws IOException If it can't be read.
+     */
+    private static String content(final Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+}
@@ -19,31 +19,79 @@
  */
 package br.jus.tst.sonar;
 
-import br.jus.tst.sonar.checks.ApiDocumentationRule;
-import br.jus.tst.sonar.checks.EndpointDocumentationRule;
-import com.google.common.collect.ImmutableList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import org.sonar.check.Priority;
 import org.sonar.plugins.java.api.JavaCheck;
 
+/**
+ * Rules of this plugin, as found at compile time by {@link RulesProcessor}.
+ */
 public final class RulesList {
 
+    /**
+     * Rule classes, in the order of the registry.
+     */
+    private static final List<Class> CHECKS =
+        Collections.unmodifiableList(Arrays.<Class>asList(RulesRegistry.CHECKS));
+
+    /**
+     * Rule classes as checks of main sources, in the order of the registry.
+     */
+    @SuppressWarnings("unchecked")
+    private static final List<Class<? extends JavaCheck>> JAVA_CHECKS =
+        Collections.unmodifiableList(
+            Arrays.asList((Class<? extends JavaCheck>[]) RulesRegistry.CHECKS));
+
     private RulesList() {
     }
 
     public static List<Class> getChecks() {
-        return ImmutableList.<Class>builder().addAll(getJavaChecks())
-            .addAll(getJavaTestChecks()).build();
+        return CHECKS;
     }
 
     public static List<Class<? extends JavaCheck>> getJavaChecks() {
-        return ImmutableList.<Class<? extends JavaCheck>>builder()
-            .add(ApiDocumentationRule.class)
-            .add(EndpointDocumentationRule.class)
-            .build();
+        return JAVA_CHECKS;
     }
 
     public static List<Class<? extends JavaCheck>> getJavaTestChecks() {
-        return ImmutableList.<Class<? extends JavaCheck>>builder()
-            .build();
+        return Collections.emptyList();
+    }
+
+    /**
+     * Number of rules.
+     */
+    static int size() {
+        return RulesRegistry.KEYS.length;
+    }
+
+    /**
+     * Key of the rule at an index of {@link #getChecks()}.
+     */
+    static String key(int index) {
+        return RulesRegistry.KEYS[index];
+    }
+
+    /**
+     * Priority of the rule at an index of {@link #getChecks()}.
+     */
+    static Priority priority(int index) {
+        return RulesRegistry.PRIORITIES[index];
+    }
+
+    /**
+     * Whether the rule at an index of {@link #getChecks()} is a template.
+     */
+    static boolean isTemplate(int index) {
+        return RulesRegistry.TEMPLATES[index];
+    }
+
+    /**
+     * Parameters of the rule at an index of {@link #getChecks()}: key,
+     * description, default value and type of each in turn.
+     */
+    static String[] params(int index) {
+        return RulesRegistry.PARAMS[index];
     }
 }
@@ -0,0 +1,350 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import org.sonar.check.Rule;
+import org.sonar.check.RuleProperty;
+import org.sonar.squidbridge.annotations.RuleTemplate;
+
+/**
+ * Generates <code>RulesRegistry</code>, listing every concrete
+ * {@link org.sonar.plugins.java.api.JavaCheck} annotated with {@link Rule},
+ * with the key, priority, template flag and {@link RuleProperty} parameters
+ * of each.
+ *
+ * <p>The build compiles this class on its own, then runs it while
+ * compiling the rest of the plugin. Rules lacking a key or declaring a
+ * cardinality fail the compilation.</p>
+ * @since 1.1
+ */
+@SupportedAnnotationTypes("org.sonar.check.Rule")
+public final class RulesProcessor extends AbstractProcessor {
+
+    /**
+     * Generated class.
+     */
+    private static final String REGISTRY = "br.jus.tst.sonar.RulesRegistry";
+
+    /**
+     * Interface implemented by checks.
+     */
+    private static final String CHECK = "org.sonar.plugins.java.api.JavaCheck";
+
+    /**
+     * Types of parameters guessed from the type of their fields, as
+     * sonar-plugin-api does; others are strings.
+     */
+    private static final Map<String, String> TYPES = RulesProcessor.types();
+
+    /**
+     * Source of the registry, given its array elements.
+     */
+    private static final String TEMPLATE = String.join(
+        "%n",
+        "package br.jus.tst.sonar;",
+        "",
+        "import org.sonar.check.Priority;",
+        "",
+        "/**",
+        " * Rules of this plugin, generated by RulesProcessor.",
+        " */",
+        "final class RulesRegistry {",
+        "",
+        "    /** Rule classes. */",
+        "    static final Class<?>[] CHECKS = {%n%s    };",
+        "",
+        "    /** Rule keys. */",
+        "    static final String[] KEYS = {%n%s    };",
+        "",
+        "    /** Rule priorities. */",
+        "    static final Priority[] PRIORITIES = {%n%s    };",
+        "",
+        "    /** Whether each rule is a template. */",
+        "    static final boolean[] TEMPLATES = {%n%s    };",
+        "",
+        "    /**",
+        "     * Parameters of each rule: key, description, default value and",
+        "     * type of each in turn.",
+        "     */",
+        "    static final String[][] PARAMS = {%n%s    };",
+        "",
+        "    private RulesRegistry() {",
+        "    }",
+        "}",
+        ""
+    );
+
+    /**
+     * Whether the registry was generated.
+     */
+    private boolean generated;
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations,
+        final RoundEnvironment round) {
+        final Map<String, TypeElement> rules = new TreeMap<>();
+        for (final Element element : round.getElementsAnnotatedWith(
+            Rule.class
+        )) {
+            if (this.isCheck(element)) {
+                final TypeElement type = (TypeElement) element;
+                rules.put(type.getQualifiedName().toString(), type);
+            }
+        }
+        if (!rules.isEmpty()) {
+            if (this.generated) {
+                this.processingEnv.getMessager().printMessage(
+                    Diagnostic.Kind.ERROR,
+                    "Rules must not be generated by other processors",
+                    rules.values().iterator().next()
+                );
+            } else {
+                this.generate(rules);
+                this.generated = true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether an element is a concrete check, reporting invalid
+     * rule declarations.
+     * @param element Element annotated with {@link Rule}.
+     * @return True if it is.
+     */
+    private boolean isCheck(final Element element) {
+        final TypeMirror check = this.processingEnv.getElementUtils()
+            .getTypeElement(RulesProcessor.CHECK).asType();
+        boolean valid = element.getKind() == ElementKind.CLASS
+            && !element.getModifiers().contains(Modifier.ABSTRACT)
+            && this.processingEnv.getTypeUtils()
+                .isAssignable(element.asType(), check);
+        if (valid) {
+            final Rule rule = element.getAnnotation(Rule.class);
+            if (rule.key().isEmpty()) {
+                this.error(element, "No key is defined in Rule annotation");
+                valid = false;
+            }
+            if (RulesProcessor.multiple(element)) {
+                this.error(
+                    element,
+                    "Cardinality is not supported, use RuleTemplate instead"
+                );
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Writes the registry.
+     * @param rules Rule classes by name.
+     */
+    private void generate(final Map<String, TypeElement> rules) {
+        final StringBuilder checks = new StringBuilder();
+        final StringBuilder keys = new StringBuilder();
+        final StringBuilder priorities = new StringBuilder();
+        final StringBuilder templates = new StringBuilder();
+        final StringBuilder params = new StringBuilder();
+        for (final Map.Entry<String, TypeElement> entry : rules.entrySet()) {
+            final Rule rule = entry.getValue().getAnnotation(Rule.class);
+            checks.append(
+                String.format("        %s.class,%n", entry.getKey())
+            );
+            keys.append(String.format("        \"%s\",%n", rule.key()));
+            priorities.append(
+                String.format("        Priority.%s,%n", rule.priority())
+            );
+            templates.append(
+                String.format(
+                    "        %b,%n",
+                    entry.getValue().getAnnotation(RuleTemplate.class) != null
+                )
+            );
+            params.append(
+                String.format("        {%s},%n", this.params(entry.getValue()))
+            );
+        }
+        try (Writer writer = this.processingEnv.getFiler().createSourceFile(
+            RulesProcessor.REGISTRY,
+            rules.values().toArray(new Element[rules.size()])
+        ).openWriter()) {
+            writer.write(
+                String.format(
+                    RulesProcessor.TEMPLATE, checks, keys, priorities,
+                    templates, params
+                )
+            );
+        } catch (final IOException ex) {
+            this.processingEnv.getMessager().printMessage(
+                Diagnostic.Kind.ERROR,
+                    String.format(
+                    "Failed to write %s: %s", RulesProcessor.REGISTRY, ex
+                )
+            );
+        }
+    }
+
+    /**
+     * Parameters of a rule, from the fields of its class and superclasses
+     * annotated with {@link RuleProperty}.
+     * @param type Rule class.
+     * @return Key, description, default value and type of each, as Java
+     *  literals separated by commas.
+     */
+    private String params(final TypeElement type) {
+        final StringBuilder params = new StringBuilder();
+        for (TypeElement current = type; current != null;
+            current = this.superclass(current)) {
+            for (final VariableElement field
+                : ElementFilter.fieldsIn(current.getEnclosedElements())) {
+                final RuleProperty property =
+                    field.getAnnotation(RuleProperty.class);
+                if (property != null) {
+                    String key = property.key();
+                    if (key.isEmpty()) {
+                        key = field.getSimpleName().toString();
+                    }
+                    String kind = property.type().trim();
+                    if (kind.isEmpty()) {
+                        kind = RulesProcessor.TYPES.getOrDefault(
+                            field.asType().toString(), "STRING"
+                        );
+                    }
+                    for (final String value : new String[] {
+                        key, property.description(), property.defaultValue(),
+                        kind,
+                    }) {
+                        if (params.length() > 0) {
+                            params.append(", ");
+                        }
+                        params.append(
+                            this.processingEnv.getElementUtils()
+                                .getConstantExpression(value)
+                        );
+                    }
+                }
+            }
+        }
+        return params.toString();
+    }
+
+    /**
+     * Superclass of a class.
+     * @param type Class.
+     * @return Superclass, or null if none.
+     */
+    private TypeElement superclass(final TypeElement type) {
+        final TypeMirror parent = type.getSuperclass();
+        TypeElement found = null;
+        if (parent.getKind() == TypeKind.DECLARED) {
+            found = (TypeElement) this.processingEnv.getTypeUtils()
+                .asElement(parent);
+        }
+        return found;
+    }
+
+    /**
+     * Tells whether a rule declares a multiple cardinality, reading its
+     * annotation as written rather than through the deprecated enum.
+     * @param element Element annotated with {@link Rule}.
+     * @return True if it does.
+     */
+    private static boolean multiple(final Element element) {
+        boolean multiple = false;
+        for (final AnnotationMirror annotation
+            : element.getAnnotationMirrors()) {
+            if (Rule.class.getName()
+                .equals(annotation.getAnnotationType().toString())) {
+                for (final Map.Entry<? extends ExecutableElement,
+                    ? extends AnnotationValue> value
+                    : annotation.getElementValues().entrySet()) {
+                    multiple |= "cardinality".contentEquals(
+                        value.getKey().getSimpleName()
+                    ) && "MULTIPLE".equals(
+                        value.getValue().getValue().toString()
+                    );
+                }
+            }
+        }
+        return multiple;
+    }
+
+    /**
+     * Types of parameters by type of field.
+     * @return Map.
+     */
+    private static Map<String, String> types() {
+        final Map<String, String> types = new TreeMap<>();
+        for (final String name : new String[] {"int", "java.lang.Integer"}) {
+            types.put(name, "INTEGER");
+        }
+        for (final String name
+            : new String[] {"boolean", "java.lang.Boolean"}) {
+            types.put(name, "BOOLEAN");
+        }
+        for (final String name : new String[] {
+            "float", "java.lang.Float", "double", "java.lang.Double",
+        }) {
+            types.put(name, "FLOAT");
+        }
+        return types;
+    }
+
+    /**
+     * Reports an invalid rule.
+     * @param element Rule class.
+     * @param message Message.
+     */
+    private void error(final Element element, final String message) {
+        this.processingEnv.getMessager().printMessage(
+            Diagnostic.Kind.ERROR, message, element
+        );
+    }
+
+}
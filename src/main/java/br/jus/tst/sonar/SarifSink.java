@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import com.google.gson.stream.JsonWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Issues written as a SARIF 2.1.0 log, streamed: results are written as
+ * files are analyzed, the rules and their message table once all are.
+ *
+ * <p>Results refer to their message by identifier, in the
+ * <code>messageStrings</code> of their rule, unless the
+ * {@link MessageTable} is full.</p>
+ * @since 1.1
+ */
+final class SarifSink implements IssueSink {
+
+    /**
+     * JSON schema of SARIF logs.
+     */
+    private static final String SCHEMA =
+        "https://json.schemastore.org/sarif-2.1.0.json";
+
+    /**
+     * JSON output.
+     */
+    private final JsonWriter json;
+
+    /**
+     * Messages written so far.
+     */
+    private final MessageTable table;
+
+    /**
+     * Main constructor.
+     * @param output Output.
+     * @throws IOException If it can't be written.
+     */
+    SarifSink(final Writer output) throws IOException {
+        this.json = new JsonWriter(output);
+        this.table = new MessageTable();
+        this.json.beginObject()
+            .name("$schema").value(SarifSink.SCHEMA)
+            .name("version").value("2.1.0")
+            .name("runs").beginArray()
+            .beginObject()
+            .name("columnKind").value("utf16CodeUnits")
+            .name("results").beginArray();
+    }
+
+    @Override
+    public void accept(final List<Finding> findings) throws IOException {
+        for (final Finding finding : findings) {
+            final int[] region = finding.region();
+            this.json.beginObject()
+                .name("ruleId").value(finding.rule())
+                .name("ruleIndex").value(this.table.rule(finding.rule()))
+                .name("message").beginObject();
+            this.message(finding);
+            this.json.endObject()
+                .name("locations").beginArray()
+                .beginObject()
+                .name("physicalLocation").beginObject()
+                .name("artifactLocation").beginObject()
+                .name("uri").value(SarifSink.uri(finding))
+                .endObject()
+                .name("region").beginObject()
+                .name("startLine").value(region[0])
+                .name("startColumn").value(region[1])
+                .name("endLine").value(region[2])
+                .name("endColumn").value(region[3])
+                .endObject()
+                .endObject()
+                .endObject()
+                .endArray()
+                .endObject();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.json.endArray()
+            .name("tool").beginObject()
+            .name("driver").beginObject()
+            .name("name").value("tst-java")
+            .name("rules").beginArray();
+        final List<String> rules = this.table.rules();
+        for (int idx = 0; idx < rules.size(); ++idx) {
+            this.json.beginObject()
+                .name("id").value(rules.get(idx))
+                .name("messageStrings").beginObject();
+            for (final Map.Entry<String, String> message
+                : this.table.messages(idx).entrySet()) {
+                this.json.name(message.getKey()).beginObject()
+                    .name("text").value(message.getValue())
+                    .endObject();
+            }
+            this.json.endObject().endObject();
+        }
+        this.json.endArray()
+            .endObject()
+            .endObject()
+            .endObject()
+            .endArray()
+            .endObject();
+        this.json.close();
+    }
+
+    /**
+     * Writes the message of an issue, by reference if possible.
+     * @param finding Issue.
+     * @throws IOException If it can't be written.
+     */
+    private void message(final Finding finding) throws IOException {
+        String id = this.table.known(finding.rule(), finding.message());
+        if (id == null) {
+            id = this.table.add(finding.rule(), finding.message());
+        }
+        if (id == null) {
+            this.json.name("text").value(finding.message());
+        } else {
+            this.json.name("id").value(id);
+        }
+    }
+
+    /**
+     * URI of the file of an issue.
+     * @param finding Issue.
+     * @return URI, relative if the file path is.
+     */
+    private static String uri(final Finding finding) {
+        final String uri;
+        if (finding.file().isAbsolute()) {
+            uri = finding.file().toUri().toString();
+        } else {
+            uri = finding.file().toString().replace('\\', '/');
+        }
+        return uri;
+    }
+
+}
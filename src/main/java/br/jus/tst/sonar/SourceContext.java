@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.sonar.check.Rule;
+import org.sonar.java.model.DefaultJavaFileScannerContext;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Scanner context of a file analyzed outside SonarQube, without semantic
+ * model, collecting the reported issues as {@link Finding}s.
+ * @since 1.1
+ */
+final class SourceContext extends DefaultJavaFileScannerContext {
+
+    /**
+     * File.
+     */
+    private final Path file;
+
+    /**
+     * Source code.
+     */
+    private final String source;
+
+    /**
+     * Reported issues.
+     */
+    private final List<Finding> found;
+
+    /**
+     * Main constructor.
+     * @param file File.
+     * @param source Source code.
+     * @param unit Compilation unit.
+     */
+    SourceContext(final Path file, final String source,
+        final CompilationUnitTree unit) {
+        super(unit, file.toFile(), null, null, null, true);
+        this.file = file;
+        this.source = source;
+        this.found = new ArrayList<>(0);
+    }
+
+    /**
+     * Issues reported so far.
+     * @return Issues.
+     */
+    public List<Finding> findings() {
+        return this.found;
+    }
+
+    @Override
+    public void addIssueOnFile(final JavaCheck check, final String message) {
+        this.addIssue(1, check, message);
+    }
+
+    @Override
+    public void addIssue(final int line, final JavaCheck check,
+        final String message) {
+        this.found.add(
+            new Finding(
+                this.file, SourceContext.rule(check),
+                new int[] {line, 1, line, 1}, message
+            )
+        );
+    }
+
+    @Override
+    public void addIssue(final int line, final JavaCheck check,
+        final String message, final Integer cost) {
+        this.addIssue(line, check, message);
+    }
+
+    @Override
+    public void addIssue(final File other, final JavaCheck check,
+        final int line, final String message) {
+        this.addIssue(line, check, message);
+    }
+
+    @Override
+    public String getFileKey() {
+        return this.file.toString();
+    }
+
+    @Override
+    public void reportIssue(final JavaCheck check, final Tree tree,
+        final String message) {
+        this.reportIssue(check, tree, tree, message);
+    }
+
+    @Override
+    public void reportIssue(final JavaCheck check, final Tree tree,
+        final String message, final List<Location> locations,
+        final Integer cost) {
+        this.reportIssue(check, tree, message);
+    }
+
+    @Override
+    public void reportIssueWithFlow(final JavaCheck check, final Tree tree,
+        final String message, final Iterable<List<Location>> flows,
+        final Integer cost) {
+        this.reportIssue(check, tree, message);
+    }
+
+    @Override
+    public void reportIssue(final JavaCheck check, final Tree start,
+        final Tree end, final String message) {
+        this.found.add(
+            new Finding(
+                this.file, SourceContext.rule(check), start.firstToken(),
+                end.lastToken(), message
+            )
+        );
+    }
+
+    @Override
+    public void reportIssue(final JavaCheck check, final Tree start,
+        final Tree end, final String message, final List<Location> locations,
+        final Integer cost) {
+        this.reportIssue(check, start, end, message);
+    }
+
+    @Override
+    public List<String> getFileLines() {
+        return Collections.unmodifiableList(
+            Arrays.asList(this.source.split("\r\n|\n|\r", -1))
+        );
+    }
+
+    @Override
+    public String getFileContent() {
+        return this.source;
+    }
+
+    /**
+     * Key of the rule of a check.
+     * @param check Check.
+     * @return Key.
+     */
+    private static String rule(final JavaCheck check) {
+        final Rule rule = check.getClass().getAnnotation(Rule.class);
+        final String key;
+        if (rule == null) {
+            key = check.getClass().getName();
+        } else {
+            key = rule.key();
+        }
+        return key;
+    }
+
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Issues written one per line, as <code>file:line:column: [rule]
+ * message</code>.
+ * @since 1.1
+ */
+final class TextSink implements IssueSink {
+
+    /**
+     * Output.
+     */
+    private final Writer output;
+
+    /**
+     * Main constructor.
+     * @param output Output.
+     */
+    TextSink(final Writer output) {
+        this.output = output;
+    }
+
+    @Override
+    public void accept(final List<Finding> findings) throws IOException {
+        for (final Finding finding : findings) {
+            this.output.write(finding.toString());
+            this.output.write(System.lineSeparator());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.output.close();
+    }
+
+}
@@ -20,23 +20,10 @@
 package br.jus.tst.sonar;
 
 import com.google.common.annotations.VisibleForTesting;
-import com.google.common.collect.Iterables;
-import com.google.common.io.Resources;
-import com.google.gson.Gson;
-import java.io.IOException;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.Locale;
-import javax.annotation.Nullable;
 import org.apache.commons.lang.StringUtils;
-import org.sonar.api.rule.RuleStatus;
-import org.sonar.api.rules.RuleType;
-import org.sonar.api.server.debt.DebtRemediationFunction;
+import org.sonar.api.server.rule.RuleParamType;
 import org.sonar.api.server.rule.RulesDefinition;
-import org.sonar.api.server.rule.RulesDefinitionAnnotationLoader;
 import org.sonar.api.utils.AnnotationUtils;
-import org.sonar.check.Cardinality;
 import org.sonar.plugins.java.Java;
 import org.sonar.squidbridge.annotations.RuleTemplate;
 
@@ -46,25 +33,19 @@ import org.sonar.squidbridge.annotations.RuleTemplate;
  */
 public class TstJavaRulesDefinition implements RulesDefinition {
 
-    // don't change that because the path is hard coded in CheckVerifier
-    private static final String RESOURCE_BASE_PATH = "/org/sonar/l10n/java/rules/squid";
-
     public static final String REPOSITORY_KEY = "tst-java";
 
-    private final Gson gson = new Gson();
+    private RulesIndex index;
 
     @Override
     public void define(Context context) {
         NewRepository repository = context
             .createRepository(REPOSITORY_KEY, Java.KEY)
             .setName("Tribunal Superior do Trabalho");
-        List<Class> checks = RulesList.getChecks();
-        new RulesDefinitionAnnotationLoader()
-            .load(repository, Iterables.toArray(checks, Class.class));
-        checks.forEach(
-            (ruleClass) -> {
-                newRule(ruleClass, repository);
-            });
+        for (int idx = 0; idx < RulesList.size(); idx++) {
+            createRule(idx, repository);
+            newRule(RulesList.key(idx), RulesList.isTemplate(idx), repository);
+        }
         repository.done();
     }
 
@@ -79,86 +60,44 @@ public class TstJavaRulesDefinition implements RulesDefinition {
         if (StringUtils.isEmpty(ruleKey)) {
             throw new IllegalArgumentException("No key is defined in Rule annotation of " + ruleClass);
         }
-        NewRule rule = repository.rule(ruleKey);
-        if (rule == null) {
-            throw new IllegalStateException("No rule was created for " + ruleClass + " in " + repository.key());
-        }
-        ruleMetadata(rule);
-
-        rule.setTemplate(AnnotationUtils.getAnnotation(ruleClass, RuleTemplate.class) != null);
-        if (ruleAnnotation.cardinality() == Cardinality.MULTIPLE) {
-            throw new IllegalArgumentException("Cardinality is not supported, use the RuleTemplate annotation instead for " + ruleClass);
-        }
-    }
-
-    private void ruleMetadata(NewRule rule) {
-        String metadataKey = rule.key();
-        addHtmlDescription(rule, metadataKey);
-        addMetadata(rule, metadataKey);
+        newRule(ruleKey, AnnotationUtils.getAnnotation(ruleClass, RuleTemplate.class) != null, repository);
     }
 
-    private void addMetadata(NewRule rule, String metadataKey) {
-        URL resource = TstJavaRulesDefinition.class.getResource(RESOURCE_BASE_PATH + "/" + metadataKey + "_java.json");
-        if (resource != null) {
-            RuleMetatada metatada = gson.fromJson(readResource(resource), RuleMetatada.class);
-            rule.setSeverity(metatada.defaultSeverity.toUpperCase(Locale.US));
-            rule.setName(metatada.title);
-            rule.addTags(metatada.tags);
-            rule.setType(RuleType.valueOf(metatada.type));
-            rule.setStatus(RuleStatus.valueOf(metatada.status.toUpperCase(Locale.US)));
-            if (metatada.remediation != null) {
-                rule.setDebtRemediationFunction(
-                    metatada.remediation
-                        .remediationFunction(rule.debtRemediationFunctions())
-                );
-                rule.setGapDescription(metatada.remediation.linearDesc);
-            }
+    /**
+     * Creates a rule of the registry with its parameters, as found at
+     * compile time, instead of reading its annotations again.
+     */
+    private static void createRule(int index, NewRepository repository) {
+        NewRule rule = repository.createRule(RulesList.key(index))
+            .setSeverity(RulesList.priority(index).name());
+        String[] params = RulesList.params(index);
+        for (int param = 0; param < params.length; param += 4) {
+            rule.createParam(params[param])
+                .setDescription(params[param + 1])
+                .setDefaultValue(params[param + 2])
+                .setType(RuleParamType.parse(params[param + 3]));
         }
     }
 
-    private static void addHtmlDescription(NewRule rule, String metadataKey) {
-        URL resource = TstJavaRulesDefinition.class.getResource(RESOURCE_BASE_PATH + "/" + metadataKey + "_java.html");
-        if (resource != null) {
-            rule.setHtmlDescription(readResource(resource));
+    /**
+     * Completes a rule of the registry, already checked at compile time.
+     */
+    private void newRule(String ruleKey, boolean template, NewRepository repository) {
+        NewRule rule = repository.rule(ruleKey);
+        if (rule == null) {
+            throw new IllegalStateException("No rule was created for " + ruleKey + " in " + repository.key());
         }
+        ruleMetadata(rule);
+        rule.setTemplate(template);
     }
 
-    private static String readResource(URL resource) {
-        try {
-            return Resources.toString(resource, StandardCharsets.UTF_8);
-        } catch (IOException e) {
-            throw new IllegalStateException("Failed to read: " + resource, e);
+    private void ruleMetadata(NewRule rule) {
+        if (index == null) {
+            index = RulesIndex.load();
         }
-    }
-
-    private static class RuleMetatada {
-
-        String title;
-        String status;
-        @Nullable
-        Remediation remediation;
-
-        String type;
-        String[] tags;
-        String defaultSeverity;
-    }
-
-    private static class Remediation {
-
-        String func;
-        String constantCost;
-        String linearDesc;
-        String linearOffset;
-        String linearFactor;
-
-        public DebtRemediationFunction remediationFunction(DebtRemediationFunctions drf) {
-            if (func.startsWith("Constant")) {
-                return drf.constantPerIssue(constantCost.replace("mn", "min"));
-            }
-            if ("Linear".equals(func)) {
-                return drf.linear(linearFactor.replace("mn", "min"));
-            }
-            return drf.linearWithOffset(linearFactor.replace("mn", "min"), linearOffset.replace("mn", "min"));
+        RuleMetadata metadata = index.rule(rule.key());
+        if (metadata != null) {
+            metadata.apply(rule);
         }
     }
 
@@ -34,6 +34,17 @@ public class TstRulesPlugin implements Plugin {
 
     // batch extensions -> objects are instantiated during code analysis
     context.addExtension(TstJavaFileCheckRegistrar.class);
+    context.addExtension(AnalysisSummary.class);
+    context.addExtension(AnalysisCache.class);
+    context.addExtension(CoverageMetrics.class);
+    context.addExtension(CoverageSensor.class);
+    context.addExtension(CoverageComputer.class);
+    context.addExtension(AnalysisInventory.class);
+    context.addExtension(InventorySensor.class);
+    context.addExtension(EditorCache.class);
+    context.addExtension(AnalysisDump.class);
+    context.addExtension(AnalysisSnapshot.class);
+    context.addExtension(AnalysisSpec.class);
 
   }
 
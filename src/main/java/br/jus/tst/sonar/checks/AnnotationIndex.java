@@ -0,0 +1,612 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Maps the annotation names known by the rules to bits of a mask.
+ *
+ * <p>Annotations of a declaration are summarized as a <code>long</code>, so
+ * rules test them with a couple of bitwise operations instead of building
+ * and querying sets of names.</p>
+ *
+ * <p>Besides the JAX-RS, Spring MVC and Swagger annotations, rules may
+ * {@link #register(String, Object)} the annotations they are configured
+ * with. Each simple name gets one of the bits left, for as long as some
+ * owner keeps it registered, and is matched in the packages it was
+ * registered with, or in any package if registered by simple name. Built-in
+ * names registered in other packages, such as <code>jakarta.ws.rs</code>,
+ * share the bits of the built-in ones. Every change starts a new
+ * {@link #generation()}, so caches of resolutions know when to start
+ * over.</p>
+ * @since 1.1
+ */
+public final class AnnotationIndex {
+
+    /**
+     * <code>@Path</code>.
+     */
+    public static final long PATH = 1L;
+
+    /**
+     * <code>@Api</code>.
+     */
+    public static final long API = 1L << 1;
+
+    /**
+     * <code>@ApiOperation</code>.
+     */
+    public static final long API_OPERATION = 1L << 2;
+
+    /**
+     * <code>@GET</code>.
+     */
+    public static final long GET = 1L << 3;
+
+    /**
+     * <code>@PUT</code>.
+     */
+    public static final long PUT = 1L << 4;
+
+    /**
+     * <code>@DELETE</code>.
+     */
+    public static final long DELETE = 1L << 5;
+
+    /**
+     * <code>@POST</code>.
+     */
+    public static final long POST = 1L << 6;
+
+    /**
+     * <code>@OPTIONS</code>.
+     */
+    public static final long OPTIONS = 1L << 7;
+
+    /**
+     * <code>@HEAD</code>.
+     */
+    public static final long HEAD = 1L << 8;
+
+    /**
+     * Any HTTP method annotation.
+     */
+    public static final long HTTP_METHODS =
+        GET | PUT | DELETE | POST | OPTIONS | HEAD;
+
+    /**
+     * <code>@RestController</code>.
+     */
+    public static final long REST_CONTROLLER = 1L << 9;
+
+    /**
+     * <code>@RequestMapping</code>.
+     */
+    public static final long REQUEST_MAPPING = 1L << 10;
+
+    /**
+     * <code>@GetMapping</code>.
+     */
+    public static final long GET_MAPPING = 1L << 11;
+
+    /**
+     * <code>@PostMapping</code>.
+     */
+    public static final long POST_MAPPING = 1L << 12;
+
+    /**
+     * <code>@PutMapping</code>.
+     */
+    public static final long PUT_MAPPING = 1L << 13;
+
+    /**
+     * <code>@DeleteMapping</code>.
+     */
+    public static final long DELETE_MAPPING = 1L << 14;
+
+    /**
+     * <code>@PatchMapping</code>.
+     */
+    public static final long PATCH_MAPPING = 1L << 15;
+
+    /**
+     * Any Spring MVC request mapping annotation.
+     */
+    public static final long REQUEST_MAPPINGS = REQUEST_MAPPING | GET_MAPPING
+        | POST_MAPPING | PUT_MAPPING | DELETE_MAPPING | PATCH_MAPPING;
+
+    /**
+     * Annotations of the JAX-RS package.
+     */
+    public static final long JAX_RS = PATH | HTTP_METHODS;
+
+    /**
+     * Annotations of the Spring MVC package.
+     */
+    public static final long SPRING = REST_CONTROLLER | REQUEST_MAPPINGS;
+
+    /**
+     * Package of the JAX-RS annotations.
+     */
+    static final String JAX_RS_PACKAGE = "javax.ws.rs";
+
+    /**
+     * Package of the Spring MVC annotations.
+     */
+    static final String SPRING_PACKAGE =
+        "org.springframework.web.bind.annotation";
+
+    /**
+     * Package of the Swagger annotations.
+     */
+    private static final String SWAGGER_PACKAGE = "io.swagger.annotations";
+
+    /**
+     * Annotations known without registration.
+     */
+    private static final long BUILT_IN = JAX_RS | SPRING | API
+        | API_OPERATION;
+
+    /**
+     * Valid annotation names.
+     */
+    private static final Pattern NAME = Pattern.compile(
+        "[A-Za-z_$][A-Za-z0-9_$]*(\\.[A-Za-z_$][A-Za-z0-9_$]*)*"
+    );
+
+    /**
+     * Owner of the registrations kept for the rest of the analysis.
+     */
+    private static final Object FOREVER = new Object();
+
+    /**
+     * Owners of each registered annotation name, as registered. Only read
+     * and written with the class locked.
+     */
+    private static final Map<String, List<WeakReference<Object>>> OWNERS =
+        new HashMap<>();
+
+    /**
+     * Registered annotations.
+     */
+    private static volatile AnnotationIndex.Custom custom =
+        new AnnotationIndex.Custom(
+            Collections.emptyMap(), Collections.emptyMap(), 0
+        );
+
+    /**
+     * Utility class.
+     */
+    private AnnotationIndex() {
+    }
+
+    /**
+     * Bit of an annotation name.
+     * @param name Simple name of the annotation.
+     * @return Its bit, or zero if the rules don't care about it.
+     */
+    public static long bit(final String name) {
+        long bit = AnnotationIndex.builtIn(name);
+        if (bit == 0L) {
+            bit = AnnotationIndex.custom.bit(name);
+        }
+        return bit;
+    }
+
+    /**
+     * Bit of a fully qualified annotation name.
+     * @param name Fully qualified name of the annotation.
+     * @return Its bit, or zero if the rules don't care about it.
+     */
+    public static long qualified(final String name) {
+        final int dot = name.lastIndexOf('.');
+        long bit = 0L;
+        if (dot > 0) {
+            final String simple = name.substring(dot + 1);
+            final long candidate = AnnotationIndex.bit(simple);
+            if (candidate != 0L) {
+                final String pkg = name.substring(0, dot);
+                final Set<String> more =
+                    AnnotationIndex.custom.packages.get(simple);
+                if ((candidate & AnnotationIndex.BUILT_IN) != 0L
+                    && pkg.equals(AnnotationIndex.pkg(candidate))
+                    || more != null
+                    && (more.contains(pkg) || more.contains(""))) {
+                    bit = candidate;
+                }
+            }
+        }
+        return bit;
+    }
+
+    /**
+     * Registers an annotation the rules care about, for the rest of the
+     * analysis.
+     * @param name Simple or fully qualified name of the annotation.
+     * @return Its bit.
+     * @throws IllegalArgumentException If the name is not valid, or no bit
+     *  is left.
+     */
+    public static long register(final String name) {
+        return AnnotationIndex.register(name, AnnotationIndex.FOREVER);
+    }
+
+    /**
+     * Registers an annotation the rules care about, for as long as its
+     * owner is neither {@link #release(Object) released} nor garbage.
+     *
+     * <p>A built-in simple name registered in another package, such as
+     * <code>jakarta.ws.rs.GET</code>, shares the bit of the built-in one,
+     * and so do annotations of the same simple name in several packages.
+     * Bits of annotations no longer owned are handed out again.</p>
+     * @param name Simple or fully qualified name of the annotation.
+     * @param owner Owner of the registration.
+     * @return Its bit.
+     * @throws IllegalArgumentException If the name is not valid, or no bit
+     *  is left.
+     */
+    public static synchronized long register(final String name,
+        final Object owner) {
+        if (!AnnotationIndex.NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException(
+                String.format("Invalid annotation name: \"%s\"", name)
+            );
+        }
+        final int dot = name.lastIndexOf('.');
+        final String simple = name.substring(dot + 1);
+        final long builtin = AnnotationIndex.builtIn(simple);
+        if (builtin == 0L || dot > 0
+            && !name.substring(0, dot).equals(AnnotationIndex.pkg(builtin))) {
+            final List<WeakReference<Object>> owners =
+                AnnotationIndex.OWNERS.get(name);
+            if (owners == null) {
+                AnnotationIndex.purge();
+                final List<WeakReference<Object>> first = new ArrayList<>(1);
+                first.add(new WeakReference<>(owner));
+                AnnotationIndex.OWNERS.put(name, first);
+                try {
+                    AnnotationIndex.rebuild();
+                } catch (final IllegalArgumentException ex) {
+                    AnnotationIndex.OWNERS.remove(name);
+                    throw ex;
+                }
+            } else if (!AnnotationIndex.owned(owners, owner)) {
+                owners.add(new WeakReference<>(owner));
+            }
+        }
+        return AnnotationIndex.bit(simple);
+    }
+
+    /**
+     * Drops the registrations of an owner. Annotations no one else
+     * registered are forgotten, and their bits handed out again.
+     * @param owner Owner of the registrations.
+     */
+    public static synchronized void release(final Object owner) {
+        boolean dropped = false;
+        final Iterator<List<WeakReference<Object>>> lists =
+            AnnotationIndex.OWNERS.values().iterator();
+        while (lists.hasNext()) {
+            final List<WeakReference<Object>> owners = lists.next();
+            owners.removeIf(ref -> ref.get() == null || ref.get() == owner);
+            if (owners.isEmpty()) {
+                lists.remove();
+                dropped = true;
+            }
+        }
+        if (dropped) {
+            AnnotationIndex.rebuild();
+        }
+    }
+
+    /**
+     * Number of changes to the registered annotations so far.
+     * @return Count, only growing.
+     */
+    public static int generation() {
+        return AnnotationIndex.custom.generation;
+    }
+
+    /**
+     * Prefilter markers of the registered annotations.
+     * @return Markers, starting with <code>@</code>.
+     */
+    static List<String> markers() {
+        final List<String> markers = new ArrayList<>(0);
+        for (final Map.Entry<String, Set<String>> entry
+            : AnnotationIndex.custom.packages.entrySet()) {
+            final String simple = entry.getKey();
+            if (AnnotationIndex.builtIn(simple) == 0L) {
+                markers.add(String.format("@%s", simple));
+            }
+            for (final String pkg : entry.getValue()) {
+                if (!pkg.isEmpty()) {
+                    markers.add(String.format("@%s.%s", pkg, simple));
+                }
+            }
+        }
+        return markers;
+    }
+
+    /**
+     * Built-in annotations a package was registered as another home of.
+     * @param pkg Package name.
+     * @return Their bits, zero if none.
+     */
+    static long aliases(final String pkg) {
+        final Long bits = AnnotationIndex.custom.aliases.get(pkg);
+        final long mask;
+        if (bits == null) {
+            mask = 0L;
+        } else {
+            mask = bits;
+        }
+        return mask;
+    }
+
+    /**
+     * Tells whether built-in annotations were registered in other
+     * packages.
+     * @return True if some were.
+     */
+    static boolean aliased() {
+        return !AnnotationIndex.custom.aliases.isEmpty();
+    }
+
+    /**
+     * Bit of a built-in annotation name.
+     * @param name Simple name of the annotation.
+     * @return Its bit, or zero if it is not built in.
+     * @checkstyle CyclomaticComplexityCheck (50 lines)
+     * @checkstyle ExecutableStatementCountCheck (50 lines)
+     */
+    private static long builtIn(final String name) {
+        final long bit;
+        switch (name) {
+            case "Path":
+                bit = AnnotationIndex.PATH;
+                break;
+            case "Api":
+                bit = AnnotationIndex.API;
+                break;
+            case "ApiOperation":
+                bit = AnnotationIndex.API_OPERATION;
+                break;
+            case "GET":
+                bit = AnnotationIndex.GET;
+                break;
+            case "PUT":
+                bit = AnnotationIndex.PUT;
+                break;
+            case "DELETE":
+                bit = AnnotationIndex.DELETE;
+                break;
+            case "POST":
+                bit = AnnotationIndex.POST;
+                break;
+            case "OPTIONS":
+                bit = AnnotationIndex.OPTIONS;
+                break;
+            case "HEAD":
+                bit = AnnotationIndex.HEAD;
+                break;
+            case "RestController":
+                bit = AnnotationIndex.REST_CONTROLLER;
+                break;
+            case "RequestMapping":
+                bit = AnnotationIndex.REQUEST_MAPPING;
+                break;
+            case "GetMapping":
+                bit = AnnotationIndex.GET_MAPPING;
+                break;
+            case "PostMapping":
+                bit = AnnotationIndex.POST_MAPPING;
+                break;
+            case "PutMapping":
+                bit = AnnotationIndex.PUT_MAPPING;
+                break;
+            case "DeleteMapping":
+                bit = AnnotationIndex.DELETE_MAPPING;
+                break;
+            case "PatchMapping":
+                bit = AnnotationIndex.PATCH_MAPPING;
+                break;
+            default:
+                bit = 0L;
+                break;
+        }
+        return bit;
+    }
+
+    /**
+     * Package of a built-in annotation.
+     * @param bit Its bit.
+     * @return Package name.
+     */
+    private static String pkg(final long bit) {
+        final String pkg;
+        if ((bit & AnnotationIndex.JAX_RS) != 0L) {
+            pkg = AnnotationIndex.JAX_RS_PACKAGE;
+        } else if ((bit & AnnotationIndex.SPRING) != 0L) {
+            pkg = AnnotationIndex.SPRING_PACKAGE;
+        } else {
+            pkg = AnnotationIndex.SWAGGER_PACKAGE;
+        }
+        return pkg;
+    }
+
+    /**
+     * Tells whether an owner is among the owners of a registration.
+     * @param owners Owners.
+     * @param owner Owner.
+     * @return True if it is.
+     */
+    private static boolean owned(final List<WeakReference<Object>> owners,
+        final Object owner) {
+        boolean owned = false;
+        for (final WeakReference<Object> ref : owners) {
+            if (ref.get() == owner) {
+                owned = true;
+                break;
+            }
+        }
+        return owned;
+    }
+
+    /**
+     * Forgets the annotations whose owners are all garbage.
+     */
+    private static void purge() {
+        final Iterator<List<WeakReference<Object>>> lists =
+            AnnotationIndex.OWNERS.values().iterator();
+        while (lists.hasNext()) {
+            final List<WeakReference<Object>> owners = lists.next();
+            owners.removeIf(ref -> ref.get() == null);
+            if (owners.isEmpty()) {
+                lists.remove();
+            }
+        }
+    }
+
+    /**
+     * Publishes the registered annotations, keeping the bits of those
+     * registered before, and starts a new generation.
+     * @throws IllegalArgumentException If no bit is left.
+     */
+    private static void rebuild() {
+        final AnnotationIndex.Custom before = AnnotationIndex.custom;
+        final Map<String, Long> bits = new HashMap<>();
+        final Map<String, Set<String>> packages = new HashMap<>();
+        long used = AnnotationIndex.BUILT_IN;
+        for (final String name : AnnotationIndex.OWNERS.keySet()) {
+            final int dot = name.lastIndexOf('.');
+            final String simple = name.substring(dot + 1);
+            String pkg = "";
+            if (dot > 0) {
+                pkg = name.substring(0, dot);
+            }
+            packages.computeIfAbsent(simple, key -> new HashSet<>(1))
+                .add(pkg);
+            final Long kept = before.bits.get(simple);
+            if (kept != null) {
+                bits.put(simple, kept);
+                used |= kept;
+            }
+        }
+        for (final String simple : packages.keySet()) {
+            if (AnnotationIndex.builtIn(simple) == 0L
+                && !bits.containsKey(simple)) {
+                final long free = Long.lowestOneBit(~used);
+                if (free == 0L) {
+                    throw new IllegalArgumentException(
+                        String.format(
+                            "Too many annotations to register %s", simple
+                        )
+                    );
+                }
+                bits.put(simple, free);
+                used |= free;
+            }
+        }
+        AnnotationIndex.custom = new AnnotationIndex.Custom(
+            bits, packages, before.generation + 1
+        );
+    }
+
+    /**
+     * Registered annotations, replaced on each change.
+     */
+    private static final class Custom {
+
+        /**
+         * Bits of the annotations that are not built in, by simple name.
+         */
+        private final Map<String, Long> bits;
+
+        /**
+         * Packages of each registered simple name; empty for any package.
+         */
+        private final Map<String, Set<String>> packages;
+
+        /**
+         * Built-in annotations registered in other packages, by package.
+         */
+        private final Map<String, Long> aliases;
+
+        /**
+         * Generation.
+         */
+        private final int generation;
+
+        /**
+         * Main constructor.
+         * @param bits Bits, by simple name.
+         * @param packages Packages, by simple name.
+         * @param generation Generation.
+         */
+        Custom(final Map<String, Long> bits,
+            final Map<String, Set<String>> packages, final int generation) {
+            this.bits = Collections.unmodifiableMap(bits);
+            this.packages = Collections.unmodifiableMap(packages);
+            final Map<String, Long> homes = new HashMap<>();
+            for (final Map.Entry<String, Set<String>> entry
+                : packages.entrySet()) {
+                final long builtin = AnnotationIndex.builtIn(entry.getKey());
+                if (builtin != 0L) {
+                    for (final String pkg : entry.getValue()) {
+                        homes.merge(pkg, builtin, (a, b) -> a | b);
+                    }
+                }
+            }
+            this.aliases = Collections.unmodifiableMap(homes);
+            this.generation = generation;
+        }
+
+        /**
+         * Bit of a simple name.
+         * @param name Simple name.
+         * @return Bit, or zero if not registered.
+         */
+        long bit(final String name) {
+            long bit = 0L;
+            if (!this.bits.isEmpty()) {
+                final Long found = this.bits.get(name);
+                if (found != null) {
+                    bit = found;
+                }
+            }
+            return bit;
+        }
+    }
+
+}
@@ -0,0 +1,372 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.ImportClauseTree;
+import org.sonar.plugins.java.api.tree.ImportTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TypeTree;
+
+/**
+ * Resolves annotation types of a file to {@link AnnotationIndex} bits, by
+ * their fully qualified names.
+ *
+ * <p>Types known by the semantic model, when there is one, are resolved by
+ * their symbol. Otherwise qualified names are checked as written, and
+ * simple names through the imports of the file: a name imported from
+ * another package is not one of ours. Simple names neither resolved nor
+ * imported, as in files of the same package or with on-demand imports,
+ * still match.</p>
+ *
+ * <p>The framework of a file is told by its imports too: simple names of
+ * Spring MVC annotations don't match in files importing from JAX-RS only,
+ * and the other way round. Files importing from both or from neither
+ * match both. Annotations written with their fully qualified names are
+ * matched anyway.</p>
+ *
+ * <p>Resolutions are kept for the analysis: files importing the same
+ * annotation names share one resolver, and each annotation type is looked
+ * up once. Both caches are bounded, and start over whenever another
+ * annotation is registered in the {@link AnnotationIndex}.</p>
+ * @since 1.1
+ */
+public final class AnnotationResolver {
+
+    /**
+     * Resolver of files importing none of the known annotation names.
+     */
+    public static final AnnotationResolver SIMPLE_NAMES =
+        new AnnotationResolver(-1L);
+
+    /**
+     * Resolver of files importing from JAX-RS only.
+     */
+    private static final AnnotationResolver JAX_RS =
+        new AnnotationResolver(~AnnotationIndex.SPRING);
+
+    /**
+     * Resolver of files importing from Spring MVC only.
+     */
+    private static final AnnotationResolver SPRING =
+        new AnnotationResolver(~AnnotationIndex.JAX_RS);
+
+    /**
+     * Dialect of files importing from JAX-RS.
+     */
+    private static final int JAX_RS_IMPORTS = 1;
+
+    /**
+     * Dialect of files importing from Spring MVC.
+     */
+    private static final int SPRING_IMPORTS = 2;
+
+    /**
+     * Maximum number of entries of each cache.
+     */
+    private static final int LIMIT = 4096;
+
+    /**
+     * Caches of the current generation of the annotation index.
+     */
+    private static final AtomicReference<AnnotationResolver.Caches> CACHES =
+        new AtomicReference<>(new AnnotationResolver.Caches(0));
+
+    /**
+     * Bits that simple names may resolve to.
+     */
+    private final long allowed;
+
+    /**
+     * Main constructor.
+     * @param allowed Bits that simple names may resolve to.
+     */
+    private AnnotationResolver(final long allowed) {
+        this.allowed = allowed;
+    }
+
+    /**
+     * Resolver of a compilation unit.
+     * @param unit Compilation unit.
+     * @return Resolver.
+     */
+    public static AnnotationResolver of(final CompilationUnitTree unit) {
+        StringBuilder key = null;
+        int dialect = 0;
+        for (final ImportClauseTree clause : unit.imports()) {
+            if (clause.kind() == Tree.Kind.IMPORT
+                && !((ImportTree) clause).isStatic()
+                && ((ImportTree) clause).qualifiedIdentifier().kind()
+                    == Tree.Kind.MEMBER_SELECT) {
+                final MemberSelectExpressionTree name =
+                    (MemberSelectExpressionTree) ((ImportTree) clause)
+                        .qualifiedIdentifier();
+                dialect |= AnnotationResolver.dialect(name.expression());
+                if (AnnotationIndex.bit(name.identifier().name()) != 0L) {
+                    if (key == null) {
+                        key = new StringBuilder();
+                    }
+                    key.append(AnnotationResolver.name(name)).append(';');
+                }
+            }
+        }
+        final AnnotationResolver resolver;
+        if (key != null) {
+            resolver = AnnotationResolver.cached(
+                AnnotationResolver.caches().contexts,
+                key.insert(0, ';').insert(0, dialect).toString(),
+                AnnotationResolver::imported
+            );
+        } else if (dialect == AnnotationResolver.JAX_RS_IMPORTS) {
+            resolver = AnnotationResolver.JAX_RS;
+        } else if (dialect == AnnotationResolver.SPRING_IMPORTS) {
+            resolver = AnnotationResolver.SPRING;
+        } else {
+            resolver = AnnotationResolver.SIMPLE_NAMES;
+        }
+        return resolver;
+    }
+
+    /**
+     * Bit of an annotation type.
+     * @param type Annotation type.
+     * @return Its bit, or zero if the rules don't care about it.
+     */
+    public long bit(final TypeTree type) {
+        final Type symbol = type.symbolType();
+        final long bit;
+        if (symbol != null && !symbol.isUnknown()) {
+            bit = AnnotationResolver.cached(
+                AnnotationResolver.caches().types, symbol.fullyQualifiedName(),
+                AnnotationIndex::qualified
+            );
+        } else if (type.kind() == Tree.Kind.IDENTIFIER) {
+            bit = AnnotationIndex.bit(((IdentifierTree) type).name())
+                & this.allowed;
+        } else if (type.kind() == Tree.Kind.MEMBER_SELECT) {
+            bit = AnnotationIndex.qualified(
+                AnnotationResolver.name((ExpressionTree) type)
+            );
+        } else {
+            bit = 0L;
+        }
+        return bit;
+    }
+
+    /**
+     * Resolver of files with some imports.
+     * @param key Dialect, then imported names, each followed by
+     *  <code>;</code>.
+     * @return Resolver.
+     */
+    private static AnnotationResolver imported(final String key) {
+        int start = key.indexOf(';');
+        final int dialect = Integer.parseInt(key.substring(0, start));
+        long allowed = -1L;
+        if (dialect == AnnotationResolver.JAX_RS_IMPORTS) {
+            allowed = AnnotationResolver.JAX_RS.allowed;
+        } else if (dialect == AnnotationResolver.SPRING_IMPORTS) {
+            allowed = AnnotationResolver.SPRING.allowed;
+        }
+        ++start;
+        for (int end = key.indexOf(';', start); end >= 0;
+            end = key.indexOf(';', start)) {
+            final String name = key.substring(start, end);
+            if (AnnotationIndex.qualified(name) == 0L) {
+                allowed &= ~AnnotationIndex.bit(
+                    name.substring(name.lastIndexOf('.') + 1)
+                );
+            }
+            start = end + 1;
+        }
+        return new AnnotationResolver(allowed);
+    }
+
+    /**
+     * Framework of an imported package.
+     * @param pkg Package name.
+     * @return Dialect flags, zero if none; packages registered as another
+     *  home of built-in annotations count as their framework.
+     */
+    private static int dialect(final ExpressionTree pkg) {
+        final int dialect;
+        if (AnnotationResolver.named(
+            pkg, AnnotationIndex.JAX_RS_PACKAGE,
+            AnnotationIndex.JAX_RS_PACKAGE.length()
+        )) {
+            dialect = AnnotationResolver.JAX_RS_IMPORTS;
+        } else if (AnnotationResolver.named(
+            pkg, AnnotationIndex.SPRING_PACKAGE,
+            AnnotationIndex.SPRING_PACKAGE.length()
+        )) {
+            dialect = AnnotationResolver.SPRING_IMPORTS;
+        } else if (AnnotationIndex.aliased()) {
+            final long aliases = AnnotationIndex.aliases(
+                AnnotationResolver.name(pkg)
+            );
+            int found = 0;
+            if ((aliases & AnnotationIndex.JAX_RS) != 0L) {
+                found |= AnnotationResolver.JAX_RS_IMPORTS;
+            }
+            if ((aliases & AnnotationIndex.SPRING) != 0L) {
+                found |= AnnotationResolver.SPRING_IMPORTS;
+            }
+            dialect = found;
+        } else {
+            dialect = 0;
+        }
+        return dialect;
+    }
+
+    /**
+     * Tells whether a dotted name is the prefix of a name, without building
+     * it.
+     * @param tree Identifier or member select.
+     * @param name Name.
+     * @param end Length of the prefix.
+     * @return True if it is.
+     */
+    private static boolean named(final ExpressionTree tree,
+        final String name, final int end) {
+        final boolean named;
+        if (tree.kind() == Tree.Kind.MEMBER_SELECT) {
+            final MemberSelectExpressionTree select =
+                (MemberSelectExpressionTree) tree;
+            final String last = select.identifier().name();
+            final int start = end - last.length();
+            named = start > 0 && name.charAt(start - 1) == '.'
+                && name.startsWith(last, start)
+                && AnnotationResolver.named(
+                    select.expression(), name, start - 1
+                );
+        } else if (tree.kind() == Tree.Kind.IDENTIFIER) {
+            final String first = ((IdentifierTree) tree).name();
+            named = end == first.length() && name.startsWith(first);
+        } else {
+            named = false;
+        }
+        return named;
+    }
+
+    /**
+     * Caches of the current generation of the annotation index.
+     * @return Caches.
+     */
+    private static AnnotationResolver.Caches caches() {
+        final int generation = AnnotationIndex.generation();
+        final AnnotationResolver.Caches caches =
+            AnnotationResolver.CACHES.get();
+        AnnotationResolver.Caches current = caches;
+        if (caches.generation != generation) {
+            current = new AnnotationResolver.Caches(generation);
+            if (!AnnotationResolver.CACHES.compareAndSet(caches, current)) {
+                current = AnnotationResolver.CACHES.get();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Looks up a bounded cache, emptying it when full.
+     * @param cache Cache.
+     * @param key Key.
+     * @param compute Computes missing values.
+     * @param <K> Type of keys.
+     * @param <V> Type of values.
+     * @return Value.
+     */
+    private static <K, V> V cached(final Map<K, V> cache, final K key,
+        final Function<K, V> compute) {
+        V value = cache.get(key);
+        if (value == null) {
+            if (cache.size() >= AnnotationResolver.LIMIT) {
+                cache.clear();
+            }
+            value = cache.computeIfAbsent(key, compute);
+        }
+        return value;
+    }
+
+    /**
+     * Dotted name of an expression.
+     * @param tree Identifier or member select.
+     * @return Name, empty if it is something else.
+     */
+    static String name(final ExpressionTree tree) {
+        final String name;
+        if (tree.kind() == Tree.Kind.MEMBER_SELECT) {
+            final MemberSelectExpressionTree select =
+                (MemberSelectExpressionTree) tree;
+            name = String.format(
+                "%s.%s",
+                AnnotationResolver.name(select.expression()),
+                select.identifier().name()
+            );
+        } else if (tree.kind() == Tree.Kind.IDENTIFIER) {
+            name = ((IdentifierTree) tree).name();
+        } else {
+            name = "";
+        }
+        return name;
+    }
+
+    /**
+     * Resolutions made with one generation of the annotation index.
+     */
+    private static final class Caches {
+
+        /**
+         * Generation of the annotation index.
+         */
+        private final int generation;
+
+        /**
+         * Resolvers by imports of known annotation names.
+         */
+        private final Map<String, AnnotationResolver> contexts;
+
+        /**
+         * Bits of the annotation types resolved by the semantic model, by
+         * name: types would keep the semantic model of their file alive.
+         */
+        private final Map<String, Long> types;
+
+        /**
+         * Main constructor.
+         * @param generation Generation of the annotation index.
+         */
+        Caches(final int generation) {
+            this.generation = generation;
+            this.contexts = new ConcurrentHashMap<>();
+            this.types = new ConcurrentHashMap<>();
+        }
+    }
+
+}
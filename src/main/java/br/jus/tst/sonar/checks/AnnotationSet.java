@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Annotations a rule is configured with, compiled to an
+ * {@link AnnotationIndex} mask.
+ *
+ * <p>The configuration is a comma-separated list of simple or fully
+ * qualified names. It is compiled again only when it changes, so rules test
+ * the annotations of a declaration against the mask as if they were
+ * hard-coded. The set owns its registrations: those of the previous
+ * configuration are released when it changes, and all of them once the set
+ * is garbage, so their bits can be handed out again.</p>
+ * @since 1.1
+ */
+final class AnnotationSet {
+
+    /**
+     * Configuration compiled last, with its mask and names. Replaced as a
+     * whole, so rules scanning on several threads read consistent values.
+     */
+    private volatile AnnotationSet.Compiled last =
+        new AnnotationSet.Compiled("", 0L, "");
+
+    /**
+     * Compiles a configuration, unless it was the last one compiled.
+     * @param config Comma-separated annotation names.
+     * @throws IllegalArgumentException If no name is given, or some can't
+     *  be registered.
+     */
+    public void compile(final String config) {
+        if (!config.equals(this.last.source)) {
+            AnnotationIndex.release(this);
+            long mask = 0L;
+            final List<String> simple = new ArrayList<>(1);
+            for (final String item : config.split(",")) {
+                final String name = item.trim();
+                if (!name.isEmpty()) {
+                    mask |= AnnotationIndex.register(name, this);
+                    simple.add(name.substring(name.lastIndexOf('.') + 1));
+                }
+            }
+            if (simple.isEmpty()) {
+                throw new IllegalArgumentException(
+                    String.format("No annotation in \"%s\"", config)
+                );
+            }
+            this.last = new AnnotationSet.Compiled(
+                config, mask, String.join(" or @", simple)
+            );
+        }
+    }
+
+    /**
+     * Bits of the annotations.
+     * @return Mask.
+     */
+    public long mask() {
+        return this.last.bits;
+    }
+
+    /**
+     * Simple names of the annotations, joined by <code>" or @"</code>.
+     * @return Names.
+     */
+    public String names() {
+        return this.last.names;
+    }
+
+    /**
+     * Compiled configuration.
+     */
+    private static final class Compiled {
+
+        /**
+         * Configuration.
+         */
+        private final String source;
+
+        /**
+         * Bits of the annotations.
+         */
+        private final long bits;
+
+        /**
+         * Simple names of the annotations, for messages.
+         */
+        private final String names;
+
+        /**
+         * Ctor.
+         * @param source Configuration.
+         * @param bits Bits of the annotations.
+         * @param names Simple names of the annotations.
+         */
+        Compiled(final String source, final long bits, final String names) {
+            this.source = source;
+            this.bits = bits;
+            this.names = names;
+        }
+    }
+
+}
@@ -22,75 +22,87 @@
 
 package br.jus.tst.sonar.checks;
 
-import java.util.function.Function;
-import java.util.function.Predicate;
-import java.util.stream.Stream;
+import java.util.List;
 import org.sonar.plugins.java.api.tree.AnnotationTree;
-import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
-import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
 import org.sonar.plugins.java.api.tree.ModifiersTree;
 import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TypeTree;
 
 /**
  * Operates only on annotations.
  * @since 1.0
  */
 public final class Annotations {
-    /**
-     * ModifiersTree provided by Sonar.
-     */
-    private final ModifiersTree tree;
 
     /**
-     * Main constructor.
-     * @param tree ModifiersTree.
+     * Utility class.
      */
-    public Annotations(final ModifiersTree tree) {
-        this.tree = tree;
+    private Annotations() {
     }
 
     /**
-     * Extracts the ModifiersTree contained in a ClassTree.
-     * @param tree ClassTree.
+     * Summarizes the annotations of a declaration, matching their simple
+     * names.
+     * @param tree ModifiersTree.
+     * @return OR of the {@link AnnotationIndex} bits of its annotations.
      */
-    public Annotations(final ClassTree tree) {
-        this(tree.modifiers());
+    public static long mask(final ModifiersTree tree) {
+        return Annotations.mask(tree, AnnotationResolver.SIMPLE_NAMES);
     }
 
     /**
-     * Extracts the ModifiersTree contained in a MethodTree.
-     * @param tree MethodTree.
+     * Summarizes the annotations of a declaration.
+     * @param tree ModifiersTree.
+     * @param resolver Resolver of the file.
+     * @return OR of the {@link AnnotationIndex} bits of its annotations.
      */
-    public Annotations(final MethodTree tree) {
-        this(tree.modifiers());
+    public static long mask(final ModifiersTree tree,
+        final AnnotationResolver resolver) {
+        final List<AnnotationTree> anns = tree.annotations();
+        final int size = anns.size();
+        long mask = 0L;
+        for (int idx = 0; idx < size; ++idx) {
+            mask |= resolver.bit(anns.get(idx).annotationType());
+        }
+        return mask;
     }
 
     /**
-     * The stream contains only annotations.
-     * @return IdentifierTree.
+     * Finds the last annotation whose bit is in a mask, matching their
+     * simple names.
+     * @param tree ModifiersTree.
+     * @param bits Bits of interest.
+     * @return IdentifierTree, or null if none matches.
      */
-    public Stream<IdentifierTree> stream() {
-        final Stream<org.sonar.plugins.java.api.tree.AnnotationTree> stream =
-            this.tree.annotations().stream();
-        return stream
-            .filter(Annotations.annotationIdentifiersOnly())
-            .map(Annotations.toIdentifierTree());
+    public static IdentifierTree last(final ModifiersTree tree,
+        final long bits) {
+        return Annotations.last(tree, AnnotationResolver.SIMPLE_NAMES, bits);
     }
 
     /**
-     * Maps Annotations to IdentifierTree.
-     * @return Mapping function.
+     * Finds the last annotation whose bit is in a mask.
+     * @param tree ModifiersTree.
+     * @param resolver Resolver of the file.
+     * @param bits Bits of interest.
+     * @return Last identifier of its type, or null if none matches.
      */
-    private static Function<AnnotationTree, IdentifierTree> toIdentifierTree() {
-        return annTree -> (IdentifierTree) annTree.annotationType();
+    public static IdentifierTree last(final ModifiersTree tree,
+        final AnnotationResolver resolver, final long bits) {
+        final List<AnnotationTree> anns = tree.annotations();
+        IdentifierTree found = null;
+        for (int idx = anns.size() - 1; idx >= 0 && found == null; --idx) {
+            final TypeTree type = anns.get(idx).annotationType();
+            if ((resolver.bit(type) & bits) != 0L) {
+                if (type.kind() == Tree.Kind.MEMBER_SELECT) {
+                    found = ((MemberSelectExpressionTree) type).identifier();
+                } else {
+                    found = (IdentifierTree) type;
+                }
+            }
+        }
+        return found;
     }
 
-    /**
-     * Used to filter only annotation identifiers.
-     * @return Predicate.
-     */
-    private static Predicate<AnnotationTree> annotationIdentifiersOnly() {
-        return ann -> ann.annotationType().is(Tree.Kind.IDENTIFIER);
-    }
 }
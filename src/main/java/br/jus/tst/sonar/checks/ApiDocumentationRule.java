@@ -21,24 +21,18 @@
  */
 package br.jus.tst.sonar.checks;
 
-import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
-import org.slf4j.Logger;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.JavaFileScanner;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.check.RuleProperty;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
-import org.sonar.plugins.java.api.tree.Tree;
-import org.sonar.samples.java.checks.PrinterVisitor;
 
 /**
  * Classes defining a REST resource must be annotated with <code>@Api</code>.
  *
+ * <p>Resources are JAX-RS resources and Spring MVC controllers. Both
+ * annotations can be configured, e.g. for resources of another
+ * framework.</p>
  * @since 1.0
  */
 @Rule(
@@ -47,68 +41,104 @@ import org.sonar.samples.java.checks.PrinterVisitor;
     // @checkstyle LineLengthCheck (1 line)
     description = "A class annotated with @Path must also be annotated with @Api"
 )
-public final class ApiDocumentationRule extends BaseTreeVisitor
-    implements JavaFileScanner {
+public final class ApiDocumentationRule extends DeclarationRule {
 
     /**
-     * Annotation name.
+     * Annotations of resources, by default.
      */
-    private static final String PATH = "Path";
+    private static final String RESOURCES = "javax.ws.rs.Path,"
+        + "org.springframework.web.bind.annotation.RestController,"
+        + "org.springframework.web.bind.annotation.RequestMapping";
 
     /**
-     * Annotation name.
+     * Annotations of documented resources, by default.
      */
-    private static final String API = "Api";
+    private static final String API = "io.swagger.annotations.Api";
 
     /**
-     * Scanner context.
+     * Issue message.
      */
-    private JavaFileScannerContext context;
+    private static final String MESSAGE =
+        "Classes annotated with @%s must also be annotated with @%s";
+
+    /**
+     * Annotations of resources.
+     */
+    @RuleProperty(
+        key = "resourceAnnotations",
+        description = "Comma-separated annotations of resource classes",
+        defaultValue = ApiDocumentationRule.RESOURCES
+    )
+    private String resources;
+
+    /**
+     * Annotations of documented resources.
+     */
+    @RuleProperty(
+        key = "documentationAnnotations",
+        description = "Comma-separated annotations documenting resources",
+        defaultValue = ApiDocumentationRule.API
+    )
+    private String documentation;
+
+    /**
+     * Annotations of resources, compiled.
+     */
+    private final AnnotationSet triggers = new AnnotationSet();
+
+    /**
+     * Annotations of documented resources, compiled.
+     */
+    private final AnnotationSet required = new AnnotationSet();
+
+    /**
+     * Ctor, with JAX-RS and Spring MVC resources and Swagger
+     * documentation.
+     */
+    public ApiDocumentationRule() {
+        this(ApiDocumentationRule.RESOURCES, ApiDocumentationRule.API);
+    }
+
+    /**
+     * Ctor.
+     * @param resources Comma-separated annotations of resources.
+     * @param documentation Comma-separated annotations of documented
+     *  resources.
+     */
+    public ApiDocumentationRule(final String resources,
+        final String documentation) {
+        super();
+        this.resources = resources;
+        this.documentation = documentation;
+    }
 
     @Override
-    public void scanFile(final JavaFileScannerContext jfsc) {
-        this.context = jfsc;
-        scan(this.context.getTree());
-        final Logger logger = org.slf4j.LoggerFactory
-            .getLogger(ApiDocumentationRule.class);
-        if (logger.isDebugEnabled()) {
-            logger.debug(PrinterVisitor.print(this.context.getTree()));
+    protected void visitClass(final ClassTree tree, final FileScan scan) {
+        final long triggers = this.triggers.mask();
+        final long required = this.required.mask();
+        final long mask = Annotations.mask(tree.modifiers(), scan.resolver());
+        if ((mask & triggers) != 0L) {
+            scan.count(EndpointCoverage.CLASSES);
+            if ((mask & required) == 0L
+                && (scan.hierarchy().type(tree) & required) == 0L) {
+                final IdentifierTree resource = Annotations.last(
+                    tree.modifiers(), scan.resolver(), triggers
+                );
+                scan.report(
+                    resource,
+                    String.format(
+                        ApiDocumentationRule.MESSAGE,
+                        resource.name(), this.required.names()
+                    )
+                );
+            }
         }
     }
 
     @Override
-    public void visitClass(final ClassTree tree) {
-        final AtomicReference<Tree> path = new AtomicReference<>();
-        final Set<String> anns = tree.modifiers().annotations()
-            .stream()
-            .filter(
-                annTree -> annTree.annotationType().is(Tree.Kind.IDENTIFIER)
-            )
-            .map(annTree -> (IdentifierTree) annTree.annotationType())
-            .peek(
-                idf -> {
-                    if (idf.name().equals(ApiDocumentationRule.PATH)) {
-                        path.set(idf);
-                    }
-                }
-            )
-            .map(IdentifierTree::name)
-            .collect(Collectors.toSet());
-        if (anns.contains(ApiDocumentationRule.PATH)
-            && !anns.contains(ApiDocumentationRule.API)) {
-            final String template =
-                "Classes annotated with @%s must also be annotated with @%s";
-            this.context.reportIssue(
-                this,
-                Optional.ofNullable(path.get()).orElse(tree),
-                String.format(
-                    template,
-                    ApiDocumentationRule.PATH,
-                    ApiDocumentationRule.API
-                )
-            );
-        }
-        super.visitClass(tree);
+    protected void configure() {
+        this.triggers.compile(this.resources);
+        this.required.compile(this.documentation);
     }
 
 }
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Issue kept by the {@link IssueCache}.
+ * @since 1.1
+ */
+final class CachedIssue {
+
+    /**
+     * First token of the tree the issue was reported on.
+     */
+    private final CachedToken first;
+
+    /**
+     * Last token of the tree the issue was reported on.
+     */
+    private final CachedToken last;
+
+    /**
+     * Issue message.
+     */
+    private final String message;
+
+    /**
+     * Ctor.
+     * @param tree Tree the issue was reported on.
+     * @param message Issue message.
+     */
+    CachedIssue(final Tree tree, final String message) {
+        this(
+            new CachedToken(tree.firstToken()),
+            new CachedToken(tree.lastToken()),
+            message
+        );
+    }
+
+    /**
+     * Main constructor.
+     * @param first First token of the tree the issue was reported on.
+     * @param last Last token of the tree the issue was reported on.
+     * @param message Issue message.
+     */
+    private CachedIssue(final CachedToken first, final CachedToken last,
+        final String message) {
+        this.first = first;
+        this.last = last;
+        this.message = message;
+    }
+
+    /**
+     * Reports the issue again.
+     * @param check Check reporting it.
+     * @param context Scanner context.
+     */
+    public void replay(final JavaCheck check,
+        final JavaFileScannerContext context) {
+        context.reportIssue(check, this.first, this.last, this.message);
+    }
+
+    /**
+     * The same issue, on other lines.
+     * @param lines Lines to move it down by, negative to move it up.
+     * @return Issue.
+     */
+    public CachedIssue moved(final int lines) {
+        return new CachedIssue(
+            new CachedToken(
+                this.first.line() + lines, this.first.column(),
+                this.first.text()
+            ),
+            new CachedToken(
+                this.last.line() + lines, this.last.column(), this.last.text()
+            ),
+            this.message
+        );
+    }
+
+    /**
+     * Writes the issue.
+     * @param output Output.
+     * @throws IOException If it can't be written.
+     */
+    public void write(final DataOutput output) throws IOException {
+        CachedIssue.write(output, this.first);
+        CachedIssue.write(output, this.last);
+        output.writeUTF(this.message);
+    }
+
+    /**
+     * Reads an issue written by {@link #write(DataOutput)}.
+     * @param input Input.
+     * @return Issue.
+     * @throws IOException If it can't be read.
+     */
+    public static CachedIssue read(final DataInput input) throws IOException {
+        final CachedToken first = CachedIssue.token(input);
+        final CachedToken last = CachedIssue.token(input);
+        return new CachedIssue(first, last, input.readUTF());
+    }
+
+    /**
+     * Writes a token.
+     * @param output Output.
+     * @param token Token.
+     * @throws IOException If it can't be written.
+     */
+    private static void write(final DataOutput output,
+        final CachedToken token) throws IOException {
+        output.writeInt(token.line());
+        output.writeInt(token.column());
+        output.writeUTF(token.text());
+    }
+
+    /**
+     * Reads a token.
+     * @param input Input.
+     * @return Token.
+     * @throws IOException If it can't be read.
+     */
+    private static CachedToken token(final DataInput input)
+        throws IOException {
+        final int line = input.readInt();
+        final int column = input.readInt();
+        return new CachedToken(line, column, input.readUTF());
+    }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+
+/**
+ * What a rule found in a file, kept by the {@link IssueCache}: its issues,
+ * its {@link EndpointCoverage} counts and its endpoints.
+ * @since 1.1
+ */
+final class CachedScan {
+
+    /**
+     * Issues.
+     */
+    private final List<CachedIssue> issues;
+
+    /**
+     * Coverage counts.
+     */
+    private final int[] counts;
+
+    /**
+     * Endpoints, without their file.
+     */
+    private final List<Endpoint> endpoints;
+
+    /**
+     * Main constructor.
+     * @param issues Issues.
+     * @param counts Coverage counts.
+     * @param endpoints Endpoints.
+     */
+    CachedScan(final List<CachedIssue> issues, final int[] counts,
+        final List<Endpoint> endpoints) {
+        this.issues = issues;
+        this.counts = counts;
+        this.endpoints = endpoints;
+    }
+
+    /**
+     * Reports the issues again.
+     * @param check Check reporting them.
+     * @param context Scanner context.
+     * @return Number of issues.
+     */
+    public int replay(final JavaCheck check,
+        final JavaFileScannerContext context) {
+        for (final CachedIssue issue : this.issues) {
+            issue.replay(check, context);
+        }
+        return this.issues.size();
+    }
+
+    /**
+     * Coverage counts.
+     * @param into Where to copy them.
+     */
+    public void counts(final int[] into) {
+        System.arraycopy(
+            this.counts, 0, into, 0, Math.min(into.length, this.counts.length)
+        );
+    }
+
+    /**
+     * Endpoints.
+     * @param into Where to add them.
+     */
+    public void endpoints(final List<Endpoint> into) {
+        into.addAll(this.endpoints);
+    }
+
+    /**
+     * Writes the scan.
+     * @param output Output.
+     * @throws IOException If it can't be written.
+     */
+    public void write(final DataOutput output) throws IOException {
+        output.writeInt(this.issues.size());
+        for (final CachedIssue issue : this.issues) {
+            issue.write(output);
+        }
+        output.writeInt(this.counts.length);
+        for (final int count : this.counts) {
+            output.writeInt(count);
+        }
+        output.writeInt(this.endpoints.size());
+        for (final Endpoint endpoint : this.endpoints) {
+            endpoint.write(output);
+        }
+    }
+
+    /**
+     * Reads a scan written by {@link #write(DataOutput)}.
+     * @param input Input.
+     * @return Scan.
+     * @throws IOException If it can't be read.
+     */
+    public static CachedScan read(final DataInput input) throws IOException {
+        final int size = input.readInt();
+        final List<CachedIssue> issues = new ArrayList<>(size);
+        for (int issue = 0; issue < size; ++issue) {
+            issues.add(CachedIssue.read(input));
+        }
+        final int[] counts = new int[input.readInt()];
+        for (int idx = 0; idx < counts.length; ++idx) {
+            counts[idx] = input.readInt();
+        }
+        final int found = input.readInt();
+        final List<Endpoint> endpoints = new ArrayList<>(found);
+        for (int endpoint = 0; endpoint < found; ++endpoint) {
+            endpoints.add(Endpoint.read(input));
+        }
+        return new CachedScan(issues, counts, endpoints);
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.util.Collections;
+import java.util.List;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.SyntaxTrivia;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TreeVisitor;
+
+/**
+ * Token standing for the location of a cached issue, so it can be reported
+ * again without the tree it was found on.
+ * @since 1.1
+ */
+final class CachedToken implements SyntaxToken {
+
+    /**
+     * Line.
+     */
+    private final int row;
+
+    /**
+     * Column.
+     */
+    private final int col;
+
+    /**
+     * Token text.
+     */
+    private final String value;
+
+    /**
+     * Ctor.
+     * @param token Token copied.
+     */
+    CachedToken(final SyntaxToken token) {
+        this(token.line(), token.column(), token.text());
+    }
+
+    /**
+     * Main constructor.
+     * @param row Line.
+     * @param col Column.
+     * @param value Token text.
+     */
+    CachedToken(final int row, final int col, final String value) {
+        this.row = row;
+        this.col = col;
+        this.value = value;
+    }
+
+    @Override
+    public String text() {
+        return this.value;
+    }
+
+    @Override
+    public List<SyntaxTrivia> trivias() {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public int line() {
+        return this.row;
+    }
+
+    @Override
+    public int column() {
+        return this.col;
+    }
+
+    @Override
+    public boolean is(final Tree.Kind... kinds) {
+        boolean found = false;
+        for (final Tree.Kind kind : kinds) {
+            if (kind == Tree.Kind.TOKEN) {
+                found = true;
+                break;
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public void accept(final TreeVisitor visitor) {
+        // Tokens are not visited.
+    }
+
+    @Override
+    public Tree parent() {
+        return null;
+    }
+
+    @Override
+    public SyntaxToken firstToken() {
+        return this;
+    }
+
+    @Override
+    public SyntaxToken lastToken() {
+        return this;
+    }
+
+    @Override
+    public Tree.Kind kind() {
+        return Tree.Kind.TOKEN;
+    }
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.lang.reflect.Field;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.check.RuleProperty;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Rule fed with the declarations of each file.
+ *
+ * <p>Rules extending this class share a single walk of every compilation
+ * unit (see {@link Declarations}), so adding a rule does not add another
+ * traversal of the whole tree. Files that can't trigger any rule are not
+ * visited, nor looked up in any cache. Other files left unchanged since
+ * the last analysis replay their issues from the {@link IssueCache} when
+ * there is one, unless the {@link ResourceIndex} changed what they depend
+ * on. In the editor, the {@link MemberCache} limits the scan of an edited
+ * file to the declarations the edit touched. Endpoints are listed in the
+ * {@link EndpointInventory} if there is one. The time of every scan is
+ * recorded by {@link ScanCost}. Rule properties are read by
+ * {@link #configure()} before each file, and once into the settings cached
+ * issues are keyed by, as they are set when the rule is created. The
+ * declarations that raised issues are dumped by a {@link TreeDumper} to
+ * the {@link DumpFile} if there is one, or else to the debug log of the
+ * rule.</p>
+ *
+ * <p>The state of each file lives in its own {@link FileScan}, handed to
+ * the rule with every declaration, so a single instance can scan files
+ * from several threads at once. Rules keep only what they compile from
+ * their properties, which is the same for every file.</p>
+ * @since 1.1
+ */
+public abstract class DeclarationRule implements JavaFileScanner {
+
+    /**
+     * Class and property values of the rule, which cached issues are keyed
+     * by; null until the rule is first configured.
+     */
+    private volatile String settings;
+
+    /**
+     * Compiles the rule properties, before each file is scanned. Does
+     * nothing by default. It may run on several threads at once, and
+     * should only publish results that depend on the properties alone.
+     */
+    protected void configure() {
+        // Nothing to configure.
+    }
+
+    @Override
+    public final void scanFile(final JavaFileScannerContext jfsc) {
+        final long start = System.nanoTime();
+        final Object event = ScanCost.begin();
+        this.configure();
+        if (this.settings == null) {
+            this.settings = DeclarationRule.settings(this);
+        }
+        final Declarations declarations = Declarations.of(jfsc);
+        IssueCache cache = null;
+        boolean cached = false;
+        if (!declarations.isEmpty()) {
+            cache = IssueCache.active();
+            cached = cache != null || MemberCache.active() != null;
+        }
+        final FileScan scan = new FileScan(this, jfsc, cached);
+        int nodes = 0;
+        if (cache == null) {
+            nodes = this.check(jfsc, declarations, scan);
+        } else {
+            final String key = cache.key(jfsc, this);
+            final CachedScan hit = cache.get(key);
+            if (hit == null) {
+                nodes = this.check(jfsc, declarations, scan);
+                final CachedScan scanned = scan.cached();
+                if (scanned != null) {
+                    cache.put(key, scanned);
+                }
+            } else {
+                scan.replay(hit);
+            }
+        }
+        EndpointCoverage.add(scan.counts());
+        final EndpointInventory inventory = EndpointInventory.active();
+        if (inventory != null && !scan.endpoints().isEmpty()) {
+            inventory.add(ScanCost.path(jfsc), scan.endpoints());
+        }
+        ScanCost.end(event, start, jfsc, this, nodes, scan.issues());
+    }
+
+    /**
+     * Visits a class, interface, enum or annotation type declaration. Does
+     * nothing by default.
+     * @param tree ClassTree.
+     * @param scan Scan of the file.
+     */
+    protected void visitClass(final ClassTree tree, final FileScan scan) {
+        // Nothing to check by default.
+    }
+
+    /**
+     * Visits a method or constructor declaration. Does nothing by default.
+     * @param tree MethodTree.
+     * @param scan Scan of the file.
+     */
+    protected void visitMethod(final MethodTree tree, final FileScan scan) {
+        // Nothing to check by default.
+    }
+
+    /**
+     * Class and property values of the rule, as read when it was first
+     * configured.
+     * @return Text.
+     */
+    final String settings() {
+        return this.settings;
+    }
+
+    /**
+     * Visits the declarations of a file.
+     * @param jfsc Scanner context.
+     * @param declarations Declarations of the file.
+     * @param scan Scan of the file.
+     * @return Number of declarations visited.
+     */
+    private int check(final JavaFileScannerContext jfsc,
+        final Declarations declarations, final FileScan scan) {
+        int nodes = 0;
+        if (!declarations.isEmpty()) {
+            scan.resolver(declarations.resolver());
+            final DumpFile dump = DumpFile.active();
+            final Logger logger = LoggerFactory.getLogger(this.getClass());
+            if (dump != null || logger.isDebugEnabled()) {
+                scan.dumping();
+            }
+            final MemberCache members = MemberCache.active();
+            if (members == null) {
+                nodes = declarations.size();
+                declarations.accept(scan);
+            } else {
+                nodes = members.scan(this, jfsc, declarations, scan);
+            }
+            if (!scan.triggered().isEmpty()) {
+                this.dump(jfsc, scan.triggered(), dump, logger);
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Dumps the declarations that raised issues, to the dump file if there
+     * is one, or else to the debug log.
+     * @param jfsc Scanner context.
+     * @param trees Declarations.
+     * @param dump Dump file, or null.
+     * @param logger Logger of the rule.
+     * @checkstyle ParameterNumberCheck (3 lines)
+     */
+    private void dump(final JavaFileScannerContext jfsc,
+        final List<Tree> trees, final DumpFile dump, final Logger logger) {
+        final String source = ScanCost.path(jfsc);
+        try {
+            if (dump == null) {
+                final TreeDumper dumper = new TreeDumper();
+                for (final Tree tree : trees) {
+                    final StringWriter text = new StringWriter();
+                    dumper.dump(tree, text);
+                    logger.debug("{}:\n{}", source, text);
+                }
+            } else {
+                dump.write(source, ScanCost.key(this.getClass()), trees);
+            }
+        } catch (final IOException ex) {
+            logger.warn("Declarations of {} can't be dumped", source, ex);
+        }
+    }
+
+    /**
+     * Name and property values of a rule, read once through reflection.
+     * @param rule Rule.
+     * @return Text.
+     */
+    private static String settings(final DeclarationRule rule) {
+        final StringBuilder text = new StringBuilder(
+            rule.getClass().getName()
+        );
+        for (Class<?> type = rule.getClass(); type != null;
+            type = type.getSuperclass()) {
+            for (final Field field : type.getDeclaredFields()) {
+                if (field.isAnnotationPresent(RuleProperty.class)) {
+                    field.setAccessible(true);
+                    try {
+                        text.append(' ').append(field.getName())
+                            .append('=').append(field.get(rule));
+                    } catch (final IllegalAccessException ex) {
+                        throw new IllegalStateException(
+                            String.format("Failed to read: %s", field), ex
+                        );
+                    }
+                }
+            }
+        }
+        return text.toString();
+    }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.EnumConstantTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+/**
+ * Class and method declarations of a compilation unit, in source order.
+ *
+ * <p>The compilation unit is walked once, no matter how many rules consume
+ * it. The declarations of the last unit are kept per thread, so every rule
+ * scanning the same file replays them instead of walking the whole tree
+ * again. Files rejected by the {@link Prefilter} are not walked at all, and
+ * in the other ones only type declarations and members are, as rules only
+ * look at their modifiers.</p>
+ *
+ * <p>Only the last file of each thread is kept, and only weakly, so memory
+ * does not grow with the number of files analyzed, and idle threads of a
+ * pool don't keep the tree of the last file they scanned alive;
+ * {@link #release()} drops the entry of the current thread.</p>
+ *
+ * <p>Files are handed to the active {@link SnapshotWriter}, if there is
+ * one, before the prefilter looks at them.</p>
+ * @since 1.1
+ */
+public final class Declarations {
+
+    /**
+     * Last compilation unit seen by each thread, and its declarations.
+     */
+    private static final ThreadLocal<Declarations.Last> LAST =
+        ThreadLocal.withInitial(Declarations.Last::new);
+
+    /**
+     * Compilation unit the declarations were collected from.
+     */
+    private final CompilationUnitTree unit;
+
+    /**
+     * Generation of the annotation index the declarations were collected
+     * with.
+     */
+    private final int generation;
+
+    /**
+     * Class and method trees, in source order.
+     */
+    private final List<Tree> trees;
+
+    /**
+     * Resolver of the annotations of the compilation unit.
+     */
+    private final AnnotationResolver resolver;
+
+    /**
+     * Main constructor.
+     * @param unit Compilation unit.
+     * @param trees Class and method trees.
+     * @param resolver Resolver of its annotations.
+     */
+    private Declarations(final CompilationUnitTree unit,
+        final List<Tree> trees, final AnnotationResolver resolver) {
+        this.unit = unit;
+        this.generation = AnnotationIndex.generation();
+        this.trees = trees;
+        this.resolver = resolver;
+    }
+
+    /**
+     * Declarations of the file being scanned, walking it only if it differs
+     * from the last one seen by the current thread.
+     * @param context Scanner context.
+     * @return Declarations.
+     */
+    public static Declarations of(final JavaFileScannerContext context) {
+        final CompilationUnitTree unit = context.getTree();
+        final Declarations.Last slot = Declarations.LAST.get();
+        Declarations last = slot.declarations.get();
+        if (last == null || last.unit != unit
+            || last.generation != AnnotationIndex.generation()) {
+            final SnapshotWriter snapshots = SnapshotWriter.active();
+            if (snapshots != null && slot.unit.get() != unit) {
+                snapshots.capture(context);
+            }
+            slot.unit = new WeakReference<>(unit);
+            final MarkerLines markers = Prefilter.resources().scan(context);
+            if (markers.isEmpty()) {
+                last = new Declarations(
+                    unit, Collections.emptyList(),
+                    AnnotationResolver.SIMPLE_NAMES
+                );
+            } else {
+                final Collector collector = new Collector(markers);
+                collector.collect(unit);
+                last = new Declarations(
+                    unit, collector.trees, AnnotationResolver.of(unit)
+                );
+            }
+            slot.declarations = new WeakReference<>(last);
+        }
+        return last;
+    }
+
+    /**
+     * Drops the entry kept for the current thread, whose declarations may
+     * otherwise be replayed by the next scan of the same tree.
+     */
+    public static void release() {
+        Declarations.LAST.remove();
+    }
+
+    /**
+     * Tells whether there is no declaration to visit, either because the
+     * file declares nothing or because it was skipped by the prefilter.
+     * @return True if empty.
+     */
+    public boolean isEmpty() {
+        return this.trees.isEmpty();
+    }
+
+    /**
+     * Number of declarations to visit.
+     * @return Count.
+     */
+    public int size() {
+        return this.trees.size();
+    }
+
+    /**
+     * Declaration at an index.
+     * @param idx Index, in source order.
+     * @return Class or method tree.
+     */
+    Tree get(final int idx) {
+        return this.trees.get(idx);
+    }
+
+    /**
+     * Resolver of the annotations of the compilation unit.
+     * @return Resolver.
+     */
+    public AnnotationResolver resolver() {
+        return this.resolver;
+    }
+
+    /**
+     * Sends every declaration to a visitor, in source order.
+     * @param visitor Visitor.
+     */
+    public void accept(final DeclarationVisitor visitor) {
+        final int size = this.trees.size();
+        for (int idx = 0; idx < size; ++idx) {
+            final Tree tree = this.trees.get(idx);
+            if (tree instanceof MethodTree) {
+                visitor.visitMethod((MethodTree) tree);
+            } else {
+                visitor.visitClass((ClassTree) tree);
+            }
+        }
+    }
+
+    /**
+     * Records declarations, visiting only type declarations and their
+     * members.
+     *
+     * <p>Method bodies, initializers and field values are skipped unless the
+     * prefilter found a marker within their lines: only then may they hold
+     * a local or anonymous class with annotated members. Such subtrees are
+     * walked in full, until the next class declaration.</p>
+     */
+    private static final class Collector extends BaseTreeVisitor {
+
+        /**
+         * Lines holding markers.
+         */
+        private final MarkerLines markers;
+
+        /**
+         * Declarations found so far.
+         */
+        private final List<Tree> trees;
+
+        /**
+         * Main constructor.
+         * @param markers Lines holding markers.
+         */
+        Collector(final MarkerLines markers) {
+            this.markers = markers;
+            this.trees = new ArrayList<>();
+        }
+
+        /**
+         * Records the declarations of a compilation unit.
+         * @param unit Compilation unit.
+         */
+        public void collect(final CompilationUnitTree unit) {
+            for (final Tree type : unit.types()) {
+                if (type instanceof ClassTree) {
+                    this.visitClass((ClassTree) type);
+                }
+            }
+        }
+
+        @Override
+        public void visitClass(final ClassTree tree) {
+            this.trees.add(tree);
+            for (final Tree member : tree.members()) {
+                if (member instanceof ClassTree) {
+                    this.visitClass((ClassTree) member);
+                } else if (member instanceof MethodTree) {
+                    this.trees.add(member);
+                    this.prune(((MethodTree) member).block());
+                } else if (member instanceof VariableTree) {
+                    this.prune(((VariableTree) member).initializer());
+                } else if (member instanceof EnumConstantTree) {
+                    this.prune(((EnumConstantTree) member).initializer());
+                } else {
+                    this.prune(member);
+                }
+            }
+        }
+
+        /**
+         * Walks a subtree only if a marker lies within its lines.
+         * @param tree Subtree, may be null.
+         */
+        private void prune(final Tree tree) {
+            if (tree != null && this.markers.within(
+                tree.firstToken().line(), tree.lastToken().line()
+            )) {
+                tree.accept(this);
+            }
+        }
+    }
+
+    /**
+     * Last compilation unit seen by a thread, and its declarations, both
+     * held weakly.
+     */
+    private static final class Last {
+
+        /**
+         * Compilation unit, kept apart so that it is captured once even if
+         * its declarations are collected and walked again.
+         */
+        private WeakReference<CompilationUnitTree> unit =
+            new WeakReference<>(null);
+
+        /**
+         * Declarations of the unit.
+         */
+        private WeakReference<Declarations> declarations =
+            new WeakReference<>(null);
+
+    }
+
+}
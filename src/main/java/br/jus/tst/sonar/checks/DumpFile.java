@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Rotating file the declarations that raised issues are dumped to, by a
+ * {@link TreeDumper}.
+ *
+ * <p>When the file grows past its size limit, it is renamed with a
+ * <code>.1</code> suffix, older files moving to <code>.2</code> and so on,
+ * and a new file is started; the oldest one is dropped.</p>
+ * @since 1.1
+ */
+public final class DumpFile {
+
+    /**
+     * File of the running analysis, if any.
+     */
+    private static final AtomicReference<DumpFile> ACTIVE =
+        new AtomicReference<>();
+
+    /**
+     * Default size limit of each file, in bytes.
+     */
+    private static final long LIMIT = 10L << 20;
+
+    /**
+     * Default number of older files kept.
+     */
+    private static final int BACKUPS = 3;
+
+    /**
+     * File written.
+     */
+    private final Path file;
+
+    /**
+     * Dumper.
+     */
+    private final TreeDumper dumper;
+
+    /**
+     * Size limit of each file, in bytes.
+     */
+    private final long limit;
+
+    /**
+     * Number of older files kept.
+     */
+    private final int backups;
+
+    /**
+     * Open file, or null.
+     */
+    private Writer out;
+
+    /**
+     * Ctor, keeping three files of 10 MB at most.
+     * @param file File written.
+     * @param dumper Dumper.
+     */
+    public DumpFile(final Path file, final TreeDumper dumper) {
+        this(file, dumper, DumpFile.LIMIT, DumpFile.BACKUPS);
+    }
+
+    /**
+     * Main constructor.
+     * @param file File written.
+     * @param dumper Dumper.
+     * @param limit Size limit of each file, in bytes.
+     * @param backups Number of older files kept.
+     */
+    public DumpFile(final Path file, final TreeDumper dumper,
+        final long limit, final int backups) {
+        this.file = file;
+        this.dumper = dumper;
+        this.limit = limit;
+        this.backups = backups;
+    }
+
+    /**
+     * File of the running analysis.
+     * @return File, or null if there is none.
+     */
+    public static DumpFile active() {
+        return DumpFile.ACTIVE.get();
+    }
+
+    /**
+     * Makes this the file of the running analysis.
+     */
+    public void activate() {
+        DumpFile.ACTIVE.set(this);
+    }
+
+    /**
+     * Stops using this file, if it is the active one, and closes it.
+     * @throws IOException If it can't be closed.
+     */
+    public synchronized void deactivate() throws IOException {
+        DumpFile.ACTIVE.compareAndSet(this, null);
+        if (this.out != null) {
+            this.out.close();
+            this.out = null;
+        }
+    }
+
+    /**
+     * Dumps the declarations of a file that raised issues.
+     * @param source File scanned.
+     * @param rule Rule that raised the issues.
+     * @param trees Declarations.
+     * @throws IOException If they can't be written.
+     */
+    public synchronized void write(final String source, final String rule,
+        final List<Tree> trees) throws IOException {
+        if (this.out == null) {
+            Files.createDirectories(this.file.toAbsolutePath().getParent());
+            this.out = Files.newBufferedWriter(
+                this.file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND
+            );
+        }
+        this.out.write(String.format("# %s [%s]\n", source, rule));
+        for (final Tree tree : trees) {
+            this.dumper.dump(tree, this.out);
+        }
+        this.out.flush();
+        if (Files.size(this.file) > this.limit) {
+            this.out.close();
+            this.out = null;
+            this.rotate();
+        }
+    }
+
+    /**
+     * Moves the file and its older copies one suffix up.
+     * @throws IOException If they can't be moved.
+     */
+    private void rotate() throws IOException {
+        Files.deleteIfExists(this.backup(this.backups));
+        for (int idx = this.backups - 1; idx > 0; --idx) {
+            final Path older = this.backup(idx);
+            if (Files.exists(older)) {
+                Files.move(
+                    older, this.backup(idx + 1),
+                    StandardCopyOption.REPLACE_EXISTING
+                );
+            }
+        }
+        if (this.backups > 0) {
+            Files.move(
+                this.file, this.backup(1), StandardCopyOption.REPLACE_EXISTING
+            );
+        } else {
+            Files.delete(this.file);
+        }
+    }
+
+    /**
+     * Older copy of the file.
+     * @param idx Its number, 1 being the most recent.
+     * @return Path.
+     */
+    private Path backup(final int idx) {
+        return this.file.resolveSibling(
+            String.format("%s.%d", this.file.getFileName(), idx)
+        );
+    }
+
+}
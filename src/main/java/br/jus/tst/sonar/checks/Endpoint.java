@@ -0,0 +1,309 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Endpoint found in the sources, as listed by the
+ * {@link EndpointInventory}.
+ * @since 1.1
+ */
+public final class Endpoint implements Comparable<Endpoint> {
+
+    /**
+     * Method of endpoints answering any HTTP method, such as Spring
+     * <code>@RequestMapping</code> methods without a <code>method</code>.
+     */
+    public static final String ANY = "*";
+
+    /**
+     * Order of endpoints: by path, HTTP method, then location.
+     */
+    private static final Comparator<Endpoint> ORDER =
+        Comparator.comparing(Endpoint::path)
+            .thenComparing(Endpoint::method)
+            .thenComparing(Endpoint::file)
+            .thenComparingInt(Endpoint::line);
+
+    /**
+     * HTTP method, in lower case, or {@link #ANY}.
+     */
+    private final String method;
+
+    /**
+     * Path, starting with <code>/</code>.
+     */
+    private final String path;
+
+    /**
+     * Name of the Java method.
+     */
+    private final String operation;
+
+    /**
+     * Summary, from <code>@ApiOperation</code>; empty if undocumented.
+     */
+    private final String summary;
+
+    /**
+     * Tag, from <code>@Api</code>; empty if undocumented.
+     */
+    private final String tag;
+
+    /**
+     * Parameters.
+     */
+    private final List<Endpoint.Parameter> params;
+
+    /**
+     * File declaring it.
+     */
+    private final String file;
+
+    /**
+     * Line of the Java method name.
+     */
+    private final int line;
+
+    /**
+     * Main constructor.
+     * @param method HTTP method, in lower case, or {@link #ANY}.
+     * @param path Path, starting with <code>/</code>.
+     * @param operation Name of the Java method.
+     * @param summary Summary, empty if undocumented.
+     * @param tag Tag, empty if undocumented.
+     * @param params Parameters.
+     * @param file File declaring it.
+     * @param line Line of the Java method name.
+     * @checkstyle ParameterNumberCheck (4 lines)
+     */
+    public Endpoint(final String method, final String path,
+        final String operation, final String summary, final String tag,
+        final List<Endpoint.Parameter> params, final String file,
+        final int line) {
+        this.method = method;
+        this.path = path;
+        this.operation = operation;
+        this.summary = summary;
+        this.tag = tag;
+        this.params = Collections.unmodifiableList(params);
+        this.file = file;
+        this.line = line;
+    }
+
+    /**
+     * HTTP method.
+     * @return Method, in lower case, or {@link #ANY}.
+     */
+    public String method() {
+        return this.method;
+    }
+
+    /**
+     * Path.
+     * @return Path, starting with <code>/</code>.
+     */
+    public String path() {
+        return this.path;
+    }
+
+    /**
+     * Name of the Java method.
+     * @return Name.
+     */
+    public String operation() {
+        return this.operation;
+    }
+
+    /**
+     * Summary, from <code>@ApiOperation</code>.
+     * @return Summary, empty if undocumented.
+     */
+    public String summary() {
+        return this.summary;
+    }
+
+    /**
+     * Tag, from <code>@Api</code>.
+     * @return Tag, empty if undocumented.
+     */
+    public String tag() {
+        return this.tag;
+    }
+
+    /**
+     * Parameters.
+     * @return Parameters, in declaration order.
+     */
+    public List<Endpoint.Parameter> parameters() {
+        return this.params;
+    }
+
+    /**
+     * File declaring it.
+     * @return Path.
+     */
+    public String file() {
+        return this.file;
+    }
+
+    /**
+     * Line of the Java method name.
+     * @return Line, 1-based.
+     */
+    public int line() {
+        return this.line;
+    }
+
+    /**
+     * Same endpoint, declared in another file.
+     * @param other Path of the file.
+     * @return Endpoint.
+     */
+    public Endpoint in(final String other) {
+        return new Endpoint(
+            this.method, this.path, this.operation, this.summary, this.tag,
+            this.params, other, this.line
+        );
+    }
+
+    /**
+     * The same endpoint, on another line.
+     * @param lines Lines to move it down by, negative to move it up.
+     * @return Endpoint.
+     */
+    public Endpoint moved(final int lines) {
+        return new Endpoint(
+            this.method, this.path, this.operation, this.summary, this.tag,
+            this.params, this.file, this.line + lines
+        );
+    }
+
+    @Override
+    public int compareTo(final Endpoint other) {
+        return Endpoint.ORDER.compare(this, other);
+    }
+
+    @Override
+    public String toString() {
+        return String.format(
+            "%s %s (%s:%d)", this.method.toUpperCase(), this.path, this.file,
+            this.line
+        );
+    }
+
+    /**
+     * Writes the endpoint, without its file.
+     * @param output Output.
+     * @throws IOException If it can't be written.
+     */
+    void write(final DataOutput output) throws IOException {
+        output.writeUTF(this.method);
+        output.writeUTF(this.path);
+        output.writeUTF(this.operation);
+        output.writeUTF(this.summary);
+        output.writeUTF(this.tag);
+        output.writeInt(this.line);
+        output.writeInt(this.params.size());
+        for (final Endpoint.Parameter param : this.params) {
+            output.writeUTF(param.name());
+            output.writeUTF(param.location());
+        }
+    }
+
+    /**
+     * Reads an endpoint written by {@link #write(DataOutput)}.
+     * @param input Input.
+     * @return Endpoint, with an empty file.
+     * @throws IOException If it can't be read.
+     */
+    static Endpoint read(final DataInput input) throws IOException {
+        final String method = input.readUTF();
+        final String path = input.readUTF();
+        final String operation = input.readUTF();
+        final String summary = input.readUTF();
+        final String tag = input.readUTF();
+        final int line = input.readInt();
+        final int size = input.readInt();
+        final List<Endpoint.Parameter> params = new ArrayList<>(size);
+        for (int idx = 0; idx < size; ++idx) {
+            params.add(
+                new Endpoint.Parameter(input.readUTF(), input.readUTF())
+            );
+        }
+        return new Endpoint(
+            method, path, operation, summary, tag, params, "", line
+        );
+    }
+
+    /**
+     * Parameter of an endpoint.
+     */
+    public static final class Parameter {
+
+        /**
+         * Name.
+         */
+        private final String name;
+
+        /**
+         * Location: <code>path</code>, <code>query</code>,
+         * <code>header</code> or <code>cookie</code>.
+         */
+        private final String location;
+
+        /**
+         * Main constructor.
+         * @param name Name.
+         * @param location Location.
+         */
+        public Parameter(final String name, final String location) {
+            this.name = name;
+            this.location = location;
+        }
+
+        /**
+         * Name.
+         * @return Name.
+         */
+        public String name() {
+            return this.name;
+        }
+
+        /**
+         * Location, as in OpenAPI.
+         * @return Location.
+         */
+        public String location() {
+            return this.location;
+        }
+    }
+
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Endpoints found by the rules, and how many are documented.
+ *
+ * <p>Rules count what they see in each file on their own, then add it
+ * here once per file. The totals are striped counters, so concurrent
+ * scans don't contend, and are drained once per module.</p>
+ * @since 1.1
+ */
+public final class EndpointCoverage {
+
+    /**
+     * Classes annotated with <code>@Path</code>.
+     */
+    public static final int CLASSES = 0;
+
+    /**
+     * Methods annotated with an HTTP method.
+     */
+    public static final int METHODS = 1;
+
+    /**
+     * Methods annotated with an HTTP method and documented.
+     */
+    public static final int DOCUMENTED = 2;
+
+    /**
+     * Number of counters.
+     */
+    public static final int SIZE = 3;
+
+    /**
+     * Totals.
+     */
+    private static final LongAdder[] TOTALS = {
+        new LongAdder(), new LongAdder(), new LongAdder(),
+    };
+
+    /**
+     * Utility class.
+     */
+    private EndpointCoverage() {
+    }
+
+    /**
+     * Takes the totals, resetting them.
+     * @return Totals, indexed by counter.
+     */
+    public static long[] drain() {
+        final long[] totals = new long[EndpointCoverage.SIZE];
+        for (int idx = 0; idx < EndpointCoverage.SIZE; ++idx) {
+            totals[idx] = EndpointCoverage.TOTALS[idx].sumThenReset();
+        }
+        return totals;
+    }
+
+    /**
+     * Adds the counts of a file.
+     * @param counts Counts, indexed by counter.
+     */
+    static void add(final int[] counts) {
+        for (int idx = 0; idx < EndpointCoverage.SIZE; ++idx) {
+            if (counts[idx] != 0) {
+                EndpointCoverage.TOTALS[idx].add(counts[idx]);
+            }
+        }
+    }
+
+}
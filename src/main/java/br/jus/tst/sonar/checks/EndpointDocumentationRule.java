@@ -22,24 +22,27 @@
 
 package br.jus.tst.sonar.checks;
 
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.stream.Collectors;
-import org.slf4j.Logger;
+import java.nio.file.Paths;
+import java.util.Locale;
 import org.sonar.check.Priority;
 import org.sonar.check.Rule;
-import org.sonar.plugins.java.api.JavaFileScanner;
-import org.sonar.plugins.java.api.JavaFileScannerContext;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.check.RuleProperty;
 import org.sonar.plugins.java.api.tree.IdentifierTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
-import org.sonar.plugins.java.api.tree.Tree;
-import org.sonar.samples.java.checks.PrinterVisitor;
 
 /**
  * Java methods implementing HTTP methods must be documented.
+ *
+ * <p>Endpoints are JAX-RS resource methods and Spring MVC handler methods.
+ * Both annotations can be configured, e.g. for endpoints of another
+ * framework or for HTTP methods such as <code>@PATCH</code>. Endpoints are
+ * also listed in the {@link EndpointInventory}, when there is one.</p>
+ *
+ * <p>If a published API document is given, endpoints missing from it, or
+ * published with other HTTP methods only, are reported too. Endpoints
+ * answering any HTTP method only need their path to be published, and
+ * endpoint paths may start with the base path or a server URL path of
+ * the document.</p>
  * @since 1.0
  */
 @Rule(
@@ -48,72 +51,230 @@ import org.sonar.samples.java.checks.PrinterVisitor;
     // @checkstyle LineLengthCheck (1 line)
     description = "A method annotated with @GET, @POST, @DELETE or @POST must also be annotated with @ApiOperation"
 )
-public final class EndpointDocumentationRule extends BaseTreeVisitor
-    implements JavaFileScanner {
+public final class EndpointDocumentationRule extends DeclarationRule {
+
+    /**
+     * Annotations of endpoints, by default.
+     */
+    private static final String ENDPOINTS =
+        "javax.ws.rs.GET,javax.ws.rs.PUT,javax.ws.rs.DELETE,"
+            + "javax.ws.rs.POST,javax.ws.rs.OPTIONS,javax.ws.rs.HEAD,"
+            + "org.springframework.web.bind.annotation.RequestMapping,"
+            + "org.springframework.web.bind.annotation.GetMapping,"
+            + "org.springframework.web.bind.annotation.PostMapping,"
+            + "org.springframework.web.bind.annotation.PutMapping,"
+            + "org.springframework.web.bind.annotation.DeleteMapping,"
+            + "org.springframework.web.bind.annotation.PatchMapping";
+
+    /**
+     * Key of the published API document property.
+     */
+    public static final String PUBLISHED = "publishedSpec";
+
+    /**
+     * Annotations of documented endpoints, by default.
+     */
+    private static final String OPERATION =
+        "io.swagger.annotations.ApiOperation";
+
+    /**
+     * Annotations of endpoints.
+     */
+    @RuleProperty(
+        key = "endpointAnnotations",
+        description = "Comma-separated annotations of endpoint methods",
+        defaultValue = EndpointDocumentationRule.ENDPOINTS
+    )
+    private String endpoints;
+
+    /**
+     * Annotations of documented endpoints.
+     */
+    @RuleProperty(
+        key = "documentationAnnotations",
+        description = "Comma-separated annotations documenting endpoints",
+        defaultValue = EndpointDocumentationRule.OPERATION
+    )
+    private String documentation;
+
+    /**
+     * Published API document, or empty.
+     */
+    @RuleProperty(
+        key = EndpointDocumentationRule.PUBLISHED,
+        // @checkstyle LineLengthCheck (1 line)
+        description = "Swagger or OpenAPI document, JSON or YAML, endpoints must be published in, with or without its basePath or server URL path",
+        defaultValue = ""
+    )
+    private String published;
+
+    /**
+     * Annotations of endpoints, compiled.
+     */
+    private final AnnotationSet triggers = new AnnotationSet();
+
+    /**
+     * Annotations of documented endpoints, compiled.
+     */
+    private final AnnotationSet required = new AnnotationSet();
+
+    /**
+     * Published API, or null.
+     */
+    private volatile PublishedSpec spec;
 
     /**
-     * HTTP methods.
+     * Published API document {@link #spec} was loaded from by the rule,
+     * or null if it is the active one or there is none.
      */
-    private static final Set<String> HTTP_METHODS = new HashSet<>(
-        Arrays.asList("GET", "PUT", "DELETE", "POST", "OPTIONS", "HEAD")
-    );
+    private volatile String loaded;
 
     /**
-     * Scanner context.
+     * Ctor, with JAX-RS and Spring MVC endpoints and Swagger
+     * documentation.
      */
-    private JavaFileScannerContext context;
+    public EndpointDocumentationRule() {
+        this(
+            EndpointDocumentationRule.ENDPOINTS,
+            EndpointDocumentationRule.OPERATION
+        );
+    }
+
+    /**
+     * Ctor.
+     * @param endpoints Comma-separated annotations of endpoints.
+     * @param documentation Comma-separated annotations of documented
+     *  endpoints.
+     */
+    public EndpointDocumentationRule(final String endpoints,
+        final String documentation) {
+        this(endpoints, documentation, "");
+    }
+
+    /**
+     * Ctor.
+     * @param endpoints Comma-separated annotations of endpoints.
+     * @param documentation Comma-separated annotations of documented
+     *  endpoints.
+     * @param published Published API document, or empty.
+     */
+    public EndpointDocumentationRule(final String endpoints,
+        final String documentation, final String published) {
+        super();
+        this.endpoints = endpoints;
+        this.documentation = documentation;
+        this.published = published;
+    }
 
     @Override
-    public void scanFile(final JavaFileScannerContext jfsc) {
-        this.context = jfsc;
-        scan(this.context.getTree());
-        final Logger logger = org.slf4j.LoggerFactory
-            .getLogger(ApiDocumentationRule.class);
-        if (logger.isDebugEnabled()) {
-            logger.debug(PrinterVisitor.print(this.context.getTree()));
+    protected void visitMethod(final MethodTree tree,
+        final FileScan scan) {
+        final long triggers = this.triggers.mask();
+        final long required = this.required.mask();
+        final PublishedSpec published = this.spec;
+        final long mask = Annotations.mask(tree.modifiers(), scan.resolver());
+        if ((mask & triggers) != 0L) {
+            scan.count(EndpointCoverage.METHODS);
+            if (published != null) {
+                scan.uncached();
+                EndpointDocumentationRule.publish(
+                    tree,
+                    EndpointReader.read(
+                        tree, scan.resolver(), triggers, required
+                    ),
+                    published, scan
+                );
+            } else if (scan.collecting()) {
+                scan.collect(
+                    EndpointReader.read(
+                        tree, scan.resolver(), triggers, required
+                    )
+                );
+            }
+            if ((mask & required) != 0L
+                || (scan.hierarchy().method(tree) & required) != 0L) {
+                scan.count(EndpointCoverage.DOCUMENTED);
+            } else {
+                final IdentifierTree endpoint = Annotations.last(
+                    tree.modifiers(), scan.resolver(), triggers
+                );
+                final String template = String.join(
+                    " ",
+                    "Methods annotated with @%s",
+                    "must also be annotated with @%s"
+                );
+                scan.report(
+                    endpoint,
+                    String.format(
+                        template, endpoint.name(), this.required.names()
+                    )
+                );
+            }
         }
     }
 
     @Override
-    public void visitMethod(final MethodTree tree) {
-        final String operation = "ApiOperation";
-        final AtomicReference<Tree> path = new AtomicReference<>();
-        final Set<String> anns = new Annotations(tree).stream()
-            .peek(
-                idf -> {
-                    if (EndpointDocumentationRule.HTTP_METHODS
-                        .contains(idf.name())) {
-                        path.set(idf);
-                    }
-                }
-            )
-            .map(IdentifierTree::name)
-            .collect(Collectors.toSet());
-        if (EndpointDocumentationRule.isEndpoitMethod(anns)
-            && !anns.contains(operation)) {
-            final String template =
-                "Methods annotated with @%s must also be annotated with @%s";
-            this.context.reportIssue(
-                this,
-                path.get(),
-                String.format(
-                    template,
-                    ((IdentifierTree) path.get()).name(),
-                    operation
-                )
-            );
+    protected void configure() {
+        this.triggers.compile(this.endpoints);
+        this.required.compile(this.documentation);
+        final String file;
+        if (this.published == null) {
+            file = "";
+        } else {
+            file = this.published.trim();
+        }
+        final PublishedSpec active = PublishedSpec.active();
+        if (file.isEmpty()) {
+            this.spec = null;
+            this.loaded = null;
+        } else if (active != null) {
+            this.spec = active;
+            this.loaded = null;
+        } else if (!file.equals(this.loaded)) {
+            this.spec = PublishedSpec.of(Paths.get(file));
+            this.loaded = file;
         }
-        super.visitMethod(tree);
     }
 
     /**
-     * A method is a REST endpoint if it is annotated with <code>@GET</code>,
-     * <code>@POST</code>, <code>@DELETE</code> or <code>@POST</code>.
-     * @param found All annotations found.
-     * @return Boolean.
+     * Checks an endpoint against the published API, and lists it.
+     * @param tree Method of the endpoint.
+     * @param endpoint Endpoint.
+     * @param spec Published API.
+     * @param scan Scan of the file.
+     * @checkstyle ParameterNumberCheck (3 lines)
      */
-    private static boolean isEndpoitMethod(final Set<String> found) {
-        return found.removeAll(EndpointDocumentationRule.HTTP_METHODS);
+    private static void publish(final MethodTree tree,
+        final Endpoint endpoint, final PublishedSpec spec,
+        final FileScan scan) {
+        final boolean any = Endpoint.ANY.equals(endpoint.method());
+        if (any && !spec.has(endpoint.path())) {
+            scan.report(
+                tree.simpleName(),
+                String.format(
+                    "Endpoint %s is missing from the published API",
+                    endpoint.path()
+                )
+            );
+        } else if (!any && !spec.has(endpoint.method(), endpoint.path())) {
+            final String problem;
+            if (spec.has(endpoint.path())) {
+                problem = "is published with other HTTP methods only";
+            } else {
+                problem = "is missing from the published API";
+            }
+            scan.report(
+                tree.simpleName(),
+                String.format(
+                    "Endpoint %s %s %s",
+                    endpoint.method().toUpperCase(Locale.ENGLISH),
+                    endpoint.path(), problem
+                )
+            );
+        }
+        if (scan.collecting()) {
+            scan.collect(endpoint);
+        }
     }
 
 }
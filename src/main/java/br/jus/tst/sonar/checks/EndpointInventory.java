@@ -0,0 +1,104 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Endpoints found by the rules while they check the sources.
+ *
+ * <p>The inventory is filled by {@link EndpointDocumentationRule} during
+ * the walk it makes anyway, so listing the endpoints of a module costs no
+ * other pass over the sources nor loading compiled classes. Rules only
+ * record endpoints while an inventory is active, or when their scans are
+ * to be cached: endpoints are kept in the {@link IssueCache} along with
+ * issues, and replayed with them.</p>
+ * @since 1.1
+ */
+public final class EndpointInventory {
+
+    /**
+     * Inventory of the running analysis, if any.
+     */
+    private static final AtomicReference<EndpointInventory> ACTIVE =
+        new AtomicReference<>();
+
+    /**
+     * Endpoints found so far.
+     */
+    private final Queue<Endpoint> endpoints = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Inventory of the running analysis.
+     * @return Inventory, or null if endpoints are not listed.
+     */
+    public static EndpointInventory active() {
+        return EndpointInventory.ACTIVE.get();
+    }
+
+    /**
+     * Makes this inventory the one rules fill.
+     */
+    public void activate() {
+        EndpointInventory.ACTIVE.set(this);
+    }
+
+    /**
+     * Stops rules from filling this inventory.
+     */
+    public void deactivate() {
+        EndpointInventory.ACTIVE.compareAndSet(this, null);
+    }
+
+    /**
+     * Adds the endpoints of a file.
+     * @param file Path of the file.
+     * @param found Endpoints.
+     */
+    public void add(final String file, final Collection<Endpoint> found) {
+        for (final Endpoint endpoint : found) {
+            this.endpoints.add(endpoint.in(file));
+        }
+    }
+
+    /**
+     * Takes the endpoints found so far, leaving the inventory empty.
+     * @return Endpoints, sorted by path and HTTP method.
+     */
+    public List<Endpoint> drain() {
+        final List<Endpoint> drained = new ArrayList<>(this.endpoints.size());
+        for (Endpoint next = this.endpoints.poll(); next != null;
+            next = this.endpoints.poll()) {
+            drained.add(next);
+        }
+        Collections.sort(drained);
+        return drained;
+    }
+
+}
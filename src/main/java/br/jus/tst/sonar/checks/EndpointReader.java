@@ -0,0 +1,375 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import org.sonar.plugins.java.api.tree.AnnotationTree;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.ModifiersTree;
+import org.sonar.plugins.java.api.tree.NewArrayTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TypeTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+/**
+ * Reads the {@link Endpoint} a method declares, from the syntax tree only.
+ *
+ * <p>Paths join the <code>@Path</code> or <code>@RequestMapping</code> of
+ * the enclosing class with those of the method; regular expressions of
+ * path templates are dropped. Only string literals, and concatenations of
+ * them, are read: values taken from constants are left out. Spring
+ * <code>@RequestMapping</code> methods without a <code>method</code> answer
+ * any HTTP method, and get {@link Endpoint#ANY}.</p>
+ * @since 1.1
+ */
+final class EndpointReader {
+
+    /**
+     * Annotations holding a path.
+     */
+    private static final long PATHS = AnnotationIndex.PATH
+        | AnnotationIndex.REQUEST_MAPPINGS;
+
+    /**
+     * Utility class.
+     */
+    private EndpointReader() {
+    }
+
+    /**
+     * Reads an endpoint.
+     * @param tree Method.
+     * @param resolver Resolver of the annotations of the file.
+     * @param endpoints Annotations making it an endpoint.
+     * @param documented Annotations documenting it.
+     * @return Endpoint, with an empty file.
+     */
+    static Endpoint read(final MethodTree tree,
+        final AnnotationResolver resolver, final long endpoints,
+        final long documented) {
+        String prefix = "";
+        String tag = "";
+        final Tree parent = tree.parent();
+        if (parent instanceof ClassTree) {
+            final ModifiersTree modifiers = ((ClassTree) parent).modifiers();
+            prefix = EndpointReader.value(
+                EndpointReader.find(modifiers, resolver, EndpointReader.PATHS),
+                "value", "path"
+            );
+            tag = EndpointReader.value(
+                EndpointReader.find(modifiers, resolver, AnnotationIndex.API),
+                "value", "tags"
+            );
+        }
+        final AnnotationTree http = EndpointReader.find(
+            tree.modifiers(), resolver, endpoints
+        );
+        final AnnotationTree path = EndpointReader.find(
+            tree.modifiers(), resolver, EndpointReader.PATHS
+        );
+        return new Endpoint(
+            EndpointReader.method(http),
+            EndpointReader.path(
+                prefix, EndpointReader.value(path, "value", "path")
+            ),
+            tree.simpleName().name(),
+            EndpointReader.value(
+                EndpointReader.find(tree.modifiers(), resolver, documented),
+                "value", "summary"
+            ),
+            tag, EndpointReader.parameters(tree), "",
+            tree.simpleName().identifierToken().line()
+        );
+    }
+
+    /**
+     * Joins paths, with a single <code>/</code> between segments and
+     * without regular expressions nor blanks in templates.
+     * @param parts Paths.
+     * @return Path, starting with <code>/</code>.
+     */
+    static String path(final String... parts) {
+        final StringBuilder path = new StringBuilder("/");
+        for (final String part : parts) {
+            int depth = 0;
+            boolean regex = false;
+            for (int idx = 0; idx < part.length(); ++idx) {
+                final char chr = part.charAt(idx);
+                if (chr == '{') {
+                    ++depth;
+                } else if (chr == '}') {
+                    --depth;
+                    regex &= depth > 0;
+                } else if (chr == ':' && depth == 1) {
+                    regex = true;
+                }
+                final boolean skip = regex
+                    || depth > 0 && Character.isWhitespace(chr)
+                    || chr == '/' && path.charAt(path.length() - 1) == '/';
+                if (!skip) {
+                    path.append(chr);
+                }
+            }
+            if (path.charAt(path.length() - 1) != '/') {
+                path.append('/');
+            }
+        }
+        if (path.length() > 1) {
+            path.setLength(path.length() - 1);
+        }
+        return path.toString();
+    }
+
+    /**
+     * HTTP method of an endpoint annotation.
+     * @param annotation Annotation.
+     * @return Method, in lower case, or {@link Endpoint#ANY}.
+     */
+    private static String method(final AnnotationTree annotation) {
+        String method = EndpointReader.name(annotation.annotationType());
+        if (method.endsWith("Mapping")) {
+            method = method.substring(0, method.length() - "Mapping".length());
+        }
+        if ("Request".equals(method)) {
+            method = EndpointReader.constant(
+                EndpointReader.argument(annotation, "method")
+            );
+            if (method.isEmpty()) {
+                method = Endpoint.ANY;
+            }
+        }
+        return method.toLowerCase(Locale.ENGLISH);
+    }
+
+    /**
+     * Parameters of an endpoint, bound to the path, query, headers or
+     * cookies.
+     * @param tree Method.
+     * @return Parameters.
+     */
+    private static List<Endpoint.Parameter> parameters(final MethodTree tree) {
+        final List<Endpoint.Parameter> params = new ArrayList<>(0);
+        for (final VariableTree param : tree.parameters()) {
+            for (final AnnotationTree annotation
+                : param.modifiers().annotations()) {
+                final String location = EndpointReader.location(
+                    annotation.annotationType()
+                );
+                if (!location.isEmpty()) {
+                    String name = EndpointReader.value(
+                        annotation, "value", "name"
+                    );
+                    if (name.isEmpty()) {
+                        name = param.simpleName().name();
+                    }
+                    params.add(new Endpoint.Parameter(name, location));
+                }
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Location of a parameter, by the simple name of its annotation.
+     * @param type Annotation type.
+     * @return OpenAPI location, empty if not bound to the request.
+     * @checkstyle CyclomaticComplexityCheck (30 lines)
+     */
+    private static String location(final TypeTree type) {
+        final String location;
+        switch (EndpointReader.name(type)) {
+            case "PathParam":
+            case "PathVariable":
+                location = "path";
+                break;
+            case "QueryParam":
+            case "RequestParam":
+                location = "query";
+                break;
+            case "HeaderParam":
+            case "RequestHeader":
+                location = "header";
+                break;
+            case "CookieParam":
+            case "CookieValue":
+                location = "cookie";
+                break;
+            default:
+                location = "";
+                break;
+        }
+        return location;
+    }
+
+    /**
+     * Simple name of an annotation type.
+     * @param type Annotation type.
+     * @return Name, empty if it is neither an identifier nor qualified.
+     */
+    private static String name(final TypeTree type) {
+        final String name;
+        if (type.kind() == Tree.Kind.MEMBER_SELECT) {
+            name = ((MemberSelectExpressionTree) type).identifier().name();
+        } else if (type.kind() == Tree.Kind.IDENTIFIER) {
+            name = ((IdentifierTree) type).name();
+        } else {
+            name = "";
+        }
+        return name;
+    }
+
+    /**
+     * First annotation whose bit is in a mask.
+     * @param tree Modifiers.
+     * @param resolver Resolver of the annotations of the file.
+     * @param bits Bits of interest.
+     * @return Annotation, or null if none matches.
+     */
+    private static AnnotationTree find(final ModifiersTree tree,
+        final AnnotationResolver resolver, final long bits) {
+        AnnotationTree found = null;
+        for (final AnnotationTree annotation : tree.annotations()) {
+            if ((resolver.bit(annotation.annotationType()) & bits) != 0L) {
+                found = annotation;
+                break;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * String value of an annotation argument.
+     * @param annotation Annotation, may be null.
+     * @param names Names of the argument, the first one also matching a
+     *  single unnamed argument.
+     * @return Value, empty if missing or not a literal.
+     */
+    private static String value(final AnnotationTree annotation,
+        final String... names) {
+        String value = "";
+        for (final String name : names) {
+            value = EndpointReader.text(
+                EndpointReader.argument(annotation, name)
+            );
+            if (!value.isEmpty()) {
+                break;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Argument of an annotation.
+     * @param annotation Annotation, may be null.
+     * @param name Name of the argument; <code>value</code> also matches a
+     *  single unnamed argument.
+     * @return Expression, or null if missing.
+     */
+    private static ExpressionTree argument(final AnnotationTree annotation,
+        final String name) {
+        ExpressionTree found = null;
+        if (annotation != null) {
+            for (final ExpressionTree arg : annotation.arguments()) {
+                if (arg.kind() == Tree.Kind.ASSIGNMENT) {
+                    final AssignmentExpressionTree assignment =
+                        (AssignmentExpressionTree) arg;
+                    if (assignment.variable().kind() == Tree.Kind.IDENTIFIER
+                        && name.equals(
+                            ((IdentifierTree) assignment.variable()).name()
+                        )) {
+                        found = assignment.expression();
+                    }
+                } else if ("value".equals(name)) {
+                    found = arg;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Text of a string expression.
+     * @param expr Literal, concatenation of literals or array of them.
+     * @return Text, or the first element of an array; empty if unknown.
+     */
+    private static String text(final ExpressionTree expr) {
+        final String text;
+        if (expr == null) {
+            text = "";
+        } else if (expr.kind() == Tree.Kind.STRING_LITERAL) {
+            final String literal = ((LiteralTree) expr).value();
+            text = literal.substring(1, literal.length() - 1);
+        } else if (expr.kind() == Tree.Kind.PLUS) {
+            final BinaryExpressionTree plus = (BinaryExpressionTree) expr;
+            final String left = EndpointReader.text(plus.leftOperand());
+            final String right = EndpointReader.text(plus.rightOperand());
+            if (left.isEmpty() || right.isEmpty()) {
+                text = "";
+            } else {
+                text = left + right;
+            }
+        } else if (expr.kind() == Tree.Kind.NEW_ARRAY
+            && !((NewArrayTree) expr).initializers().isEmpty()) {
+            text = EndpointReader.text(
+                ((NewArrayTree) expr).initializers().get(0)
+            );
+        } else {
+            text = "";
+        }
+        return text;
+    }
+
+    /**
+     * Name of an enum constant.
+     * @param expr Constant, qualified or not, or array of them.
+     * @return Name, or the first of an array; empty if unknown.
+     */
+    private static String constant(final ExpressionTree expr) {
+        final String name;
+        if (expr == null) {
+            name = "";
+        } else if (expr.kind() == Tree.Kind.MEMBER_SELECT) {
+            name = ((MemberSelectExpressionTree) expr).identifier().name();
+        } else if (expr.kind() == Tree.Kind.IDENTIFIER) {
+            name = ((IdentifierTree) expr).name();
+        } else if (expr.kind() == Tree.Kind.NEW_ARRAY
+            && !((NewArrayTree) expr).initializers().isEmpty()) {
+            name = EndpointReader.constant(
+                ((NewArrayTree) expr).initializers().get(0)
+            );
+        } else {
+            name = "";
+        }
+        return name;
+    }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * State of a {@link DeclarationRule} while it scans one file.
+ *
+ * <p>A scan is created by each call of
+ * {@link DeclarationRule#scanFile(JavaFileScannerContext)} and handed to the
+ * rule with every declaration, so the rule itself keeps no state between
+ * declarations and one instance can scan several files at once, from
+ * several threads.</p>
+ * @since 1.1
+ */
+final class FileScan implements DeclarationVisitor {
+
+    /**
+     * Rule scanning the file.
+     */
+    private final DeclarationRule rule;
+
+    /**
+     * Scanner context.
+     */
+    private final JavaFileScannerContext context;
+
+    /**
+     * Endpoints counted in the file.
+     */
+    private final int[] counts = new int[EndpointCoverage.SIZE];
+
+    /**
+     * Endpoints listed in the file.
+     */
+    private final List<Endpoint> endpoints = new ArrayList<>(0);
+
+    /**
+     * Resolver of the annotations of the file.
+     */
+    private AnnotationResolver annotations;
+
+    /**
+     * Issues reported on the file, if they are to be cached.
+     */
+    private List<CachedIssue> reported;
+
+    /**
+     * Issues raised on the file.
+     */
+    private int issues;
+
+    /**
+     * Declaration being visited.
+     */
+    private Tree current;
+
+    /**
+     * Declarations that raised issues, if they are to be dumped.
+     */
+    private List<Tree> triggered;
+
+    /**
+     * Ctor.
+     * @param rule Rule scanning the file.
+     * @param context Scanner context.
+     * @param cached Whether issues are to be cached.
+     */
+    FileScan(final DeclarationRule rule, final JavaFileScannerContext context,
+        final boolean cached) {
+        this.rule = rule;
+        this.context = context;
+        if (cached) {
+            this.reported = new ArrayList<>(0);
+        }
+    }
+
+    @Override
+    public void visitClass(final ClassTree tree) {
+        this.current = tree;
+        this.rule.visitClass(tree, this);
+    }
+
+    @Override
+    public void visitMethod(final MethodTree tree) {
+        this.current = tree;
+        this.rule.visitMethod(tree, this);
+    }
+
+    /**
+     * Reports an issue on the file.
+     * @param tree Tree the issue is reported on.
+     * @param message Issue message.
+     */
+    public void report(final Tree tree, final String message) {
+        if (this.reported != null) {
+            this.reported.add(new CachedIssue(tree, message));
+        }
+        ++this.issues;
+        this.context.reportIssue(this.rule, tree, message);
+        if (this.triggered != null && this.current != null
+            && (this.triggered.isEmpty() || this.triggered.get(
+                this.triggered.size() - 1
+            ) != this.current)) {
+            this.triggered.add(this.current);
+        }
+    }
+
+    /**
+     * Counts an endpoint of the file.
+     * @param counter Counter, one of the {@link EndpointCoverage} constants.
+     */
+    public void count(final int counter) {
+        ++this.counts[counter];
+    }
+
+    /**
+     * Tells whether endpoints are being listed, by an
+     * {@link EndpointInventory} or for the {@link IssueCache}.
+     * @return True if {@link #collect(Endpoint)} should be called.
+     */
+    public boolean collecting() {
+        return this.reported != null || EndpointInventory.active() != null;
+    }
+
+    /**
+     * Lists an endpoint of the file.
+     * @param endpoint Endpoint, with any file.
+     */
+    public void collect(final Endpoint endpoint) {
+        this.endpoints.add(endpoint);
+    }
+
+    /**
+     * Resolver of the annotations of the file.
+     * @return Resolver.
+     */
+    public AnnotationResolver resolver() {
+        return this.annotations;
+    }
+
+    /**
+     * Annotations of the type hierarchies of the module. The issues of the
+     * file are still cached, as the {@link IssueCache} keys them by what
+     * the index knows of the file.
+     * @return Index.
+     */
+    public ResourceIndex hierarchy() {
+        return ResourceIndex.active();
+    }
+
+    /**
+     * Keeps the issues of the file out of the {@link IssueCache}, as they
+     * depend on more than the file.
+     */
+    public void uncached() {
+        this.reported = null;
+    }
+
+    /**
+     * Sets the resolver of the annotations of the file.
+     * @param resolver Resolver.
+     */
+    void resolver(final AnnotationResolver resolver) {
+        this.annotations = resolver;
+    }
+
+    /**
+     * Scan to cache, unless its issues depend on more than the file.
+     * @return Scan, or null.
+     */
+    CachedScan cached() {
+        CachedScan scan = null;
+        if (this.reported != null) {
+            scan = new CachedScan(
+                this.reported, this.counts.clone(),
+                new ArrayList<>(this.endpoints)
+            );
+        }
+        return scan;
+    }
+
+    /**
+     * Takes the issues and counts of a cached scan, and its endpoints if an
+     * {@link EndpointInventory} lists them.
+     * @param scan Cached scan.
+     */
+    void replay(final CachedScan scan) {
+        this.issues = scan.replay(this.rule, this.context);
+        scan.counts(this.counts);
+        if (EndpointInventory.active() != null) {
+            scan.endpoints(this.endpoints);
+        }
+    }
+
+    /**
+     * Keeps the declarations that raise issues from now on, to be dumped.
+     */
+    void dumping() {
+        this.triggered = new ArrayList<>(1);
+    }
+
+    /**
+     * Declarations that raised issues.
+     * @return Declarations, in the order they raised them; empty unless
+     *  {@link #dumping()} was called.
+     */
+    List<Tree> triggered() {
+        List<Tree> trees = this.triggered;
+        if (trees == null) {
+            trees = Collections.emptyList();
+        }
+        return trees;
+    }
+
+    /**
+     * Reports an issue found on an earlier scan of the file again.
+     * @param issue Issue.
+     */
+    void reuse(final CachedIssue issue) {
+        if (this.reported != null) {
+            this.reported.add(issue);
+        }
+        ++this.issues;
+        issue.replay(this.rule, this.context);
+    }
+
+    /**
+     * Issues reported on the file, as they are to be cached.
+     * @return Issues, or null if they are not to be cached.
+     */
+    List<CachedIssue> reported() {
+        return this.reported;
+    }
+
+    /**
+     * Issues raised on the file.
+     * @return Count.
+     */
+    int issues() {
+        return this.issues;
+    }
+
+    /**
+     * Endpoints counted in the file.
+     * @return Counts, by {@link EndpointCoverage} constant.
+     */
+    int[] counts() {
+        return this.counts;
+    }
+
+    /**
+     * Endpoints listed in the file.
+     * @return Endpoints.
+     */
+    List<Endpoint> endpoints() {
+        return this.endpoints;
+    }
+
+}
@@ -0,0 +1,465 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+/**
+ * Issues found in each file, keyed by the hash of its content.
+ *
+ * <p>A file whose content did not change since the last analysis yields
+ * the same issues, so rules replay them instead of visiting it again, along
+ * with the endpoints they counted in it. Issues that depend on other files
+ * through the {@link ResourceIndex} are keyed by what the index knows of the
+ * file too, so they are found again when the hierarchy changes. The
+ * cache is bounded, evicting the least recently used files first, and is
+ * discarded when the rule classes change: it belongs to a single
+ * {@link #version()} of them. Rule parameters are part of the keys.</p>
+ * @since 1.1
+ */
+public final class IssueCache {
+
+    /**
+     * First bytes of a cache file.
+     */
+    private static final int MAGIC = 0x54535449;
+
+    /**
+     * Format of cache files.
+     */
+    private static final int FORMAT = 4;
+
+    /**
+     * Hash algorithm.
+     */
+    private static final String ALGORITHM = "SHA-256";
+
+    /**
+     * Cache of the running analysis, if any.
+     */
+    private static final AtomicReference<IssueCache> ACTIVE =
+        new AtomicReference<>();
+
+    /**
+     * Size of the buffers file contents are hashed through.
+     */
+    private static final int BUFFER = 1 << 13;
+
+    /**
+     * Content hash of the last compilation unit seen by each thread.
+     */
+    private static final ThreadLocal<Digest> LAST = new ThreadLocal<>();
+
+    /**
+     * Hasher of file contents of each thread.
+     */
+    private static final ThreadLocal<IssueCache.Hasher> HASHER =
+        ThreadLocal.withInitial(IssueCache.Hasher::new);
+
+    /**
+     * Version of the rules the issues were found by.
+     */
+    private final String rules;
+
+    /**
+     * Scans by key, least recently used first.
+     */
+    private final Map<String, CachedScan> entries;
+
+    /**
+     * Lookups answered.
+     */
+    private final LongAdder found;
+
+    /**
+     * Lookups missed.
+     */
+    private final LongAdder missed;
+
+    /**
+     * Main constructor.
+     * @param rules Version of the rules.
+     * @param capacity Maximum number of entries.
+     */
+    public IssueCache(final String rules, final int capacity) {
+        this.rules = rules;
+        this.entries = new IssueCache.Lru(capacity);
+        this.found = new LongAdder();
+        this.missed = new LongAdder();
+    }
+
+    /**
+     * Loads a cache, dropping what was saved by other rule versions.
+     * @param file Cache file, may not exist.
+     * @param rules Version of the rules.
+     * @param capacity Maximum number of entries.
+     * @return Cache.
+     * @throws IOException If the file can't be read.
+     */
+    public static IssueCache load(final Path file, final String rules,
+        final int capacity) throws IOException {
+        final IssueCache cache = new IssueCache(rules, capacity);
+        if (Files.isRegularFile(file)) {
+            try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(file))
+            )) {
+                if (input.readInt() == IssueCache.MAGIC
+                    && input.readInt() == IssueCache.FORMAT
+                    && input.readUTF().equals(rules)) {
+                    final int size = input.readInt();
+                    for (int entry = 0; entry < size; ++entry) {
+                        final String key = input.readUTF();
+                        cache.entries.put(key, CachedScan.read(input));
+                    }
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Cache of the running analysis.
+     * @return Cache, or null if issues are not cached.
+     */
+    public static IssueCache active() {
+        return IssueCache.ACTIVE.get();
+    }
+
+    /**
+     * Makes this cache the one rules use.
+     */
+    public void activate() {
+        IssueCache.ACTIVE.set(this);
+    }
+
+    /**
+     * Stops rules from using this cache.
+     */
+    public void deactivate() {
+        IssueCache.ACTIVE.compareAndSet(this, null);
+    }
+
+    /**
+     * Saves the cache, replacing the file atomically.
+     * @param file Cache file.
+     * @throws IOException If the file can't be written.
+     */
+    public synchronized void save(final Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        final Path temp = file.resolveSibling(
+            String.format("%s.tmp", file.getFileName())
+        );
+        try (DataOutputStream output = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(temp))
+        )) {
+            output.writeInt(IssueCache.MAGIC);
+            output.writeInt(IssueCache.FORMAT);
+            output.writeUTF(this.rules);
+            output.writeInt(this.entries.size());
+            for (final Map.Entry<String, CachedScan> entry
+                : this.entries.entrySet()) {
+                output.writeUTF(entry.getKey());
+                entry.getValue().write(output);
+            }
+        }
+        Files.move(
+            temp, file, StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE
+        );
+    }
+
+    /**
+     * Number of files and rules with cached issues.
+     * @return Count.
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Number of lookups answered from the cache.
+     * @return Count.
+     */
+    public long hits() {
+        return this.found.sum();
+    }
+
+    /**
+     * Number of lookups the cache could not answer.
+     * @return Count.
+     */
+    public long misses() {
+        return this.missed.sum();
+    }
+
+    /**
+     * Version of the rules of this plugin: a hash of its classes.
+     * @return Version.
+     */
+    public static String version() {
+        return IssueCache.Version.VALUE;
+    }
+
+    /**
+     * Key of the issues a rule finds in the file being scanned.
+     * @param context Scanner context.
+     * @param rule Rule.
+     * @return Key.
+     */
+    String key(final JavaFileScannerContext context,
+        final DeclarationRule rule) {
+        final CompilationUnitTree unit = context.getTree();
+        Digest last = IssueCache.LAST.get();
+        if (last == null || last.unit.get() != unit) {
+            final String hash = IssueCache.HASHER.get()
+                .hash(context.getFileContent());
+            final long hierarchy = ResourceIndex.active().digest(unit);
+            if (hierarchy == 0L) {
+                last = new Digest(unit, hash);
+            } else {
+                last = new Digest(
+                    unit, String.format("%s+%016x", hash, hierarchy)
+                );
+            }
+            IssueCache.LAST.set(last);
+        }
+        return String.format("%s %s", last.hash, rule.settings());
+    }
+
+    /**
+     * Scan cached under a key.
+     * @param key Key.
+     * @return Scan, or null if none was cached.
+     */
+    synchronized CachedScan get(final String key) {
+        final CachedScan scan = this.entries.get(key);
+        if (scan == null) {
+            this.missed.increment();
+        } else {
+            this.found.increment();
+        }
+        return scan;
+    }
+
+    /**
+     * Caches a scan.
+     * @param key Key.
+     * @param scan Scan.
+     */
+    synchronized void put(final String key, final CachedScan scan) {
+        this.entries.put(key, scan);
+    }
+
+    /**
+     * New message digest.
+     * @return Digest.
+     */
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance(IssueCache.ALGORITHM);
+        } catch (final NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Content hash of a compilation unit.
+     */
+    private static final class Digest {
+
+        /**
+         * Compilation unit, not kept alive after its scan.
+         */
+        private final WeakReference<CompilationUnitTree> unit;
+
+        /**
+         * Hash of its content, and of its hierarchy if indexed.
+         */
+        private final String hash;
+
+        /**
+         * Main constructor.
+         * @param unit Compilation unit.
+         * @param hash Hash of its content, and of its hierarchy.
+         */
+        Digest(final CompilationUnitTree unit, final String hash) {
+            this.unit = new WeakReference<>(unit);
+            this.hash = hash;
+        }
+    }
+
+    /**
+     * Digest and buffer hashing file contents, without copying them.
+     */
+    private static final class Hasher {
+
+        /**
+         * Digest.
+         */
+        private final MessageDigest digest;
+
+        /**
+         * Characters of the content, two bytes each.
+         */
+        private final byte[] buffer;
+
+        /**
+         * Main constructor.
+         */
+        Hasher() {
+            this.digest = IssueCache.digest();
+            this.buffer = new byte[IssueCache.BUFFER];
+        }
+
+        /**
+         * Hashes a text.
+         * @param text Text.
+         * @return Hash.
+         */
+        String hash(final String text) {
+            int used = 0;
+            for (int idx = 0; idx < text.length(); ++idx) {
+                if (used == this.buffer.length) {
+                    this.digest.update(this.buffer, 0, used);
+                    used = 0;
+                }
+                final char chr = text.charAt(idx);
+                // @checkstyle MagicNumberCheck (1 line)
+                this.buffer[used] = (byte) (chr >>> 8);
+                this.buffer[used + 1] = (byte) chr;
+                used += 2;
+            }
+            this.digest.update(this.buffer, 0, used);
+            return Base64.getEncoder().encodeToString(this.digest.digest());
+        }
+    }
+
+    /**
+     * Map evicting its least recently used entry when full.
+     */
+    private static final class Lru
+        extends LinkedHashMap<String, CachedScan> {
+
+        /**
+         * Serial version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Maximum number of entries.
+         */
+        private final int capacity;
+
+        /**
+         * Main constructor.
+         * @param capacity Maximum number of entries.
+         */
+        Lru(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(
+            final Map.Entry<String, CachedScan> eldest) {
+            return this.size() > this.capacity;
+        }
+    }
+
+    /**
+     * Version of the rules, computed once.
+     */
+    private static final class Version {
+
+        /**
+         * Hash of the classes of this plugin.
+         */
+        private static final String VALUE = Version.compute();
+
+        /**
+         * Utility class.
+         */
+        private Version() {
+        }
+
+        /**
+         * Hashes the jar or the class directory this class was loaded from.
+         * @return Hash.
+         */
+        private static String compute() {
+            final MessageDigest digest = IssueCache.digest();
+            try {
+                final Path origin = Paths.get(
+                    IssueCache.class.getProtectionDomain().getCodeSource()
+                        .getLocation().toURI()
+                );
+                if (Files.isDirectory(origin)) {
+                    final List<Path> classes;
+                    try (Stream<Path> files = Files.walk(origin)) {
+                        classes = files
+                            .filter(file -> file.toString().endsWith(".class"))
+                            .sorted()
+                            .collect(Collectors.toList());
+                    }
+                    for (final Path file : classes) {
+                        digest.update(
+                            origin.relativize(file).toString()
+                                .getBytes(StandardCharsets.UTF_8)
+                        );
+                        digest.update(Files.readAllBytes(file));
+                    }
+                } else {
+                    digest.update(Files.readAllBytes(origin));
+                }
+            } catch (final IOException | URISyntaxException ex) {
+                throw new IllegalStateException(
+                    "Failed to read the plugin classes", ex
+                );
+            }
+            return Base64.getEncoder().encodeToString(digest.digest());
+        }
+    }
+
+}
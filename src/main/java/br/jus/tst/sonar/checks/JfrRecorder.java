@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import jdk.jfr.EventType;
+
+/**
+ * Records scans as {@link ScanEvent}s. Only loaded on runtimes with JFR.
+ * @since 1.1
+ */
+final class JfrRecorder implements ScanCost.Recorder {
+
+    /**
+     * Type of the events, telling whether a recording enables them.
+     */
+    private final EventType type = EventType.getEventType(ScanEvent.class);
+
+    @Override
+    public Object begin() {
+        ScanEvent event = null;
+        if (this.type.isEnabled()) {
+            event = new ScanEvent();
+            event.begin();
+        }
+        return event;
+    }
+
+    @Override
+    public void end(final Object event, final String file, final String rule,
+        final int nodes, final int issues) {
+        final ScanEvent scan = (ScanEvent) event;
+        scan.end();
+        if (scan.shouldCommit()) {
+            scan.scanned(file, rule);
+            scan.found(nodes, issues);
+            scan.commit();
+        }
+    }
+
+}
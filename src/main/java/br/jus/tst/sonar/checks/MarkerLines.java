@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.util.Arrays;
+
+/**
+ * Lines of a file holding prefilter markers.
+ * @since 1.1
+ */
+public final class MarkerLines {
+
+    /**
+     * Lines holding markers, ascending, without duplicates.
+     */
+    private int[] marked;
+
+    /**
+     * Number of lines in {@link #marked}.
+     */
+    private int count;
+
+    /**
+     * Current line.
+     */
+    private int line;
+
+    /**
+     * Main constructor.
+     */
+    MarkerLines() {
+        this.marked = new int[8];
+        this.line = 1;
+    }
+
+    /**
+     * Tells whether no marker was found.
+     * @return True if none.
+     */
+    public boolean isEmpty() {
+        return this.count == 0;
+    }
+
+    /**
+     * Number of lines scanned.
+     * @return Count.
+     */
+    public int lines() {
+        return this.line;
+    }
+
+    /**
+     * Tells whether a marker was found in a range of lines.
+     * @param first First line, inclusive.
+     * @param last Last line, inclusive.
+     * @return True if so.
+     */
+    public boolean within(final int first, final int last) {
+        int low = 0;
+        int high = this.count;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (this.marked[mid] < first) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < this.count && this.marked[low] <= last;
+    }
+
+    /**
+     * Moves to the next line.
+     */
+    void newLine() {
+        ++this.line;
+    }
+
+    /**
+     * Records a marker on the current line.
+     */
+    void mark() {
+        if (this.count == 0 || this.marked[this.count - 1] != this.line) {
+            if (this.count == this.marked.length) {
+                this.marked = Arrays.copyOf(this.marked, this.count << 1);
+            }
+            this.marked[this.count] = this.line;
+            ++this.count;
+        }
+    }
+
+}
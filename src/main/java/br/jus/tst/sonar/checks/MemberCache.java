@@ -0,0 +1,661 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Issues of each class and method declaration found by the last scan of a
+ * file, so a scan of the same file after an edit only checks the
+ * declarations the edit touched.
+ *
+ * <p>Meant for the editor, where a file is analyzed again on every save.
+ * The lines of the file are compared with those of its last scan; the
+ * lines between their common head and tail are the edit. A class is
+ * checked again if the edit touches it, and a method if the edit touches
+ * it or the header of its class, up to the opening brace. Other
+ * declarations, found again with the same signature and the same lines,
+ * moved by the number of lines the edit added, replay their issues, unless
+ * what the {@link ResourceIndex} knows of their type hierarchy changed. The
+ * whole file is checked again if the edit touches what precedes its first
+ * declaration, such as the imports, or if the rule settings changed. Files
+ * whose issues depend on other files are not kept.</p>
+ * @since 1.1
+ */
+public final class MemberCache {
+
+    /**
+     * Cache of the running analysis, if any.
+     */
+    private static final AtomicReference<MemberCache> ACTIVE =
+        new AtomicReference<>();
+
+    /**
+     * Scans by file and rule, least recently used first.
+     */
+    private final Map<String, MemberCache.Snapshot> files;
+
+    /**
+     * Declarations whose issues were replayed.
+     */
+    private final LongAdder replayed;
+
+    /**
+     * Declarations checked.
+     */
+    private final LongAdder checked;
+
+    /**
+     * Main constructor.
+     * @param capacity Maximum number of scans, one per file and rule.
+     */
+    public MemberCache(final int capacity) {
+        this.files = new MemberCache.Lru(capacity);
+        this.replayed = new LongAdder();
+        this.checked = new LongAdder();
+    }
+
+    /**
+     * Cache of the running analysis.
+     * @return Cache, or null if there is none.
+     */
+    public static MemberCache active() {
+        return MemberCache.ACTIVE.get();
+    }
+
+    /**
+     * Makes this the cache of the running analysis.
+     */
+    public void activate() {
+        MemberCache.ACTIVE.set(this);
+    }
+
+    /**
+     * Stops using this cache, if it is the active one. Its entries are
+     * kept for the next activation.
+     */
+    public void deactivate() {
+        MemberCache.ACTIVE.compareAndSet(this, null);
+    }
+
+    /**
+     * Number of declarations whose issues were replayed.
+     * @return Count.
+     */
+    public long replayed() {
+        return this.replayed.sum();
+    }
+
+    /**
+     * Number of declarations checked.
+     * @return Count.
+     */
+    public long checked() {
+        return this.checked.sum();
+    }
+
+    /**
+     * Checks the declarations of a file touched by the edit since its last
+     * scan, and replays the issues of the other ones.
+     * @param rule Rule scanning the file.
+     * @param context Scanner context.
+     * @param declarations Declarations of the file, not empty.
+     * @param scan Scan of the file.
+     * @return Number of declarations checked.
+     */
+    int scan(final DeclarationRule rule, final JavaFileScannerContext context,
+        final Declarations declarations, final FileScan scan) {
+        final String key = String.format(
+            "%s %s", ScanCost.path(context), rule.settings()
+        );
+        final long[] lines = MemberCache.lines(context.getFileContent());
+        final MemberCache.Edit edit = MemberCache.edit(
+            this.get(key), lines,
+            declarations.get(0).firstToken().line()
+        );
+        final ResourceIndex index = ResourceIndex.active();
+        final int size = declarations.size();
+        final List<MemberCache.Member> members = new ArrayList<>(size);
+        int cursor = 0;
+        int nodes = 0;
+        for (int idx = 0; idx < size; ++idx) {
+            final Tree tree = declarations.get(idx);
+            final int first = tree.firstToken().line();
+            final int last = tree.lastToken().line();
+            final String signature = MemberCache.signature(tree);
+            final long hierarchy = MemberCache.hierarchy(index, tree);
+            MemberCache.Member found = null;
+            if (edit.before != null && !edit.touches(tree, first, last)) {
+                final int shift = edit.shift(first);
+                final List<MemberCache.Member> old = edit.before.members;
+                while (cursor < old.size()
+                    && old.get(cursor).first < first - shift) {
+                    ++cursor;
+                }
+                for (int next = cursor; next < old.size()
+                    && old.get(next).first == first - shift; ++next) {
+                    final MemberCache.Member member = old.get(next);
+                    if (member.last == last - shift
+                        && member.hierarchy == hierarchy
+                        && member.signature.equals(signature)) {
+                        found = member.moved(shift);
+                        break;
+                    }
+                }
+            }
+            if (found == null) {
+                found = MemberCache.check(
+                    tree, scan, new MemberCache.Member(
+                        signature, hierarchy, first, last
+                    )
+                );
+                ++nodes;
+            } else {
+                found.replay(scan);
+            }
+            members.add(found);
+        }
+        this.checked.add(nodes);
+        this.replayed.add(size - nodes);
+        synchronized (this.files) {
+            if (scan.reported() == null) {
+                this.files.remove(key);
+            } else {
+                this.files.put(
+                    key,
+                    new MemberCache.Snapshot(
+                        lines, AnnotationIndex.generation(), members
+                    )
+                );
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Last scan of a file.
+     * @param key File and rule.
+     * @return Scan, or null if there is none.
+     */
+    private MemberCache.Snapshot get(final String key) {
+        synchronized (this.files) {
+            return this.files.get(key);
+        }
+    }
+
+    /**
+     * Checks a declaration, keeping what it found.
+     * @param tree Declaration.
+     * @param scan Scan of the file.
+     * @param declared Declaration, with nothing found yet.
+     * @return Declaration and what it found.
+     */
+    private static MemberCache.Member check(final Tree tree,
+        final FileScan scan, final MemberCache.Member declared) {
+        final List<CachedIssue> reported = scan.reported();
+        int issues = 0;
+        if (reported != null) {
+            issues = reported.size();
+        }
+        final int[] counts = scan.counts().clone();
+        final int endpoints = scan.endpoints().size();
+        if (tree instanceof MethodTree) {
+            scan.visitMethod((MethodTree) tree);
+        } else {
+            scan.visitClass((ClassTree) tree);
+        }
+        final int[] found = scan.counts().clone();
+        for (int idx = 0; idx < found.length; ++idx) {
+            found[idx] -= counts[idx];
+        }
+        List<CachedIssue> raised = Collections.emptyList();
+        if (scan.reported() != null) {
+            raised = new ArrayList<>(
+                scan.reported().subList(issues, scan.reported().size())
+            );
+        }
+        return declared.found(
+            raised, found,
+            new ArrayList<>(
+                scan.endpoints().subList(endpoints, scan.endpoints().size())
+            )
+        );
+    }
+
+    /**
+     * What the index knows of the type hierarchy of a declaration: of its
+     * type, and of the methods a method overrides.
+     * @param index Index.
+     * @param tree Class or method tree.
+     * @return Hash of the {@link AnnotationIndex} bits.
+     */
+    private static long hierarchy(final ResourceIndex index,
+        final Tree tree) {
+        final long hierarchy;
+        if (tree instanceof MethodTree) {
+            final Tree parent = tree.parent();
+            long type = 0L;
+            if (parent instanceof ClassTree) {
+                type = index.type((ClassTree) parent);
+            }
+            // @checkstyle MagicNumberCheck (1 line)
+            hierarchy = type * 31L + index.method((MethodTree) tree);
+        } else {
+            hierarchy = index.type((ClassTree) tree);
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Lines of the file edited since its last scan.
+     * @param before Last scan, or null if there is none.
+     * @param lines Hashes of the lines of the file.
+     * @param declared First line of its first declaration.
+     * @return Edit.
+     */
+    private static MemberCache.Edit edit(final MemberCache.Snapshot before,
+        final long[] lines, final int declared) {
+        MemberCache.Edit edit = new MemberCache.Edit(null, 0, 0, 0);
+        if (before != null
+            && before.generation == AnnotationIndex.generation()) {
+            final long[] old = before.lines;
+            final int common = Math.min(old.length, lines.length);
+            int head = 0;
+            while (head < common && old[head] == lines[head]) {
+                ++head;
+            }
+            int tail = 0;
+            while (tail < common - head
+                && old[old.length - 1 - tail]
+                == lines[lines.length - 1 - tail]) {
+                ++tail;
+            }
+            if (head + 1 >= declared) {
+                edit = new MemberCache.Edit(
+                    before, head + 1,
+                    Math.max(head + 1, lines.length - tail),
+                    lines.length - old.length
+                );
+            }
+        }
+        return edit;
+    }
+
+    /**
+     * Hashes of the lines of a file.
+     * @param text Text of the file.
+     * @return Hashes, one per line.
+     */
+    private static long[] lines(final String text) {
+        int count = 1;
+        for (int idx = 0; idx < text.length(); ++idx) {
+            if (text.charAt(idx) == '\n') {
+                ++count;
+            }
+        }
+        final long[] lines = new long[count];
+        int line = 0;
+        long hash = 0L;
+        for (int idx = 0; idx < text.length(); ++idx) {
+            final char chr = text.charAt(idx);
+            if (chr == '\n') {
+                lines[line] = hash;
+                ++line;
+                hash = 0L;
+            } else {
+                // @checkstyle MagicNumberCheck (1 line)
+                hash = hash * 31L + chr;
+            }
+        }
+        lines[line] = hash;
+        return lines;
+    }
+
+    /**
+     * Signature of a declaration.
+     * @param tree Class or method tree.
+     * @return Kind, name and number of parameters.
+     */
+    private static String signature(final Tree tree) {
+        final String signature;
+        if (tree instanceof MethodTree) {
+            final MethodTree method = (MethodTree) tree;
+            signature = String.format(
+                "%s/%d", method.simpleName().name(),
+                method.parameters().size()
+            );
+        } else if (((ClassTree) tree).simpleName() == null) {
+            signature = tree.kind().name();
+        } else {
+            signature = String.format(
+                "%s %s", tree.kind().name(),
+                ((ClassTree) tree).simpleName().name()
+            );
+        }
+        return signature;
+    }
+
+    /**
+     * Lines of a file edited since its last scan.
+     */
+    private static final class Edit {
+
+        /**
+         * Last scan, or null if the file is to be checked in full.
+         */
+        private final MemberCache.Snapshot before;
+
+        /**
+         * First line edited.
+         */
+        private final int from;
+
+        /**
+         * Last line edited; the line after a deletion.
+         */
+        private final int upto;
+
+        /**
+         * Number of lines added, negative if removed.
+         */
+        private final int delta;
+
+        /**
+         * Ctor.
+         * @param before Last scan, or null.
+         * @param from First line edited.
+         * @param upto Last line edited.
+         * @param delta Number of lines added.
+         */
+        Edit(final MemberCache.Snapshot before, final int from,
+            final int upto, final int delta) {
+            this.before = before;
+            this.from = from;
+            this.upto = upto;
+            this.delta = delta;
+        }
+
+        /**
+         * Tells whether the edit touches a declaration, or the header of
+         * the class of a method.
+         * @param tree Declaration.
+         * @param first First line of the declaration.
+         * @param last Last line of the declaration.
+         * @return True if it does.
+         */
+        boolean touches(final Tree tree, final int first, final int last) {
+            boolean touches = this.within(first, last);
+            if (!touches && tree instanceof MethodTree) {
+                final Tree parent = tree.parent();
+                if (parent instanceof ClassTree) {
+                    final ClassTree type = (ClassTree) parent;
+                    touches = this.within(
+                        type.firstToken().line(),
+                        type.openBraceToken().line()
+                    );
+                }
+            }
+            return touches;
+        }
+
+        /**
+         * Lines a declaration moved by.
+         * @param first First line of the declaration.
+         * @return Lines, zero if it precedes the edit.
+         */
+        int shift(final int first) {
+            final int shift;
+            if (first > this.upto) {
+                shift = this.delta;
+            } else {
+                shift = 0;
+            }
+            return shift;
+        }
+
+        /**
+         * Tells whether the edit touches lines.
+         * @param first First line.
+         * @param last Last line.
+         * @return True if it does.
+         */
+        private boolean within(final int first, final int last) {
+            return first <= this.upto && last >= this.from;
+        }
+    }
+
+    /**
+     * Last scan of a file.
+     */
+    private static final class Snapshot {
+
+        /**
+         * Hashes of the lines of the file.
+         */
+        private final long[] lines;
+
+        /**
+         * Generation of the annotation index it was scanned with.
+         */
+        private final int generation;
+
+        /**
+         * Declarations, in source order.
+         */
+        private final List<MemberCache.Member> members;
+
+        /**
+         * Ctor.
+         * @param lines Hashes of the lines of the file.
+         * @param generation Generation of the annotation index.
+         * @param members Declarations, in source order.
+         */
+        Snapshot(final long[] lines, final int generation,
+            final List<MemberCache.Member> members) {
+            this.lines = lines;
+            this.generation = generation;
+            this.members = members;
+        }
+    }
+
+    /**
+     * Declaration, and what checking it found.
+     */
+    private static final class Member {
+
+        /**
+         * Signature.
+         */
+        private final String signature;
+
+        /**
+         * What the index knew of its type hierarchy.
+         */
+        private final long hierarchy;
+
+        /**
+         * First line.
+         */
+        private final int first;
+
+        /**
+         * Last line.
+         */
+        private final int last;
+
+        /**
+         * Issues.
+         */
+        private final List<CachedIssue> issues;
+
+        /**
+         * Endpoints counted, by {@link EndpointCoverage} constant.
+         */
+        private final int[] counts;
+
+        /**
+         * Endpoints listed.
+         */
+        private final List<Endpoint> endpoints;
+
+        /**
+         * Ctor, for a declaration not checked yet.
+         * @param signature Signature.
+         * @param hierarchy What the index knows of its type hierarchy.
+         * @param first First line.
+         * @param last Last line.
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        Member(final String signature, final long hierarchy, final int first,
+            final int last) {
+            this(
+                signature, hierarchy, first, last, Collections.emptyList(),
+                new int[0], Collections.emptyList()
+            );
+        }
+
+        /**
+         * Ctor.
+         * @param signature Signature.
+         * @param hierarchy What the index knew of its type hierarchy.
+         * @param first First line.
+         * @param last Last line.
+         * @param issues Issues.
+         * @param counts Endpoints counted.
+         * @param endpoints Endpoints listed.
+         * @checkstyle ParameterNumberCheck (5 lines)
+         */
+        Member(final String signature, final long hierarchy, final int first,
+            final int last, final List<CachedIssue> issues,
+            final int[] counts, final List<Endpoint> endpoints) {
+            this.signature = signature;
+            this.hierarchy = hierarchy;
+            this.first = first;
+            this.last = last;
+            this.issues = issues;
+            this.counts = counts;
+            this.endpoints = endpoints;
+        }
+
+        /**
+         * The same declaration, with what checking it found.
+         * @param raised Issues.
+         * @param found Endpoints counted.
+         * @param listed Endpoints listed.
+         * @return Declaration.
+         */
+        MemberCache.Member found(final List<CachedIssue> raised,
+            final int[] found, final List<Endpoint> listed) {
+            return new MemberCache.Member(
+                this.signature, this.hierarchy, this.first, this.last,
+                raised, found, listed
+            );
+        }
+
+        /**
+         * The same declaration, on other lines.
+         * @param lines Lines to move it down by.
+         * @return Declaration.
+         */
+        MemberCache.Member moved(final int lines) {
+            MemberCache.Member moved = this;
+            if (lines != 0) {
+                final List<CachedIssue> issued = new ArrayList<>(
+                    this.issues.size()
+                );
+                for (final CachedIssue issue : this.issues) {
+                    issued.add(issue.moved(lines));
+                }
+                final List<Endpoint> listed = new ArrayList<>(
+                    this.endpoints.size()
+                );
+                for (final Endpoint endpoint : this.endpoints) {
+                    listed.add(endpoint.moved(lines));
+                }
+                moved = new MemberCache.Member(
+                    this.signature, this.hierarchy, this.first + lines,
+                    this.last + lines, issued, this.counts, listed
+                );
+            }
+            return moved;
+        }
+
+        /**
+         * Replays what checking the declaration found.
+         * @param scan Scan of the file.
+         */
+        void replay(final FileScan scan) {
+            for (final CachedIssue issue : this.issues) {
+                scan.reuse(issue);
+            }
+            final int[] into = scan.counts();
+            for (int idx = 0; idx < into.length; ++idx) {
+                into[idx] += this.counts[idx];
+            }
+            scan.endpoints().addAll(this.endpoints);
+        }
+    }
+
+    /**
+     * Map evicting its least recently used entry when full.
+     */
+    private static final class Lru
+        extends LinkedHashMap<String, MemberCache.Snapshot> {
+
+        /**
+         * Serial version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Maximum number of entries.
+         */
+        private final int capacity;
+
+        /**
+         * Main constructor.
+         * @param capacity Maximum number of entries.
+         */
+        Lru(final int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(
+            final Map.Entry<String, MemberCache.Snapshot> eldest) {
+            return this.size() > this.capacity;
+        }
+    }
+
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+
+/**
+ * Tells from the raw source text whether a file may trigger any rule, and
+ * on which lines.
+ *
+ * <p>The markers are matched all at once by an Aho-Corasick automaton,
+ * compiled to a transition table over ASCII, so each byte of the file costs
+ * a single table lookup. Markers are expected to start with
+ * <code>@</code>; blanks after it are skipped, as Java allows them.
+ * Characters outside ASCII can't be part of a marker.</p>
+ *
+ * <p>The text scanned is the one of the scanner context, which is the text
+ * that was parsed, decoded with the encoding of the file: the file on disk
+ * may be stale (e.g. an unsaved editor buffer in SonarLint).</p>
+ *
+ * <p>Rules configured with other annotations go through
+ * {@link #resources()} and {@link #documented()}, which also match the
+ * annotations registered in the {@link AnnotationIndex}.</p>
+ * @since 1.1
+ */
+public final class Prefilter {
+
+    /**
+     * Markers of JAX-RS resources and endpoints.
+     */
+    private static final String[] RESOURCES = {
+        "@Path", "@GET", "@POST", "@PUT", "@DELETE", "@OPTIONS", "@HEAD",
+        "@javax.ws.rs.",
+    };
+
+    /**
+     * Markers of Spring MVC controllers and request mappings.
+     */
+    private static final String[] MAPPINGS = {
+        "@RestController", "@RequestMapping", "@GetMapping", "@PostMapping",
+        "@PutMapping", "@DeleteMapping", "@PatchMapping",
+        "@org.springframework.web.bind.annotation.",
+    };
+
+    /**
+     * Markers of Swagger documentation.
+     */
+    private static final String[] SWAGGER = {
+        "@Api", "@io.swagger.annotations.",
+    };
+
+    /**
+     * Markers of JAX-RS resources and endpoints.
+     */
+    static final Prefilter JAX_RS = new Prefilter(Prefilter.RESOURCES);
+
+    /**
+     * Prefilters of both frameworks, extended with the registered
+     * annotations.
+     */
+    private static final AtomicReference<Prefilter.Extended> EXTENDED =
+        new AtomicReference<>(Prefilter.extended(0));
+
+    /**
+     * Size of the transition table rows.
+     */
+    private static final int ASCII = 128;
+
+    /**
+     * Files that had to be visited.
+     */
+    private static final LongAdder VISITED = new LongAdder();
+
+    /**
+     * Files skipped.
+     */
+    private static final LongAdder SKIPPED = new LongAdder();
+
+    /**
+     * Transitions: next state is <code>delta[state * 128 + byte]</code>.
+     */
+    private final int[] delta;
+
+    /**
+     * States where some marker ends.
+     */
+    private final boolean[] found;
+
+    /**
+     * Main constructor.
+     * @param markers Markers, all starting with <code>@</code>.
+     */
+    public Prefilter(final String... markers) {
+        final List<int[]> trie = new ArrayList<>();
+        final List<Boolean> ends = new ArrayList<>();
+        trie.add(Prefilter.row());
+        ends.add(false);
+        for (final String marker : markers) {
+            int state = 0;
+            for (int idx = 0; idx < marker.length(); ++idx) {
+                final int chr = marker.charAt(idx);
+                if (trie.get(state)[chr] <= 0) {
+                    trie.get(state)[chr] = trie.size();
+                    trie.add(Prefilter.row());
+                    ends.add(false);
+                }
+                state = trie.get(state)[chr];
+            }
+            ends.set(state, true);
+        }
+        this.delta = new int[trie.size() * Prefilter.ASCII];
+        this.found = new boolean[trie.size()];
+        Prefilter.compile(trie, ends, this.delta, this.found);
+        final int after = this.delta['@'];
+        for (int chr = 0; chr < Prefilter.ASCII; ++chr) {
+            if (Character.isWhitespace(chr)) {
+                this.delta[after * Prefilter.ASCII + chr] = after;
+            }
+        }
+    }
+
+    /**
+     * Markers of JAX-RS resources and endpoints, of Spring MVC controllers
+     * and request mappings, and of the registered annotations.
+     * @return Prefilter.
+     */
+    public static Prefilter resources() {
+        return Prefilter.extended().resources;
+    }
+
+    /**
+     * Markers of {@link #resources()} and of Swagger documentation.
+     * @return Prefilter.
+     */
+    public static Prefilter documented() {
+        return Prefilter.extended().documented;
+    }
+
+    /**
+     * Files that had to be visited so far.
+     * @return Count.
+     */
+    public static long visited() {
+        return Prefilter.VISITED.sum();
+    }
+
+    /**
+     * Files skipped so far.
+     * @return Count.
+     */
+    public static long skipped() {
+        return Prefilter.SKIPPED.sum();
+    }
+
+    /**
+     * Finds the markers of the file being scanned, and counts it as visited
+     * or skipped.
+     * @param context Scanner context.
+     * @return Lines holding markers, empty if the file can be skipped.
+     */
+    public MarkerLines scan(final JavaFileScannerContext context) {
+        final MarkerLines markers = this.scan(context.getFileContent());
+        if (markers.isEmpty()) {
+            Prefilter.SKIPPED.increment();
+        } else {
+            Prefilter.VISITED.increment();
+        }
+        return markers;
+    }
+
+    /**
+     * Finds the markers of a text.
+     * @param text Text.
+     * @return Lines holding markers.
+     */
+    public MarkerLines scan(final CharSequence text) {
+        final MarkerLines markers = new MarkerLines();
+        final int length = text.length();
+        int state = 0;
+        for (int idx = 0; idx < length; ++idx) {
+            final int chr = text.charAt(idx);
+            if (chr == '\n') {
+                markers.newLine();
+            }
+            state = this.next(state, chr);
+            if (this.found[state]) {
+                markers.mark();
+            }
+        }
+        return markers;
+    }
+
+    /**
+     * Tells whether a text contains any marker.
+     * @param text Text.
+     * @return True if it does.
+     */
+    public boolean matches(final CharSequence text) {
+        return !this.scan(text).isEmpty();
+    }
+
+    /**
+     * Next state of the automaton.
+     * @param state Current state.
+     * @param chr Character read.
+     * @return Next state.
+     */
+    private int next(final int state, final int chr) {
+        final int next;
+        if ((chr & ~(Prefilter.ASCII - 1)) == 0) {
+            next = this.delta[state * Prefilter.ASCII + chr];
+        } else {
+            next = 0;
+        }
+        return next;
+    }
+
+    /**
+     * Prefilters of the current generation of the annotation index.
+     * @return Prefilters.
+     */
+    private static Prefilter.Extended extended() {
+        final int generation = AnnotationIndex.generation();
+        final Prefilter.Extended extended = Prefilter.EXTENDED.get();
+        Prefilter.Extended current = extended;
+        if (extended.generation != generation) {
+            current = Prefilter.extended(generation);
+            if (!Prefilter.EXTENDED.compareAndSet(extended, current)) {
+                current = Prefilter.EXTENDED.get();
+            }
+        }
+        return current;
+    }
+
+    /**
+     * Builds the prefilters of a generation of the annotation index.
+     * @param generation Generation.
+     * @return Prefilters.
+     */
+    private static Prefilter.Extended extended(final int generation) {
+        final String[] resources = Prefilter.concat(
+            Prefilter.concat(Prefilter.RESOURCES, Prefilter.MAPPINGS),
+            AnnotationIndex.markers().toArray(new String[0])
+        );
+        return new Prefilter.Extended(
+            generation, new Prefilter(resources),
+            new Prefilter(Prefilter.concat(resources, Prefilter.SWAGGER))
+        );
+    }
+
+    /**
+     * Markers of two lists.
+     * @param first First markers.
+     * @param second Second markers.
+     * @return Both.
+     */
+    private static String[] concat(final String[] first,
+        final String[] second) {
+        final String[] both = Arrays.copyOf(
+            first, first.length + second.length
+        );
+        System.arraycopy(second, 0, both, first.length, second.length);
+        return both;
+    }
+
+    /**
+     * Empty trie node.
+     * @return Transitions, all missing.
+     */
+    private static int[] row() {
+        final int[] row = new int[Prefilter.ASCII];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    /**
+     * Turns the trie into a transition table, following failure links
+     * breadth-first.
+     * @param trie Trie transitions, -1 where missing.
+     * @param ends Trie states where a marker ends.
+     * @param delta Transition table to fill.
+     * @param found Accepting states to fill.
+     */
+    private static void compile(final List<int[]> trie,
+        final List<Boolean> ends, final int[] delta, final boolean[] found) {
+        final int[] fail = new int[trie.size()];
+        final int[] queue = new int[trie.size()];
+        int head = 0;
+        int tail = 0;
+        for (int chr = 0; chr < Prefilter.ASCII; ++chr) {
+            final int child = trie.get(0)[chr];
+            if (child > 0) {
+                delta[chr] = child;
+                queue[tail++] = child;
+            } else {
+                delta[chr] = 0;
+            }
+        }
+        while (head < tail) {
+            final int state = queue[head++];
+            found[state] = ends.get(state) || found[fail[state]];
+            for (int chr = 0; chr < Prefilter.ASCII; ++chr) {
+                final int child = trie.get(state)[chr];
+                final int fallback = delta[fail[state] * Prefilter.ASCII + chr];
+                if (child > 0) {
+                    fail[child] = fallback;
+                    delta[state * Prefilter.ASCII + chr] = child;
+                    queue[tail++] = child;
+                } else {
+                    delta[state * Prefilter.ASCII + chr] = fallback;
+                }
+            }
+        }
+    }
+
+    /**
+     * Prefilters extended with one generation of the annotation index.
+     */
+    private static final class Extended {
+
+        /**
+         * Generation of the annotation index.
+         */
+        private final int generation;
+
+        /**
+         * Markers of resources and endpoints.
+         */
+        private final Prefilter resources;
+
+        /**
+         * Markers of resources, endpoints and documentation.
+         */
+        private final Prefilter documented;
+
+        /**
+         * Main constructor.
+         * @param generation Generation of the annotation index.
+         * @param resources Markers of resources and endpoints.
+         * @param documented Markers of resources, endpoints and
+         *  documentation.
+         */
+        Extended(final int generation, final Prefilter resources,
+            final Prefilter documented) {
+            this.generation = generation;
+            this.resources = resources;
+            this.documented = documented;
+        }
+    }
+
+}
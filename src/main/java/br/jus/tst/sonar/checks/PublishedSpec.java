@@ -0,0 +1,609 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Operations of a published Swagger 2 or OpenAPI 3 document, as a compact
+ * hash index.
+ *
+ * <p>Only the keys of <code>paths</code> and the HTTP methods under them
+ * are read, along with the Swagger 2 <code>basePath</code> and the URLs of
+ * the OpenAPI 3 <code>servers</code>, with a streaming parser: JSON through
+ * Gson's
+ * {@link JsonReader}, YAML line by line, in block style. Everything else,
+ * operation bodies included, is skipped without being kept, so documents
+ * of hundreds of megabytes take the memory of their operations only. Each
+ * operation is kept as a 64-bit hash of its method and path, in a sorted
+ * array, and looked up by binary search. Paths are compared without the
+ * names of their template variables and trailing slashes, and with or
+ * without the base path, or the path of any server URL, in front.</p>
+ *
+ * <p>The scanner loads the document once per analysis, resolved against
+ * the project base directory, and activates it for every rule and file;
+ * rules scanning without an active document, as in tests, load their own
+ * with {@link #of(Path)}. Documents that can't be read fail the analysis
+ * rather than turning the check off.</p>
+ * @since 1.1
+ */
+public final class PublishedSpec {
+
+    /**
+     * Document of the running analysis, if any.
+     */
+    private static final AtomicReference<PublishedSpec> ACTIVE =
+        new AtomicReference<>();
+
+    /**
+     * Seed of the hashes.
+     */
+    private static final long FNV_BASIS = 0xcbf29ce484222325L;
+
+    /**
+     * Multiplier of the hashes.
+     */
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Size of the read buffers.
+     */
+    private static final int BUFFER = 1 << 16;
+
+    /**
+     * Hashes of the operations, sorted.
+     */
+    private final long[] operations;
+
+    /**
+     * Hashes of the paths, sorted.
+     */
+    private final long[] paths;
+
+    /**
+     * Paths operations are published under, from the root, without
+     * trailing slashes.
+     */
+    private final String[] bases;
+
+    /**
+     * Main constructor.
+     * @param operations Hashes of the operations.
+     * @param paths Hashes of the paths.
+     * @param bases Paths operations are published under.
+     */
+    private PublishedSpec(final long[] operations, final long[] paths,
+        final String[] bases) {
+        this.operations = operations;
+        this.paths = paths;
+        this.bases = bases;
+    }
+
+    /**
+     * Document of the running analysis.
+     * @return Document, or null if there is none.
+     */
+    public static PublishedSpec active() {
+        return PublishedSpec.ACTIVE.get();
+    }
+
+    /**
+     * Makes this the document rules check endpoints against.
+     */
+    public void activate() {
+        PublishedSpec.ACTIVE.set(this);
+    }
+
+    /**
+     * Stops rules from using this document.
+     */
+    public void deactivate() {
+        PublishedSpec.ACTIVE.compareAndSet(this, null);
+    }
+
+    /**
+     * Loads a document, failing if it can't be read.
+     * @param file File, JSON or YAML by its extension.
+     * @return Document.
+     * @throws IllegalStateException If it can't be read.
+     */
+    public static PublishedSpec of(final Path file) {
+        try {
+            return PublishedSpec.load(file);
+        } catch (final IOException | IllegalStateException ex) {
+            throw new IllegalStateException(
+                String.format("Published API %s can't be read", file), ex
+            );
+        }
+    }
+
+    /**
+     * Loads a document.
+     * @param file File, JSON or YAML by its extension.
+     * @return Document.
+     * @throws IOException If it can't be read.
+     */
+    public static PublishedSpec load(final Path file) throws IOException {
+        final String name = file.getFileName().toString()
+            .toLowerCase(Locale.ENGLISH);
+        final PublishedSpec.Keys keys = new PublishedSpec.Keys();
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(
+                Files.newInputStream(file), StandardCharsets.UTF_8
+            ),
+            PublishedSpec.BUFFER
+        )) {
+            if (name.endsWith(".yaml") || name.endsWith(".yml")) {
+                PublishedSpec.yaml(reader, keys);
+            } else {
+                PublishedSpec.json(new JsonReader(reader), keys);
+            }
+        }
+        return new PublishedSpec(
+            keys.operations.sorted(), keys.paths.sorted(),
+            keys.bases.toArray(new String[keys.bases.size()])
+        );
+    }
+
+    /**
+     * Number of operations.
+     * @return Count.
+     */
+    public int size() {
+        return this.operations.length;
+    }
+
+    /**
+     * Tells whether an operation is published.
+     * @param method HTTP method, in lower case.
+     * @param path Path.
+     * @return True if it is.
+     */
+    public boolean has(final String method, final String path) {
+        return this.has(this.operations, PublishedSpec.seed(method), path);
+    }
+
+    /**
+     * Tells whether a path is published, with any method.
+     * @param path Path.
+     * @return True if it is.
+     */
+    public boolean has(final String path) {
+        return this.has(this.paths, PublishedSpec.FNV_BASIS, path);
+    }
+
+    /**
+     * Tells whether a path is among some hashes, as it is or below any of
+     * the base paths.
+     * @param hashes Hashes, sorted.
+     * @param seed Initial hash.
+     * @param path Path.
+     * @return True if it is.
+     */
+    private boolean has(final long[] hashes, final long seed,
+        final String path) {
+        boolean has = Arrays.binarySearch(
+            hashes, PublishedSpec.hash(seed, path)
+        ) >= 0;
+        for (int idx = 0; !has && idx < this.bases.length; ++idx) {
+            final String base = this.bases[idx];
+            if (path.startsWith(base) && (path.length() == base.length()
+                || path.charAt(base.length()) == '/')) {
+                has = Arrays.binarySearch(
+                    hashes,
+                    PublishedSpec.hash(seed, path.substring(base.length()))
+                ) >= 0;
+            }
+        }
+        return has;
+    }
+
+    /**
+     * Hash of an HTTP method, seeding the hashes of its operations.
+     * @param method HTTP method, in lower case.
+     * @return Hash.
+     */
+    private static long seed(final String method) {
+        long hash = PublishedSpec.FNV_BASIS;
+        for (int idx = 0; idx < method.length(); ++idx) {
+            hash = (hash ^ method.charAt(idx)) * PublishedSpec.FNV_PRIME;
+        }
+        return (hash ^ ' ') * PublishedSpec.FNV_PRIME;
+    }
+
+    /**
+     * Hash of a path, without the names of its template variables, empty
+     * segments and trailing slashes.
+     * @param seed Initial hash.
+     * @param path Path.
+     * @return Hash.
+     */
+    private static long hash(final long seed, final String path) {
+        long hash = seed;
+        int depth = 0;
+        boolean slash = false;
+        for (int idx = 0; idx < path.length(); ++idx) {
+            final char chr = path.charAt(idx);
+            if (chr == '{') {
+                ++depth;
+            } else if (chr == '}') {
+                --depth;
+            }
+            if (chr == '/' && depth == 0) {
+                slash = true;
+            } else if (depth == 0 || chr == '{' && depth == 1) {
+                if (slash) {
+                    hash = (hash ^ '/') * PublishedSpec.FNV_PRIME;
+                    slash = false;
+                }
+                hash = (hash ^ chr) * PublishedSpec.FNV_PRIME;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Reads the operations of a JSON document.
+     * @param json Document.
+     * @param keys Where operations are added.
+     * @throws IOException If it can't be read.
+     */
+    private static void json(final JsonReader json,
+        final PublishedSpec.Keys keys) throws IOException {
+        json.beginObject();
+        while (json.hasNext()) {
+            final String name = json.nextName();
+            if ("basePath".equals(name)
+                && json.peek() == JsonToken.STRING) {
+                keys.base(json.nextString());
+            } else if ("servers".equals(name)
+                && json.peek() == JsonToken.BEGIN_ARRAY) {
+                PublishedSpec.servers(json, keys);
+            } else if ("paths".equals(name)
+                && json.peek() == JsonToken.BEGIN_OBJECT) {
+                json.beginObject();
+                while (json.hasNext()) {
+                    final String path = json.nextName();
+                    if (json.peek() == JsonToken.BEGIN_OBJECT) {
+                        json.beginObject();
+                        while (json.hasNext()) {
+                            keys.add(json.nextName(), path);
+                            json.skipValue();
+                        }
+                        json.endObject();
+                    } else {
+                        json.skipValue();
+                    }
+                }
+                json.endObject();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+    }
+
+    /**
+     * Reads the server URLs of a JSON document.
+     * @param json Document, at the array of servers.
+     * @param keys Where base paths are added.
+     * @throws IOException If it can't be read.
+     */
+    private static void servers(final JsonReader json,
+        final PublishedSpec.Keys keys) throws IOException {
+        json.beginArray();
+        while (json.hasNext()) {
+            if (json.peek() == JsonToken.BEGIN_OBJECT) {
+                json.beginObject();
+                while (json.hasNext()) {
+                    if ("url".equals(json.nextName())
+                        && json.peek() == JsonToken.STRING) {
+                        keys.base(json.nextString());
+                    } else {
+                        json.skipValue();
+                    }
+                }
+                json.endObject();
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endArray();
+    }
+
+    /**
+     * Reads the operations of a YAML document, in block style.
+     * @param yaml Document.
+     * @param keys Where operations are added.
+     * @throws IOException If it can't be read.
+     */
+    private static void yaml(final BufferedReader yaml,
+        final PublishedSpec.Keys keys) throws IOException {
+        String section = null;
+        int urls = -1;
+        int paths = -1;
+        int methods = -1;
+        String path = null;
+        for (String line = yaml.readLine(); line != null;
+            line = yaml.readLine()) {
+            int indent = PublishedSpec.indent(line);
+            if (indent == line.length() || line.charAt(indent) == '#') {
+                continue;
+            }
+            if ("servers".equals(section) && line.startsWith("- ", indent)) {
+                indent = PublishedSpec.indent(line, indent + 1);
+            }
+            final String key = PublishedSpec.key(line, indent);
+            if (indent == 0) {
+                section = key;
+                urls = -1;
+                paths = -1;
+                methods = -1;
+                if ("basePath".equals(key)) {
+                    keys.base(PublishedSpec.value(line));
+                }
+            } else if ("servers".equals(section) && "url".equals(key)) {
+                if (urls < 0 || indent == urls) {
+                    urls = indent;
+                    keys.base(PublishedSpec.value(line));
+                }
+            } else if ("paths".equals(section) && key != null) {
+                if (paths < 0 || indent <= paths) {
+                    paths = indent;
+                    methods = -1;
+                    path = key;
+                } else if (methods < 0 || indent == methods) {
+                    methods = indent;
+                    keys.add(key, path);
+                }
+            }
+        }
+    }
+
+    /**
+     * Number of leading blanks of a line.
+     * @param line Line.
+     * @return Indent.
+     */
+    private static int indent(final String line) {
+        return PublishedSpec.indent(line, 0);
+    }
+
+    /**
+     * Position of the first character of a line, from some position on,
+     * that is not a blank.
+     * @param line Line.
+     * @param from Position.
+     * @return Position.
+     */
+    private static int indent(final String line, final int from) {
+        int indent = from;
+        while (indent < line.length() && line.charAt(indent) == ' ') {
+            ++indent;
+        }
+        return indent;
+    }
+
+    /**
+     * Value of a YAML mapping line holding a scalar.
+     * @param line Line.
+     * @return Value, unquoted and without comment, or empty.
+     */
+    private static String value(final String line) {
+        final int colon = PublishedSpec.separator(line, 0);
+        String value = "";
+        if (colon >= 0) {
+            value = line.substring(colon + 1).trim();
+        }
+        final int comment = value.indexOf(" #");
+        if (comment >= 0) {
+            value = value.substring(0, comment).trim();
+        }
+        if (value.length() > 1 && (value.charAt(0) == '"'
+            || value.charAt(0) == '\'')
+            && value.charAt(value.length() - 1) == value.charAt(0)) {
+            value = value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
+    /**
+     * Key of a YAML mapping line.
+     * @param line Line.
+     * @param indent Its indent.
+     * @return Key, unquoted, or null if the line holds no key.
+     */
+    private static String key(final String line, final int indent) {
+        String key = null;
+        final char first = line.charAt(indent);
+        if (first == '"' || first == '\'') {
+            final int end = line.indexOf(first, indent + 1);
+            if (end > 0 && line.startsWith(":", end + 1)) {
+                key = line.substring(indent + 1, end);
+            }
+        } else if (first != '-') {
+            final int colon = PublishedSpec.separator(line, indent);
+            if (colon > indent) {
+                key = line.substring(indent, colon).trim();
+            }
+        }
+        return key;
+    }
+
+    /**
+     * Position of the colon ending a plain YAML key: the first one followed
+     * by a blank, or the last character of the line. Colons within the key,
+     * as in <code>/users/{id:[0-9]+}:</code>, are kept in it.
+     * @param line Line.
+     * @param indent Its indent.
+     * @return Position, or -1 if the line holds no key.
+     */
+    private static int separator(final String line, final int indent) {
+        int colon = line.indexOf(": ", indent);
+        if (colon < 0) {
+            colon = line.indexOf(":\t", indent);
+        }
+        if (colon < 0 && line.charAt(line.length() - 1) == ':') {
+            colon = line.length() - 1;
+        }
+        return colon;
+    }
+
+    /**
+     * Hashes of the operations and paths of a document, as read.
+     */
+    private static final class Keys {
+
+        /**
+         * Hashes of the operations.
+         */
+        private final PublishedSpec.Hashes operations =
+            new PublishedSpec.Hashes();
+
+        /**
+         * Hashes of the paths.
+         */
+        private final PublishedSpec.Hashes paths = new PublishedSpec.Hashes();
+
+        /**
+         * Paths operations are published under.
+         */
+        private final List<String> bases = new ArrayList<>(1);
+
+        /**
+         * Adds the path of a base path or server URL, unless it is the
+         * root.
+         * @param url Base path, or absolute or relative URL.
+         */
+        void base(final String url) {
+            String base = url;
+            final int scheme = base.indexOf("//");
+            if (scheme >= 0) {
+                final int slash = base.indexOf('/', scheme + 2);
+                if (slash < 0) {
+                    base = "";
+                } else {
+                    base = base.substring(slash);
+                }
+            }
+            int end = base.length();
+            while (end > 0 && base.charAt(end - 1) == '/') {
+                --end;
+            }
+            base = base.substring(0, end);
+            if (!base.isEmpty()) {
+                if (base.charAt(0) != '/') {
+                    base = String.format("/%s", base);
+                }
+                if (!this.bases.contains(base)) {
+                    this.bases.add(base);
+                }
+            }
+        }
+
+        /**
+         * Adds an operation, unless the key is not an HTTP method.
+         * @param method Key under the path.
+         * @param path Path.
+         */
+        void add(final String method, final String path) {
+            switch (method) {
+                case "get":
+                case "put":
+                case "post":
+                case "delete":
+                case "options":
+                case "head":
+                case "patch":
+                case "trace":
+                    this.operations.add(
+                        PublishedSpec.hash(PublishedSpec.seed(method), path)
+                    );
+                    this.paths.add(
+                        PublishedSpec.hash(PublishedSpec.FNV_BASIS, path)
+                    );
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Growing array of hashes.
+     */
+    private static final class Hashes {
+
+        /**
+         * Hashes.
+         */
+        private long[] values = new long[PublishedSpec.BUFFER / Long.BYTES];
+
+        /**
+         * Number of hashes.
+         */
+        private int size;
+
+        /**
+         * Adds a hash.
+         * @param hash Hash.
+         */
+        void add(final long hash) {
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, this.size * 2);
+            }
+            this.values[this.size] = hash;
+            ++this.size;
+        }
+
+        /**
+         * Distinct hashes, sorted.
+         * @return Hashes.
+         */
+        long[] sorted() {
+            final long[] sorted = Arrays.copyOf(this.values, this.size);
+            Arrays.sort(sorted);
+            int distinct = 0;
+            for (int idx = 0; idx < sorted.length; ++idx) {
+                if (idx == 0 || sorted[idx] != sorted[distinct - 1]) {
+                    sorted[distinct] = sorted[idx];
+                    ++distinct;
+                }
+            }
+            return Arrays.copyOf(sorted, distinct);
+        }
+    }
+
+}
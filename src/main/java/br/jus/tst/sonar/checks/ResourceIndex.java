@@ -0,0 +1,958 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.SymbolMetadata;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.ArrayTypeTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.ImportClauseTree;
+import org.sonar.plugins.java.api.tree.ImportTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.ParameterizedTypeTree;
+import org.sonar.plugins.java.api.tree.PrimitiveTypeTree;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TypeParameterTree;
+import org.sonar.plugins.java.api.tree.TypeTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+/**
+ * Annotations of the supertypes of resource types and of the methods they
+ * override.
+ *
+ * <p>Resources often document on an interface or a base class what they
+ * declare. Supertypes are found through the semantic model sonar-java
+ * builds for the file being scanned: those declared in the same file are
+ * read from their trees, the others from the bytecode of the module and
+ * its libraries, through their annotation metadata. Nothing is parsed
+ * again.</p>
+ *
+ * <p>Trees without a semantic model, such as those of the command line
+ * {@link br.jus.tst.sonar.Analyzer} and of snapshots, are resolved by name
+ * instead, through an index of the trees the index is built from (see
+ * {@link #build(Stream)}); method bodies are not walked. Supertypes are
+ * resolved through the imports and package of each file, and the
+ * annotations of every type and method are merged with those of its
+ * supertypes, so a lookup is a single hash map access.</p>
+ *
+ * <p>Only supertypes are merged: a subtype documenting a resource does not
+ * document the resource. Methods are matched by name and the erasure of
+ * their parameter types: through the semantic model when there is one,
+ * otherwise as written, by simple name, any type matching a type variable.
+ * Without either, they are matched by name and number of parameters.</p>
+ * @since 1.1
+ */
+public final class ResourceIndex {
+
+    /**
+     * Index of no tree: types are only resolved through the semantic model.
+     */
+    public static final ResourceIndex EMPTY = new ResourceIndex(
+        Collections.emptyMap(), Collections.emptyMap()
+    );
+
+    /**
+     * Index of the running analysis, if any.
+     */
+    private static final AtomicReference<Supplier<ResourceIndex>> ACTIVE =
+        new AtomicReference<>();
+
+    /**
+     * Annotations of each type and its supertypes, by type name.
+     */
+    private final Map<String, Long> types;
+
+    /**
+     * Annotations of each method and the methods it overrides, by type
+     * name, method name and number of parameters.
+     */
+    private final Map<String, Long> methods;
+
+    /**
+     * Main constructor.
+     * @param types Annotations of each type and its supertypes.
+     * @param methods Annotations of each method and the methods it
+     *  overrides.
+     */
+    private ResourceIndex(final Map<String, Long> types,
+        final Map<String, Long> methods) {
+        this.types = types;
+        this.methods = methods;
+    }
+
+    /**
+     * Makes an index the one rules use. It is built on first use.
+     * @param index Builds the index.
+     */
+    public static void activate(final Supplier<ResourceIndex> index) {
+        ResourceIndex.ACTIVE.set(new ResourceIndex.Lazy(index));
+    }
+
+    /**
+     * Stops rules from using an index.
+     */
+    public static void deactivate() {
+        ResourceIndex.ACTIVE.set(null);
+    }
+
+    /**
+     * Index of the running analysis.
+     * @return Index, empty if there is none.
+     */
+    public static ResourceIndex active() {
+        final Supplier<ResourceIndex> index = ResourceIndex.ACTIVE.get();
+        final ResourceIndex active;
+        if (index == null) {
+            active = ResourceIndex.EMPTY;
+        } else {
+            active = index.get();
+        }
+        return active;
+    }
+
+    /**
+     * Builds the index of compilation units already parsed, keeping none of
+     * them.
+     * @param units Compilation units.
+     * @return Index.
+     */
+    public static ResourceIndex build(
+        final Stream<CompilationUnitTree> units) {
+        return ResourceIndex.link(
+            units.flatMap(ResourceIndex::nodes).collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Builds the index of some snapshots, without parsing anything.
+     * @param snapshots Snapshots.
+     * @return Index.
+     */
+    public static ResourceIndex build(final Collection<Snapshot> snapshots) {
+        return ResourceIndex.build(
+            snapshots.parallelStream()
+                .filter(
+                    snapshot -> Prefilter.documented()
+                        .matches(snapshot.content())
+                )
+                .map(Snapshot::unit)
+        );
+    }
+
+    /**
+     * Number of indexed types.
+     * @return Count.
+     */
+    public int size() {
+        return this.types.size();
+    }
+
+    /**
+     * Annotations of a type and its supertypes.
+     * @param tree Type declaration.
+     * @return OR of their {@link AnnotationIndex} bits.
+     */
+    public long type(final ClassTree tree) {
+        long mask = 0L;
+        if (!this.types.isEmpty()) {
+            final String name = ResourceIndex.name(tree);
+            if (name != null) {
+                mask = ResourceIndex.mask(this.types, name);
+            }
+        }
+        for (final Symbol.TypeSymbol type
+            : ResourceIndex.supertypes(tree.symbol())) {
+            mask |= ResourceIndex.annotations(type);
+        }
+        return mask;
+    }
+
+    /**
+     * Annotations of a method and of the methods it overrides.
+     * @param tree Method declaration.
+     * @return OR of their {@link AnnotationIndex} bits.
+     */
+    public long method(final MethodTree tree) {
+        long mask = 0L;
+        final Tree parent = tree.parent();
+        if (parent instanceof ClassTree) {
+            if (!this.methods.isEmpty()) {
+                final String name = ResourceIndex.name((ClassTree) parent);
+                if (name != null) {
+                    mask = ResourceIndex.mask(
+                        this.methods,
+                        String.format(
+                            "%s#%s", name, ResourceIndex.signature(tree)
+                        )
+                    );
+                }
+            }
+            final String method = tree.simpleName().name();
+            for (final Symbol.TypeSymbol type
+                : ResourceIndex.supertypes(((ClassTree) parent).symbol())) {
+                for (final Symbol member : type.lookupSymbols(method)) {
+                    if (member.isMethodSymbol() && ResourceIndex.overrides(
+                        (Symbol.MethodSymbol) member, tree
+                    )) {
+                        mask |= ResourceIndex.annotations(member);
+                    }
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Hash of what the index knows of the declarations of a compilation
+     * unit, so the issues of the unit can be cached along with it.
+     * @param unit Compilation unit.
+     * @return Hash, zero if the index knows nothing of them.
+     */
+    public long digest(final CompilationUnitTree unit) {
+        long digest = 0L;
+        for (final Tree type : unit.types()) {
+            if (type instanceof ClassTree) {
+                digest = this.digest((ClassTree) type, digest);
+            }
+        }
+        return digest;
+    }
+
+    /**
+     * Fully qualified name of a type declaration.
+     * @param tree Type declaration.
+     * @return Name, or null if it is anonymous or local.
+     */
+    static String name(final ClassTree tree) {
+        String name = null;
+        final IdentifierTree simple = tree.simpleName();
+        if (simple != null) {
+            final Tree parent = tree.parent();
+            if (parent instanceof ClassTree) {
+                final String outer = ResourceIndex.name((ClassTree) parent);
+                if (outer != null) {
+                    name = String.format("%s.%s", outer, simple.name());
+                }
+            } else if (parent instanceof CompilationUnitTree) {
+                name = ResourceIndex.qualify(
+                    ResourceIndex.pkg((CompilationUnitTree) parent),
+                    simple.name()
+                );
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Adds a type declaration, its methods and its member types to a hash.
+     * @param tree Type declaration.
+     * @param hash Hash so far.
+     * @return Hash.
+     */
+    private long digest(final ClassTree tree, final long hash) {
+        long digest = ResourceIndex.digest(hash, this.type(tree));
+        for (final Tree member : tree.members()) {
+            if (member instanceof ClassTree) {
+                digest = this.digest((ClassTree) member, digest);
+            } else if (member instanceof MethodTree) {
+                digest = ResourceIndex.digest(
+                    digest, this.method((MethodTree) member)
+                );
+            }
+        }
+        return digest;
+    }
+
+    /**
+     * Adds a mask to a hash, leaving it zero while masks are.
+     * @param hash Hash so far.
+     * @param mask Mask.
+     * @return Hash.
+     */
+    private static long digest(final long hash, final long mask) {
+        final long digest;
+        if (hash == 0L && mask == 0L) {
+            digest = 0L;
+        } else {
+            digest = hash * 31L + mask + 1L;
+        }
+        return digest;
+    }
+
+    /**
+     * Supertypes of a type, transitively, as the semantic model knows them.
+     * @param symbol Type, maybe unknown if there is no semantic model.
+     * @return Supertypes found, without the type itself; an empty set,
+     *  without allocating anything, if the type has none.
+     */
+    private static Collection<Symbol.TypeSymbol> supertypes(
+        final Symbol.TypeSymbol symbol) {
+        Set<Symbol.TypeSymbol> found = Collections.emptySet();
+        if (symbol != null && !symbol.isUnknown()
+            && (!symbol.interfaces().isEmpty()
+            || symbol.superClass() != null
+            && !symbol.superClass().is("java.lang.Object"))) {
+            found = Collections.newSetFromMap(new IdentityHashMap<>());
+            final Deque<Symbol.TypeSymbol> next = new ArrayDeque<>(2);
+            next.add(symbol);
+            while (!next.isEmpty()) {
+                final Symbol.TypeSymbol type = next.poll();
+                final List<Type> supers = new ArrayList<>(type.interfaces());
+                if (type.superClass() != null) {
+                    supers.add(type.superClass());
+                }
+                for (final Type sup : supers) {
+                    if (!sup.isUnknown() && !sup.is("java.lang.Object")
+                        && sup.symbol() != symbol && found.add(sup.symbol())) {
+                        next.add(sup.symbol());
+                    }
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Annotations of a type or method found through the semantic model,
+     * from its tree if it is declared in the file being scanned, or else
+     * from its metadata.
+     * @param symbol Type or method.
+     * @return OR of their {@link AnnotationIndex} bits.
+     */
+    private static long annotations(final Symbol symbol) {
+        final Tree declaration = symbol.declaration();
+        long mask = 0L;
+        if (declaration instanceof ClassTree) {
+            mask = Annotations.mask(
+                ((ClassTree) declaration).modifiers(),
+                AnnotationResolver.of(ResourceIndex.unit(declaration))
+            );
+        } else if (declaration instanceof MethodTree) {
+            mask = Annotations.mask(
+                ((MethodTree) declaration).modifiers(),
+                AnnotationResolver.of(ResourceIndex.unit(declaration))
+            );
+        } else {
+            for (final SymbolMetadata.AnnotationInstance annotation
+                : symbol.metadata().annotations()) {
+                mask |= AnnotationIndex.qualified(
+                    annotation.symbol().type().fullyQualifiedName()
+                );
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Compilation unit a tree belongs to.
+     * @param tree Tree.
+     * @return Compilation unit.
+     */
+    private static CompilationUnitTree unit(final Tree tree) {
+        Tree unit = tree;
+        while (!(unit instanceof CompilationUnitTree)) {
+            unit = unit.parent();
+        }
+        return (CompilationUnitTree) unit;
+    }
+
+    /**
+     * Looks up a mask.
+     * @param masks Masks.
+     * @param key Key.
+     * @return Mask, zero if none.
+     */
+    private static long mask(final Map<String, Long> masks, final String key) {
+        final Long mask = masks.get(key);
+        final long found;
+        if (mask == null) {
+            found = 0L;
+        } else {
+            found = mask;
+        }
+        return found;
+    }
+
+    /**
+     * Whether a method may override another, as the semantic model knows
+     * them.
+     * @param member Method of a supertype.
+     * @param tree Method declaration.
+     * @return Whether their parameters have the same erasure, or just as
+     *  many parameters if the declaration has no symbol.
+     */
+    private static boolean overrides(final Symbol.MethodSymbol member,
+        final MethodTree tree) {
+        final List<Type> theirs = member.parameterTypes();
+        boolean same = theirs.size() == tree.parameters().size();
+        final Symbol.MethodSymbol own = tree.symbol();
+        if (same && own != null && !own.isUnknown()) {
+            final List<Type> ours = own.parameterTypes();
+            for (int idx = 0; same && idx < ours.size(); ++idx) {
+                same = ResourceIndex.accepts(theirs.get(idx), ours.get(idx));
+            }
+        }
+        return same;
+    }
+
+    /**
+     * Whether a parameter of an overriding method matches the one it
+     * overrides, a type variable matching any type within its bound.
+     * @param declared Type of the parameter overridden.
+     * @param param Type of the overriding parameter.
+     * @return Whether they match, or either is unknown.
+     */
+    private static boolean accepts(final Type declared, final Type param) {
+        final String erasure = declared.erasure().fullyQualifiedName();
+        return declared.isUnknown() || param.isUnknown()
+            || erasure.equals(param.erasure().fullyQualifiedName())
+            || !erasure.equals(declared.fullyQualifiedName())
+            && param.isSubtypeOf(declared.erasure());
+    }
+
+    /**
+     * Signature of a method, as indexed.
+     * @param tree Method declaration.
+     * @return Name and erased types of its parameters, as written.
+     */
+    private static String signature(final MethodTree tree) {
+        final Set<String> variables = ResourceIndex.variables(tree);
+        final StringJoiner signature = new StringJoiner(
+            ",", String.format("%s(", tree.simpleName().name()), ")"
+        );
+        for (final VariableTree param : tree.parameters()) {
+            signature.add(ResourceIndex.erased(param.type(), variables));
+        }
+        return signature.toString();
+    }
+
+    /**
+     * Whether a signature declared with type variables matches another.
+     * @param declared Signature with type variables.
+     * @param signature Signature.
+     * @return Whether they have the same name and parameters, any type
+     *  matching a type variable.
+     */
+    private static boolean matches(final String declared,
+        final String signature) {
+        final int open = declared.indexOf('(');
+        boolean same = open == signature.indexOf('(')
+            && declared.regionMatches(0, signature, 0, open);
+        if (same) {
+            final String[] theirs = declared
+                .substring(open + 1, declared.length() - 1).split(",", -1);
+            final String[] ours = signature
+                .substring(open + 1, signature.length() - 1).split(",", -1);
+            same = theirs.length == ours.length;
+            for (int idx = 0; same && idx < theirs.length; ++idx) {
+                same = theirs[idx].equals(ours[idx])
+                    || theirs[idx].startsWith("*") && ours[idx].endsWith(
+                        theirs[idx].substring(1)
+                    );
+            }
+        }
+        return same;
+    }
+
+    /**
+     * Type variables visible in a method: its own and those of the types
+     * enclosing it.
+     * @param tree Method declaration.
+     * @return Names.
+     */
+    static Set<String> variables(final MethodTree tree) {
+        final Set<String> names = new HashSet<>(0);
+        ResourceIndex.variables(tree.typeParameters(), names);
+        for (Tree parent = tree.parent(); parent != null;
+            parent = parent.parent()) {
+            if (parent instanceof ClassTree) {
+                ResourceIndex.variables(
+                    ((ClassTree) parent).typeParameters(), names
+                );
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Adds the names of type parameters to a set.
+     * @param params Type parameters, maybe null if there are none.
+     * @param names Names so far.
+     */
+    private static void variables(final Iterable<TypeParameterTree> params,
+        final Set<String> names) {
+        if (params != null) {
+            for (final TypeParameterTree param : params) {
+                names.add(param.identifier().name());
+            }
+        }
+    }
+
+    /**
+     * Erasure of a parameter type as written: its simple name, without type
+     * arguments, with a star for type variables.
+     * @param type Type.
+     * @param variables Type variables visible where it is written.
+     * @return Erased type.
+     */
+    static String erased(final TypeTree type, final Set<String> variables) {
+        final String erased;
+        if (type instanceof ArrayTypeTree) {
+            erased = String.format(
+                "%s[]",
+                ResourceIndex.erased(((ArrayTypeTree) type).type(), variables)
+            );
+        } else if (type instanceof PrimitiveTypeTree) {
+            erased = ((PrimitiveTypeTree) type).keyword().text();
+        } else {
+            final String name = ResourceIndex.written(type);
+            if (variables.contains(name)) {
+                erased = "*";
+            } else {
+                erased = name.substring(name.lastIndexOf('.') + 1);
+            }
+        }
+        return erased;
+    }
+
+    /**
+     * Types declared by a compilation unit.
+     * @param unit Compilation unit.
+     * @return Types.
+     */
+    private static Stream<ResourceIndex.Node> nodes(
+        final CompilationUnitTree unit) {
+        final List<ResourceIndex.Node> nodes = new ArrayList<>(1);
+        final ResourceIndex.Scope scope = new ResourceIndex.Scope(unit);
+        for (final Tree type : unit.types()) {
+            if (type instanceof ClassTree) {
+                ResourceIndex.collect(
+                    (ClassTree) type, scope.pkg, scope, nodes
+                );
+            }
+        }
+        return nodes.stream();
+    }
+
+    /**
+     * Records a type declaration and its member types.
+     * @param tree Type declaration.
+     * @param outer Name of the enclosing type, or package.
+     * @param scope Scope of the file.
+     * @param nodes Types found so far.
+     */
+    private static void collect(final ClassTree tree, final String outer,
+        final ResourceIndex.Scope scope,
+        final List<ResourceIndex.Node> nodes) {
+        final ResourceIndex.Node node = new ResourceIndex.Node(
+            ResourceIndex.qualify(outer, tree.simpleName().name()), scope,
+            Annotations.mask(tree.modifiers(), scope.resolver)
+        );
+        if (tree.superClass() != null) {
+            node.supers.add(ResourceIndex.written(tree.superClass()));
+        }
+        for (final TypeTree type : tree.superInterfaces()) {
+            node.supers.add(ResourceIndex.written(type));
+        }
+        for (final Tree member : tree.members()) {
+            if (member instanceof ClassTree) {
+                ResourceIndex.collect(
+                    (ClassTree) member, node.name, scope, nodes
+                );
+            } else if (member instanceof MethodTree) {
+                final MethodTree method = (MethodTree) member;
+                final long mask = Annotations.mask(
+                    method.modifiers(), scope.resolver
+                );
+                if (mask != 0L) {
+                    final String signature = ResourceIndex.signature(method);
+                    node.methods.merge(signature, mask, (a, b) -> a | b);
+                    if (signature.indexOf('*') >= 0) {
+                        node.generic.add(signature);
+                    }
+                }
+            }
+        }
+        nodes.add(node);
+    }
+
+    /**
+     * Links types to their supertypes and merges their annotations.
+     * @param nodes Types.
+     * @return Index.
+     */
+    private static ResourceIndex link(final List<ResourceIndex.Node> nodes) {
+        final Map<String, ResourceIndex.Node> named = new HashMap<>();
+        for (final ResourceIndex.Node node : nodes) {
+            named.putIfAbsent(node.name, node);
+        }
+        for (final ResourceIndex.Node node : named.values()) {
+            for (final String written : node.supers) {
+                final ResourceIndex.Node parent = node.resolve(written, named);
+                if (parent != null && parent != node) {
+                    node.parents.add(parent);
+                }
+            }
+        }
+        final Map<String, Long> types = new HashMap<>();
+        final Map<String, Long> methods = new HashMap<>();
+        final Map<ResourceIndex.Node, Set<ResourceIndex.Node>> up =
+            new IdentityHashMap<>();
+        for (final ResourceIndex.Node node : named.values()) {
+            final Set<ResourceIndex.Node> related = ResourceIndex.identities();
+            related.add(node);
+            related.addAll(ResourceIndex.closure(node, up));
+            long mask = 0L;
+            for (final ResourceIndex.Node other : related) {
+                mask |= other.mask;
+            }
+            types.put(node.name, mask);
+            for (final String signature : node.methods.keySet()) {
+                long merged = 0L;
+                for (final ResourceIndex.Node other : related) {
+                    merged |= other.methods.getOrDefault(signature, 0L);
+                    for (final String generic : other.generic) {
+                        if (ResourceIndex.matches(generic, signature)) {
+                            merged |= other.methods.get(generic);
+                        }
+                    }
+                }
+                methods.put(
+                    String.format("%s#%s", node.name, signature), merged
+                );
+            }
+        }
+        return new ResourceIndex(types, methods);
+    }
+
+    /**
+     * Supertypes of a type, transitively.
+     * @param node Type.
+     * @param memo Closures computed so far.
+     * @return Types, without the type itself.
+     */
+    private static Set<ResourceIndex.Node> closure(
+        final ResourceIndex.Node node,
+        final Map<ResourceIndex.Node, Set<ResourceIndex.Node>> memo) {
+        Set<ResourceIndex.Node> closure = memo.get(node);
+        if (closure == null) {
+            closure = ResourceIndex.identities();
+            memo.put(node, closure);
+            for (final ResourceIndex.Node other : node.parents) {
+                closure.add(other);
+                closure.addAll(ResourceIndex.closure(other, memo));
+            }
+            closure.remove(node);
+        }
+        return closure;
+    }
+
+    /**
+     * New set of nodes compared by identity.
+     * @return Set.
+     */
+    private static Set<ResourceIndex.Node> identities() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /**
+     * Name of a type as written.
+     * @param type Type.
+     * @return Dotted name, without type arguments.
+     */
+    static String written(final TypeTree type) {
+        final String name;
+        if (type instanceof ParameterizedTypeTree) {
+            name = ResourceIndex.written(((ParameterizedTypeTree) type).type());
+        } else if (type instanceof ExpressionTree) {
+            name = AnnotationResolver.name((ExpressionTree) type);
+        } else {
+            name = "";
+        }
+        return name;
+    }
+
+    /**
+     * Package of a compilation unit.
+     * @param unit Compilation unit.
+     * @return Name, empty for the default package.
+     */
+    private static String pkg(final CompilationUnitTree unit) {
+        final String pkg;
+        if (unit.packageDeclaration() == null) {
+            pkg = "";
+        } else {
+            pkg = AnnotationResolver.name(
+                unit.packageDeclaration().packageName()
+            );
+        }
+        return pkg;
+    }
+
+    /**
+     * Qualifies a name.
+     * @param outer Enclosing package or type, may be empty.
+     * @param name Name.
+     * @return Qualified name.
+     */
+    private static String qualify(final String outer, final String name) {
+        final String qualified;
+        if (outer.isEmpty()) {
+            qualified = name;
+        } else {
+            qualified = String.format("%s.%s", outer, name);
+        }
+        return qualified;
+    }
+
+    /**
+     * Names visible in a file.
+     */
+    private static final class Scope {
+
+        /**
+         * Package.
+         */
+        private final String pkg;
+
+        /**
+         * Single-type imports, by simple name.
+         */
+        private final Map<String, String> imports;
+
+        /**
+         * Packages imported on demand.
+         */
+        private final List<String> demand;
+
+        /**
+         * Resolver of annotations.
+         */
+        private final AnnotationResolver resolver;
+
+        /**
+         * Main constructor.
+         * @param unit Compilation unit.
+         */
+        Scope(final CompilationUnitTree unit) {
+            this.pkg = ResourceIndex.pkg(unit);
+            this.imports = new HashMap<>();
+            this.demand = new ArrayList<>(1);
+            this.resolver = AnnotationResolver.of(unit);
+            for (final ImportClauseTree clause : unit.imports()) {
+                if (clause instanceof ImportTree
+                    && !((ImportTree) clause).isStatic()
+                    && ((ImportTree) clause).qualifiedIdentifier()
+                        instanceof MemberSelectExpressionTree) {
+                    final MemberSelectExpressionTree name =
+                        (MemberSelectExpressionTree) ((ImportTree) clause)
+                            .qualifiedIdentifier();
+                    final String simple = name.identifier().name();
+                    if ("*".equals(simple)) {
+                        this.demand.add(
+                            AnnotationResolver.name(name.expression())
+                        );
+                    } else {
+                        this.imports.put(
+                            simple, AnnotationResolver.name(name)
+                        );
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Indexed type.
+     */
+    private static final class Node {
+
+        /**
+         * Fully qualified name.
+         */
+        private final String name;
+
+        /**
+         * Scope of its file.
+         */
+        private final ResourceIndex.Scope scope;
+
+        /**
+         * Bits of its annotations.
+         */
+        private final long mask;
+
+        /**
+         * Supertypes, as written.
+         */
+        private final List<String> supers;
+
+        /**
+         * Bits of the annotations of its methods, by signature.
+         */
+        private final Map<String, Long> methods;
+
+        /**
+         * Signatures of its methods with type variables among their
+         * parameters.
+         */
+        private final Set<String> generic;
+
+        /**
+         * Indexed supertypes.
+         */
+        private final List<ResourceIndex.Node> parents;
+
+        /**
+         * Main constructor.
+         * @param name Fully qualified name.
+         * @param scope Scope of its file.
+         * @param mask Bits of its annotations.
+         */
+        Node(final String name, final ResourceIndex.Scope scope,
+            final long mask) {
+            this.name = name;
+            this.scope = scope;
+            this.mask = mask;
+            this.supers = new ArrayList<>(2);
+            this.methods = new HashMap<>();
+            this.generic = new HashSet<>(0);
+            this.parents = new ArrayList<>(2);
+        }
+
+        /**
+         * Resolves the name of a supertype, as Java would: imports first,
+         * then member types of this type and of the enclosing ones, the
+         * package and the packages imported on demand.
+         * @param written Name as written.
+         * @param named Indexed types, by name.
+         * @return Supertype, or null if not indexed.
+         */
+        ResourceIndex.Node resolve(final String written,
+            final Map<String, ResourceIndex.Node> named) {
+            final int dot = written.indexOf('.');
+            final String first;
+            final String rest;
+            if (dot < 0) {
+                first = written;
+                rest = "";
+            } else {
+                first = written.substring(0, dot);
+                rest = written.substring(dot);
+            }
+            final List<String> candidates = new ArrayList<>(4);
+            final String imported = this.scope.imports.get(first);
+            if (imported != null) {
+                candidates.add(imported + rest);
+            }
+            for (String outer = this.name; outer.length() > this.scope.pkg
+                .length(); outer = outer.substring(0, outer.lastIndexOf('.'))) {
+                candidates.add(ResourceIndex.qualify(outer, written));
+                if (outer.indexOf('.') < 0) {
+                    break;
+                }
+            }
+            candidates.add(ResourceIndex.qualify(this.scope.pkg, written));
+            for (final String pkg : this.scope.demand) {
+                candidates.add(ResourceIndex.qualify(pkg, written));
+            }
+            candidates.add(written);
+            ResourceIndex.Node found = null;
+            for (final String candidate : candidates) {
+                found = named.get(candidate);
+                if (found != null) {
+                    break;
+                }
+            }
+            return found;
+        }
+    }
+
+    /**
+     * Index built on first use.
+     */
+    private static final class Lazy implements Supplier<ResourceIndex> {
+
+        /**
+         * Builds the index.
+         */
+        private final Supplier<ResourceIndex> origin;
+
+        /**
+         * Index, once built.
+         */
+        private volatile ResourceIndex index;
+
+        /**
+         * Generation of the annotation index it was built with.
+         */
+        private volatile int generation;
+
+        /**
+         * Main constructor.
+         * @param origin Builds the index.
+         */
+        Lazy(final Supplier<ResourceIndex> origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public ResourceIndex get() {
+            ResourceIndex built = this.index;
+            if (built == null
+                || this.generation != AnnotationIndex.generation()) {
+                synchronized (this) {
+                    built = this.index;
+                    final int current = AnnotationIndex.generation();
+                    if (built == null || this.generation != current) {
+                        built = this.origin.get();
+                        this.generation = current;
+                        this.index = built;
+                    }
+                }
+            }
+            return built;
+        }
+    }
+
+}
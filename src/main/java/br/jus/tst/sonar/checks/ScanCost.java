@@ -0,0 +1,358 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import org.sonar.check.Rule;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+
+/**
+ * Time the rules spend scanning files.
+ *
+ * <p>Every scan adds to the total time of its rule, and the slowest scans
+ * are kept for the summary logged at the end of the analysis. Both cost a
+ * couple of clock reads and counter increments. When a Java Flight
+ * Recorder recording enables the <code>br.jus.tst.sonar.Scan</code>
+ * event, each scan is also recorded with its file, rule, visited
+ * declarations and issues. The event is only loaded on runtimes that ship
+ * JFR.</p>
+ * @since 1.1
+ */
+public final class ScanCost {
+
+    /**
+     * Recorder of JFR events, null if the runtime has no JFR.
+     */
+    private static final ScanCost.Recorder JFR = ScanCost.recorder();
+
+    /**
+     * Total time of each rule.
+     */
+    private static final Map<Class<?>, ScanCost.Totals> RULES =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Slowest scans.
+     */
+    private static final ScanCost.Slowest SCANS = new ScanCost.Slowest(10);
+
+    /**
+     * Utility class.
+     */
+    private ScanCost() {
+    }
+
+    /**
+     * Forgets the scans recorded so far.
+     */
+    public static void reset() {
+        ScanCost.RULES.clear();
+        ScanCost.SCANS.clear();
+    }
+
+    /**
+     * Rules that took the longest, in total.
+     * @param count Maximum number of rules.
+     * @return Rule keys with their total time and number of scans.
+     */
+    public static List<String> slowestRules(final int count) {
+        final List<Map.Entry<Class<?>, ScanCost.Totals>> totals =
+            new ArrayList<>(ScanCost.RULES.entrySet());
+        totals.sort(
+            Comparator.comparingLong(
+                (Map.Entry<Class<?>, ScanCost.Totals> entry)
+                    -> entry.getValue().nanos.sum()
+            ).reversed()
+        );
+        final List<String> rules = new ArrayList<>(count);
+        for (final Map.Entry<Class<?>, ScanCost.Totals> entry
+            : totals.subList(0, Math.min(count, totals.size()))) {
+            rules.add(
+                String.format(
+                    "%s %s in %d files",
+                    ScanCost.key(entry.getKey()),
+                    ScanCost.millis(entry.getValue().nanos.sum()),
+                    entry.getValue().scans.sum()
+                )
+            );
+        }
+        return rules;
+    }
+
+    /**
+     * Slowest scans of a file by a rule.
+     * @return File paths and rule keys with their time, slowest first.
+     */
+    public static List<String> slowestScans() {
+        return ScanCost.SCANS.labels();
+    }
+
+    /**
+     * Starts recording a scan.
+     * @return JFR event, or null if none is recorded.
+     */
+    static Object begin() {
+        Object event = null;
+        if (ScanCost.JFR != null) {
+            event = ScanCost.JFR.begin();
+        }
+        return event;
+    }
+
+    /**
+     * Records a scan.
+     * @param event JFR event returned by {@link #begin()}.
+     * @param start Value of {@link System#nanoTime()} at the start.
+     * @param context Scanner context.
+     * @param check Rule.
+     * @param nodes Declarations visited.
+     * @param issues Issues raised.
+     * @checkstyle ParameterNumberCheck (4 lines)
+     */
+    static void end(final Object event, final long start,
+        final JavaFileScannerContext context, final JavaCheck check,
+        final int nodes, final int issues) {
+        final long elapsed = System.nanoTime() - start;
+        ScanCost.Totals totals = ScanCost.RULES.get(check.getClass());
+        if (totals == null) {
+            ScanCost.RULES.putIfAbsent(check.getClass(), new ScanCost.Totals());
+            totals = ScanCost.RULES.get(check.getClass());
+        }
+        totals.nanos.add(elapsed);
+        totals.scans.increment();
+        ScanCost.SCANS.offer(elapsed, context, check);
+        if (event != null) {
+            ScanCost.JFR.end(
+                event, ScanCost.path(context), ScanCost.key(check.getClass()),
+                nodes, issues
+            );
+        }
+    }
+
+    /**
+     * Path of the file being scanned.
+     * @param context Scanner context.
+     * @return Path.
+     */
+    static String path(final JavaFileScannerContext context) {
+        final File file = context.getFile();
+        final String path;
+        if (file == null) {
+            path = context.getFileKey();
+        } else {
+            path = file.getPath();
+        }
+        return path;
+    }
+
+    /**
+     * Key of a rule.
+     * @param type Class of the rule.
+     * @return Key.
+     */
+    static String key(final Class<?> type) {
+        final Rule rule = type.getAnnotation(Rule.class);
+        final String key;
+        if (rule == null) {
+            key = type.getName();
+        } else {
+            key = rule.key();
+        }
+        return key;
+    }
+
+    /**
+     * Duration in milliseconds.
+     * @param nanos Duration in nanoseconds.
+     * @return Text.
+     */
+    private static String millis(final long nanos) {
+        return String.format(
+            "%d ms", TimeUnit.NANOSECONDS.toMillis(nanos)
+        );
+    }
+
+    /**
+     * Recorder of JFR events, if the runtime has JFR.
+     * @return Recorder, or null.
+     */
+    private static ScanCost.Recorder recorder() {
+        ScanCost.Recorder recorder;
+        try {
+            Class.forName("jdk.jfr.Event");
+            recorder = (ScanCost.Recorder) Class
+                .forName("br.jus.tst.sonar.checks.JfrRecorder")
+                .getDeclaredConstructor()
+                .newInstance();
+        } catch (final ReflectiveOperationException | LinkageError ex) {
+            recorder = null;
+        }
+        return recorder;
+    }
+
+    /**
+     * Records scans as JFR events.
+     */
+    interface Recorder {
+
+        /**
+         * Starts recording a scan, if the event is enabled.
+         * @return Event, or null if disabled.
+         */
+        Object begin();
+
+        /**
+         * Records a scan, if it lasted long enough.
+         * @param event Event returned by {@link #begin()}.
+         * @param file Path of the file.
+         * @param rule Key of the rule.
+         * @param nodes Declarations visited.
+         * @param issues Issues raised.
+         * @checkstyle ParameterNumberCheck (3 lines)
+         */
+        void end(Object event, String file, String rule, int nodes,
+            int issues);
+    }
+
+    /**
+     * Total time of a rule.
+     */
+    private static final class Totals {
+
+        /**
+         * Time spent, in nanoseconds.
+         */
+        private final LongAdder nanos = new LongAdder();
+
+        /**
+         * Files scanned.
+         */
+        private final LongAdder scans = new LongAdder();
+    }
+
+    /**
+     * Slowest scans, sorted.
+     */
+    private static final class Slowest {
+
+        /**
+         * Durations, slowest first.
+         */
+        private final long[] nanos;
+
+        /**
+         * Files and rules, in the same order.
+         */
+        private final String[] labels;
+
+        /**
+         * Number of scans kept.
+         */
+        private int count;
+
+        /**
+         * Duration a scan must exceed to be kept.
+         */
+        private volatile long floor;
+
+        /**
+         * Main constructor.
+         * @param size Number of scans to keep.
+         */
+        Slowest(final int size) {
+            this.nanos = new long[size];
+            this.labels = new String[size];
+        }
+
+        /**
+         * Keeps a scan if it is among the slowest.
+         * @param elapsed Duration, in nanoseconds.
+         * @param context Scanner context.
+         * @param check Rule.
+         */
+        void offer(final long elapsed, final JavaFileScannerContext context,
+            final JavaCheck check) {
+            if (elapsed > this.floor) {
+                synchronized (this) {
+                    int idx = Math.min(this.count, this.nanos.length - 1);
+                    if (this.count < this.nanos.length
+                        || elapsed > this.nanos[idx]) {
+                        while (idx > 0 && this.nanos[idx - 1] < elapsed) {
+                            this.nanos[idx] = this.nanos[idx - 1];
+                            this.labels[idx] = this.labels[idx - 1];
+                            --idx;
+                        }
+                        this.nanos[idx] = elapsed;
+                        this.labels[idx] = String.format(
+                            "%s [%s]",
+                            ScanCost.path(context),
+                            ScanCost.key(check.getClass())
+                        );
+                        if (this.count < this.nanos.length) {
+                            ++this.count;
+                        }
+                        if (this.count == this.nanos.length) {
+                            this.floor = this.nanos[this.count - 1];
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Scans kept.
+         * @return Files and rules with their time, slowest first.
+         */
+        synchronized List<String> labels() {
+            final List<String> labels = new ArrayList<>(this.count);
+            for (int idx = 0; idx < this.count; ++idx) {
+                labels.add(
+                    String.format(
+                        "%s %s", this.labels[idx],
+                        ScanCost.millis(this.nanos[idx])
+                    )
+                );
+            }
+            return labels;
+        }
+
+        /**
+         * Forgets the scans kept.
+         */
+        synchronized void clear() {
+            Arrays.fill(this.labels, null);
+            Arrays.fill(this.nanos, 0L);
+            this.count = 0;
+            this.floor = 0L;
+        }
+    }
+
+}
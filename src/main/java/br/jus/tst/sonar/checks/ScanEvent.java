@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a rule scanning a file.
+ * @since 1.1
+ */
+@Name(ScanEvent.NAME)
+@Label("Rule Scan")
+@Category("tst-java")
+@Description("A tst-java rule scanning a file")
+@StackTrace(false)
+final class ScanEvent extends Event {
+
+    /**
+     * Name of the event.
+     */
+    static final String NAME = "br.jus.tst.sonar.Scan";
+
+    /**
+     * Path of the file.
+     */
+    @Label("File")
+    private String file;
+
+    /**
+     * Key of the rule.
+     */
+    @Label("Rule")
+    private String rule;
+
+    /**
+     * Declarations visited.
+     */
+    @Label("Nodes Visited")
+    private int nodes;
+
+    /**
+     * Issues raised.
+     */
+    @Label("Issues Raised")
+    private int issues;
+
+    /**
+     * Sets what was scanned.
+     * @param path Path of the file.
+     * @param key Key of the rule.
+     */
+    void scanned(final String path, final String key) {
+        this.file = path;
+        this.rule = key;
+    }
+
+    /**
+     * Sets what the scan found.
+     * @param visited Declarations visited.
+     * @param raised Issues raised.
+     */
+    void found(final int visited, final int raised) {
+        this.nodes = visited;
+        this.issues = raised;
+    }
+
+}
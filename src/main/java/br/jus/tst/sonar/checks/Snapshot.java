@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+/**
+ * Declarations of a file, as read back from a binary snapshot.
+ *
+ * <p>The content is not the original source: it only holds the package,
+ * imports and annotations at their original lines, which is all the
+ * {@link Prefilter} needs to let the file through.</p>
+ * @since 1.1
+ */
+public final class Snapshot {
+
+    /**
+     * Path of the file.
+     */
+    private final String file;
+
+    /**
+     * Content standing for the source of the file.
+     */
+    private final String content;
+
+    /**
+     * Compilation unit.
+     */
+    private final CompilationUnitTree unit;
+
+    /**
+     * Main constructor.
+     * @param file Path of the file.
+     * @param content Content standing for its source.
+     * @param unit Compilation unit.
+     */
+    Snapshot(final String file, final String content,
+        final CompilationUnitTree unit) {
+        this.file = file;
+        this.content = content;
+        this.unit = unit;
+    }
+
+    /**
+     * Path of the file, as it was analyzed.
+     * @return Path.
+     */
+    public String file() {
+        return this.file;
+    }
+
+    /**
+     * Content standing for the source of the file, with as many lines.
+     * @return Content.
+     */
+    public String content() {
+        return this.content;
+    }
+
+    /**
+     * Compilation unit rebuilt from the snapshot, with parents linked.
+     * @return Compilation unit.
+     */
+    public CompilationUnitTree unit() {
+        return this.unit;
+    }
+
+}
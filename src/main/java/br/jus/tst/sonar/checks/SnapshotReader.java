@@ -0,0 +1,578 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import org.sonar.java.ast.parser.ArgumentListTreeImpl;
+import org.sonar.java.ast.parser.FormalParametersListTreeImpl;
+import org.sonar.java.ast.parser.InitializerListTreeImpl;
+import org.sonar.java.ast.parser.QualifiedIdentifierListTreeImpl;
+import org.sonar.java.model.InternalSyntaxToken;
+import org.sonar.java.model.JavaTree;
+import org.sonar.java.model.declaration.AnnotationTreeImpl;
+import org.sonar.java.model.declaration.ClassTreeImpl;
+import org.sonar.java.model.declaration.MethodTreeImpl;
+import org.sonar.java.model.declaration.ModifierKeywordTreeImpl;
+import org.sonar.java.model.declaration.ModifiersTreeImpl;
+import org.sonar.java.model.declaration.VariableTreeImpl;
+import org.sonar.java.model.expression.AssignmentExpressionTreeImpl;
+import org.sonar.java.model.expression.BinaryExpressionTreeImpl;
+import org.sonar.java.model.expression.IdentifierTreeImpl;
+import org.sonar.java.model.expression.LiteralTreeImpl;
+import org.sonar.java.model.expression.MemberSelectExpressionTreeImpl;
+import org.sonar.java.model.expression.NewArrayTreeImpl;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.ImportClauseTree;
+import org.sonar.plugins.java.api.tree.Modifier;
+import org.sonar.plugins.java.api.tree.ModifierTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TypeTree;
+
+/**
+ * Reads back the snapshots written by a {@link SnapshotWriter}, rebuilding
+ * the trees the rules consume without parsing any source.
+ *
+ * <p>Trees are made of the same classes the Java parser creates, with
+ * parents linked, so rules can't tell them apart from parsed ones as long
+ * as they only look at what the snapshot kept. Tokens of annotation
+ * arguments all sit at the position of their annotation.</p>
+ * @since 1.1
+ */
+public final class SnapshotReader implements Closeable {
+
+    /**
+     * Stream read.
+     */
+    private final DataInputStream in;
+
+    /**
+     * Strings read so far, by index.
+     */
+    private final List<String> strings;
+
+    /**
+     * Text of each line of the file being read, null if blank.
+     */
+    private StringBuilder[] lines;
+
+    /**
+     * Main constructor.
+     * @param stream Stream read, closed with this reader.
+     * @throws IOException If it is not a snapshot stream.
+     */
+    public SnapshotReader(final InputStream stream) throws IOException {
+        this.in = new DataInputStream(new BufferedInputStream(stream));
+        this.strings = new ArrayList<>(0);
+        if (this.in.readInt() != SnapshotWriter.MAGIC
+            || this.in.readByte() != SnapshotWriter.FORMAT) {
+            throw new IOException("Not a snapshot of this version");
+        }
+    }
+
+    /**
+     * Reads the next snapshot.
+     * @return Snapshot, or null at the end of the stream.
+     * @throws IOException If it can't be read.
+     */
+    public Snapshot next() throws IOException {
+        Snapshot snapshot = null;
+        if (this.in.readBoolean()) {
+            final String file = this.string();
+            final int count = this.number();
+            this.lines = new StringBuilder[count + 1];
+            final String pkg = this.string();
+            JavaTree.PackageDeclarationTreeImpl declaration = null;
+            if (!pkg.isEmpty()) {
+                final int line = this.number();
+                this.text(line, String.format("package %s;", pkg));
+                declaration = new JavaTree.PackageDeclarationTreeImpl(
+                    Collections.emptyList(),
+                    SnapshotReader.token("package", line, 0),
+                    SnapshotReader.dotted(pkg, line, "package ".length()),
+                    SnapshotReader.token(";", line, 0)
+                );
+            }
+            final int imports = this.number();
+            final List<ImportClauseTree> clauses = new ArrayList<>(imports);
+            for (int idx = 0; idx < imports; ++idx) {
+                clauses.add(this.clause());
+            }
+            final int types = this.number();
+            final List<Tree> trees = new ArrayList<>(types);
+            for (int idx = 0; idx < types; ++idx) {
+                trees.add(this.klass());
+            }
+            final JavaTree unit = new JavaTree.CompilationUnitTreeImpl(
+                declaration, clauses, trees, null,
+                new InternalSyntaxToken(
+                    count, 0, "", Collections.emptyList(), 0, 0, true
+                )
+            );
+            SnapshotReader.link(unit);
+            snapshot = new Snapshot(
+                file, this.content(), (CompilationUnitTree) unit
+            );
+            this.lines = null;
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.in.close();
+    }
+
+    /**
+     * Reads an import.
+     * @return Import.
+     * @throws IOException If it can't be read.
+     */
+    private ImportClauseTree clause() throws IOException {
+        final boolean statik = this.in.readBoolean();
+        final String name = this.string();
+        final int line = this.number();
+        final String head;
+        if (statik) {
+            head = "import static ";
+        } else {
+            head = "import ";
+        }
+        this.text(line, String.format("%s%s;", head, name));
+        InternalSyntaxToken keyword = null;
+        if (statik) {
+            keyword = SnapshotReader.token("static", line, "import ".length());
+        }
+        return new JavaTree.ImportTreeImpl(
+            SnapshotReader.token("import", line, 0), keyword,
+            SnapshotReader.dotted(name, line, head.length()),
+            SnapshotReader.token(";", line, head.length() + name.length())
+        );
+    }
+
+    /**
+     * Reads a type declaration and its members.
+     * @return Class tree.
+     * @throws IOException If it can't be read.
+     */
+    private ClassTreeImpl klass() throws IOException {
+        final Tree.Kind kind = Tree.Kind.valueOf(this.string());
+        final ModifiersTreeImpl modifiers = this.modifiers();
+        final InternalSyntaxToken keyword = this.token();
+        final InternalSyntaxToken name = this.token();
+        final String superclass = this.string();
+        final int supers = this.number();
+        final List<TypeTree> interfaces = new ArrayList<>(supers);
+        final List<SyntaxToken> commas = new ArrayList<>(supers);
+        for (int idx = 0; idx < supers; ++idx) {
+            if (idx > 0) {
+                commas.add(SnapshotReader.token(",", name.line(), 0));
+            }
+            interfaces.add(
+                (TypeTree) SnapshotReader.dotted(this.string(), name.line(), 0)
+            );
+        }
+        final InternalSyntaxToken open = this.token("{");
+        final int count = this.number();
+        final List<Tree> members = new ArrayList<>(count);
+        for (int idx = 0; idx < count; ++idx) {
+            if (this.in.readByte() == SnapshotWriter.CLASS) {
+                members.add(this.klass());
+            } else {
+                members.add(this.method());
+            }
+        }
+        final ClassTreeImpl tree = new ClassTreeImpl(
+            kind, open, members, this.token("}")
+        );
+        tree.completeModifiers(modifiers);
+        tree.completeDeclarationKeyword(keyword);
+        if (!name.text().isEmpty()) {
+            tree.completeIdentifier(new IdentifierTreeImpl(name));
+        }
+        if (!superclass.isEmpty()) {
+            tree.completeSuperclass(
+                SnapshotReader.token("extends", name.line(), 0),
+                (TypeTree) SnapshotReader.dotted(superclass, name.line(), 0)
+            );
+        }
+        if (!interfaces.isEmpty()) {
+            tree.completeInterfaces(
+                SnapshotReader.token("implements", name.line(), 0),
+                new QualifiedIdentifierListTreeImpl(interfaces, commas)
+            );
+        }
+        return tree;
+    }
+
+    /**
+     * Reads a method or constructor, which gets no body.
+     * @return Method tree.
+     * @throws IOException If it can't be read.
+     */
+    private MethodTreeImpl method() throws IOException {
+        final ModifiersTreeImpl modifiers = this.modifiers();
+        final InternalSyntaxToken type = this.token();
+        final InternalSyntaxToken name = this.token();
+        final int count = this.number();
+        final InternalSyntaxToken open =
+            SnapshotReader.token("(", name.line(), name.column());
+        final InternalSyntaxToken close =
+            SnapshotReader.token(")", name.line(), name.column());
+        FormalParametersListTreeImpl params = null;
+        for (int idx = 0; idx < count; ++idx) {
+            final ModifiersTreeImpl mods = this.modifiers();
+            final InternalSyntaxToken ptype = this.token();
+            final VariableTreeImpl param = new VariableTreeImpl(
+                new IdentifierTreeImpl(this.token())
+            ).completeModifiersAndType(mods, new IdentifierTreeImpl(ptype));
+            if (params == null) {
+                params = new FormalParametersListTreeImpl(param);
+            } else {
+                params.add(param);
+            }
+        }
+        if (params == null) {
+            params = new FormalParametersListTreeImpl(open, close);
+        } else {
+            params.complete(open, close);
+        }
+        IdentifierTreeImpl returned = null;
+        if (!type.text().isEmpty()) {
+            returned = new IdentifierTreeImpl(type);
+        }
+        final MethodTreeImpl tree = new MethodTreeImpl(
+            returned, new IdentifierTreeImpl(name), params, null,
+            QualifiedIdentifierListTreeImpl.emptyList(), null,
+            this.token("}")
+        );
+        tree.completeWithModifiers(modifiers);
+        return tree;
+    }
+
+    /**
+     * Reads modifier keywords and annotations.
+     * @return Modifiers.
+     * @throws IOException If they can't be read.
+     */
+    private ModifiersTreeImpl modifiers() throws IOException {
+        final int count = this.number();
+        final List<ModifierTree> list = new ArrayList<>(count);
+        for (int idx = 0; idx < count; ++idx) {
+            if (this.in.readByte() == SnapshotWriter.ANNOTATION) {
+                list.add(this.annotation());
+            } else {
+                final Modifier modifier = Modifier.valueOf(this.string());
+                list.add(
+                    new ModifierKeywordTreeImpl(
+                        modifier,
+                        this.token(
+                            modifier.name().toLowerCase(Locale.ENGLISH)
+                        )
+                    )
+                );
+            }
+        }
+        return new ModifiersTreeImpl(list);
+    }
+
+    /**
+     * Reads an annotation and its arguments.
+     * @return Annotation.
+     * @throws IOException If it can't be read.
+     */
+    private AnnotationTreeImpl annotation() throws IOException {
+        final InternalSyntaxToken at = this.token("@");
+        final String name = this.string();
+        this.text(at.line(), String.format("@%s", name));
+        final int line = at.line();
+        final int column = at.column();
+        final int count = this.number();
+        final ArgumentListTreeImpl args;
+        if (count == 0) {
+            args = new ArgumentListTreeImpl(
+                new ArrayList<>(0), new ArrayList<>(0)
+            );
+        } else {
+            final List<ExpressionTree> exprs = new ArrayList<>(count - 1);
+            final List<SyntaxToken> commas = new ArrayList<>(count - 1);
+            for (int idx = 1; idx < count; ++idx) {
+                if (idx > 1) {
+                    commas.add(SnapshotReader.token(",", line, column));
+                }
+                exprs.add(this.expression(line, column));
+            }
+            args = new ArgumentListTreeImpl(exprs, commas).complete(
+                SnapshotReader.token("(", line, column),
+                SnapshotReader.token(")", line, column)
+            );
+        }
+        return new AnnotationTreeImpl(
+            at, (TypeTree) SnapshotReader.dotted(name, line, column + 1),
+            args
+        );
+    }
+
+    /**
+     * Reads an annotation argument.
+     * @param line Line of the annotation.
+     * @param column Column of the annotation.
+     * @return Expression.
+     * @throws IOException If it can't be read.
+     */
+    private ExpressionTree expression(final int line, final int column)
+        throws IOException {
+        final String kind = this.string();
+        final ExpressionTree tree;
+        if (SnapshotWriter.OTHER.equals(kind)) {
+            tree = new LiteralTreeImpl(
+                Tree.Kind.NULL_LITERAL,
+                SnapshotReader.token("null", line, column)
+            );
+        } else if (kind.endsWith("_LITERAL")) {
+            tree = new LiteralTreeImpl(
+                Tree.Kind.valueOf(kind),
+                SnapshotReader.token(this.string(), line, column)
+            );
+        } else if (Tree.Kind.IDENTIFIER.name().equals(kind)) {
+            tree = new IdentifierTreeImpl(
+                SnapshotReader.token(this.string(), line, column)
+            );
+        } else if (Tree.Kind.MEMBER_SELECT.name().equals(kind)) {
+            tree = new MemberSelectExpressionTreeImpl(
+                this.expression(line, column),
+                SnapshotReader.token(".", line, column),
+                new IdentifierTreeImpl(
+                    SnapshotReader.token(this.string(), line, column)
+                )
+            );
+        } else if (Tree.Kind.ASSIGNMENT.name().equals(kind)) {
+            tree = new AssignmentExpressionTreeImpl(
+                Tree.Kind.ASSIGNMENT, this.expression(line, column),
+                SnapshotReader.token("=", line, column),
+                this.expression(line, column)
+            );
+        } else if (Tree.Kind.PLUS.name().equals(kind)) {
+            tree = new BinaryExpressionTreeImpl(
+                Tree.Kind.PLUS, this.expression(line, column),
+                SnapshotReader.token("+", line, column),
+                this.expression(line, column)
+            );
+        } else if (Tree.Kind.NEW_ARRAY.name().equals(kind)) {
+            final int count = this.number();
+            final List<ExpressionTree> inits = new ArrayList<>(count);
+            final List<SyntaxToken> commas = new ArrayList<>(count);
+            for (int idx = 0; idx < count; ++idx) {
+                if (idx > 0) {
+                    commas.add(SnapshotReader.token(",", line, column));
+                }
+                inits.add(this.expression(line, column));
+            }
+            tree = new NewArrayTreeImpl(
+                Collections.emptyList(),
+                new InitializerListTreeImpl(inits, commas)
+            ).completeWithCurlyBraces(
+                SnapshotReader.token("{", line, column),
+                SnapshotReader.token("}", line, column)
+            );
+        } else {
+            tree = this.annotation();
+        }
+        return tree;
+    }
+
+    /**
+     * Reads the text and position of a token.
+     * @return Token.
+     * @throws IOException If it can't be read.
+     */
+    private InternalSyntaxToken token() throws IOException {
+        final String text = this.string();
+        final InternalSyntaxToken token;
+        if (text.isEmpty()) {
+            token = SnapshotReader.token(text, 0, 0);
+        } else {
+            token = this.token(text);
+        }
+        return token;
+    }
+
+    /**
+     * Reads the position of a token.
+     * @param text Text of the token.
+     * @return Token.
+     * @throws IOException If it can't be read.
+     */
+    private InternalSyntaxToken token(final String text) throws IOException {
+        final int line = this.number();
+        return SnapshotReader.token(text, line, this.number());
+    }
+
+    /**
+     * Adds some text to a line of the content.
+     * @param line Line, starting at one.
+     * @param text Text.
+     */
+    private void text(final int line, final String text) {
+        if (line > 0 && line < this.lines.length) {
+            if (this.lines[line] == null) {
+                this.lines[line] = new StringBuilder(text);
+            } else {
+                this.lines[line].append(' ').append(text);
+            }
+        }
+    }
+
+    /**
+     * Content of the file read, with its lines.
+     * @return Content.
+     */
+    private String content() {
+        final StringBuilder content = new StringBuilder(this.lines.length);
+        for (int line = 1; line < this.lines.length; ++line) {
+            if (line > 1) {
+                content.append('\n');
+            }
+            if (this.lines[line] != null) {
+                content.append(this.lines[line]);
+            }
+        }
+        return content.toString();
+    }
+
+    /**
+     * Reads a string, or refers to one read before.
+     * @return String.
+     * @throws IOException If it can't be read.
+     */
+    private String string() throws IOException {
+        final int idx = this.number();
+        final String text;
+        if (idx == this.strings.size()) {
+            text = this.in.readUTF();
+            this.strings.add(text);
+        } else if (idx < this.strings.size()) {
+            text = this.strings.get(idx);
+        } else {
+            throw new IOException(String.format("Unknown string %d", idx));
+        }
+        return text;
+    }
+
+    /**
+     * Reads a non-negative number written seven bits a byte.
+     * @return Number.
+     * @throws IOException If it can't be read.
+     */
+    private int number() throws IOException {
+        int value = 0;
+        int shift = 0;
+        int octet;
+        do {
+            octet = this.in.readUnsignedByte();
+            value |= (octet & 0x7F) << shift;
+            shift += 7;
+        } while ((octet & 0x80) != 0);
+        return value;
+    }
+
+    /**
+     * New token.
+     * @param text Text.
+     * @param line Line.
+     * @param column Column.
+     * @return Token.
+     */
+    private static InternalSyntaxToken token(final String text,
+        final int line, final int column) {
+        return new InternalSyntaxToken(
+            line, column, text, Collections.emptyList(), 0, 0, false
+        );
+    }
+
+    /**
+     * Identifier or member select of a dotted name.
+     * @param name Dotted name.
+     * @param line Line.
+     * @param column Column of its first character.
+     * @return Expression.
+     */
+    private static ExpressionTree dotted(final String name, final int line,
+        final int column) {
+        ExpressionTree tree = null;
+        int start = 0;
+        while (start <= name.length()) {
+            int end = name.indexOf('.', start);
+            if (end < 0) {
+                end = name.length();
+            }
+            final IdentifierTreeImpl ident = new IdentifierTreeImpl(
+                SnapshotReader.token(
+                    name.substring(start, end), line, column + start
+                )
+            );
+            if (tree == null) {
+                tree = ident;
+            } else {
+                tree = new MemberSelectExpressionTreeImpl(
+                    tree, SnapshotReader.token(".", line, column + start - 1),
+                    ident
+                );
+            }
+            start = end + 1;
+        }
+        return tree;
+    }
+
+    /**
+     * Links every tree to its parent, as the Java parser does.
+     * @param root Root tree.
+     */
+    private static void link(final JavaTree root) {
+        final Deque<JavaTree> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            final JavaTree tree = pending.pop();
+            if (!tree.isLeaf()) {
+                for (final Tree child : tree.getChildren()) {
+                    if (child != null) {
+                        final JavaTree node = (JavaTree) child;
+                        node.setParent(tree);
+                        pending.push(node);
+                    }
+                }
+            }
+        }
+    }
+
+}
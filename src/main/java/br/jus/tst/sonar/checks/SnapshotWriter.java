@@ -0,0 +1,468 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import org.slf4j.LoggerFactory;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.AnnotationTree;
+import org.sonar.plugins.java.api.tree.AssignmentExpressionTree;
+import org.sonar.plugins.java.api.tree.BinaryExpressionTree;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.ImportClauseTree;
+import org.sonar.plugins.java.api.tree.ImportTree;
+import org.sonar.plugins.java.api.tree.LiteralTree;
+import org.sonar.plugins.java.api.tree.MemberSelectExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.ModifierKeywordTree;
+import org.sonar.plugins.java.api.tree.ModifierTree;
+import org.sonar.plugins.java.api.tree.ModifiersTree;
+import org.sonar.plugins.java.api.tree.NewArrayTree;
+import org.sonar.plugins.java.api.tree.PackageDeclarationTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TypeTree;
+import org.sonar.plugins.java.api.tree.VariableTree;
+
+/**
+ * Writes the declarations of analyzed files as binary snapshots, to be
+ * replayed by a {@link SnapshotReader} without parsing the files again.
+ *
+ * <p>A snapshot keeps what the rules look at: package, imports, type
+ * declarations with their members, modifiers, annotations with their
+ * arguments, supertypes, method parameters with their erased types, and
+ * the position of the tokens issues are reported on. Method bodies, fields
+ * and anything else are left out. Names and kinds are written once per
+ * stream and referred to by index afterwards, numbers as variable length
+ * integers.</p>
+ *
+ * <p>While a writer is {@link #activate() active}, {@link Declarations}
+ * hands it every file it walks; those without markers of the
+ * {@link Prefilter#documented()} prefilter are left out.</p>
+ * @since 1.1
+ */
+public final class SnapshotWriter implements Closeable {
+
+    /**
+     * First bytes of a snapshot stream.
+     */
+    static final int MAGIC = 0x54535453;
+
+    /**
+     * Format of snapshot streams.
+     */
+    static final int FORMAT = 2;
+
+    /**
+     * Kind written for expressions that are not kept.
+     */
+    static final String OTHER = "";
+
+    /**
+     * Tag of a modifier keyword.
+     */
+    static final int KEYWORD = 0;
+
+    /**
+     * Tag of an annotation.
+     */
+    static final int ANNOTATION = 1;
+
+    /**
+     * Tag of a nested class.
+     */
+    static final int CLASS = 0;
+
+    /**
+     * Tag of a method.
+     */
+    static final int METHOD = 1;
+
+    /**
+     * Writer of the running analysis, if any.
+     */
+    private static final AtomicReference<SnapshotWriter> ACTIVE =
+        new AtomicReference<>();
+
+    /**
+     * Stream written.
+     */
+    private final DataOutputStream out;
+
+    /**
+     * Index of each string written so far.
+     */
+    private final Map<String, Integer> strings;
+
+    /**
+     * Number of files written.
+     */
+    private int files;
+
+    /**
+     * Main constructor.
+     * @param stream Stream written, closed with this writer.
+     * @throws IOException If the header can't be written.
+     */
+    public SnapshotWriter(final OutputStream stream) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(stream));
+        this.strings = new HashMap<>();
+        this.out.writeInt(SnapshotWriter.MAGIC);
+        this.out.writeByte(SnapshotWriter.FORMAT);
+    }
+
+    /**
+     * Writer of the running analysis.
+     * @return Writer, or null if there is none.
+     */
+    public static SnapshotWriter active() {
+        return SnapshotWriter.ACTIVE.get();
+    }
+
+    /**
+     * Makes this the writer of the running analysis.
+     */
+    public void activate() {
+        SnapshotWriter.ACTIVE.set(this);
+    }
+
+    /**
+     * Stops using this writer, if it is the active one.
+     */
+    public void deactivate() {
+        SnapshotWriter.ACTIVE.compareAndSet(this, null);
+    }
+
+    /**
+     * Number of files written so far.
+     * @return Count.
+     */
+    public synchronized int files() {
+        return this.files;
+    }
+
+    /**
+     * Writes the snapshot of a file scanned by the rules if it holds JAX-RS,
+     * Spring or Swagger markers, and stops being the active writer if it
+     * can't.
+     * @param context Scanner context.
+     */
+    public void capture(final JavaFileScannerContext context) {
+        final String file = ScanCost.path(context);
+        try {
+            if (Prefilter.documented().matches(context.getFileContent())) {
+                this.write(file, context.getTree());
+            }
+        } catch (final IOException ex) {
+            this.deactivate();
+            LoggerFactory.getLogger(SnapshotWriter.class).warn(
+                "Snapshot of {} can't be written, capture stopped", file, ex
+            );
+        }
+    }
+
+    /**
+     * Writes the snapshot of a file.
+     * @param file Path of the file.
+     * @param unit Its compilation unit.
+     * @throws IOException If it can't be written.
+     */
+    public synchronized void write(final String file,
+        final CompilationUnitTree unit) throws IOException {
+        this.out.writeBoolean(true);
+        this.string(file);
+        this.number(unit.eofToken().line());
+        final PackageDeclarationTree pkg = unit.packageDeclaration();
+        if (pkg == null) {
+            this.string("");
+        } else {
+            this.string(AnnotationResolver.name(pkg.packageName()));
+            this.number(pkg.packageKeyword().line());
+        }
+        int imports = 0;
+        for (final ImportClauseTree clause : unit.imports()) {
+            if (clause.kind() == Tree.Kind.IMPORT) {
+                ++imports;
+            }
+        }
+        this.number(imports);
+        for (final ImportClauseTree clause : unit.imports()) {
+            if (clause.kind() == Tree.Kind.IMPORT) {
+                final ImportTree tree = (ImportTree) clause;
+                this.out.writeBoolean(tree.isStatic());
+                this.string(
+                    AnnotationResolver.name(
+                        (ExpressionTree) tree.qualifiedIdentifier()
+                    )
+                );
+                this.number(tree.importKeyword().line());
+            }
+        }
+        int types = 0;
+        for (final Tree type : unit.types()) {
+            if (type instanceof ClassTree) {
+                ++types;
+            }
+        }
+        this.number(types);
+        for (final Tree type : unit.types()) {
+            if (type instanceof ClassTree) {
+                this.klass((ClassTree) type);
+            }
+        }
+        ++this.files;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        this.deactivate();
+        this.out.writeBoolean(false);
+        this.out.close();
+    }
+
+    /**
+     * Writes a type declaration and the classes and methods it declares.
+     * @param tree Type declaration.
+     * @throws IOException If it can't be written.
+     */
+    private void klass(final ClassTree tree) throws IOException {
+        this.string(tree.kind().name());
+        this.modifiers(tree.modifiers());
+        this.token(tree.declarationKeyword());
+        this.name(tree.simpleName());
+        if (tree.superClass() == null) {
+            this.string("");
+        } else {
+            this.string(ResourceIndex.written(tree.superClass()));
+        }
+        this.number(tree.superInterfaces().size());
+        for (final TypeTree type : tree.superInterfaces()) {
+            this.string(ResourceIndex.written(type));
+        }
+        this.position(tree.openBraceToken());
+        int members = 0;
+        for (final Tree member : tree.members()) {
+            if (member instanceof ClassTree || member instanceof MethodTree) {
+                ++members;
+            }
+        }
+        this.number(members);
+        for (final Tree member : tree.members()) {
+            if (member instanceof ClassTree) {
+                this.out.writeByte(SnapshotWriter.CLASS);
+                this.klass((ClassTree) member);
+            } else if (member instanceof MethodTree) {
+                this.out.writeByte(SnapshotWriter.METHOD);
+                this.method((MethodTree) member);
+            }
+        }
+        this.position(tree.closeBraceToken());
+    }
+
+    /**
+     * Writes a method or constructor, without its body.
+     * @param tree Method.
+     * @throws IOException If it can't be written.
+     */
+    private void method(final MethodTree tree) throws IOException {
+        this.modifiers(tree.modifiers());
+        if (tree.returnType() == null) {
+            this.string("");
+        } else {
+            this.token(tree.returnType().firstToken());
+        }
+        this.name(tree.simpleName());
+        final List<VariableTree> params = tree.parameters();
+        final Set<String> variables = ResourceIndex.variables(tree);
+        this.number(params.size());
+        for (final VariableTree param : params) {
+            this.modifiers(param.modifiers());
+            this.string(ResourceIndex.erased(param.type(), variables));
+            this.position(param.type().firstToken());
+            this.name(param.simpleName());
+        }
+        this.position(tree.lastToken());
+    }
+
+    /**
+     * Writes modifier keywords and annotations, in source order.
+     * @param tree Modifiers.
+     * @throws IOException If they can't be written.
+     */
+    private void modifiers(final ModifiersTree tree) throws IOException {
+        this.number(tree.size());
+        for (final ModifierTree modifier : tree) {
+            if (modifier instanceof AnnotationTree) {
+                this.out.writeByte(SnapshotWriter.ANNOTATION);
+                this.annotation((AnnotationTree) modifier);
+            } else {
+                this.out.writeByte(SnapshotWriter.KEYWORD);
+                final ModifierKeywordTree keyword =
+                    (ModifierKeywordTree) modifier;
+                this.string(keyword.modifier().name());
+                this.position(keyword.keyword());
+            }
+        }
+    }
+
+    /**
+     * Writes an annotation: its position, type name and arguments.
+     * @param tree Annotation.
+     * @throws IOException If it can't be written.
+     */
+    private void annotation(final AnnotationTree tree) throws IOException {
+        this.position(tree.atToken());
+        this.string(
+            AnnotationResolver.name((ExpressionTree) tree.annotationType())
+        );
+        if (tree.arguments().openParenToken() == null) {
+            this.number(0);
+        } else {
+            this.number(tree.arguments().size() + 1);
+            for (final ExpressionTree arg : tree.arguments()) {
+                this.expression(arg);
+            }
+        }
+    }
+
+    /**
+     * Writes an annotation argument, the parts of it rules read at least.
+     * @param tree Expression.
+     * @throws IOException If it can't be written.
+     */
+    private void expression(final ExpressionTree tree) throws IOException {
+        final Tree.Kind kind = tree.kind();
+        if (tree instanceof LiteralTree) {
+            this.string(kind.name());
+            this.string(((LiteralTree) tree).value());
+        } else if (kind == Tree.Kind.IDENTIFIER) {
+            this.string(kind.name());
+            this.string(((IdentifierTree) tree).name());
+        } else if (kind == Tree.Kind.MEMBER_SELECT) {
+            final MemberSelectExpressionTree select =
+                (MemberSelectExpressionTree) tree;
+            this.string(kind.name());
+            this.expression(select.expression());
+            this.string(select.identifier().name());
+        } else if (kind == Tree.Kind.ASSIGNMENT) {
+            final AssignmentExpressionTree assignment =
+                (AssignmentExpressionTree) tree;
+            this.string(kind.name());
+            this.expression(assignment.variable());
+            this.expression(assignment.expression());
+        } else if (kind == Tree.Kind.PLUS) {
+            final BinaryExpressionTree plus = (BinaryExpressionTree) tree;
+            this.string(kind.name());
+            this.expression(plus.leftOperand());
+            this.expression(plus.rightOperand());
+        } else if (kind == Tree.Kind.NEW_ARRAY) {
+            final List<ExpressionTree> inits =
+                ((NewArrayTree) tree).initializers();
+            this.string(kind.name());
+            this.number(inits.size());
+            for (final ExpressionTree init : inits) {
+                this.expression(init);
+            }
+        } else if (kind == Tree.Kind.ANNOTATION) {
+            this.string(kind.name());
+            this.annotation((AnnotationTree) tree);
+        } else {
+            this.string(SnapshotWriter.OTHER);
+        }
+    }
+
+    /**
+     * Writes an identifier and its position.
+     * @param tree Identifier, null for anonymous classes.
+     * @throws IOException If it can't be written.
+     */
+    private void name(final IdentifierTree tree) throws IOException {
+        if (tree == null) {
+            this.string("");
+        } else {
+            this.token(tree.identifierToken());
+        }
+    }
+
+    /**
+     * Writes the text of a token and its position.
+     * @param token Token.
+     * @throws IOException If it can't be written.
+     */
+    private void token(final SyntaxToken token) throws IOException {
+        this.string(token.text());
+        this.position(token);
+    }
+
+    /**
+     * Writes the position of a token.
+     * @param token Token.
+     * @throws IOException If it can't be written.
+     */
+    private void position(final SyntaxToken token) throws IOException {
+        this.number(token.line());
+        this.number(token.column());
+    }
+
+    /**
+     * Writes a string, or its index if it was written before.
+     * @param text String.
+     * @throws IOException If it can't be written.
+     */
+    private void string(final String text) throws IOException {
+        final Integer idx = this.strings.get(text);
+        if (idx == null) {
+            this.number(this.strings.size());
+            this.out.writeUTF(text);
+            this.strings.put(text, this.strings.size());
+        } else {
+            this.number(idx);
+        }
+    }
+
+    /**
+     * Writes a non-negative number, seven bits a byte.
+     * @param value Number.
+     * @throws IOException If it can't be written.
+     */
+    private void number(final int value) throws IOException {
+        int rest = value;
+        while ((rest & ~0x7F) != 0) {
+            this.out.writeByte(rest & 0x7F | 0x80);
+            rest >>>= 7;
+        }
+        this.out.writeByte(rest);
+    }
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Writes a syntax tree as indented lines, one per node, with its kind and
+ * position.
+ *
+ * <p>Lines go straight to a {@link Writer}, so a dump is never held in
+ * memory as a whole. Nodes deeper than the maximum depth are left out, and
+ * the dump stops once it wrote as many nodes as its budget allows; a last
+ * line tells what was left out. Indents come from a table built once.</p>
+ * @since 1.1
+ */
+public final class TreeDumper {
+
+    /**
+     * Default maximum depth.
+     */
+    public static final int DEPTH = 16;
+
+    /**
+     * Default node budget.
+     */
+    public static final int NODES = 500;
+
+    /**
+     * Indents, by depth.
+     */
+    private static final String[] INDENTS = TreeDumper.indents(64);
+
+    /**
+     * Maximum depth.
+     */
+    private final int depth;
+
+    /**
+     * Maximum number of nodes of each dump.
+     */
+    private final int budget;
+
+    /**
+     * Ctor, with the default limits.
+     */
+    public TreeDumper() {
+        this(TreeDumper.DEPTH, TreeDumper.NODES);
+    }
+
+    /**
+     * Main constructor.
+     * @param depth Maximum depth, the root being at depth zero.
+     * @param budget Maximum number of nodes of each dump.
+     */
+    public TreeDumper(final int depth, final int budget) {
+        this.depth = depth;
+        this.budget = budget;
+    }
+
+    /**
+     * Writes a tree.
+     * @param tree Tree.
+     * @param out Where to write it.
+     * @throws IOException If it can't be written.
+     */
+    public void dump(final Tree tree, final Writer out) throws IOException {
+        final TreeDumper.Walk walk = new TreeDumper.Walk(out);
+        try {
+            walk.start(tree);
+        } catch (final UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+        if (walk.deeper > 0 || walk.skipped > 0) {
+            out.write(
+                String.format(
+                    // @checkstyle LineLengthCheck (1 line)
+                    "(left out: %d subtrees below depth %d, %d over the budget of %d nodes)\n",
+                    walk.deeper, this.depth, walk.skipped, this.budget
+                )
+            );
+        }
+    }
+
+    /**
+     * Indents of all depths up to a maximum.
+     * @param size Number of indents.
+     * @return Indents, two blanks per level.
+     */
+    private static String[] indents(final int size) {
+        final String[] indents = new String[size];
+        final StringBuilder indent = new StringBuilder(size * 2);
+        for (int idx = 0; idx < size; ++idx) {
+            indents[idx] = indent.toString();
+            indent.append("  ");
+        }
+        return indents;
+    }
+
+    /**
+     * Dump of one tree.
+     */
+    private final class Walk extends BaseTreeVisitor {
+
+        /**
+         * Where to write.
+         */
+        private final Writer out;
+
+        /**
+         * Depth of the node being visited.
+         */
+        private int level;
+
+        /**
+         * Nodes written.
+         */
+        private int written;
+
+        /**
+         * Subtrees left out for their depth.
+         */
+        private int deeper;
+
+        /**
+         * Subtrees left out for the budget.
+         */
+        private int skipped;
+
+        /**
+         * Ctor.
+         * @param out Where to write.
+         */
+        Walk(final Writer out) {
+            super();
+            this.out = out;
+        }
+
+        /**
+         * Writes a tree from its root.
+         * @param tree Root.
+         */
+        void start(final Tree tree) {
+            this.level = 0;
+            this.scan(tree);
+        }
+
+        @Override
+        protected void scan(final Tree tree) {
+            if (tree != null) {
+                if (this.level > TreeDumper.this.depth) {
+                    ++this.deeper;
+                } else if (this.written >= TreeDumper.this.budget) {
+                    ++this.skipped;
+                } else {
+                    this.write(tree);
+                    ++this.level;
+                    super.scan(tree);
+                    --this.level;
+                }
+            }
+        }
+
+        /**
+         * Writes the line of a node.
+         * @param tree Node.
+         */
+        private void write(final Tree tree) {
+            final String indent;
+            if (this.level < TreeDumper.INDENTS.length) {
+                indent = TreeDumper.INDENTS[this.level];
+            } else {
+                indent = TreeDumper.INDENTS[TreeDumper.INDENTS.length - 1];
+            }
+            try {
+                this.out.write(indent);
+                this.out.write(tree.kind().name());
+                final SyntaxToken token = tree.firstToken();
+                if (token != null) {
+                    this.out.write(' ');
+                    this.out.write(Integer.toString(token.line()));
+                    this.out.write(':');
+                    this.out.write(Integer.toString(token.column()));
+                }
+                this.out.write('\n');
+            } catch (final IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            ++this.written;
+        }
+    }
+
+}
@@ -1,70 +0,0 @@
-/*
- * SonarQube Java Custom Rules Example
- * Copyright (C) 2016-2016 SonarSource SA
- * mailto:contact AT sonarsource DOT com
- *
- * This program is free software; you can redistribute it and/or
- * modify it under the terms of the GNU Lesser General Public
- * License as published by the Free Software Foundation; either
- * version 3 of the License, or (at your option) any later version.
- *
- * This program is distributed in the hope that it will be useful,
- * but WITHOUT ANY WARRANTY; without even the implied warranty of
- * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
- * Lesser General Public License for more details.
- *
- * You should have received a copy of the GNU Lesser General Public License
- * along with this program; if not, write to the Free Software Foundation,
- * Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301, USA.
- */
-package org.sonar.samples.java.checks;
-
-import java.util.List;
-import javax.annotation.Nullable;
-import org.apache.commons.lang.StringUtils;
-import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
-import org.sonar.plugins.java.api.tree.Tree;
-
-public class PrinterVisitor extends BaseTreeVisitor {
-
-  private static final int INDENT_SPACES = 2;
-
-  private final StringBuilder sb;
-  private int indentLevel;
-
-  public PrinterVisitor() {
-    sb = new StringBuilder();
-    indentLevel = 0;
-  }
-
-  public static String print(Tree tree) {
-    PrinterVisitor pv = new PrinterVisitor();
-    pv.scan(tree);
-    return pv.sb.toString();
-  }
-
-  private StringBuilder indent() {
-    return sb.append(StringUtils.leftPad("", INDENT_SPACES * indentLevel));
-  }
-
-  @Override
-  protected void scan(List<? extends Tree> trees) {
-    if (!trees.isEmpty()) {
-      sb.deleteCharAt(sb.length() - 1);
-      sb.append(" : [\n");
-      super.scan(trees);
-      indent().append("]\n");
-    }
-  }
-
-  @Override
-  protected void scan(@Nullable Tree tree) {
-    if (tree != null && tree.getClass().getInterfaces() != null && tree.getClass().getInterfaces().length > 0) {
-      String nodeName = tree.getClass().getInterfaces()[0].getSimpleName();
-      indent().append(nodeName).append("\n");
-    }
-    indentLevel++;
-    super.scan(tree);
-    indentLevel--;
-  }
-}
@@ -0,0 +1,33 @@
+import com.acme.LINK;
+import com.acme.PATCH;
+import javax.ws.rs.GET;
+
+public class CustomEndpoints {
+
+    @PATCH // Noncompliant {{Methods annotated with @PATCH must also be annotated with @Documented}}
+    public String patch() {
+        return "";
+    }
+
+    @com.acme.LINK // Noncompliant {{Methods annotated with @LINK must also be annotated with @Documented}}
+    public String link() {
+        return "";
+    }
+
+    @LINK
+    @Documented("link")
+    public String documented() {
+        return "";
+    }
+
+    @GET
+    public String notConfigured() {
+        return "";
+    }
+
+    @org.other.PATCH
+    public String otherPackage() {
+        return "";
+    }
+
+}
@@ -0,0 +1,17 @@
+import com.acme.Resource;
+import javax.ws.rs.Path;
+
+@Path("resource") // Noncompliant {{Classes annotated with @Path must also be annotated with @Resource}}
+public class CustomResource {
+
+    @Path("documented")
+    @Resource
+    static class Documented {
+    }
+
+    @Path("swagger")
+    @io.swagger.annotations.Api // Noncompliant@-1 {{Classes annotated with @Path must also be annotated with @Resource}}
+    static class Swagger {
+    }
+
+}
@@ -0,0 +1,34 @@
+import io.swagger.annotations.ApiOperation;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+
+@Path("/jakarta")
+public class JakartaEndpoints {
+
+    @GET // Noncompliant {{Methods annotated with @GET must also be annotated with @ApiOperation}}
+    public String undocumented() {
+        return "";
+    }
+
+    @jakarta.ws.rs.POST // Noncompliant {{Methods annotated with @POST must also be annotated with @ApiOperation}}
+    public String create() {
+        return "";
+    }
+
+    @GET
+    @ApiOperation("documented")
+    public String documented() {
+        return "";
+    }
+
+    @javax.ws.rs.GET // Noncompliant {{Methods annotated with @GET must also be annotated with @ApiOperation}}
+    public String legacy() {
+        return "";
+    }
+
+    @org.other.GET
+    public String otherPackage() {
+        return "";
+    }
+
+}
@@ -0,0 +1,50 @@
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import java.util.List;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+
+@Api("orders")
+interface Orders<T> {
+
+    @ApiOperation("Finds one by key")
+    String find(String key);
+
+    String find(long id);
+
+    @ApiOperation("Saves one")
+    String save(T order);
+
+    @ApiOperation("Saves some")
+    String save(List<T> orders, T... more);
+
+}
+
+class Order {
+}
+
+@Path("orders")
+class OrdersResource implements Orders<Order> {
+
+    @GET
+    public String find(final String key) {
+        return "";
+    }
+
+    @GET // Noncompliant {{Methods annotated with @GET must also be annotated with @ApiOperation}}
+    public String find(final long id) {
+        return "";
+    }
+
+    @POST
+    public String save(final Order order) {
+        return "";
+    }
+
+    @POST
+    public String save(final List<Order> orders, final Order... more) {
+        return "";
+    }
+
+}
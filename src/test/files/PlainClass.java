@@ -0,0 +1,13 @@
+import java.nio.file.Path;
+
+/**
+ * No JAX-RS annotation at all, so the rules should not even visit it.
+ */
+public class PlainClass {
+
+    @Deprecated
+    public Path resolve(final Path root) {
+        return root.resolve("GET");
+    }
+
+}
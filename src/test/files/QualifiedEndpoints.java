@@ -0,0 +1,29 @@
+import com.acme.GET;
+import io.swagger.annotations.Api;
+
+@javax.ws.rs.Path("endpoints")
+@Api("endpoints")
+public class QualifiedEndpoints {
+
+    @javax.ws.rs.POST // Noncompliant {{Methods annotated with @POST must also be annotated with @ApiOperation}}
+    public String post() {
+        return "";
+    }
+
+    @javax.ws.rs.PUT
+    @io.swagger.annotations.ApiOperation("documented")
+    public String put() {
+        return "";
+    }
+
+    @GET
+    public String notJaxRs() {
+        return "";
+    }
+
+    @com.acme.DELETE
+    public String alsoNotJaxRs() {
+        return "";
+    }
+
+}
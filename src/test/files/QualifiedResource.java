@@ -0,0 +1,14 @@
+import javax.ws.rs.Path;
+
+@Path("resource") // Noncompliant {{Classes annotated with @Path must also be annotated with @Api}}
+public class QualifiedResource {
+
+    @javax.ws.rs.Path("nested") // Noncompliant {{Classes annotated with @Path must also be annotated with @Api}}
+    static class Nested {
+    }
+
+    @com.acme.Path("other")
+    static class Other {
+    }
+
+}
@@ -0,0 +1,33 @@
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/orders")
+@Api("orders")
+public class SpringEndpoints {
+
+    @GetMapping("/{id}") // Noncompliant {{Methods annotated with @GetMapping must also be annotated with @ApiOperation}}
+    public String find() {
+        return "";
+    }
+
+    @org.springframework.web.bind.annotation.PostMapping // Noncompliant {{Methods annotated with @PostMapping must also be annotated with @ApiOperation}}
+    public String create() {
+        return "";
+    }
+
+    @RequestMapping("/")
+    @ApiOperation("all")
+    public String all() {
+        return "";
+    }
+
+    @GET
+    public String notJaxRs() {
+        return "";
+    }
+
+}
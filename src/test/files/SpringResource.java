@@ -0,0 +1,15 @@
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController // Noncompliant {{Classes annotated with @RestController must also be annotated with @Api}}
+public class SpringResource {
+
+    @Path("nested")
+    static class NotJaxRs {
+    }
+
+    @org.springframework.web.bind.annotation.RequestMapping("/documented")
+    @io.swagger.annotations.Api
+    static class Documented {
+    }
+
+}
@@ -0,0 +1,44 @@
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+@Api("documented")
+interface Documented {
+
+    @ApiOperation("Finds one")
+    String find(int id);
+
+}
+
+@Path("documented")
+class DocumentedResource implements Documented {
+
+    @GET
+    public String find(final int id) {
+        return "";
+    }
+
+    @GET // Noncompliant {{Methods annotated with @GET must also be annotated with @ApiOperation}}
+    public String find(final int id, final int version) {
+        return "";
+    }
+
+}
+
+@Path("undocumented")
+interface Undocumented {
+
+    @GET // Noncompliant {{Methods annotated with @GET must also be annotated with @ApiOperation}}
+    String find(int id);
+
+}
+
+class UndocumentedImpl implements Undocumented {
+
+    @ApiOperation("Finds one")
+    public String find(final int id) {
+        return "";
+    }
+
+}
@@ -0,0 +1,15 @@
+package hierarchy;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+
+@Path("documented")
+public interface DocumentedResource {
+
+    @GET // Noncompliant {{Methods annotated with @GET must also be annotated with @ApiOperation}}
+    String list();
+
+    @GET // Noncompliant {{Methods annotated with @GET must also be annotated with @ApiOperation}}
+    String find(int id);
+
+}
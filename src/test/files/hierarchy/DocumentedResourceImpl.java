@@ -0,0 +1,20 @@
+package hierarchy;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+
+@Api("documented")
+public class DocumentedResourceImpl implements DocumentedResource {
+
+    @Override
+    @ApiOperation("Lists everything")
+    public String list() {
+        return "";
+    }
+
+    @Override
+    public String find(final int id) {
+        return "";
+    }
+
+}
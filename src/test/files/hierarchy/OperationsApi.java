@@ -0,0 +1,12 @@
+package hierarchy;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+
+@Api("operations")
+public interface OperationsApi<T> {
+
+    @ApiOperation("Finds one")
+    T find(int id);
+
+}
@@ -0,0 +1,26 @@
+package hierarchy;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+
+@Path("operations")
+public class OperationsResource implements OperationsApi<String> {
+
+    @GET
+    @Override
+    public String find(final int id) {
+        return "";
+    }
+
+    @GET // Noncompliant {{Methods annotated with @GET must also be annotated with @ApiOperation}}
+    public String find(final int id, final int version) {
+        return "";
+    }
+
+    @POST // Noncompliant {{Methods annotated with @POST must also be annotated with @ApiOperation}}
+    public String create() {
+        return "";
+    }
+
+}
@@ -0,0 +1,25 @@
+package inventory;
+
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping(path = "/customers")
+public class CustomersController {
+
+    @GetMapping("/{name}")
+    public String find(@PathVariable final String name) {
+        return "";
+    }
+
+    @RequestMapping(value = "", method = RequestMethod.POST)
+    public String create(@RequestBody final String body,
+        @RequestParam(name = "dryRun") final boolean dry) {
+        return "";
+    }
+
+    @RequestMapping("/{name}")
+    public String touch(@PathVariable final String name) {
+        return "";
+    }
+
+}
@@ -0,0 +1,35 @@
+package inventory;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.QueryParam;
+
+@Path("/orders/")
+@Api("orders")
+public class OrdersResource {
+
+    @GET
+    @ApiOperation("Lists orders")
+    public String list(@QueryParam("page") final int page) {
+        return "";
+    }
+
+    @GET
+    @Path("{id: \\d+}")
+    @ApiOperation(value = "Finds " + "an order")
+    public String find(@PathParam("id") final long id,
+        @HeaderParam("X-Trace") final String trace) {
+        return "";
+    }
+
+    @DELETE
+    @Path("/{id}")
+    public void delete(@PathParam("id") final long id) {
+    }
+
+}
@@ -0,0 +1,23 @@
+package published;
+
+import io.swagger.annotations.ApiOperation;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/orders")
+public class PublishedController {
+
+    @RequestMapping("/{id}")
+    @ApiOperation("Finds or updates an order")
+    public String find(@PathVariable("id") final long id) {
+        return "";
+    }
+
+    @RequestMapping("/{id}/lines")
+    @ApiOperation("Adds an order line")
+    public void add(@PathVariable("id") final long id) { // Noncompliant {{Endpoint /orders/{id}/lines is missing from the published API}}
+    }
+
+}
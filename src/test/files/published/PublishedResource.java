@@ -0,0 +1,40 @@
+package published;
+
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+
+@Path("/orders/")
+@Api("orders")
+public class PublishedResource {
+
+    @GET
+    @ApiOperation("Lists orders")
+    public String list() {
+        return "";
+    }
+
+    @GET
+    @Path("{id: \\d+}")
+    @ApiOperation("Finds an order")
+    public String find(@PathParam("id") final long id) {
+        return "";
+    }
+
+    @DELETE
+    @Path("/{id}")
+    @ApiOperation("Deletes an order")
+    public void remove(@PathParam("id") final long id) { // Noncompliant {{Endpoint DELETE /orders/{id} is published with other HTTP methods only}}
+    }
+
+    @POST
+    @Path("/{id}/lines")
+    @ApiOperation("Adds an order line")
+    public void add(@PathParam("id") final long id) { // Noncompliant {{Endpoint POST /orders/{id}/lines is missing from the published API}}
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.ApiDocumentationRule;
+import br.jus.tst.sonar.checks.IssueCache;
+import java.io.File;
+import java.io.IOException;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.config.internal.MapSettings;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class AnalysisCacheTest {
+
+    /**
+     * Log tester.
+     */
+    @Rule
+    public final LogTester logs = new LogTester();
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Issues should be replayed by the next analysis.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void replaysIssuesOnTheNextAnalysis() throws IOException {
+        final File base = this.folder.newFolder();
+        final FileSystem files = Mockito.mock(FileSystem.class);
+        Mockito.when(files.baseDir()).thenReturn(base);
+        for (int analysis = 0; analysis < 2; ++analysis) {
+            final AnalysisCache cache = new AnalysisCache(
+                files,
+                new MapSettings().setProperty(AnalysisCache.SIZE, 10)
+                    .asConfig()
+            );
+            cache.start();
+            JavaCheckVerifier.verify(
+                "src/test/files/ApiAnnotationCheck.java",
+                new ApiDocumentationRule()
+            );
+            cache.stop();
+        }
+        Assertions.assertThat(new File(base, ".tst-java/issues.cache"))
+            .isFile();
+        Assertions.assertThat(this.logs.logs()).contains(
+            "tst-java issue cache: 0 hits, 1 misses, 1 entries",
+            "tst-java issue cache: 1 hits, 0 misses, 1 entries"
+        );
+    }
+
+    /**
+     * A relative path should be resolved against the base directory.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void resolvesRelativePaths() throws IOException {
+        final File base = this.folder.newFolder();
+        final FileSystem files = Mockito.mock(FileSystem.class);
+        Mockito.when(files.baseDir()).thenReturn(base);
+        final AnalysisCache cache = new AnalysisCache(
+            files,
+            new MapSettings()
+                .setProperty(AnalysisCache.PATH, "ci/issues.cache")
+                .setProperty(AnalysisCache.SIZE, 10)
+                .asConfig()
+        );
+        cache.start();
+        cache.stop();
+        Assertions.assertThat(new File(base, "ci/issues.cache")).isFile();
+    }
+
+    /**
+     * The cache should be off, and write nothing in the project, unless a
+     * size is given.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void isOffByDefault() throws IOException {
+        final File base = this.folder.newFolder();
+        final FileSystem files = Mockito.mock(FileSystem.class);
+        Mockito.when(files.baseDir()).thenReturn(base);
+        final AnalysisCache cache = new AnalysisCache(
+            files, new MapSettings().asConfig()
+        );
+        cache.start();
+        Assertions.assertThat(IssueCache.active()).isNull();
+        cache.stop();
+        Assertions.assertThat(base.list()).isEmpty();
+        Assertions.assertThat(this.logs.logs()).isEmpty();
+    }
+
+}
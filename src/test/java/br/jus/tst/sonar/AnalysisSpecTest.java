@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.EndpointDocumentationRule;
+import br.jus.tst.sonar.checks.PublishedSpec;
+import java.io.File;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.mockito.Mockito;
+import org.sonar.api.batch.fs.FileSystem;
+import org.sonar.api.batch.rule.ActiveRules;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.rule.RuleKey;
+import org.sonar.api.utils.MessageException;
+import org.sonar.check.Rule;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class AnalysisSpecTest {
+
+    /**
+     * The published document should be loaded from the base directory
+     * when the analysis starts, and active until it ends.
+     */
+    @Test
+    public void loadsTheDocument() {
+        final AnalysisSpec spec = AnalysisSpecTest.spec(
+            "published/openapi.yaml"
+        );
+        spec.start();
+        Assertions.assertThat(PublishedSpec.active().size()).isPositive();
+        spec.stop();
+        Assertions.assertThat(PublishedSpec.active()).isNull();
+    }
+
+    /**
+     * A document that can't be read should fail the analysis.
+     */
+    @Test(expected = MessageException.class)
+    public void failsOnUnreadableDocuments() {
+        AnalysisSpecTest.spec("published/missing.json").start();
+    }
+
+    /**
+     * Nothing should be loaded without a document.
+     */
+    @Test
+    public void ignoresRulesWithoutDocument() {
+        AnalysisSpecTest.spec(" ").start();
+        new AnalysisSpec(
+            new ActiveRulesBuilder().build(), Mockito.mock(FileSystem.class)
+        ).start();
+        Assertions.assertThat(PublishedSpec.active()).isNull();
+    }
+
+    /**
+     * Loader of a document, in a project based in the test files.
+     * @param file Document, relative to the test files.
+     * @return Loader.
+     */
+    private static AnalysisSpec spec(final String file) {
+        final FileSystem files = Mockito.mock(FileSystem.class);
+        Mockito.when(files.baseDir()).thenReturn(new File("src/test/files"));
+        return new AnalysisSpec(AnalysisSpecTest.rules(file), files);
+    }
+
+    /**
+     * Active endpoint rule with a published document.
+     * @param file Document.
+     * @return Active rules.
+     */
+    private static ActiveRules rules(final String file) {
+        return new ActiveRulesBuilder()
+            .create(
+                RuleKey.of(
+                    TstJavaRulesDefinition.REPOSITORY_KEY,
+                    EndpointDocumentationRule.class.getAnnotation(Rule.class)
+                        .key()
+                )
+            )
+            .setParam(EndpointDocumentationRule.PUBLISHED, file)
+            .activate()
+            .build();
+    }
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.ApiDocumentationRule;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.Collections;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.sonar.api.utils.log.LogTester;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class AnalysisSummaryTest {
+
+    /**
+     * Log tester.
+     */
+    @Rule
+    public final LogTester logs = new LogTester();
+
+    /**
+     * Should log the files skipped during the analysis only.
+     */
+    @Test
+    public void logsPrefilterCounters() {
+        final AnalysisSummary summary = new AnalysisSummary();
+        summary.start();
+        JavaCheckVerifier.verifyNoIssue(
+            "src/test/files/PlainClass.java",
+            new ApiDocumentationRule()
+        );
+        summary.stop();
+        Assertions.assertThat(this.logs.logs())
+            .contains("tst-java prefilter: 0 files visited, 1 skipped");
+    }
+
+    /**
+     * Should log the rules and files that took the longest.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void logsSlowestScans() throws IOException {
+        final AnalysisSummary summary = new AnalysisSummary();
+        summary.start();
+        new Analyzer(1).analyze(
+            Collections.singletonList(
+                Paths.get("src/test/files/ApiAnnotationCheck.java")
+            ),
+            new TextSink(new StringWriter())
+        );
+        summary.stop();
+        Assertions.assertThat(this.logs.logs()).filteredOn(
+            line -> line.matches(
+                // @checkstyle LineLengthCheck (1 line)
+                "tst-java slowest rules: .*\\.ApiDocumentationRule \\d+ ms in 1 files.*"
+            ) || line.matches(
+                // @checkstyle LineLengthCheck (1 line)
+                "tst-java slowest files: .*ApiAnnotationCheck\\.java \\[br\\.jus\\.tst\\.sonar\\.checks\\.ApiDocumentationRule\\] \\d+ ms.*"
+            )
+        ).hasSize(2);
+    }
+
+}
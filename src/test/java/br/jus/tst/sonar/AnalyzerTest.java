@@ -0,0 +1,254 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class AnalyzerTest {
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Issues should be printed sorted, one per line.
+     */
+    @Test
+    public void printsIssues() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assertions.assertThat(
+            AnalyzerTest.run(out, "--threads=2", "src/test/files/hierarchy")
+        ).isEqualTo(Analyzer.ISSUES);
+        Assertions.assertThat(
+            new String(out.toByteArray(), StandardCharsets.UTF_8)
+                .split(System.lineSeparator())
+        ).containsExactly(
+            // @checkstyle LineLengthCheck (5 lines)
+            "src/test/files/hierarchy/DocumentedResource.java:6:2: [br.jus.tst.sonar.checks.ApiDocumentationRule] Classes annotated with @Path must also be annotated with @Api",
+            "src/test/files/hierarchy/DocumentedResource.java:9:6: [br.jus.tst.sonar.checks.EndpointDocumentationRule] Methods annotated with @GET must also be annotated with @ApiOperation",
+            "src/test/files/hierarchy/DocumentedResource.java:12:6: [br.jus.tst.sonar.checks.EndpointDocumentationRule] Methods annotated with @GET must also be annotated with @ApiOperation",
+            "src/test/files/hierarchy/OperationsResource.java:16:6: [br.jus.tst.sonar.checks.EndpointDocumentationRule] Methods annotated with @GET must also be annotated with @ApiOperation",
+            "src/test/files/hierarchy/OperationsResource.java:21:6: [br.jus.tst.sonar.checks.EndpointDocumentationRule] Methods annotated with @POST must also be annotated with @ApiOperation"
+        );
+    }
+
+    /**
+     * Sources should be read in the given encoding.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void readsOtherEncodings() throws IOException {
+        final File root = this.folder.newFolder();
+        Files.write(
+            new File(root, "A.java").toPath(),
+            "@Path(\"a\") class A {}".getBytes(StandardCharsets.UTF_16)
+        );
+        Assertions.assertThat(
+            AnalyzerTest.run(new ByteArrayOutputStream(), root.getPath())
+        ).isEqualTo(Analyzer.FAILED);
+        Assertions.assertThat(
+            AnalyzerTest.run(
+                new ByteArrayOutputStream(), "--encoding=UTF-16",
+                root.getPath()
+            )
+        ).isEqualTo(Analyzer.ISSUES);
+        Assertions.assertThat(
+            AnalyzerTest.run(
+                new ByteArrayOutputStream(), "--encoding=NOPE", root.getPath()
+            )
+        ).isEqualTo(Analyzer.FAILED);
+    }
+
+    /**
+     * SARIF logs should refer to the messages of the rules.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void writesSarif() throws IOException {
+        final File sarif = this.folder.newFile("issues.sarif");
+        Assertions.assertThat(
+            AnalyzerTest.run(
+                new ByteArrayOutputStream(), "--format=sarif",
+                String.format("--output=%s", sarif), "src/test/files/hierarchy"
+            )
+        ).isEqualTo(Analyzer.ISSUES);
+        final JsonObject run;
+        try (Reader reader = Files.newBufferedReader(sarif.toPath())) {
+            run = new JsonParser().parse(reader).getAsJsonObject()
+                .getAsJsonArray("runs").get(0).getAsJsonObject();
+        }
+        final JsonArray results = run.getAsJsonArray("results");
+        Assertions.assertThat(results.size()).isEqualTo(5);
+        final JsonObject result = results.get(4).getAsJsonObject();
+        final JsonObject rule = run.getAsJsonObject("tool")
+            .getAsJsonObject("driver").getAsJsonArray("rules")
+            .get(result.get("ruleIndex").getAsInt()).getAsJsonObject();
+        Assertions.assertThat(rule.get("id").getAsString())
+            .isEqualTo(result.get("ruleId").getAsString());
+        Assertions.assertThat(rule.getAsJsonObject("messageStrings").entrySet())
+            .hasSize(2);
+        Assertions.assertThat(
+            rule.getAsJsonObject("messageStrings")
+                .getAsJsonObject(
+                    result.getAsJsonObject("message").get("id").getAsString()
+                )
+                .get("text").getAsString()
+        ).isEqualTo(
+            // @checkstyle LineLengthCheck (1 line)
+            "Methods annotated with @POST must also be annotated with @ApiOperation"
+        );
+    }
+
+    /**
+     * NDJSON should define each message once, before its first use, and may
+     * be compressed.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void writesCompressedNdjson() throws IOException {
+        final File ndjson = this.folder.newFile("issues.ndjson.gz");
+        Assertions.assertThat(
+            AnalyzerTest.run(
+                new ByteArrayOutputStream(), "--format=ndjson",
+                String.format("--output=%s", ndjson),
+                "src/test/files/hierarchy"
+            )
+        ).isEqualTo(Analyzer.ISSUES);
+        final List<String> types = new ArrayList<>(0);
+        try (BufferedReader reader = new BufferedReader(
+            new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(ndjson.toPath())),
+                StandardCharsets.UTF_8
+            )
+        )) {
+            for (String line = reader.readLine(); line != null;
+                line = reader.readLine()) {
+                final JsonObject json = new JsonParser().parse(line)
+                    .getAsJsonObject();
+                types.add(
+                    String.format(
+                        "%s %s", json.get("type").getAsString(),
+                        Optional.ofNullable(json.get("id"))
+                            .orElseGet(() -> json.get("messageId"))
+                            .getAsString()
+                    )
+                );
+            }
+        }
+        Assertions.assertThat(types).containsExactly(
+            "message m0", "issue m0", "message m1", "issue m1", "issue m1",
+            "issue m1", "message m2", "issue m2"
+        );
+    }
+
+    /**
+     * Trees without issues should pass.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void passesCleanTrees() throws IOException {
+        final File root = this.folder.newFolder();
+        AnalyzerTest.write(
+            new File(root, "A.java"), "@Path(\"a\") @Api class A {}"
+        );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assertions.assertThat(AnalyzerTest.run(out, root.getPath()))
+            .isEqualTo(Analyzer.CLEAN);
+        Assertions.assertThat(out.size()).isZero();
+    }
+
+    /**
+     * Files that can't be parsed should fail the analysis.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void failsOnUnparseableFiles() throws IOException {
+        final File root = this.folder.newFolder();
+        AnalyzerTest.write(new File(root, "A.java"), "class {");
+        Assertions.assertThat(
+            AnalyzerTest.run(new ByteArrayOutputStream(), root.getPath())
+        ).isEqualTo(Analyzer.FAILED);
+    }
+
+    /**
+     * Wrong arguments should fail the analysis.
+     */
+    @Test
+    public void rejectsWrongArguments() {
+        Assertions.assertThat(AnalyzerTest.run(new ByteArrayOutputStream()))
+            .isEqualTo(Analyzer.FAILED);
+        Assertions.assertThat(
+            AnalyzerTest.run(new ByteArrayOutputStream(), "--threads=0", ".")
+        ).isEqualTo(Analyzer.FAILED);
+    }
+
+    /**
+     * Runs the analyzer.
+     * @param out Where issues are printed.
+     * @param args Arguments.
+     * @return Exit code.
+     */
+    private static int run(final ByteArrayOutputStream out,
+        final String... args) {
+        return Analyzer.run(
+            args, new PrintStream(out, true),
+            new PrintStream(new ByteArrayOutputStream(), true)
+        );
+    }
+
+    /**
+     * Writes a file.
+     * @param file File.
+     * @param content Content.
+     * @throws IOException If it fails.
+     */
+    private static void write(final File file, final String content)
+        throws IOException {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.sonar.api.ce.measure.Component;
+import org.sonar.api.ce.measure.MeasureComputer;
+import org.sonar.api.ce.measure.test.TestComponent;
+import org.sonar.api.ce.measure.test.TestMeasureComputerContext;
+import org.sonar.api.ce.measure.test.TestMeasureComputerDefinitionContext;
+import org.sonar.api.ce.measure.test.TestSettings;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class CoverageComputerTest {
+
+    /**
+     * Should add up the measures of the modules of a project.
+     */
+    @Test
+    public void sumsModules() {
+        final TestMeasureComputerContext context =
+            CoverageComputerTest.context();
+        context.addChildrenMeasures(
+            CoverageMetrics.ENDPOINT_CLASSES.key(), 1, 2
+        );
+        context.addChildrenMeasures(
+            CoverageMetrics.ENDPOINT_METHODS.key(), 3, 5
+        );
+        context.addChildrenMeasures(
+            CoverageMetrics.DOCUMENTED_METHODS.key(), 3, 3
+        );
+        new CoverageComputer().compute(context);
+        Assertions.assertThat(
+            context.getMeasure(CoverageMetrics.ENDPOINT_CLASSES.key())
+                .getIntValue()
+        ).isEqualTo(3);
+        Assertions.assertThat(
+            context.getMeasure(CoverageMetrics.ENDPOINT_METHODS.key())
+                .getIntValue()
+        ).isEqualTo(8);
+        Assertions.assertThat(
+            context.getMeasure(CoverageMetrics.DOCUMENTATION.key())
+                .getDoubleValue()
+        ).isEqualTo(75.0);
+    }
+
+    /**
+     * Should add the counts of a module to the totals of its submodules.
+     */
+    @Test
+    public void addsModuleCounts() {
+        final TestMeasureComputerContext context =
+            CoverageComputerTest.context();
+        context.addInputMeasure(CoverageMetrics.MODULE_CLASSES.key(), 4);
+        context.addInputMeasure(CoverageMetrics.MODULE_METHODS.key(), 4);
+        context.addInputMeasure(CoverageMetrics.MODULE_DOCUMENTED.key(), 1);
+        context.addChildrenMeasures(
+            CoverageMetrics.ENDPOINT_CLASSES.key(), 1, 2
+        );
+        new CoverageComputer().compute(context);
+        Assertions.assertThat(
+            context.getMeasure(CoverageMetrics.ENDPOINT_CLASSES.key())
+                .getIntValue()
+        ).isEqualTo(7);
+        Assertions.assertThat(
+            context.getMeasure(CoverageMetrics.DOCUMENTATION.key())
+                .getDoubleValue()
+        ).isEqualTo(25.0);
+    }
+
+    /**
+     * Should not read the measures it computes as its input.
+     */
+    @Test
+    public void separatesInputFromOutput() {
+        final MeasureComputer.MeasureComputerDefinition definition =
+            new CoverageComputer().define(
+                new TestMeasureComputerDefinitionContext()
+            );
+        Assertions.assertThat(definition.getInputMetrics())
+            .doesNotContainAnyElementsOf(definition.getOutputMetrics());
+    }
+
+    /**
+     * Components without measured children should get no measure.
+     */
+    @Test
+    public void skipsComponentsWithoutEndpoints() {
+        final TestMeasureComputerContext context =
+            CoverageComputerTest.context();
+        new CoverageComputer().compute(context);
+        Assertions.assertThat(
+            context.getMeasure(CoverageMetrics.ENDPOINT_METHODS.key())
+        ).isNull();
+    }
+
+    /**
+     * Context of the computer on a project.
+     * @return Context.
+     */
+    private static TestMeasureComputerContext context() {
+        return new TestMeasureComputerContext(
+            new TestComponent("project", Component.Type.PROJECT, null),
+            new TestSettings(),
+            new CoverageComputer().define(
+                new TestMeasureComputerDefinitionContext()
+            )
+        );
+    }
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import br.jus.tst.sonar.checks.ApiDocumentationRule;
+import br.jus.tst.sonar.checks.EndpointDocumentationRule;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Paths;
+import java.util.Collections;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.rule.RuleKey;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class CoverageSensorTest {
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Should save the endpoints counted by the rules on the module.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void savesEndpointCounts() throws IOException {
+        new CoverageSensor().execute(
+            CoverageSensorTest.context(this.folder.newFolder())
+        );
+        new Analyzer(2).analyze(
+            Collections.singletonList(Paths.get("src/test/files/hierarchy")),
+            new TextSink(new StringWriter())
+        );
+        final SensorContextTester context = CoverageSensorTest.context(
+            this.folder.newFolder(),
+            ApiDocumentationRule.class, EndpointDocumentationRule.class
+        );
+        new CoverageSensor().execute(context);
+        final String module = context.module().key();
+        Assertions.assertThat(
+            context.measure(module, CoverageMetrics.MODULE_CLASSES).value()
+        ).isEqualTo(2);
+        Assertions.assertThat(
+            context.measure(module, CoverageMetrics.MODULE_METHODS).value()
+        ).isEqualTo(5);
+        Assertions.assertThat(
+            context.measure(module, CoverageMetrics.MODULE_DOCUMENTED)
+                .value()
+        ).isEqualTo(1);
+    }
+
+    /**
+     * Counts of inactive rules should not be saved.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void skipsCountsOfInactiveRules() throws IOException {
+        final SensorContextTester context = CoverageSensorTest.context(
+            this.folder.newFolder(), EndpointDocumentationRule.class
+        );
+        new CoverageSensor().execute(context);
+        final String module = context.module().key();
+        Assertions.assertThat(
+            context.measure(module, CoverageMetrics.MODULE_CLASSES)
+        ).isNull();
+        Assertions.assertThat(
+            context.measure(module, CoverageMetrics.MODULE_METHODS).value()
+        ).isEqualTo(0);
+    }
+
+    /**
+     * Sensor context with some rules active.
+     * @param dir Base directory.
+     * @param rules Rule classes.
+     * @return Context.
+     */
+    private static SensorContextTester context(final File dir,
+        final Class<?>... rules) {
+        final ActiveRulesBuilder active = new ActiveRulesBuilder();
+        for (final Class<?> rule : rules) {
+            active.create(
+                RuleKey.of(
+                    TstJavaRulesDefinition.REPOSITORY_KEY,
+                    rule.getAnnotation(org.sonar.check.Rule.class).key()
+                )
+            ).activate();
+        }
+        final SensorContextTester context = SensorContextTester.create(dir);
+        context.setActiveRules(active.build());
+        return context;
+    }
+
+}
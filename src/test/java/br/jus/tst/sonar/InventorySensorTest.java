@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.sensor.internal.SensorContextTester;
+import org.sonar.api.config.internal.MapSettings;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class InventorySensorTest {
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Should write the endpoints listed by the rules as an OpenAPI document.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void writesOpenApiSkeleton() throws IOException {
+        final Path dir = this.folder.newFolder().toPath().resolve("openapi");
+        final MapSettings settings = new MapSettings()
+            .setProperty(AnalysisInventory.PATH, dir.toString());
+        final AnalysisInventory inventory =
+            new AnalysisInventory(settings.asConfig());
+        inventory.start();
+        final SensorContextTester context =
+            SensorContextTester.create(this.folder.newFolder());
+        try {
+            new Analyzer(2).analyze(
+                Collections.singletonList(
+                    Paths.get("src/test/files/inventory")
+                ),
+                new TextSink(new StringWriter())
+            );
+            new InventorySensor(settings.asConfig()).execute(context);
+        } finally {
+            inventory.stop();
+        }
+        final JsonObject paths;
+        try (Reader reader = Files.newBufferedReader(
+            dir.resolve(
+                String.format("%s.openapi.json", context.module().key())
+            ),
+            StandardCharsets.UTF_8
+        )) {
+            paths = new JsonParser().parse(reader).getAsJsonObject()
+                .getAsJsonObject("paths");
+        }
+        Assertions.assertThat(paths.entrySet())
+            .extracting(entry -> entry.getKey())
+            .containsExactly(
+                "/customers", "/customers/{name}", "/orders", "/orders/{id}"
+            );
+        Assertions.assertThat(paths.getAsJsonObject("/customers").has("post"))
+            .isTrue();
+        Assertions.assertThat(
+            paths.getAsJsonObject("/orders/{id}").entrySet()
+        ).extracting(entry -> entry.getKey()).containsExactly("delete", "get");
+        final JsonObject find = paths.getAsJsonObject("/orders/{id}")
+            .getAsJsonObject("get");
+        Assertions.assertThat(find.get("operationId").getAsString())
+            .isEqualTo("find");
+        Assertions.assertThat(find.get("summary").getAsString())
+            .isEqualTo("Finds an order");
+        Assertions.assertThat(
+            find.getAsJsonArray("tags").get(0).getAsString()
+        ).isEqualTo("orders");
+        final JsonArray params = find.getAsJsonArray("parameters");
+        Assertions.assertThat(params).hasSize(2);
+        Assertions.assertThat(
+            params.get(1).getAsJsonObject().get("in").getAsString()
+        ).isEqualTo("header");
+        Assertions.assertThat(
+            find.getAsJsonObject("x-source").get("line").getAsInt()
+        ).isEqualTo(25);
+        Assertions.assertThat(
+            paths.getAsJsonObject("/customers/{name}").getAsJsonObject("get")
+                .getAsJsonArray("parameters").get(0).getAsJsonObject()
+                .get("name").getAsString()
+        ).isEqualTo("name");
+        final JsonObject name = paths.getAsJsonObject("/customers/{name}");
+        Assertions.assertThat(name.entrySet())
+            .extracting(entry -> entry.getKey())
+            .containsExactly(
+                "get", "put", "post", "delete", "options", "head", "patch",
+                "trace"
+            );
+        Assertions.assertThat(
+            name.getAsJsonObject("get").get("operationId").getAsString()
+        ).isEqualTo("find");
+        Assertions.assertThat(
+            name.getAsJsonObject("trace").get("operationId").getAsString()
+        ).isEqualTo("touch_trace");
+    }
+
+    /**
+     * Relative directories should be resolved against the base directory,
+     * and a blank one should stand for the working directory.
+     */
+    @Test
+    public void resolvesDirectories() {
+        final SensorContextTester context =
+            SensorContextTester.create(this.folder.getRoot());
+        context.fileSystem().setWorkDir(
+            this.folder.getRoot().toPath().resolve("work")
+        );
+        final String name = String.format(
+            "%s.openapi.json", context.module().key()
+        );
+        for (final String dir : new String[] {"target/openapi", " "}) {
+            final MapSettings settings = new MapSettings()
+                .setProperty(AnalysisInventory.PATH, dir);
+            final AnalysisInventory inventory =
+                new AnalysisInventory(settings.asConfig());
+            inventory.start();
+            try {
+                new InventorySensor(settings.asConfig()).execute(context);
+            } finally {
+                inventory.stop();
+            }
+        }
+        Assertions.assertThat(
+            this.folder.getRoot().toPath().resolve("target/openapi")
+                .resolve(name)
+        ).exists();
+        Assertions.assertThat(
+            this.folder.getRoot().toPath().resolve("work").resolve(name)
+        ).exists();
+    }
+
+    /**
+     * Nothing should be written without an inventory.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void writesNothingWhenDisabled() throws IOException {
+        final Path dir = this.folder.newFolder().toPath();
+        new InventorySensor(
+            new MapSettings()
+                .setProperty(AnalysisInventory.PATH, dir.toString())
+                .asConfig()
+        ).execute(SensorContextTester.create(this.folder.newFolder()));
+        Assertions.assertThat(dir.toFile().list()).isEmpty();
+    }
+
+}
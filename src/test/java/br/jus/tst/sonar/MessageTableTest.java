@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class MessageTableTest {
+
+    /**
+     * Messages should be numbered once, rules indexed in registry order.
+     */
+    @Test
+    public void numbersMessagesOnce() {
+        final MessageTable table = new MessageTable();
+        final String rule = RulesList.key(1);
+        Assertions.assertThat(table.rule(rule)).isEqualTo(1);
+        Assertions.assertThat(table.known(rule, "a")).isNull();
+        Assertions.assertThat(table.add(rule, "a")).isEqualTo("m0");
+        Assertions.assertThat(table.known(rule, "a")).isEqualTo("m0");
+        Assertions.assertThat(table.messages(1)).containsEntry("m0", "a");
+        Assertions.assertThat(table.rule("other")).isEqualTo(2);
+    }
+
+    /**
+     * A full table should take no more messages.
+     */
+    @Test
+    public void isBounded() {
+        final MessageTable table = new MessageTable(1);
+        Assertions.assertThat(table.add("rule", "a")).isEqualTo("m0");
+        Assertions.assertThat(table.add("rule", "b")).isNull();
+        Assertions.assertThat(table.known("rule", "b")).isNull();
+    }
+
+}
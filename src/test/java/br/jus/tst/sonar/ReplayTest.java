@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class ReplayTest {
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Snapshots should raise the issues of the analysis they come from.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void replaysAnalyzedFiles() throws IOException {
+        final File snapshot = new File(this.folder.getRoot(), "files.bin.gz");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assertions.assertThat(
+            Analyzer.run(
+                new String[] {
+                    String.format("--snapshot=%s", snapshot),
+                    "src/test/files",
+                },
+                new PrintStream(out, true),
+                new PrintStream(new ByteArrayOutputStream(), true)
+            )
+        ).isEqualTo(Analyzer.ISSUES);
+        final StringWriter replayed = new StringWriter();
+        try (IssueSink sink = new TextSink(replayed)) {
+            Assertions.assertThat(
+                new Replay().replay(
+                    Replay.load(Collections.singleton(snapshot.toPath())),
+                    sink
+                )
+            ).isGreaterThan(0L);
+        }
+        final String[] expected = new String(
+            out.toByteArray(), StandardCharsets.UTF_8
+        ).split(System.lineSeparator());
+        Arrays.sort(expected);
+        final String[] actual = replayed.toString()
+            .split(System.lineSeparator());
+        Arrays.sort(actual);
+        Assertions.assertThat(actual).containsExactly(expected);
+    }
+
+    /**
+     * Every round should be printed.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void printsRounds() throws IOException {
+        final File snapshot = new File(this.folder.getRoot(), "files.bin");
+        Analyzer.run(
+            new String[] {
+                String.format("--snapshot=%s", snapshot),
+                "src/test/files/hierarchy",
+            },
+            new PrintStream(new ByteArrayOutputStream(), true),
+            new PrintStream(new ByteArrayOutputStream(), true)
+        );
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Assertions.assertThat(
+            Replay.run(
+                new String[] {"--rounds=2", snapshot.toString()},
+                new PrintStream(out, true),
+                new PrintStream(new ByteArrayOutputStream(), true)
+            )
+        ).isEqualTo(Analyzer.ISSUES);
+        Assertions.assertThat(
+            new String(out.toByteArray(), StandardCharsets.UTF_8)
+                .split(System.lineSeparator())
+        ).hasSize(2).allMatch(
+            line -> line.matches("Round \\d: 4 files, 5 issues in \\d+ ms")
+        );
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class RulesIndexTest {
+
+    /**
+     * Key of a rule.
+     */
+    private static final String KEY =
+        "br.jus.tst.sonar.checks.ApiDocumentationRule";
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Should hold every rule once written and read back.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void indexesEveryRule() throws IOException {
+        final Path root = this.folder.getRoot().toPath();
+        RulesIndex.main(this.copy(root).toString());
+        Assertions.assertThat(root.resolve(RulesIndex.RESOURCE)).exists();
+        Assertions.assertThat(RulesIndex.load().size())
+            .isEqualTo(RulesList.getChecks().size());
+        Assertions.assertThat(RulesIndex.load().rule(RulesIndexTest.KEY))
+            .isNotNull();
+    }
+
+    /**
+     * Should fail on invalid metadata.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void rejectsInvalidMetadata() throws IOException {
+        final Path root = this.copy(this.folder.getRoot().toPath());
+        Files.write(
+            root.resolve(RulesIndex.DIRECTORY)
+                .resolve(String.format("%s_java.json", RulesIndexTest.KEY)),
+            "{\"type\":\"BUG\",\"defaultSeverity\":\"Major\"}"
+                .getBytes(StandardCharsets.UTF_8)
+        );
+        Assertions.assertThatThrownBy(() -> RulesIndex.compile(root))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("Missing title");
+    }
+
+    /**
+     * Should fail when a rule has no metadata.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void rejectsRulesWithoutMetadata() throws IOException {
+        final Path root = this.copy(this.folder.getRoot().toPath());
+        Files.delete(
+            root.resolve(RulesIndex.DIRECTORY)
+                .resolve(String.format("%s_java.json", RulesIndexTest.KEY))
+        );
+        Assertions.assertThatThrownBy(() -> RulesIndex.compile(root))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("No metadata found");
+    }
+
+    /**
+     * Copies the metadata resources of the project.
+     * @param root Directory to copy them into.
+     * @return The directory.
+     * @throws IOException If it fails.
+     */
+    private Path copy(final Path root) throws IOException {
+        final Path source = Paths.get("src/main/resources")
+            .resolve(RulesIndex.DIRECTORY);
+        final Path target = Files.createDirectories(
+            root.resolve(RulesIndex.DIRECTORY)
+        );
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(source)) {
+            for (final Path file : files) {
+                Files.copy(file, target.resolve(file.getFileName()));
+            }
+        }
+        return root;
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class RulesProcessorTest {
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Should list the concrete checks with their keys.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void generatesRegistry() throws IOException {
+        Assertions.assertThat(
+            this.compile(
+                "@org.sonar.check.Rule(key = \"k\")",
+                "public class Sample extends Base implements JavaCheck {",
+                "  @org.sonar.check.RuleProperty(description = \"Limit\")",
+                "  private int limit;",
+                "}",
+                "class Base {",
+                "  @org.sonar.check.RuleProperty(key = \"p\", type = \"TEXT\")",
+                "  private String text;",
+                "}",
+                "@org.sonar.check.Rule(key = \"a\")",
+                "abstract class Abstract implements JavaCheck {}",
+                "@org.sonar.check.Rule(key = \"n\") class NotACheck {}"
+            )
+        ).isEmpty();
+        final String registry = new String(
+            Files.readAllBytes(
+                this.folder.getRoot().toPath()
+                    .resolve("br/jus/tst/sonar/RulesRegistry.java")
+            ),
+            StandardCharsets.UTF_8
+        );
+        Assertions.assertThat(registry)
+            .contains("br.jus.tst.sonar.Sample.class,")
+            .contains("\"k\",")
+            .contains("Priority.MAJOR,")
+            .contains("{\"limit\", \"Limit\", \"\", \"INTEGER\", \"p\"")
+            .doesNotContain("Abstract")
+            .doesNotContain("NotACheck");
+    }
+
+    /**
+     * Should fail on rules without a key.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void rejectsRulesWithoutKey() throws IOException {
+        Assertions.assertThat(
+            this.compile(
+                "@org.sonar.check.Rule",
+                "public class Sample implements JavaCheck {}"
+            )
+        ).contains("No key is defined in Rule annotation");
+    }
+
+    /**
+     * Should fail on rules declaring a cardinality.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void rejectsRulesWithCardinality() throws IOException {
+        Assertions.assertThat(
+            this.compile(
+                "@org.sonar.check.Rule(",
+                "  key = \"k\",",
+                "  cardinality = org.sonar.check.Cardinality.MULTIPLE",
+                ")",
+                "public class Sample implements JavaCheck {}"
+            )
+        ).contains("Cardinality is not supported");
+    }
+
+    /**
+     * Compiles a source with the processor.
+     * @param lines Source lines, after the imports.
+     * @return Errors.
+     * @throws IOException If it fails.
+     */
+    private String compile(final String... lines) throws IOException {
+        final Path root = this.folder.getRoot().toPath();
+        final Path source = root.resolve("Sample.java");
+        final StringBuilder text = new StringBuilder(
+            "package br.jus.tst.sonar;\n"
+        ).append("import org.sonar.plugins.java.api.JavaCheck;\n");
+        for (final String line : lines) {
+            text.append(line).append('\n');
+        }
+        Files.write(source, text.toString().getBytes(StandardCharsets.UTF_8));
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final DiagnosticCollector<JavaFileObject> errors =
+            new DiagnosticCollector<>();
+        try (StandardJavaFileManager files = compiler.getStandardFileManager(
+            null, Locale.ROOT, StandardCharsets.UTF_8
+        )) {
+            compiler.getTask(
+                null, files, errors,
+                Arrays.asList(
+                    "-proc:only",
+                    "-processor", RulesProcessor.class.getName(),
+                    "-classpath", System.getProperty("java.class.path"),
+                    "-s", root.toString()
+                ),
+                null, files.getJavaFileObjects(source.toFile())
+            ).call();
+        }
+        final StringBuilder found = new StringBuilder();
+        errors.getDiagnostics().forEach(
+            error -> found.append(error.getMessage(Locale.ROOT)).append('\n')
+        );
+        return found.toString();
+    }
+
+}
@@ -25,13 +25,13 @@ import java.util.Optional;
 import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.sonar.api.rules.RuleType;
+import org.sonar.api.server.rule.RuleParamType;
 import org.sonar.api.server.rule.RulesDefinition;
 import org.sonar.api.server.rule.RulesDefinition.Repository;
 import org.sonar.api.server.rule.RulesDefinition.Rule;
 
 import static org.fest.assertions.Assertions.assertThat;
 import org.mockito.Mockito;
-import org.sonar.check.Cardinality;
 import org.sonar.squidbridge.annotations.RuleTemplate;
 
 public final class TstJavaRulesDefinitionTest {
@@ -85,19 +85,6 @@ public final class TstJavaRulesDefinitionTest {
             .hasMessageContaining("No rule was created for");
     }
 
-    @Test
-    public void cardinalityShouldNotBeDefined() {
-        final TstJavaRulesDefinition definition = new TstJavaRulesDefinition();
-        final RulesDefinition.NewRepository repository = Mockito
-            .mock(RulesDefinition.NewRepository.class);
-        Mockito.when(repository.rule(Mockito.anyString()))
-            .thenReturn(Mockito.mock(RulesDefinition.NewRule.class));
-        Throwable thrown = Assertions
-            .catchThrowable(() -> definition.newRule(RuleWithCardinality.class, repository));
-        Assertions.assertThat(thrown)
-            .hasMessageContaining("Cardinality is not supported");
-    }
-
     @Test
     public void testRuleWithTemplate() {
         final TstJavaRulesDefinition definition = new TstJavaRulesDefinition();
@@ -122,6 +109,11 @@ public final class TstJavaRulesDefinitionTest {
         assertThat(rule).isNotNull();
         assertThat(rule.name()).isEqualTo("Class annotated with @Path should also be annotated with @Api");
         assertThat(rule.type()).isEqualTo(RuleType.CODE_SMELL);
+        assertThat(rule.params()).hasSize(2);
+        assertThat(rule.param("resourceAnnotations").defaultValue())
+            .startsWith("javax.ws.rs.Path");
+        assertThat(rule.param("resourceAnnotations").type())
+            .isEqualTo(RuleParamType.STRING);
     }
 
     /**
@@ -178,10 +170,6 @@ public final class TstJavaRulesDefinitionTest {
     @org.sonar.check.Rule(key = "test")
     private static class DummyRule {
         
-    }
-    @org.sonar.check.Rule(key = "test", cardinality = Cardinality.MULTIPLE)
-    private static class RuleWithCardinality {
-        
     }
     @org.sonar.check.Rule(key = "test")
     @RuleTemplate
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.sun.management.ThreadMXBean;
+import java.lang.management.ManagementFactory;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * Scanning compliant code must not allocate per declaration.
+ *
+ * <p>Resources of two sizes are scanned, again and again and as distinct
+ * units, and the bytes allocated by a scan must not grow with the number
+ * of methods. The declarations of a new unit are collected before its
+ * scan is measured, as that walk fills arrays as long as the unit.</p>
+ * @since 1.1
+ */
+public final class AllocationTest {
+
+    /**
+     * Number of endpoint methods in the smaller resource; the larger one
+     * has twice as many.
+     */
+    private static final int METHODS = 1000;
+
+    /**
+     * Scans measured after warming up, and distinct units scanned.
+     */
+    private static final int SCANS = 20;
+
+    /**
+     * Rule loggers, kept above debug so that the declarations raising
+     * issues are not collected for the tree dump.
+     */
+    private final Logger[] loggers = {
+        (Logger) LoggerFactory.getLogger(ApiDocumentationRule.class),
+        (Logger) LoggerFactory.getLogger(EndpointDocumentationRule.class),
+    };
+
+    /**
+     * Turns the tree dump off.
+     */
+    @Before
+    public void silence() {
+        for (final Logger logger : this.loggers) {
+            logger.setLevel(Level.INFO);
+        }
+    }
+
+    /**
+     * Restores the inherited log levels and stops using the cache.
+     */
+    @After
+    public void restore() {
+        for (final Logger logger : this.loggers) {
+            logger.setLevel(null);
+        }
+        final IssueCache cache = IssueCache.active();
+        if (cache != null) {
+            cache.deactivate();
+        }
+    }
+
+    /**
+     * ApiDocumentationRule should not allocate on compliant classes.
+     */
+    @Test
+    public void apiRuleDoesNotAllocate() {
+        AllocationTest.assertNoAllocationPerMethod(new ApiDocumentationRule());
+    }
+
+    /**
+     * EndpointDocumentationRule should not allocate on compliant methods.
+     */
+    @Test
+    public void endpointRuleDoesNotAllocate() {
+        AllocationTest.assertNoAllocationPerMethod(
+            new EndpointDocumentationRule()
+        );
+    }
+
+    /**
+     * Looking files up in the issue cache should not allocate per method.
+     */
+    @Test
+    public void cachedRuleDoesNotAllocate() {
+        new IssueCache("1", AllocationTest.SCANS).activate();
+        AllocationTest.assertNoAllocationPerMethod(
+            new EndpointDocumentationRule()
+        );
+    }
+
+    /**
+     * Scans compliant resources of two sizes and checks that the bytes a
+     * scan allocates do not grow with their number of methods.
+     * @param rule Rule.
+     */
+    private static void assertNoAllocationPerMethod(
+        final JavaFileScanner rule) {
+        final ThreadMXBean bean =
+            (ThreadMXBean) ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(bean.isThreadAllocatedMemorySupported());
+        bean.setThreadAllocatedMemoryEnabled(true);
+        final long[] small = AllocationTest.allocated(
+            bean, rule, AllocationTest.METHODS
+        );
+        final long[] large = AllocationTest.allocated(
+            bean, rule, AllocationTest.METHODS * 2
+        );
+        Assertions.assertThat(large[0] - small[0])
+            .as("bytes allocated per rescan for %d more methods", small[2])
+            .isLessThan(small[2]);
+        Assertions.assertThat(large[1] - small[1])
+            .as("bytes allocated per new unit for %d more methods", small[2])
+            .isLessThan(small[2]);
+    }
+
+    /**
+     * Bytes a rule allocates scanning a compliant resource again and
+     * again, then distinct copies of it.
+     * @param bean Thread bean.
+     * @param rule Rule.
+     * @param methods Number of methods of the resource.
+     * @return Bytes per rescan, bytes per new unit, and number of methods.
+     */
+    private static long[] allocated(final ThreadMXBean bean,
+        final JavaFileScanner rule, final int methods) {
+        final FakeContext context = new FakeContext(
+            AllocationTest.compliantResource(methods)
+        );
+        for (int idx = 0; idx < AllocationTest.SCANS; ++idx) {
+            rule.scanFile(context);
+        }
+        final long thread = Thread.currentThread().getId();
+        final long before = bean.getThreadAllocatedBytes(thread);
+        for (int idx = 0; idx < AllocationTest.SCANS; ++idx) {
+            rule.scanFile(context);
+        }
+        final long rescans = bean.getThreadAllocatedBytes(thread) - before;
+        Assertions.assertThat(context.issues()).isEmpty();
+        final FakeContext[] units = new FakeContext[AllocationTest.SCANS];
+        for (int idx = 0; idx < units.length; ++idx) {
+            units[idx] = new FakeContext(
+                AllocationTest.compliantResource(methods)
+            );
+        }
+        long fresh = 0L;
+        for (final FakeContext unit : units) {
+            Declarations.of(unit);
+            final long start = bean.getThreadAllocatedBytes(thread);
+            rule.scanFile(unit);
+            fresh += bean.getThreadAllocatedBytes(thread) - start;
+            Assertions.assertThat(unit.issues()).isEmpty();
+        }
+        return new long[] {
+            rescans / AllocationTest.SCANS, fresh / units.length, methods,
+        };
+    }
+
+    /**
+     * Documented resource with many endpoint methods.
+     * @param methods Number of methods.
+     * @return Source code.
+     */
+    private static String compliantResource(final int methods) {
+        final StringBuilder source = new StringBuilder(
+            "@Path(\"items\")\n@Api(\"items\")\npublic class Items {\n"
+        );
+        for (int idx = 0; idx < methods; ++idx) {
+            source.append("  @GET\n  @Path(\"/")
+                .append(idx)
+                .append("\")\n  @ApiOperation(\"Item\")\n  public Response item")
+                .append(idx)
+                .append("() { return null; }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.ModifiersTree;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class AnnotationsTest {
+
+    /**
+     * Known annotations should be summarized as bits, unknown ones ignored.
+     */
+    @Test
+    public void summarizesKnownAnnotations() {
+        Assertions.assertThat(
+            Annotations.mask(
+                AnnotationsTest.modifiers("@Deprecated @GET @ApiOperation")
+            )
+        ).isEqualTo(AnnotationIndex.GET | AnnotationIndex.API_OPERATION);
+        Assertions.assertThat(
+            Annotations.mask(AnnotationsTest.modifiers("@Override"))
+        ).isZero();
+    }
+
+    /**
+     * The last annotation with a bit of interest should be found.
+     */
+    @Test
+    public void findsLastMatchingAnnotation() {
+        final ModifiersTree tree = AnnotationsTest.modifiers(
+            "@GET @Path(\"/\") @POST @Deprecated"
+        );
+        Assertions.assertThat(
+            Annotations.last(tree, AnnotationIndex.HTTP_METHODS).name()
+        ).isEqualTo("POST");
+        Assertions.assertThat(Annotations.last(tree, AnnotationIndex.API))
+            .isNull();
+    }
+
+    /**
+     * Registered annotations should get bits of their own, matched in their
+     * package only, and built-in ones keep theirs.
+     */
+    @Test
+    public void registersAnnotations() {
+        final long bit = AnnotationIndex.register("org.example.Endpoint");
+        Assertions.assertThat(bit & AnnotationIndex.HTTP_METHODS).isZero();
+        Assertions.assertThat(AnnotationIndex.register("org.example.Endpoint"))
+            .isEqualTo(bit);
+        Assertions.assertThat(AnnotationIndex.bit("Endpoint")).isEqualTo(bit);
+        Assertions.assertThat(
+            AnnotationIndex.qualified("org.example.Endpoint")
+        ).isEqualTo(bit);
+        Assertions.assertThat(AnnotationIndex.qualified("org.other.Endpoint"))
+            .isZero();
+        Assertions.assertThat(AnnotationIndex.register("javax.ws.rs.GET"))
+            .isEqualTo(AnnotationIndex.GET);
+        Assertions.assertThat(Prefilter.resources().matches("@Endpoint"))
+            .isTrue();
+    }
+
+    /**
+     * Built-in names registered in other packages should share the bits of
+     * the built-in ones, and be matched in both packages.
+     */
+    @Test
+    public void sharesBuiltInBits() {
+        final Object owner = new Object();
+        Assertions.assertThat(
+            AnnotationIndex.register("jakarta.ws.rs.DELETE", owner)
+        ).isEqualTo(AnnotationIndex.DELETE);
+        Assertions.assertThat(
+            AnnotationIndex.register("org.example.Api", owner)
+        ).isEqualTo(AnnotationIndex.API);
+        Assertions.assertThat(AnnotationIndex.qualified("jakarta.ws.rs.DELETE"))
+            .isEqualTo(AnnotationIndex.DELETE);
+        Assertions.assertThat(AnnotationIndex.qualified("javax.ws.rs.DELETE"))
+            .isEqualTo(AnnotationIndex.DELETE);
+        Assertions.assertThat(AnnotationIndex.qualified("org.other.DELETE"))
+            .isZero();
+        Assertions.assertThat(
+            Prefilter.resources().matches("@jakarta.ws.rs.DELETE")
+        ).isTrue();
+        AnnotationIndex.release(owner);
+        Assertions.assertThat(AnnotationIndex.qualified("jakarta.ws.rs.DELETE"))
+            .isZero();
+    }
+
+    /**
+     * Reconfiguring a set of annotations over and over should hand the bits
+     * of the previous configurations out again.
+     */
+    @Test
+    public void recyclesBits() {
+        final AnnotationSet set = new AnnotationSet();
+        for (int idx = 0; idx < Long.SIZE * 4; ++idx) {
+            set.compile(
+                String.format("org.example.First%d, Second%d", idx, idx)
+            );
+            Assertions.assertThat(Long.bitCount(set.mask())).isEqualTo(2);
+        }
+        Assertions.assertThat(AnnotationIndex.bit("First0")).isZero();
+        AnnotationIndex.release(set);
+        Assertions.assertThat(AnnotationIndex.bit("First255")).isZero();
+    }
+
+    /**
+     * Annotations should be resolved by their qualified names, and simple
+     * names imported from other packages ignored.
+     */
+    @Test
+    public void resolvesQualifiedNames() {
+        final CompilationUnitTree unit = AnnotationsTest.unit(
+            "import com.acme.GET; import javax.ws.rs.*;",
+            "@GET @javax.ws.rs.PUT @io.swagger.annotations.ApiOperation"
+        );
+        final AnnotationResolver resolver = AnnotationResolver.of(unit);
+        final ModifiersTree tree = AnnotationsTest.modifiers(unit);
+        Assertions.assertThat(Annotations.mask(tree, resolver))
+            .isEqualTo(AnnotationIndex.PUT | AnnotationIndex.API_OPERATION);
+        Assertions.assertThat(
+            Annotations.last(tree, resolver, AnnotationIndex.HTTP_METHODS)
+                .name()
+        ).isEqualTo("PUT");
+        Assertions.assertThat(
+            Annotations.mask(
+                AnnotationsTest.modifiers("@com.acme.Path @GET")
+            )
+        ).isEqualTo(AnnotationIndex.GET);
+    }
+
+    /**
+     * Simple names of the framework a file doesn't import from should be
+     * ignored, unless it imports from neither.
+     */
+    @Test
+    public void detectsFrameworkFromImports() {
+        final String annotations = "@GET @GetMapping";
+        final CompilationUnitTree spring = AnnotationsTest.unit(
+            "import org.springframework.web.bind.annotation.*;", annotations
+        );
+        Assertions.assertThat(
+            Annotations.mask(
+                AnnotationsTest.modifiers(spring), AnnotationResolver.of(spring)
+            )
+        ).isEqualTo(AnnotationIndex.GET_MAPPING);
+        final CompilationUnitTree jaxrs = AnnotationsTest.unit(
+            "import javax.ws.rs.GET;", annotations
+        );
+        Assertions.assertThat(
+            Annotations.mask(
+                AnnotationsTest.modifiers(jaxrs), AnnotationResolver.of(jaxrs)
+            )
+        ).isEqualTo(AnnotationIndex.GET);
+        final CompilationUnitTree sibling = AnnotationsTest.unit(
+            "import javax.ws.rs.*; import org.springframework.web.bind.*;",
+            annotations
+        );
+        Assertions.assertThat(
+            Annotations.mask(
+                AnnotationsTest.modifiers(sibling),
+                AnnotationResolver.of(sibling)
+            )
+        ).isEqualTo(AnnotationIndex.GET);
+        Assertions.assertThat(Annotations.mask(AnnotationsTest.modifiers("")))
+            .isZero();
+        Assertions.assertThat(
+            Annotations.mask(AnnotationsTest.modifiers(annotations))
+        ).isEqualTo(AnnotationIndex.GET | AnnotationIndex.GET_MAPPING);
+    }
+
+    /**
+     * Files importing the same annotation names should share a resolver.
+     */
+    @Test
+    public void sharesResolversOfSameImports() {
+        final String imports = "import java.util.List; import a.b.Path;";
+        Assertions.assertThat(
+            AnnotationResolver.of(AnnotationsTest.unit(imports, ""))
+        ).isSameAs(
+            AnnotationResolver.of(
+                AnnotationsTest.unit(
+                    String.format("import java.util.Map; %s", imports), ""
+                )
+            )
+        );
+        Assertions.assertThat(
+            AnnotationResolver.of(
+                AnnotationsTest.unit("import java.util.List;", "")
+            )
+        ).isSameAs(AnnotationResolver.SIMPLE_NAMES);
+    }
+
+    /**
+     * Modifiers of a method carrying some annotations.
+     * @param annotations Annotations, as source code.
+     * @return ModifiersTree.
+     */
+    private static ModifiersTree modifiers(final String annotations) {
+        return AnnotationsTest.modifiers(AnnotationsTest.unit("", annotations));
+    }
+
+    /**
+     * Modifiers of the first method of a compilation unit.
+     * @param unit Compilation unit.
+     * @return ModifiersTree.
+     */
+    private static ModifiersTree modifiers(final CompilationUnitTree unit) {
+        return ((MethodTree) ((ClassTree) unit.types().get(0)).members()
+            .get(0)).modifiers();
+    }
+
+    /**
+     * Compilation unit with a method carrying some annotations.
+     * @param imports Imports, as source code.
+     * @param annotations Annotations, as source code.
+     * @return CompilationUnitTree.
+     */
+    private static CompilationUnitTree unit(final String imports,
+        final String annotations) {
+        return (CompilationUnitTree) JavaParser.createParser().parse(
+            String.format("%s class A { %s void m() {} }", imports, annotations)
+        );
+    }
+
+}
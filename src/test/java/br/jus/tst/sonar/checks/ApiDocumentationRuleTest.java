@@ -52,4 +52,39 @@ public final class ApiDocumentationRuleTest {
             check
         );
     }
+
+    /**
+     * Annotations should be matched by their fully qualified names.
+     */
+    @Test
+    public void resolvesQualifiedNames() {
+        JavaCheckVerifier.verify(
+            "src/test/files/QualifiedResource.java",
+            new ApiDocumentationRule()
+        );
+    }
+
+    /**
+     * Configured annotations should replace the JAX-RS and Swagger ones.
+     */
+    @Test
+    public void checksConfiguredAnnotations() {
+        JavaCheckVerifier.verify(
+            "src/test/files/CustomResource.java",
+            new ApiDocumentationRule("javax.ws.rs.Path", "com.acme.Resource")
+        );
+    }
+
+    /**
+     * Spring MVC annotations should be checked in Spring files, and JAX-RS
+     * simple names ignored there.
+     */
+    @Test
+    public void checksSpringControllers() {
+        JavaCheckVerifier.verify(
+            "src/test/files/SpringResource.java",
+            new ApiDocumentationRule()
+        );
+    }
+
 }
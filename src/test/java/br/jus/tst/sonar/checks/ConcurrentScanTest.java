@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * A single instance of each rule must scan files from many threads at once.
+ * @since 1.1
+ */
+public final class ConcurrentScanTest {
+
+    /**
+     * Threads scanning at once.
+     */
+    private static final int THREADS = 8;
+
+    /**
+     * Scans by each thread.
+     */
+    private static final int SCANS = 200;
+
+    /**
+     * Files scanned, with different issues.
+     */
+    private static final String[] SOURCES = {
+        String.join(
+            "\n",
+            "@Path(\"a\")",
+            "class A {",
+            "  @GET",
+            "  void get() {}",
+            "  @POST",
+            "  @ApiOperation(\"b\")",
+            "  void post() {}",
+            "}"
+        ),
+        String.join(
+            "\n",
+            "@Path(\"b\")",
+            "@Api(\"b\")",
+            "class B {",
+            "  @DELETE",
+            "  @ApiOperation(\"b\")",
+            "  void delete() {}",
+            "}"
+        ),
+        String.join(
+            "\n",
+            "import org.springframework.web.bind.annotation.*;",
+            "@RestController",
+            "class C {",
+            "",
+            "  @GetMapping(\"/c\")",
+            "  String find() { return null; }",
+            "  @PutMapping(\"/c\")",
+            "  void put() {}",
+            "}"
+        ),
+        String.join(
+            "\n",
+            "class D {",
+            "  void run() {}",
+            "}"
+        ),
+    };
+
+    /**
+     * Stops using the cache.
+     */
+    @After
+    public void deactivate() {
+        final IssueCache cache = IssueCache.active();
+        if (cache != null) {
+            cache.deactivate();
+        }
+    }
+
+    /**
+     * Shared rules should report the same issues as when scanning alone.
+     * @throws Exception If a scan fails.
+     */
+    @Test
+    public void reportsSameIssuesFromManyThreads() throws Exception {
+        ConcurrentScanTest.hammer();
+    }
+
+    /**
+     * Shared rules should report the same issues through the issue cache.
+     * @throws Exception If a scan fails.
+     */
+    @Test
+    public void reportsSameIssuesThroughCache() throws Exception {
+        new IssueCache("1", ConcurrentScanTest.SOURCES.length * 2).activate();
+        ConcurrentScanTest.hammer();
+    }
+
+    /**
+     * Scans every source alone, then again from many threads with the same
+     * rule instances, and compares the issues.
+     * @throws Exception If a scan fails.
+     */
+    private static void hammer() throws Exception {
+        final JavaFileScanner[] rules = {
+            new ApiDocumentationRule(), new EndpointDocumentationRule(),
+        };
+        final List<List<String>> expected = new ArrayList<>(
+            ConcurrentScanTest.SOURCES.length
+        );
+        for (final String source : ConcurrentScanTest.SOURCES) {
+            expected.add(ConcurrentScanTest.scan(rules, source));
+        }
+        Assertions.assertThat(expected.get(0)).hasSize(2);
+        Assertions.assertThat(expected.get(2)).hasSize(3);
+        final ExecutorService threads = Executors.newFixedThreadPool(
+            ConcurrentScanTest.THREADS
+        );
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Integer>> done = new ArrayList<>(
+                ConcurrentScanTest.THREADS
+            );
+            for (int thread = 0; thread < ConcurrentScanTest.THREADS;
+                ++thread) {
+                final int offset = thread;
+                final Callable<Integer> task = () -> {
+                    start.await();
+                    int scans = 0;
+                    for (int idx = 0; idx < ConcurrentScanTest.SCANS; ++idx) {
+                        final int file = (idx + offset)
+                            % ConcurrentScanTest.SOURCES.length;
+                        Assertions.assertThat(
+                            ConcurrentScanTest.scan(
+                                rules, ConcurrentScanTest.SOURCES[file]
+                            )
+                        ).isEqualTo(expected.get(file));
+                        ++scans;
+                    }
+                    return scans;
+                };
+                done.add(threads.submit(task));
+            }
+            start.countDown();
+            for (final Future<Integer> scans : done) {
+                Assertions.assertThat(scans.get(1L, TimeUnit.MINUTES))
+                    .isEqualTo(ConcurrentScanTest.SCANS);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    /**
+     * Scans a source with rules.
+     * @param rules Rules.
+     * @param source Source code.
+     * @return Issues found.
+     */
+    private static List<String> scan(final JavaFileScanner[] rules,
+        final String source) {
+        final FakeContext context = new FakeContext(source);
+        for (final JavaFileScanner rule : rules) {
+            rule.scanFile(context);
+        }
+        return context.issues();
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class DeclarationsTest {
+
+    /**
+     * Declarations should be sent in source order, including nested classes
+     * and local or anonymous classes which may hold endpoints.
+     */
+    @Test
+    public void visitsDeclarationsInSourceOrder() {
+        final List<String> names = new ArrayList<>();
+        Declarations.of(DeclarationsTest.parse()).accept(
+            new DeclarationVisitor() {
+                @Override
+                public void visitClass(final ClassTree tree) {
+                    if (tree.simpleName() == null) {
+                        names.add("class:<anonymous>");
+                    } else {
+                        names.add(
+                            String.format(
+                                "class:%s", tree.simpleName().name()
+                            )
+                        );
+                    }
+                }
+
+                @Override
+                public void visitMethod(final MethodTree tree) {
+                    names.add(
+                        String.format("method:%s", tree.simpleName().name())
+                    );
+                }
+            }
+        );
+        Assertions.assertThat(names).containsExactly(
+            "class:Outer", "method:Outer", "method:first",
+            "class:<anonymous>", "method:run", "method:plain",
+            "class:Inner", "method:second", "class:<anonymous>",
+            "method:third", "class:Local"
+        );
+    }
+
+    /**
+     * The same compilation unit should be walked only once.
+     */
+    @Test
+    public void walksEachUnitOnce() {
+        final FakeContext unit = DeclarationsTest.parse();
+        Assertions.assertThat(Declarations.of(unit))
+            .isSameAs(Declarations.of(unit));
+        Assertions.assertThat(Declarations.of(DeclarationsTest.parse()))
+            .isNotSameAs(Declarations.of(unit));
+    }
+
+    /**
+     * Files without any JAX-RS marker should not be walked.
+     */
+    @Test
+    public void skipsFilesWithoutMarkers() {
+        final long skipped = Prefilter.skipped();
+        Assertions.assertThat(
+            Declarations.of(new FakeContext("class A { void m() {} }"))
+                .isEmpty()
+        ).isTrue();
+        Assertions.assertThat(Prefilter.skipped()).isEqualTo(skipped + 1L);
+    }
+
+    /**
+     * Parses a small compilation unit.
+     * @return Context.
+     */
+    private static FakeContext parse() {
+        return new FakeContext(
+            String.join(
+                "\n",
+                "@Path(\"outer\")",
+                "class Outer {",
+                "  Outer() {}",
+                "  void first() {",
+                "    new Runnable() { @GET public void run() {} };",
+                "  }",
+                "  void plain() {",
+                "    new Runnable() { public void run() {} };",
+                "  }",
+                "  class Inner { void second() {} }",
+                "  Object field = new Object() {",
+                "    void third() { @Path(\"local\") class Local {} }",
+                "  };",
+                "}"
+            )
+        );
+    }
+
+}
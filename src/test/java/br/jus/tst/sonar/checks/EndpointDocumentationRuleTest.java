@@ -22,6 +22,7 @@
 
 package br.jus.tst.sonar.checks;
 
+import org.assertj.core.api.Assertions;
 import org.junit.Test;
 import org.sonar.java.checks.verifier.JavaCheckVerifier;
 
@@ -53,4 +54,118 @@ public final class EndpointDocumentationRuleTest {
         );
     }
 
+    /**
+     * Annotations should be matched by their fully qualified names.
+     */
+    @Test
+    public void resolvesQualifiedNames() {
+        JavaCheckVerifier.verify(
+            "src/test/files/QualifiedEndpoints.java",
+            new EndpointDocumentationRule()
+        );
+    }
+
+    /**
+     * Configured annotations should replace the JAX-RS and Swagger ones.
+     */
+    @Test
+    public void checksConfiguredAnnotations() {
+        JavaCheckVerifier.verify(
+            "src/test/files/CustomEndpoints.java",
+            new EndpointDocumentationRule(
+                "com.acme.PATCH, com.acme.LINK", "Documented"
+            )
+        );
+    }
+
+    /**
+     * The Jakarta JAX-RS annotations should be configurable alongside the
+     * javax ones, sharing their bits.
+     */
+    @Test
+    public void checksJakartaAnnotations() {
+        JavaCheckVerifier.verify(
+            "src/test/files/JakartaEndpoints.java",
+            new EndpointDocumentationRule(
+                String.join(
+                    ", ", "GET", "POST", "jakarta.ws.rs.GET",
+                    "jakarta.ws.rs.POST", "jakarta.ws.rs.Path"
+                ),
+                "ApiOperation"
+            )
+        );
+    }
+
+    /**
+     * Spring MVC annotations should be checked in Spring files, and JAX-RS
+     * simple names ignored there.
+     */
+    @Test
+    public void checksSpringControllers() {
+        JavaCheckVerifier.verify(
+            "src/test/files/SpringEndpoints.java",
+            new EndpointDocumentationRule()
+        );
+    }
+
+    /**
+     * Endpoints should be checked against a published Swagger document.
+     */
+    @Test
+    public void checksPublishedJson() {
+        EndpointDocumentationRuleTest.published(
+            "src/test/files/published/swagger.json"
+        );
+    }
+
+    /**
+     * Endpoints should be checked against a published OpenAPI document.
+     */
+    @Test
+    public void checksPublishedYaml() {
+        EndpointDocumentationRuleTest.published(
+            "src/test/files/published/openapi.yaml"
+        );
+    }
+
+    /**
+     * Endpoints answering any HTTP method should only need their path to be
+     * published.
+     */
+    @Test
+    public void checksPublishedPathsOfAnyMethod() {
+        JavaCheckVerifier.verify(
+            "src/test/files/published/PublishedController.java",
+            new EndpointDocumentationRule(
+                "RequestMapping", "ApiOperation",
+                "src/test/files/published/openapi.yaml"
+            )
+        );
+    }
+
+    /**
+     * A published document that can't be read should fail the check.
+     */
+    @Test
+    public void failsOnUnreadableDocuments() {
+        Assertions.assertThatThrownBy(
+            () -> EndpointDocumentationRuleTest.published(
+                "src/test/files/published/missing.json"
+            )
+        ).hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    /**
+     * Checks the endpoints of a resource against a published document.
+     * @param spec Document.
+     */
+    private static void published(final String spec) {
+        JavaCheckVerifier.verify(
+            "src/test/files/published/PublishedResource.java",
+            new EndpointDocumentationRule(
+                "GET,POST,PUT,DELETE", "ApiOperation", spec
+            )
+        );
+    }
+
 }
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import com.sonar.sslr.api.typed.ActionParser;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.sonar.java.ast.parser.JavaParser;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.JavaVersion;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Scanner context over a source string, recording reported issues as
+ * <code>line:message</code>.
+ * @since 1.1
+ */
+final class FakeContext implements JavaFileScannerContext {
+
+    /**
+     * Parser of each thread, building one is expensive.
+     */
+    private static final ThreadLocal<ActionParser<Tree>> PARSER =
+        ThreadLocal.withInitial(JavaParser::createParser);
+
+    /**
+     * Compilation unit.
+     */
+    private final CompilationUnitTree unit;
+
+    /**
+     * Source code.
+     */
+    private final String source;
+
+    /**
+     * Reported issues.
+     */
+    private final List<String> found;
+
+    /**
+     * File the source was read from.
+     */
+    private final File file;
+
+    /**
+     * Ctor.
+     * @param source Source code.
+     */
+    FakeContext(final String source) {
+        this(source, new File("Fake.java"));
+    }
+
+    /**
+     * Main constructor.
+     * @param source Source code.
+     * @param file File the source was read from.
+     */
+    FakeContext(final String source, final File file) {
+        this.source = source;
+        this.file = file;
+        this.unit = (CompilationUnitTree) FakeContext.PARSER.get()
+            .parse(source);
+        this.found = new ArrayList<>();
+    }
+
+    /**
+     * Ctor over a snapshot, which is not parsed.
+     * @param snapshot Snapshot.
+     */
+    FakeContext(final Snapshot snapshot) {
+        this.source = snapshot.content();
+        this.file = new File(snapshot.file());
+        this.unit = snapshot.unit();
+        this.found = new ArrayList<>();
+    }
+
+    /**
+     * Issues reported so far.
+     * @return Issues as <code>line:message</code>.
+     */
+    public List<String> issues() {
+        return this.found;
+    }
+
+    @Override
+    public CompilationUnitTree getTree() {
+        return this.unit;
+    }
+
+    @Override
+    public void addIssueOnFile(final JavaCheck check, final String message) {
+        this.found.add(String.format("0:%s", message));
+    }
+
+    @Override
+    public void addIssue(final int line, final JavaCheck check,
+        final String message) {
+        this.found.add(String.format("%d:%s", line, message));
+    }
+
+    @Override
+    public void addIssue(final int line, final JavaCheck check,
+        final String message, final Integer cost) {
+        this.addIssue(line, check, message);
+    }
+
+    @Override
+    public void addIssue(final File file, final JavaCheck check,
+        final int line, final String message) {
+        this.addIssue(line, check, message);
+    }
+
+    @Override
+    public Object getSemanticModel() {
+        return null;
+    }
+
+    @Override
+    public String getFileKey() {
+        return "fake";
+    }
+
+    @Override
+    public File getFile() {
+        return this.file;
+    }
+
+    @Override
+    public JavaVersion getJavaVersion() {
+        return null;
+    }
+
+    @Override
+    public boolean fileParsed() {
+        return true;
+    }
+
+    @Override
+    public List<Tree> getComplexityNodes(final Tree tree) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public List<Tree> getMethodComplexityNodes(final ClassTree tree,
+        final MethodTree method) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public void reportIssue(final JavaCheck check, final Tree tree,
+        final String message) {
+        this.addIssue(tree.firstToken().line(), check, message);
+    }
+
+    @Override
+    public void reportIssue(final JavaCheck check, final Tree tree,
+        final String message, final List<Location> locations,
+        final Integer cost) {
+        this.reportIssue(check, tree, message);
+    }
+
+    @Override
+    public void reportIssueWithFlow(final JavaCheck check, final Tree tree,
+        final String message, final Iterable<List<Location>> flows,
+        final Integer cost) {
+        this.reportIssue(check, tree, message);
+    }
+
+    @Override
+    public void reportIssue(final JavaCheck check, final Tree start,
+        final Tree end, final String message) {
+        this.reportIssue(check, start, message);
+    }
+
+    @Override
+    public void reportIssue(final JavaCheck check, final Tree start,
+        final Tree end, final String message, final List<Location> locations,
+        final Integer cost) {
+        this.reportIssue(check, start, message);
+    }
+
+    @Override
+    public List<String> getFileLines() {
+        return Collections.unmodifiableList(
+            Arrays.asList(this.source.split("\n", -1))
+        );
+    }
+
+    @Override
+    public String getFileContent() {
+        return this.source;
+    }
+
+}
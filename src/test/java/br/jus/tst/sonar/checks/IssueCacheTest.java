@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class IssueCacheTest {
+
+    /**
+     * Resource without documentation.
+     */
+    private static final String SOURCE = String.join(
+        "\n",
+        "@Path(\"a\")",
+        "class A {",
+        "  @GET",
+        "  void get() {}",
+        "}"
+    );
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Stops using the cache.
+     */
+    @After
+    public void deactivate() {
+        final IssueCache cache = IssueCache.active();
+        if (cache != null) {
+            cache.deactivate();
+        }
+    }
+
+    /**
+     * Unchanged files should replay their issues without being visited,
+     * once the prefilter found their markers.
+     */
+    @Test
+    public void replaysIssuesOfUnchangedFiles() {
+        final IssueCache cache = new IssueCache("1", 10);
+        cache.activate();
+        final List<String> found = IssueCacheTest.scan(
+            IssueCacheTest.SOURCE
+        );
+        final long visited = Prefilter.visited() + Prefilter.skipped();
+        Assertions.assertThat(IssueCacheTest.scan(IssueCacheTest.SOURCE))
+            .hasSize(2)
+            .isEqualTo(found);
+        Assertions.assertThat(Prefilter.visited() + Prefilter.skipped())
+            .isEqualTo(visited + 1L);
+        Assertions.assertThat(cache.hits()).isEqualTo(2L);
+        Assertions.assertThat(cache.misses()).isEqualTo(2L);
+    }
+
+    /**
+     * Files the prefilter skips should not be looked up nor cached.
+     */
+    @Test
+    public void ignoresFilesWithoutMarkers() {
+        final IssueCache cache = new IssueCache("1", 10);
+        cache.activate();
+        Assertions.assertThat(IssueCacheTest.scan("class A { void a() {} }"))
+            .isEmpty();
+        Assertions.assertThat(cache.size()).isZero();
+        Assertions.assertThat(cache.hits() + cache.misses()).isZero();
+    }
+
+    /**
+     * Unchanged files should count their endpoints again.
+     */
+    @Test
+    public void replaysEndpointCounts() {
+        final IssueCache cache = new IssueCache("1", 10);
+        cache.activate();
+        EndpointCoverage.drain();
+        IssueCacheTest.scan(IssueCacheTest.SOURCE);
+        final long[] counted = EndpointCoverage.drain();
+        IssueCacheTest.scan(IssueCacheTest.SOURCE);
+        Assertions.assertThat(cache.hits()).isEqualTo(2L);
+        Assertions.assertThat(EndpointCoverage.drain())
+            .containsExactly(counted)
+            .containsExactly(1L, 1L, 0L);
+    }
+
+    /**
+     * Changed files should be visited again.
+     */
+    @Test
+    public void visitsChangedFiles() {
+        final IssueCache cache = new IssueCache("1", 10);
+        cache.activate();
+        IssueCacheTest.scan(IssueCacheTest.SOURCE);
+        Assertions.assertThat(
+            IssueCacheTest.scan(
+                IssueCacheTest.SOURCE.replace("@Path", "@Api @Path")
+            )
+        ).containsExactly(
+            // @checkstyle LineLengthCheck (1 line)
+            "3:Methods annotated with @GET must also be annotated with @ApiOperation"
+        );
+        Assertions.assertThat(cache.hits()).isZero();
+    }
+
+    /**
+     * Saved entries should be loaded back by the same rules only.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void keepsEntriesOfTheSameRules() throws IOException {
+        final Path file = this.folder.getRoot().toPath()
+            .resolve("cache").resolve("issues");
+        final IssueCache cache = new IssueCache("1", 10);
+        cache.activate();
+        IssueCacheTest.scan(IssueCacheTest.SOURCE);
+        cache.save(file);
+        cache.deactivate();
+        final IssueCache same = IssueCache.load(file, "1", 10);
+        Assertions.assertThat(same.size()).isEqualTo(2);
+        same.activate();
+        final EndpointInventory inventory = new EndpointInventory();
+        inventory.activate();
+        try {
+            Assertions.assertThat(IssueCacheTest.scan(IssueCacheTest.SOURCE))
+                .hasSize(2);
+        } finally {
+            inventory.deactivate();
+        }
+        Assertions.assertThat(same.hits()).isEqualTo(2L);
+        Assertions.assertThat(inventory.drain())
+            .extracting(Endpoint::toString)
+            .containsExactly("GET /a (Fake.java:4)");
+        Assertions.assertThat(IssueCache.load(file, "2", 10).size())
+            .isZero();
+    }
+
+    /**
+     * The least recently used entries should be evicted first.
+     */
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final IssueCache cache = new IssueCache("1", 2);
+        final CachedScan empty = new CachedScan(
+            Collections.emptyList(), new int[0], Collections.emptyList()
+        );
+        cache.put("a", empty);
+        cache.put("b", empty);
+        cache.get("a");
+        cache.put("c", empty);
+        Assertions.assertThat(cache.get("a")).isNotNull();
+        Assertions.assertThat(cache.get("b")).isNull();
+        Assertions.assertThat(cache.get("c")).isNotNull();
+    }
+
+    /**
+     * Scans a source with both rules.
+     * @param source Source code.
+     * @return Issues found.
+     */
+    private static List<String> scan(final String source) {
+        final FakeContext context = new FakeContext(source);
+        new ApiDocumentationRule().scanFile(context);
+        new EndpointDocumentationRule().scanFile(context);
+        return context.issues();
+    }
+
+}
@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.io.File;
+import java.util.List;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.sonar.plugins.java.api.JavaFileScanner;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class MemberCacheTest {
+
+    /**
+     * Number of endpoints in the scanned resource.
+     */
+    private static final int METHODS = 40;
+
+    /**
+     * Issue on the scanned resource, when it is not documented.
+     */
+    private static final String UNDOCUMENTED =
+        "1:Classes annotated with @Path must also be annotated with @Api";
+
+    /**
+     * Stops using the cache.
+     */
+    @After
+    public void deactivate() {
+        final MemberCache cache = MemberCache.active();
+        if (cache != null) {
+            cache.deactivate();
+        }
+        ResourceIndex.deactivate();
+    }
+
+    /**
+     * Only the edited method and its class should be checked again, and
+     * the issues of the others moved with the lines added.
+     */
+    @Test
+    public void checksEditedMembersOnly() {
+        final MemberCache cache = new MemberCache(10);
+        cache.activate();
+        final JavaFileScanner rule = new EndpointDocumentationRule();
+        MemberCacheTest.scan(rule, MemberCacheTest.resource("", -1));
+        final long checked = cache.checked();
+        final String edited = MemberCacheTest.resource("", 7);
+        final List<String> found = MemberCacheTest.scan(rule, edited);
+        Assertions.assertThat(cache.checked() - checked).isEqualTo(2L);
+        cache.deactivate();
+        Assertions.assertThat(found)
+            .hasSize(MemberCacheTest.METHODS / 2 - 1)
+            .isEqualTo(MemberCacheTest.scan(rule, edited));
+    }
+
+    /**
+     * Edits of the imports should check the whole file again.
+     */
+    @Test
+    public void checksAllAfterImportEdit() {
+        final MemberCache cache = new MemberCache(10);
+        cache.activate();
+        final JavaFileScanner rule = new ApiDocumentationRule();
+        MemberCacheTest.scan(rule, MemberCacheTest.resource("", -1));
+        final long checked = cache.checked();
+        final String edited = MemberCacheTest.resource(
+            "import javax.ws.rs.Path;\n", -1
+        );
+        final List<String> found = MemberCacheTest.scan(rule, edited);
+        Assertions.assertThat(cache.checked() - checked)
+            .isEqualTo(MemberCacheTest.METHODS + 1L);
+        cache.deactivate();
+        Assertions.assertThat(found)
+            .isEqualTo(MemberCacheTest.scan(rule, edited));
+    }
+
+    /**
+     * Declarations left unedited should be checked again when what the
+     * index knows of their type hierarchy changes.
+     */
+    @Test
+    public void checksAgainAfterHierarchyChange() {
+        final MemberCache cache = new MemberCache(10);
+        cache.activate();
+        final JavaFileScanner rule = new ApiDocumentationRule();
+        final String source = MemberCacheTest.resource("", -1)
+            .replace("class Items", "class Items implements Described");
+        Assertions.assertThat(MemberCacheTest.scan(rule, source))
+            .contains(MemberCacheTest.UNDOCUMENTED);
+        final ResourceIndex index = ResourceIndex.build(
+            Stream.of(
+                source,
+                String.join(
+                    "\n", "import io.swagger.annotations.Api;",
+                    "@Api interface Described {}"
+                )
+            ).map(text -> new FakeContext(text).getTree())
+        );
+        ResourceIndex.activate(() -> index);
+        final List<String> found = MemberCacheTest.scan(rule, source);
+        cache.deactivate();
+        Assertions.assertThat(found)
+            .isEqualTo(MemberCacheTest.scan(rule, source))
+            .doesNotContain(MemberCacheTest.UNDOCUMENTED);
+    }
+
+    /**
+     * Scans a resource.
+     * @param rule Rule.
+     * @param source Source code.
+     * @return Issues found.
+     */
+    private static List<String> scan(final JavaFileScanner rule,
+        final String source) {
+        final FakeContext context = new FakeContext(
+            source, new File("Items.java")
+        );
+        rule.scanFile(context);
+        return context.issues();
+    }
+
+    /**
+     * Resource with every other endpoint undocumented.
+     * @param imports Imports.
+     * @param documented Index of an odd endpoint documented on a line of
+     *  its own, or -1.
+     * @return Source code.
+     */
+    private static String resource(final String imports,
+        final int documented) {
+        final StringBuilder source = new StringBuilder(imports)
+            .append("@Path(\"items\")\npublic class Items {\n");
+        for (int idx = 0; idx < MemberCacheTest.METHODS; ++idx) {
+            source.append("  @GET\n");
+            if (idx % 2 == 0) {
+                source.append("  @ApiOperation(\"Item\")\n");
+            } else if (idx == documented) {
+                source.append("  @ApiOperation(\"Edited\")\n");
+            }
+            source.append("  public Response item")
+                .append(idx)
+                .append("() { return null; }\n");
+        }
+        return source.append("}\n").toString();
+    }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class PrefilterTest {
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * JAX-RS markers should be found anywhere in the text.
+     */
+    @Test
+    public void findsMarkers() {
+        Assertions.assertThat(Prefilter.JAX_RS.matches("class A { @GET m }"))
+            .isTrue();
+        Assertions.assertThat(Prefilter.JAX_RS.matches("@ \n Path(\"a\")"))
+            .isTrue();
+        Assertions.assertThat(
+            Prefilter.JAX_RS.matches("@javax.ws.rs.DELETE void m();")
+        ).isTrue();
+        Assertions.assertThat(
+            Prefilter.JAX_RS.matches("@@@PO@POST")
+        ).isTrue();
+    }
+
+    /**
+     * Texts without markers should be rejected.
+     */
+    @Test
+    public void rejectsTextsWithoutMarkers() {
+        Assertions.assertThat(
+            Prefilter.JAX_RS.matches(
+                "import java.nio.file.Path; class GET { @Override Path p; }"
+            )
+        ).isFalse();
+        Assertions.assertThat(Prefilter.JAX_RS.matches("@Pat h @GE T"))
+            .isFalse();
+    }
+
+    /**
+     * Text outside ASCII should be skipped, counting lines.
+     */
+    @Test
+    public void scansText() {
+        final MarkerLines markers = Prefilter.JAX_RS.scan(
+            "// a\u00e7\u00e3o\nclass A {\n@HEAD @GET\n}\n"
+        );
+        Assertions.assertThat(markers.lines()).isEqualTo(5);
+        Assertions.assertThat(markers.within(1, 2)).isFalse();
+        Assertions.assertThat(markers.within(3, 3)).isTrue();
+        Assertions.assertThat(markers.within(1, 5)).isTrue();
+        Assertions.assertThat(markers.within(4, 5)).isFalse();
+    }
+
+    /**
+     * Large files should be scanned to the end.
+     * @throws IOException If the file can't be written.
+     */
+    @Test
+    public void scansLargeFiles() throws IOException {
+        final StringBuilder source = new StringBuilder("class A {\n");
+        for (int idx = 0; idx < 10_000; ++idx) {
+            source.append("    int field").append(idx).append(";\n");
+        }
+        source.append("@OPTIONS void m() {}\n}\n");
+        final File file = this.folder.newFile("A.java");
+        Files.write(
+            file.toPath(),
+            source.toString().getBytes(StandardCharsets.UTF_8)
+        );
+        Assertions.assertThat(
+            Prefilter.JAX_RS.scan(new FakeContext(source.toString(), file))
+                .within(10_002, 10_002)
+        ).isTrue();
+    }
+
+    /**
+     * When the file on disk is not the parsed one, the text of the context
+     * should be scanned, even if both have the same lines.
+     * @throws IOException If the file can't be written.
+     */
+    @Test
+    public void scansContextWhenFileIsStale() throws IOException {
+        final File file = this.folder.newFile("B.java");
+        Files.write(
+            file.toPath(), "class B {}\n".getBytes(StandardCharsets.UTF_8)
+        );
+        Assertions.assertThat(
+            Prefilter.JAX_RS.scan(
+                new FakeContext("class B {\n  @GET void m() {}\n}\n", file)
+            ).isEmpty()
+        ).isFalse();
+        Assertions.assertThat(
+            Prefilter.JAX_RS.scan(new FakeContext("class B {}\n", file))
+                .isEmpty()
+        ).isTrue();
+        Assertions.assertThat(
+            Prefilter.JAX_RS.scan(new FakeContext("@GET class B {}\n", file))
+                .isEmpty()
+        ).isFalse();
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class PublishedSpecTest {
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Plain YAML keys should keep the colons of their template variables.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void readsYamlKeysWithColons() throws IOException {
+        final PublishedSpec spec = this.spec(
+            "openapi.yaml",
+            "paths:",
+            "  /users/{id:[0-9]+}:",
+            "    get:",
+            "      summary: Finds a user: by id",
+            "  /users/{id:[0-9]+}/roles: # roles",
+            "    put: {}"
+        );
+        Assertions.assertThat(spec.size()).isEqualTo(2);
+        Assertions.assertThat(spec.has("get", "/users/{id}")).isTrue();
+        Assertions.assertThat(spec.has("put", "/users/{id}/roles")).isTrue();
+        Assertions.assertThat(spec.has("summary", "/users/{id}")).isFalse();
+    }
+
+    /**
+     * Paths should be found below the Swagger 2 base path too.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void readsBasePaths() throws IOException {
+        final PublishedSpec spec = this.spec(
+            "swagger.json",
+            "{\"swagger\": \"2.0\", \"paths\": {\"/users\": {\"get\": {}}},",
+            "\"basePath\": \"/api/v1/\"}"
+        );
+        Assertions.assertThat(spec.has("get", "/users")).isTrue();
+        Assertions.assertThat(spec.has("get", "/api/v1/users")).isTrue();
+        Assertions.assertThat(spec.has("/api/v1/users/")).isTrue();
+        Assertions.assertThat(spec.has("get", "/api/v1users")).isFalse();
+        Assertions.assertThat(spec.has("get", "/api/users")).isFalse();
+    }
+
+    /**
+     * Paths should be found below the path of any OpenAPI 3 server URL.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void readsServerUrls() throws IOException {
+        final String[] yaml = {
+            "openapi: 3.0.0",
+            "servers:",
+            "  - url: https://example.com/api # production",
+            "    description: Production",
+            "  - description: Staging",
+            "    url: '/staging/'",
+            "    variables:",
+            "      url:",
+            "        default: /ignored",
+            "paths:",
+            "  /users:",
+            "    post: {}",
+        };
+        final PublishedSpec spec = this.spec("openapi.yml", yaml);
+        Assertions.assertThat(spec.has("post", "/users")).isTrue();
+        Assertions.assertThat(spec.has("post", "/api/users")).isTrue();
+        Assertions.assertThat(spec.has("post", "/staging/users")).isTrue();
+        Assertions.assertThat(spec.has("post", "/ignored/users")).isFalse();
+        final PublishedSpec json = this.spec(
+            "openapi.json",
+            "{\"servers\": [{\"url\": \"http://localhost:8080/api\"},",
+            "{\"url\": \"https://example.com\"}],",
+            "\"paths\": {\"/users\": {\"post\": {}}}}"
+        );
+        Assertions.assertThat(json.has("post", "/api/users")).isTrue();
+        Assertions.assertThat(json.has("post", "/users")).isTrue();
+    }
+
+    /**
+     * Writes and loads a document.
+     * @param name File name.
+     * @param lines Lines of the document.
+     * @return Document.
+     * @throws IOException If it fails.
+     */
+    private PublishedSpec spec(final String name, final String... lines)
+        throws IOException {
+        final Path file = this.folder.getRoot().toPath().resolve(name);
+        Files.write(
+            file, String.join("\n", lines).getBytes(StandardCharsets.UTF_8)
+        );
+        return PublishedSpec.of(file);
+    }
+
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.java.checks.verifier.JavaCheckVerifier;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class ResourceIndexTest {
+
+    /**
+     * Fixtures of type hierarchies.
+     */
+    private static final Path FILES = Paths.get("src/test/files/hierarchy");
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Stops using the index and the cache.
+     */
+    @After
+    public void deactivate() {
+        ResourceIndex.deactivate();
+        final IssueCache cache = IssueCache.active();
+        if (cache != null) {
+            cache.deactivate();
+        }
+    }
+
+    /**
+     * Resources should not be documented by their implementations.
+     */
+    @Test
+    public void ignoresDocumentationOfImplementations() {
+        ResourceIndexTest.activate();
+        final String file = "DocumentedResource.java";
+        Assertions.assertThat(ResourceIndexTest.scan(file)).containsExactly(
+            "6:Classes annotated with @Path must also be annotated with @Api"
+        );
+        JavaCheckVerifier.verify(
+            ResourceIndexTest.FILES.resolve(file).toString(),
+            new EndpointDocumentationRule()
+        );
+    }
+
+    /**
+     * Resources should be documented by the interfaces they implement.
+     */
+    @Test
+    public void inheritsDocumentationOfInterfaces() {
+        ResourceIndexTest.activate();
+        final String file = "OperationsResource.java";
+        Assertions.assertThat(ResourceIndexTest.scan(file)).isEmpty();
+        JavaCheckVerifier.verify(
+            ResourceIndexTest.FILES.resolve(file).toString(),
+            new EndpointDocumentationRule()
+        );
+    }
+
+    /**
+     * Supertypes should be resolved through imports, enclosing types and
+     * packages.
+     */
+    @Test
+    public void resolvesSupertypes() {
+        final ResourceIndex index = ResourceIndexTest.index(
+            String.join(
+                "\n",
+                "package a;",
+                "import io.swagger.annotations.Api;",
+                "@Api interface Documented {",
+                "  @Api interface Nested {}",
+                "}"
+            ),
+            String.join(
+                "\n",
+                "package b;",
+                "import a.Documented;",
+                "@Path class Imported implements Documented {}"
+            ),
+            String.join(
+                "\n",
+                "package a;",
+                "@Path class Enclosing implements Documented {",
+                "  @Api interface Described {}",
+                "  @Path class Inner implements Described {}",
+                "}"
+            ),
+            String.join(
+                "\n",
+                "package c;",
+                "import a.*;",
+                "@Path class Demanded extends Object",
+                "  implements Documented.Nested {}"
+            ),
+            "@Path class Undocumented implements Documented {}"
+        );
+        Assertions.assertThat(index.size()).isEqualTo(8);
+        Assertions.assertThat(
+            ResourceIndexTest.scan(
+                index,
+                String.join(
+                    "\n",
+                    "package a;",
+                    "@Path class Enclosing implements Documented {",
+                    "  @Api interface Described {}",
+                    "  @Path class Inner implements Described {}",
+                    "}"
+                )
+            )
+        ).isEmpty();
+        Assertions.assertThat(
+            ResourceIndexTest.scan(
+                index,
+                String.join(
+                    "\n",
+                    "package c;",
+                    "import a.*;",
+                    "@Path class Demanded extends Object",
+                    "  implements Documented.Nested {}"
+                )
+            )
+        ).isEmpty();
+        Assertions.assertThat(
+            ResourceIndexTest.scan(
+                index,
+                String.join(
+                    "\n",
+                    "package b;",
+                    "import a.Documented;",
+                    "@Path class Imported implements Documented {}"
+                )
+            )
+        ).isEmpty();
+        Assertions.assertThat(
+            ResourceIndexTest.scan(
+                index, "@Path class Undocumented implements Documented {}"
+            )
+        ).containsExactly(
+            "1:Classes annotated with @Path must also be annotated with @Api"
+        );
+    }
+
+    /**
+     * Issues depending on other files should be cached along with the
+     * hierarchy, and found again when it changes.
+     */
+    @Test
+    public void cachesIssuesAlongWithHierarchy() {
+        ResourceIndexTest.activate();
+        final IssueCache cache = new IssueCache("1", 10);
+        cache.activate();
+        final String source = ResourceIndexTest.read(
+            ResourceIndexTest.FILES.resolve("OperationsResource.java")
+        );
+        Assertions.assertThat(ResourceIndexTest.endpoints(source))
+            .hasSize(2);
+        JavaCheckVerifier.verifyNoIssue(
+            "src/test/files/hierarchy/DocumentedResourceImpl.java",
+            new EndpointDocumentationRule()
+        );
+        Assertions.assertThat(cache.size()).isEqualTo(1);
+        Assertions.assertThat(ResourceIndexTest.endpoints(source))
+            .hasSize(2);
+        Assertions.assertThat(cache.hits()).isEqualTo(1L);
+        final ResourceIndex index = ResourceIndexTest.index(source);
+        ResourceIndex.activate(() -> index);
+        Assertions.assertThat(ResourceIndexTest.endpoints(source))
+            .hasSize(3);
+        Assertions.assertThat(cache.size()).isEqualTo(2);
+    }
+
+    /**
+     * Supertypes declared in the scanned file should be found through the
+     * semantic model, without any index.
+     */
+    @Test
+    public void resolvesSupertypesOfTheSameFile() {
+        JavaCheckVerifier.verify(
+            "src/test/files/SupertypeEndpoints.java",
+            new EndpointDocumentationRule()
+        );
+    }
+
+    /**
+     * Overloads should be told apart by the erasure of their parameter
+     * types, with and without the semantic model.
+     */
+    @Test
+    public void matchesOverloadsByParameterTypes() {
+        final String file = "src/test/files/OverloadedEndpoints.java";
+        final String source = ResourceIndexTest.read(Paths.get(file));
+        final ResourceIndex index = ResourceIndexTest.index(source);
+        ResourceIndex.activate(() -> index);
+        Assertions.assertThat(ResourceIndexTest.endpoints(source))
+            .containsExactly(
+                // @checkstyle LineLengthCheck (1 line)
+                "35:Methods annotated with @GET must also be annotated with @ApiOperation"
+            );
+        JavaCheckVerifier.verify(file, new EndpointDocumentationRule());
+    }
+
+    /**
+     * Supertypes compiled elsewhere should be found through the semantic
+     * model, from their bytecode.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void resolvesSupertypesOfBytecode() throws IOException {
+        final File sources = this.folder.newFolder("src");
+        final File classes = this.folder.newFolder("classes");
+        final List<File> compiled = new ArrayList<>(3);
+        compiled.add(
+            ResourceIndexTest.FILES.resolve("OperationsApi.java").toFile()
+        );
+        for (final String name : new String[] {"Api", "ApiOperation"}) {
+            final Path stub = sources.toPath()
+                .resolve(String.format("%s.java", name));
+            Files.write(
+                stub,
+                String.join(
+                    "\n",
+                    "package io.swagger.annotations;",
+                    String.format(
+                        "public @interface %s { String value(); }", name
+                    )
+                ).getBytes(StandardCharsets.UTF_8)
+            );
+            compiled.add(stub.toFile());
+        }
+        final JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager manager = javac.getStandardFileManager(
+            null, null, StandardCharsets.UTF_8
+        )) {
+            Assertions.assertThat(
+                javac.getTask(
+                    null, manager, null,
+                    Arrays.asList("-d", classes.toString()), null,
+                    manager.getJavaFileObjectsFromFiles(compiled)
+                ).call()
+            ).isTrue();
+        }
+        JavaCheckVerifier.verify(
+            ResourceIndexTest.FILES.resolve("OperationsResource.java")
+                .toString(),
+            new EndpointDocumentationRule(),
+            Arrays.asList(
+                classes, new File("target/test-jars/javaee-api-6.0.jar")
+            )
+        );
+    }
+
+    /**
+     * Scans a fixture with the active index.
+     * @param file Name of the fixture.
+     * @return Issues found.
+     */
+    private static List<String> scan(final String file) {
+        final FakeContext context = new FakeContext(
+            ResourceIndexTest.read(ResourceIndexTest.FILES.resolve(file))
+        );
+        new ApiDocumentationRule().scanFile(context);
+        return context.issues();
+    }
+
+    /**
+     * Scans a source for undocumented endpoints with the active index.
+     * @param source Source code.
+     * @return Issues found.
+     */
+    private static List<String> endpoints(final String source) {
+        final FakeContext context = new FakeContext(source);
+        new EndpointDocumentationRule().scanFile(context);
+        return context.issues();
+    }
+
+    /**
+     * Scans a source with an index.
+     * @param index Index.
+     * @param source Source code.
+     * @return Issues found.
+     */
+    private static List<String> scan(final ResourceIndex index,
+        final String source) {
+        ResourceIndex.activate(() -> index);
+        final FakeContext context = new FakeContext(source);
+        new ApiDocumentationRule().scanFile(context);
+        return context.issues();
+    }
+
+    /**
+     * Activates the index of the fixtures.
+     */
+    private static void activate() {
+        final ResourceIndex index;
+        try (Stream<Path> listed = Files.list(ResourceIndexTest.FILES)) {
+            index = ResourceIndexTest.index(
+                listed.map(ResourceIndexTest::read).toArray(String[]::new)
+            );
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        ResourceIndex.activate(() -> index);
+    }
+
+    /**
+     * Index of some sources.
+     * @param sources Source code.
+     * @return Index.
+     */
+    private static ResourceIndex index(final String... sources) {
+        return ResourceIndex.build(
+            Stream.of(sources).map(source -> new FakeContext(source).getTree())
+        );
+    }
+
+    /**
+     * Reads a file.
+     * @param file File.
+     * @return Content.
+     */
+    private static String read(final Path file) {
+        try {
+            return new String(
+                Files.readAllBytes(file), StandardCharsets.UTF_8
+            );
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+}
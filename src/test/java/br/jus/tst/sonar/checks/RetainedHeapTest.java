@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Test;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.tree.CompilationUnitTree;
+
+/**
+ * Memory retained by the rules must not grow with the number of files
+ * analyzed.
+ * @since 1.1
+ */
+public final class RetainedHeapTest {
+
+    /**
+     * Files analyzed.
+     */
+    private static final int FILES = 10_000;
+
+    /**
+     * Files analyzed before the heap is first measured.
+     */
+    private static final int WARMUP = 2_000;
+
+    /**
+     * Growth of the retained heap tolerated over the whole run, in bytes.
+     */
+    private static final long TOLERANCE = 8L << 20;
+
+    /**
+     * Threads scanning files concurrently.
+     */
+    private static final int THREADS = 4;
+
+    /**
+     * Attempts at collecting garbage.
+     */
+    private static final int COLLECTIONS = 20;
+
+    /**
+     * Stops using the cache.
+     */
+    @After
+    public void deactivate() {
+        final IssueCache cache = IssueCache.active();
+        if (cache != null) {
+            cache.deactivate();
+        }
+    }
+
+    /**
+     * Retained heap should stay flat, and no tree should outlive the
+     * analysis, even through the bounded issue cache.
+     * @throws InterruptedException If interrupted while collecting.
+     */
+    @Test
+    public void retainsNothingPerFile() throws InterruptedException {
+        new IssueCache("1", RetainedHeapTest.WARMUP).activate();
+        final JavaFileScanner[] rules = {
+            new ApiDocumentationRule(), new EndpointDocumentationRule(),
+        };
+        final List<WeakReference<CompilationUnitTree>> trees =
+            new ArrayList<>(RetainedHeapTest.FILES);
+        long warm = 0L;
+        for (int idx = 0; idx < RetainedHeapTest.FILES; ++idx) {
+            if (idx == RetainedHeapTest.WARMUP) {
+                warm = RetainedHeapTest.retained();
+            }
+            final FakeContext context = new FakeContext(
+                RetainedHeapTest.resource(idx),
+                new File(String.format("Resource%d.java", idx))
+            );
+            for (final JavaFileScanner rule : rules) {
+                rule.scanFile(context);
+            }
+            Assertions.assertThat(context.issues()).hasSize(2);
+            trees.add(new WeakReference<>(context.getTree()));
+        }
+        Declarations.release();
+        Assertions.assertThat(RetainedHeapTest.retained() - warm)
+            .as("bytes retained by %d files", RetainedHeapTest.FILES)
+            .isLessThan(RetainedHeapTest.TOLERANCE);
+        int alive = 0;
+        for (final WeakReference<CompilationUnitTree> tree : trees) {
+            if (tree.get() != null) {
+                ++alive;
+            }
+        }
+        Assertions.assertThat(alive).as("trees still reachable").isZero();
+    }
+
+    /**
+     * Threads of a pool should not keep the trees of the last files they
+     * scanned alive once they are idle, without being released.
+     * @throws Exception If a thread fails or is interrupted.
+     */
+    @Test
+    public void retainsNothingPerThread() throws Exception {
+        final JavaFileScanner[] rules = {
+            new ApiDocumentationRule(), new EndpointDocumentationRule(),
+        };
+        final ExecutorService pool = Executors.newFixedThreadPool(
+            RetainedHeapTest.THREADS
+        );
+        try {
+            final List<Future<WeakReference<CompilationUnitTree>>> trees =
+                new ArrayList<>(RetainedHeapTest.WARMUP);
+            for (int idx = 0; idx < RetainedHeapTest.WARMUP; ++idx) {
+                final int file = idx;
+                trees.add(
+                    pool.submit(() -> RetainedHeapTest.scan(rules, file))
+                );
+            }
+            final List<WeakReference<CompilationUnitTree>> done =
+                new ArrayList<>(trees.size());
+            for (final Future<WeakReference<CompilationUnitTree>> tree
+                : trees) {
+                done.add(tree.get());
+            }
+            RetainedHeapTest.retained();
+            int alive = 0;
+            for (final WeakReference<CompilationUnitTree> tree : done) {
+                if (tree.get() != null) {
+                    ++alive;
+                }
+            }
+            Assertions.assertThat(alive)
+                .as("trees reachable from idle threads").isZero();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Scans a resource with every rule.
+     * @param rules Rules.
+     * @param idx Number of the resource.
+     * @return Its tree, weakly.
+     */
+    private static WeakReference<CompilationUnitTree> scan(
+        final JavaFileScanner[] rules, final int idx) {
+        final FakeContext context = new FakeContext(
+            RetainedHeapTest.resource(idx),
+            new File(String.format("Resource%d.java", idx))
+        );
+        for (final JavaFileScanner rule : rules) {
+            rule.scanFile(context);
+        }
+        if (context.issues().size() != 2) {
+            throw new IllegalStateException(
+                String.format("%s issues", context.issues())
+            );
+        }
+        return new WeakReference<>(context.getTree());
+    }
+
+    /**
+     * Heap used after collecting garbage.
+     * @return Bytes.
+     * @throws InterruptedException If interrupted while collecting.
+     */
+    private static long retained() throws InterruptedException {
+        final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        for (int idx = 0; idx < RetainedHeapTest.COLLECTIONS; ++idx) {
+            System.gc();
+            Thread.sleep(10L);
+            used = Math.min(used, memory.getHeapMemoryUsage().getUsed());
+        }
+        return used;
+    }
+
+    /**
+     * Resource with its own imports, one documented and one undocumented
+     * endpoint.
+     * @param idx Number of the resource.
+     * @return Source code.
+     */
+    private static String resource(final int idx) {
+        return String.join(
+            "\n",
+            String.format("package app.module%d;", idx),
+            "import javax.ws.rs.GET;",
+            "import javax.ws.rs.Path;",
+            String.format("import app.types%d.Path%d;", idx, idx),
+            "@Path(\"items\")",
+            String.format("public class Resource%d {", idx),
+            "  @GET",
+            "  @ApiOperation(\"Item\")",
+            "  public Response item() { return null; }",
+            "  @GET",
+            String.format("  public Response other%d() { return null; }", idx),
+            "}",
+            ""
+        );
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.assertj.core.api.Assertions;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class ScanCostTest {
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Scans should be recorded as JFR events when enabled.
+     * @throws Exception If it fails.
+     */
+    @Test
+    public void recordsEvents() throws Exception {
+        final Path file = this.folder.getRoot().toPath().resolve("scan.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(ScanEvent.NAME);
+            recording.start();
+            ScanCostTest.scan();
+            recording.stop();
+            recording.dump(file);
+        }
+        final List<RecordedEvent> events = RecordingFile.readAllEvents(file)
+            .stream()
+            .filter(
+                event -> ScanEvent.NAME.equals(event.getEventType().getName())
+            )
+            .collect(Collectors.toList());
+        Assertions.assertThat(events).hasSize(1);
+        final RecordedEvent event = events.get(0);
+        Assertions.assertThat(event.getString("file")).isEqualTo("Fake.java");
+        Assertions.assertThat(event.getString("rule"))
+            .isEqualTo("br.jus.tst.sonar.checks.EndpointDocumentationRule");
+        Assertions.assertThat(event.getInt("nodes")).isEqualTo(3);
+        Assertions.assertThat(event.getInt("issues")).isEqualTo(1);
+    }
+
+    /**
+     * Scans should add to the time of their rule.
+     */
+    @Test
+    public void sumsTimeOfRules() {
+        ScanCost.reset();
+        ScanCostTest.scan();
+        ScanCostTest.scan();
+        Assertions.assertThat(ScanCost.slowestRules(10)).hasSize(1)
+            .allMatch(rule -> rule.endsWith(" in 2 files"));
+        Assertions.assertThat(ScanCost.slowestScans()).hasSize(2)
+            .allMatch(
+                scan -> scan.startsWith(
+                    String.format(
+                        "Fake.java [%s]",
+                        EndpointDocumentationRule.class.getName()
+                    )
+                )
+            );
+    }
+
+    /**
+     * Scans a resource with an undocumented endpoint.
+     */
+    private static void scan() {
+        new EndpointDocumentationRule().scanFile(
+            new FakeContext(
+                String.join(
+                    "\n",
+                    "@Path(\"a\")",
+                    "class A {",
+                    "  @GET",
+                    "  void get() {}",
+                    "  @GET @ApiOperation(\"\")",
+                    "  void documented() {}",
+                    "}"
+                )
+            )
+        );
+    }
+
+}
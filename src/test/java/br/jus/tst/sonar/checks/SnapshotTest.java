@@ -0,0 +1,223 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package br.jus.tst.sonar.checks;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.assertj.core.api.Assertions;
+import org.junit.Test;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class SnapshotTest {
+
+    /**
+     * Replayed snapshots should raise the issues parsed files raise.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void replaysIssues() throws IOException {
+        final Map<String, List<String>> parsed = new LinkedHashMap<>();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        long size = 0L;
+        try (SnapshotWriter writer = new SnapshotWriter(bytes)) {
+            for (final Path file : SnapshotTest.fixtures()) {
+                final String source = new String(
+                    Files.readAllBytes(file), StandardCharsets.UTF_8
+                );
+                final FakeContext context = new FakeContext(source);
+                final String name = file.getFileName().toString();
+                parsed.put(name, SnapshotTest.scan(context));
+                writer.write(name, context.getTree());
+                size += source.length();
+            }
+        }
+        Assertions.assertThat(bytes.size()).isLessThan((int) size);
+        final Map<String, List<String>> replayed = new LinkedHashMap<>();
+        try (SnapshotReader reader = new SnapshotReader(
+            new ByteArrayInputStream(bytes.toByteArray())
+        )) {
+            for (Snapshot snapshot = reader.next(); snapshot != null;
+                snapshot = reader.next()) {
+                replayed.put(
+                    snapshot.file(),
+                    SnapshotTest.scan(new FakeContext(snapshot))
+                );
+            }
+        }
+        Assertions.assertThat(
+            parsed.values().stream().mapToInt(List::size).sum()
+        ).isGreaterThan(0);
+        Assertions.assertThat(replayed).isEqualTo(parsed);
+    }
+
+    /**
+     * Rebuilt trees should keep positions and parents.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void rebuildsDeclarations() throws IOException {
+        final FakeContext context = new FakeContext(
+            String.join(
+                "\n",
+                "package a.b;",
+                "import javax.ws.rs.GET;",
+                "@javax.ws.rs.Path(\"a\" + \"/b\")",
+                "public class A {",
+                "  @GET",
+                "  public void get(@PathParam(\"id\") final String id) {",
+                "  }",
+                "}"
+            )
+        );
+        final Snapshot snapshot = SnapshotTest.replay(context);
+        final ClassTree klass = (ClassTree) snapshot.unit().types().get(0);
+        final MethodTree method = (MethodTree) klass.members().get(0);
+        Assertions.assertThat(method.parent()).isSameAs(klass);
+        Assertions.assertThat(method.simpleName().name()).isEqualTo("get");
+        Assertions.assertThat(method.simpleName().identifierToken().column())
+            .isEqualTo(14);
+        Assertions.assertThat(method.lastToken().line()).isEqualTo(7);
+        Assertions.assertThat(
+            method.parameters().get(0).modifiers().annotations()
+        ).hasSize(1);
+        Assertions.assertThat(klass.openBraceToken().line()).isEqualTo(4);
+        Assertions.assertThat(snapshot.unit().eofToken().line()).isEqualTo(8);
+        Assertions.assertThat(snapshot.content().split("\n", -1))
+            .hasSize(8)
+            .contains("@javax.ws.rs.Path", "@GET");
+    }
+
+    /**
+     * Only files going past the prefilter should be captured.
+     * @throws IOException If it fails.
+     */
+    @Test
+    public void capturesWalkedFiles() throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final SnapshotWriter writer = new SnapshotWriter(bytes);
+        writer.activate();
+        try {
+            for (final String name
+                : new String[] {"CustomResource", "PlainClass"}) {
+                final File file = new File(
+                    String.format("src/test/files/%s.java", name)
+                );
+                final FakeContext context = new FakeContext(
+                    new String(
+                        Files.readAllBytes(file.toPath()),
+                        StandardCharsets.UTF_8
+                    ),
+                    file
+                );
+                for (final JavaFileScanner rule : SnapshotTest.rules()) {
+                    rule.scanFile(context);
+                }
+            }
+        } finally {
+            writer.close();
+        }
+        Assertions.assertThat(SnapshotWriter.active()).isNull();
+        Assertions.assertThat(writer.files()).isEqualTo(1);
+        try (SnapshotReader reader = new SnapshotReader(
+            new ByteArrayInputStream(bytes.toByteArray())
+        )) {
+            Assertions.assertThat(reader.next().file())
+                .isEqualTo("src/test/files/CustomResource.java");
+            Assertions.assertThat(reader.next()).isNull();
+        }
+    }
+
+    /**
+     * Writes the snapshot of a file and reads it back.
+     * @param context Parsed file.
+     * @return Snapshot.
+     * @throws IOException If it fails.
+     */
+    private static Snapshot replay(final FakeContext context)
+        throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (SnapshotWriter writer = new SnapshotWriter(bytes)) {
+            writer.write("A.java", context.getTree());
+        }
+        try (SnapshotReader reader = new SnapshotReader(
+            new ByteArrayInputStream(bytes.toByteArray())
+        )) {
+            return reader.next();
+        }
+    }
+
+    /**
+     * Runs the rules over a file.
+     * @param context File.
+     * @return Issues, as <code>line:message</code>.
+     */
+    private static List<String> scan(final FakeContext context) {
+        for (final JavaFileScanner rule : SnapshotTest.rules()) {
+            rule.scanFile(context);
+        }
+        Declarations.release();
+        return new ArrayList<>(context.issues());
+    }
+
+    /**
+     * New instances of the rules.
+     * @return Rules.
+     */
+    private static List<JavaFileScanner> rules() {
+        final List<JavaFileScanner> rules = new ArrayList<>(2);
+        rules.add(new ApiDocumentationRule());
+        rules.add(new EndpointDocumentationRule());
+        return rules;
+    }
+
+    /**
+     * Java files of the test fixtures.
+     * @return Files.
+     * @throws IOException If they can't be listed.
+     */
+    private static List<Path> fixtures() throws IOException {
+        try (Stream<Path> files = Files.walk(Paths.get("src/test/files"))) {
+            return files.filter(file -> file.toString().endsWith(".java"))
+                .sorted()
+                .collect(Collectors.toList());
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2018 Tribunal Superior do Trabalho.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package br.jus.tst.sonar.checks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import org.assertj.core.api.Assertions;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Unit tests.
+ * @since 1.1
+ */
+public final class TreeDumperTest {
+
+    /**
+     * Resource with a documented and an undocumented endpoint.
+     */
+    private static final String SOURCE = String.join(
+        "\n",
+        "@Path(\"a\")",
+        "@Api(\"a\")",
+        "class A {",
+        "  @GET",
+        "  @ApiOperation(\"b\")",
+        "  void documented() {}",
+        "  @GET",
+        "  void undocumented() {}",
+        "}"
+    );
+
+    /**
+     * Temporary folder.
+     */
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Stops dumping.
+     * @throws IOException If the dump can't be closed.
+     */
+    @After
+    public void deactivate() throws IOException {
+        final DumpFile dump = DumpFile.active();
+        if (dump != null) {
+            dump.deactivate();
+        }
+    }
+
+    /**
+     * Dumps should stop at the maximum depth and node budget.
+     * @throws IOException If the dump can't be written.
+     */
+    @Test
+    public void limitsDepthAndNodes() throws IOException {
+        final FakeContext context = new FakeContext(TreeDumperTest.SOURCE);
+        final StringWriter whole = new StringWriter();
+        new TreeDumper().dump(context.getTree(), whole);
+        Assertions.assertThat(whole.toString())
+            .startsWith("COMPILATION_UNIT 1:0\n  CLASS 1:0\n")
+            .doesNotContain("left out");
+        final StringWriter shallow = new StringWriter();
+        new TreeDumper(1, 100).dump(context.getTree(), shallow);
+        Assertions.assertThat(shallow.toString().split("\n"))
+            .startsWith("COMPILATION_UNIT 1:0", "  CLASS 1:0")
+            .allMatch(line -> !line.startsWith("    "));
+        final StringWriter small = new StringWriter();
+        new TreeDumper(100, 3).dump(context.getTree(), small);
+        final String[] lines = small.toString().split("\n");
+        Assertions.assertThat(lines).hasSize(4);
+        Assertions.assertThat(lines[3]).matches(
+            // @checkstyle LineLengthCheck (1 line)
+            "\\(left out: 0 subtrees below depth 100, \\d+ over the budget of 3 nodes\\)"
+        );
+    }
+
+    /**
+     * Only declarations with issues should be dumped.
+     * @throws IOException If the dump can't be read.
+     */
+    @Test
+    public void dumpsDeclarationsWithIssues() throws IOException {
+        final Path file = this.folder.getRoot().toPath().resolve("dump.log");
+        new DumpFile(file, new TreeDumper()).activate();
+        final FakeContext context = new FakeContext(
+            TreeDumperTest.SOURCE, new File("A.java")
+        );
+        new EndpointDocumentationRule().scanFile(context);
+        DumpFile.active().deactivate();
+        final String dump = new String(
+            Files.readAllBytes(file), StandardCharsets.UTF_8
+        );
+        Assertions.assertThat(dump)
+            .startsWith("# A.java [")
+            .contains("METHOD 7:2\n")
+            .doesNotContain("METHOD 4:2")
+            .doesNotContain("CLASS");
+    }
+
+    /**
+     * Full files should be renamed, keeping only the newest ones.
+     * @throws IOException If the dump can't be written.
+     */
+    @Test
+    public void rotatesFiles() throws IOException {
+        final Path file = this.folder.getRoot().toPath().resolve("dump.log");
+        final DumpFile dump = new DumpFile(file, new TreeDumper(), 1L, 2);
+        final FakeContext context = new FakeContext(TreeDumperTest.SOURCE);
+        for (int idx = 0; idx < 4; ++idx) {
+            dump.write(
+                String.format("F%d.java", idx), "rule",
+                Collections.singletonList(context.getTree())
+            );
+        }
+        dump.deactivate();
+        Assertions.assertThat(file).doesNotExist();
+        Assertions.assertThat(file.resolveSibling("dump.log.1")).exists();
+        Assertions.assertThat(
+            new String(
+                Files.readAllBytes(file.resolveSibling("dump.log.2")),
+                StandardCharsets.UTF_8
+            )
+        ).startsWith("# F2.java [rule]");
+        Assertions.assertThat(file.resolveSibling("dump.log.3"))
+            .doesNotExist();
+    }
+
+}